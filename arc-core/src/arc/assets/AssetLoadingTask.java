@@ -127,6 +127,23 @@ class AssetLoadingTask implements Callable<Void>{
         }
     }
 
+    /**
+     * Lets an {@link AsynchronousAssetLoader} release the state of this task after it was cancelled or failed. Waits for the
+     * asynchronous part if it is still running.
+     */
+    void unload(){
+        if(!(loader instanceof AsynchronousAssetLoader) || asset != null) return;
+        for(Future<Void> future : new Future[]{depsFuture, loadFuture}){
+            if(future == null) continue;
+            try{
+                future.get();
+            }catch(Exception ignored){
+                //the failure was already reported, only wait for the task to finish
+            }
+        }
+        ((AsynchronousAssetLoader)loader).unloadAsync(manager, assetDesc.fileName, resolve(loader, assetDesc), assetDesc.params);
+    }
+
     private Fi resolve(AssetLoader loader, AssetDescriptor assetDesc){
         if(assetDesc.file == null) assetDesc.file = loader.resolve(assetDesc.fileName);
         return assetDesc.file;
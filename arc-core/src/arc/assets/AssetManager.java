@@ -600,7 +600,10 @@ public class AssetManager implements Disposable{
             }
             tasks.pop();
 
-            if(task.cancel) return true;
+            if(task.cancel){
+                task.unload();
+                return true;
+            }
 
             addAsset(task.assetDesc.fileName, task.assetDesc.type, task.getAsset());
 
@@ -645,6 +648,7 @@ public class AssetManager implements Disposable{
         // pop the faulty task from the stack
         AssetLoadingTask task = tasks.pop();
         AssetDescriptor assetDesc = task.assetDesc;
+        task.unload();
 
         // remove all dependencies
         if(task.dependenciesLoaded && task.dependencies != null){
@@ -654,6 +658,9 @@ public class AssetManager implements Disposable{
         }
 
         // clear the rest of the stack
+        for(AssetLoadingTask other : tasks){
+            other.unload();
+        }
         tasks.clear();
 
         // inform the listener that something bad happened
@@ -28,4 +28,14 @@ public abstract class AsynchronousAssetLoader<T, P extends AssetLoaderParameters
      * @param file the resolved file to load
      */
     public abstract T loadSync(AssetManager manager, String fileName, Fi file, P parameter);
+
+    /**
+     * Called when the asset is unloaded or fails to load before {@link #loadSync} returned it. Loaders that keep state between
+     * {@link #loadAsync} and {@link #loadSync} should release it here. Never called while {@link #loadAsync} runs.
+     * This runs on the thread that unloads the asset or updates the manager, which need not be the rendering thread, so GL
+     * resources should be disposed with {@link arc.Application#post(Runnable)}.
+     * @param file the resolved file to load
+     */
+    public void unloadAsync(AssetManager manager, String fileName, Fi file, P parameter){
+    }
 }
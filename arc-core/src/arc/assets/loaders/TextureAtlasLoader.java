@@ -1,5 +1,6 @@
 package arc.assets.loaders;
 
+import arc.*;
 import arc.assets.*;
 import arc.assets.loaders.TextureLoader.*;
 import arc.files.*;
@@ -20,8 +21,12 @@ import java.util.concurrent.*;
  */
 public class TextureAtlasLoader extends AsynchronousAssetLoader<TextureAtlas, TextureAtlasLoader.TextureAtlasParameter>{
     TextureAtlasData data;
+    ExecutorService exec;
     ExecutorCompletionService<TextureLoader> pool;
-    int numTasks;
+    Seq<Future<TextureLoader>> decodes = new Seq<>();
+    ObjectMap<TextureLoader, AtlasPage> loaderPages = new ObjectMap<>();
+    int numTasks, uploaded, frames;
+    long awaitStart, block, sync;
 
     public TextureAtlasLoader(FileHandleResolver resolver){
         super(resolver);
@@ -30,58 +35,65 @@ public class TextureAtlasLoader extends AsynchronousAssetLoader<TextureAtlas, Te
     @Override
     public void loadAsync(AssetManager manager, String fileName, Fi atlasFile, TextureAtlasParameter parameter){
         Fi imgDir = atlasFile.parent();
-        data = new TextureAtlasData(atlasFile, imgDir, parameter != null && parameter.flip);
-
-        ExecutorService exec = null; // Used so we can shut it down in this method
         Seq<AssetDescriptor> dependencies = new Seq<>();
-        numTasks = 0;
-        for(AtlasPage page : data.getPages()){
-            String pageFileName = page.textureFile.path().replaceAll("\\\\", "/");
-            if(!manager.isLoaded(pageFileName)){
-                TextureParameter params = new TextureParameter();
-                params.genMipMaps = page.useMipMaps;
-                params.minFilter = page.minFilter;
-                params.magFilter = page.magFilter;
-                if(manager.getLoader(Texture.class, pageFileName).getClass() == TextureLoader.class){ // We cannot trust whatever subclass a mod may use, we should fall back to vanilla behavior
-                    if(pool == null) pool = new ExecutorCompletionService<>(exec = Threads.executor("Texture Atlas Loader"));
-                    // A single TextureLoader instance cannot be used by multiple threads at once, create a new one for every page to be safe
-                    TextureLoader pageLoader = new TextureLoader(manager.getFileHandleResolver());
-                    numTasks++;
-                    pool.submit(() -> pageLoader.loadAsync(manager, pageFileName, page.textureFile, params), pageLoader);
-                }else{ // Add dependencies so that vanilla behavior is used instead
-                    dependencies.add(new AssetDescriptor(page.textureFile, Texture.class, params));
+        reset(true); // In case a previous load was abandoned without unloadAsync
+        try{
+            // Page images are submitted as soon as their header is read, so they decode while the regions after them are parsed
+            data = new TextureAtlasData(atlasFile, imgDir, parameter != null && parameter.flip, page -> {
+                String pageFileName = page.textureFile.path().replaceAll("\\\\", "/");
+                if(!manager.isLoaded(pageFileName)){
+                    TextureParameter params = pageParameter(page);
+                    if(manager.getLoader(Texture.class, pageFileName).getClass() == TextureLoader.class){ // We cannot trust whatever subclass a mod may use, we should fall back to vanilla behavior
+                        if(pool == null) pool = new ExecutorCompletionService<>(exec = Threads.executor("Texture Atlas Loader"));
+                        // A single TextureLoader instance cannot be used by multiple threads at once, create a new one for every page to be safe
+                        TextureLoader pageLoader = new TextureLoader(manager.getFileHandleResolver());
+                        loaderPages.put(pageLoader, page);
+                        numTasks++;
+                        decodes.add(pool.submit(() -> pageLoader.loadAsync(manager, pageFileName, page.textureFile, params), pageLoader));
+                    }else{ // Add dependencies so that vanilla behavior is used instead
+                        dependencies.add(new AssetDescriptor(page.textureFile, Texture.class, params));
+                    }
                 }
+            });
+        }finally{
+            if(exec != null){
+                exec.shutdown(); // shut down the executor but do not wait for it
+                exec = null;
             }
         }
         if(dependencies.any()) Reflect.invoke(manager, "injectDependencies", new Object[]{fileName, dependencies}, String.class, Seq.class); // Emulate vanilla behavior of getDependencies.
-        if(exec != null) exec.shutdown(); // shut down the executor but do not wait for it
     }
 
     @Override
     public TextureAtlas loadSync(AssetManager manager, String fileName, Fi atlasFile, TextureAtlasParameter parameter){
         if(pool != null){
-            long await = Time.nanos(), block = 0, sync = 0, delayed = 0;
-            try {
-                for(int i = 0; i < numTasks; i++){ // Funnily enough, the longest part of the atlas loading process is just waiting for the first page to finish loadAsync
+            if(awaitStart == 0) awaitStart = Time.nanos();
+            frames++;
+            int budget = parameter == null || parameter.pageUploadsPerFrame <= 0 ? Integer.MAX_VALUE : parameter.pageUploadsPerFrame;
+            boolean staged = budget != Integer.MAX_VALUE;
+            try{
+                for(; uploaded < numTasks && budget > 0; uploaded++, budget--){ // Funnily enough, the longest part of the atlas loading process is just waiting for the first page to finish loadAsync
                     long s = Time.nanos();
-                    TextureLoader pageLoader = pool.take().get();
+                    Future<TextureLoader> next = staged ? pool.poll() : pool.take();
+                    if(next == null) break; // No page has finished decoding yet, try again next frame instead of stalling this one
+                    TextureLoader pageLoader = next.get();
                     block += Time.timeSinceNanos(s);
-                    AtlasPage page = data.getPages().find(p -> p.textureFile.path().replaceAll("\\\\", "/").equals(pageLoader.info.filename));
-                    TextureParameter params = new TextureParameter();
-                    params.genMipMaps = page.useMipMaps;
-                    params.minFilter = page.minFilter;
-                    params.magFilter = page.magFilter;
+                    AtlasPage page = loaderPages.get(pageLoader);
                     // Run the sync portion
                     s = Time.nanos();
-                    page.texture = pageLoader.loadSync(manager, pageLoader.info.filename, page.textureFile, params);
-                    delayed = Time.timeSinceNanos(s);
-                    sync += delayed;
+                    page.texture = pageLoader.loadSync(manager, pageLoader.info.filename, page.textureFile, pageParameter(page));
+                    sync += Time.timeSinceNanos(s);
                 }
             }catch(InterruptedException | ExecutionException e){
+                reset(true);
                 throw new ArcRuntimeException(e);
+            }catch(RuntimeException e){
+                reset(true);
+                throw e;
             }
-            pool = null;
-            Log.debug("Awaited atlas pool for: @ms total | @ms block | @ms sync | @ms delayed", Time.millisSinceNanos(await), block/(float)Time.nanosPerMilli, sync/(float)Time.nanosPerMilli, delayed/(float)Time.nanosPerMilli);
+            if(uploaded < numTasks) return null; // The remaining pages are uploaded on the following frames
+
+            Log.debug("Awaited atlas pool for: @ms total | @ms block | @ms sync | @ frames", Time.millisSinceNanos(awaitStart), block/(float)Time.nanosPerMilli, sync/(float)Time.nanosPerMilli, frames);
         }
 
         // If a mod has caused the vanilla behavior fallback, the page textures won't have been set by the block above
@@ -91,10 +103,55 @@ public class TextureAtlasLoader extends AsynchronousAssetLoader<TextureAtlas, Te
         }
 
         TextureAtlas atlas = new TextureAtlas(data);
-        data = null;
+        reset(false);
         return atlas;
     }
 
+    @Override
+    public void unloadAsync(AssetManager manager, String fileName, Fi file, TextureAtlasParameter parameter){
+        reset(true);
+    }
+
+    /**
+     * Clears the state of the current load, so that the next one starts fresh.
+     * @param abandoned whether the load failed or was cancelled. Waits for pending page decodes, then disposes the decoded pixels
+     * and the textures that were already uploaded. Textures are disposed through {@link arc.Application#post(Runnable)}.
+     */
+    void reset(boolean abandoned){
+        if(abandoned){
+            for(Future<TextureLoader> decode : decodes){
+                try{
+                    TextureLoader pageLoader = decode.get();
+                    AtlasPage page = loaderPages.get(pageLoader);
+                    TextureData pixels = pageLoader.info.data;
+                    if(page.texture != null){
+                        // This may run off the rendering thread, e.g. when loadAsync starts or the atlas is unloaded
+                        Core.app.post(page.texture::dispose);
+                        page.texture = null;
+                    }else if(pixels != null && pixels.isPrepared() && pixels.disposePixmap()){
+                        pixels.consumePixmap().dispose();
+                    }
+                }catch(InterruptedException | ExecutionException ignored){
+                    // The page failed to decode, so there is nothing to dispose
+                }
+            }
+        }
+        decodes.clear();
+        loaderPages.clear();
+        data = null;
+        pool = null;
+        numTasks = uploaded = frames = 0;
+        awaitStart = block = sync = 0;
+    }
+
+    static TextureParameter pageParameter(AtlasPage page){
+        TextureParameter params = new TextureParameter();
+        params.genMipMaps = page.useMipMaps;
+        params.minFilter = page.minFilter;
+        params.magFilter = page.magFilter;
+        return params;
+    }
+
     @Override
     public Seq<AssetDescriptor> getDependencies(String fileName, Fi atlasFile, TextureAtlasParameter parameter){
         return null; // We will inject the dependencies if they're needed later
@@ -103,6 +160,11 @@ public class TextureAtlasLoader extends AsynchronousAssetLoader<TextureAtlas, Te
     public static class TextureAtlasParameter extends AssetLoaderParameters<TextureAtlas>{
         /** whether to flip the texture atlas vertically **/
         public boolean flip = false;
+        /**
+         * Maximum number of pages to upload to the GPU per {@link AssetManager#update()}, or 0 for no limit. When limited, pages are
+         * uploaded as they finish decoding and loading never blocks a frame waiting on a decode.
+         */
+        public int pageUploadsPerFrame = 0;
 
         public TextureAtlasParameter(){
         }
@@ -183,28 +183,9 @@ public class Pixmap implements Disposable{
 
     /** @return a newly allocated pixmap with the specified outline. */
     public Pixmap outline(int color, int radius){
-        Pixmap pixmap = copy();
-
         //TODO this messes with antialiasing?
-        for(int y = 0; y < height; y++){
-            for(int x = 0; x < width; x++){
-                if(getA(x, y) == 0){
-                    boolean found = false;
-                    outer:
-                    for(int dx = -radius; dx <= radius; dx++){
-                        for(int dy = -radius; dy <= radius; dy++){
-                            if((dx*dx + dy*dy <= radius*radius) && !empty(get(x + dx, y + dy))){
-                                found = true;
-                                break outer;
-                            }
-                        }
-                    }
-                    if(found){
-                        pixmap.setRaw(x, y, color);
-                    }
-                }
-            }
-        }
+        Pixmap pixmap = new Pixmap(width, height);
+        Pixmaps.outline(this, 0, 0, width, height, pixmap, color, radius, 1);
         return pixmap;
     }
 
@@ -475,9 +456,11 @@ public class Pixmap implements Disposable{
                     }
                 }
             }
+        }else if(filtering && this.pixels != pixmap.pixels){
+            Pixmaps.drawBilinear(pixmap, srcx, srcy, srcWidth, srcHeight, this, dstx, dsty, dstWidth, dstHeight, blending);
         }else{
             if(filtering){
-                //blit with bilinear filtering
+                //blit with bilinear filtering, per pixel when scaling a pixmap onto itself so that the result does not depend on the processing order
                 float x_ratio = ((float)srcWidth - 1) / dstWidth;
                 float y_ratio = ((float)srcHeight - 1) / dstHeight;
                 int rX = Math.max(Mathf.round(x_ratio), 1), rY = Math.max(Mathf.round(y_ratio), 1);
@@ -695,6 +678,17 @@ public class Pixmap implements Disposable{
         return Gl.unsignedByte;
     }
 
+    /**
+     * @return a new view of the pixel data with one RGBA8888 int per pixel, for bulk row access. Views have their own position,
+     * so each thread should use its own.
+     */
+    public IntBuffer intPixels(){
+        if(state.handle == 0) throw new ArcRuntimeException("Pixmap already disposed");
+        ByteBuffer buffer = pixels.duplicate();
+        buffer.clear();
+        return buffer.order(pixels.order()).asIntBuffer();
+    }
+
     /** @return the direct {@link ByteBuffer} holding the pixel data. */
     public ByteBuffer getPixels(){
         if(state.handle == 0) throw new ArcRuntimeException("Pixmap already disposed");
@@ -1,12 +1,18 @@
 package arc.graphics;
 
+import arc.Files.*;
 import arc.files.*;
+import arc.func.*;
+import arc.struct.*;
 import arc.util.*;
 import arc.util.io.*;
 
 import java.io.*;
 import java.nio.*;
 import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.*;
 
 /**
@@ -16,48 +22,281 @@ import java.util.zip.*;
  */
 public class PixmapIO{
 
+    /** Current version of the APIX header. */
+    public static final int apixVersion = 1;
+    private static final int apixMagic = 0x41504958; //"APIX"
+    private static final int apixHeaderSize = 16;
+    /** Uncompressed size of each block in {@link ApixMode#blocks} files. */
+    private static final int apixBlockSize = 1 << 18;
+
     /**
      * Arc PIXmap: Similar to to the libGDX CIM format. Writes deflation-compressed pixmap RGBA data to a file.
      * Faster and smaller than RGBA PNG.
      * */
-    public static void writeApix(Fi file, Pixmap pixmap) {
-        try(DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(file.write(false))); WritableByteChannel channel = Channels.newChannel(out)){
+    public static void writeApix(Fi file, Pixmap pixmap){
+        writeApix(file, pixmap, ApixMode.deflate);
+    }
+
+    /**
+     * Writes pixmap RGBA data to a file, after a versioned header. See {@link ApixMode} for the tradeoffs between the storage modes.
+     * <br>
+     * The header is 16 bytes: the "APIX" magic, the version byte, the mode byte, two reserved bytes, then the width and height.
+     */
+    public static void writeApix(Fi file, Pixmap pixmap, ApixMode mode){
+        try(DataOutputStream out = new DataOutputStream(file.write(false, Streams.defaultBufferSize))){
+            out.writeInt(apixMagic);
+            out.writeByte(apixVersion);
+            out.writeByte(mode.ordinal());
+            out.writeShort(0);
             out.writeInt(pixmap.width);
             out.writeInt(pixmap.height);
 
-            ByteBuffer buf = pixmap.pixels;
-            buf.position(0);
-            buf.limit(buf.capacity());
-            channel.write(buf);
+            ByteBuffer pixels = pixmap.pixels.duplicate();
+            pixels.clear();
+            pixels.limit(pixmap.width * pixmap.height * 4);
+
+            switch(mode){
+                case deflate:{
+                    Deflater deflater = new Deflater();
+                    try{
+                        DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater, Streams.defaultBufferSize);
+                        Channels.newChannel(deflaterOut).write(pixels);
+                        deflaterOut.finish();
+                    }finally{
+                        deflater.end();
+                    }
+                    break;
+                }
+                case raw:
+                    Channels.newChannel(out).write(pixels);
+                    break;
+                case blocks:
+                    writeApixBlocks(out, pixmap, pixels);
+                    break;
+            }
         }catch(Exception e){
             throw new ArcRuntimeException("Couldn't write Pixmap to file '" + file + "'", e);
         }
     }
 
-    /** Reads deflation-compressed pixmap RGBA data from a file. */
-    public static Pixmap readApix(Fi file) {
-        try(DataInputStream in = new DataInputStream(new InflaterInputStream(new BufferedInputStream(file.read()))); ReadableByteChannel channel = Channels.newChannel(in)){
-            Pixmap pixmap = new Pixmap(in.readInt(), in.readInt());
-
-            ByteBuffer pixelBuf = pixmap.pixels;
-            pixelBuf.position(0);
-            pixelBuf.limit(pixelBuf.capacity());
-            channel.read(pixelBuf);
-            pixelBuf.position(0);
-            pixelBuf.limit(pixelBuf.capacity());
-            return pixmap;
+    /** Block count, block sizes, then the blocks, compressed in parallel. Blocks that do not compress are stored with a negative size. */
+    private static void writeApixBlocks(DataOutputStream out, Pixmap pixmap, ByteBuffer pixels) throws IOException{
+        int total = pixels.remaining(), count = (total + apixBlockSize - 1) / apixBlockSize;
+        byte[][] blocks = new byte[count][];
+        int[] sizes = new int[count];
+
+        blockRanges(count, (from, to) -> {
+            ByteBuffer source = pixels.duplicate();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            byte[] input = new byte[apixBlockSize], output = new byte[apixBlockSize];
+            try{
+                for(int i = from; i < to; i++){
+                    int length = Math.min(apixBlockSize, total - i * apixBlockSize);
+                    source.position(i * apixBlockSize);
+                    source.get(input, 0, length);
+
+                    deflater.reset();
+                    deflater.setInput(input, 0, length);
+                    deflater.finish();
+                    int compressed = deflater.deflate(output, 0, length);
+
+                    if(deflater.finished() && compressed < length){
+                        blocks[i] = Arrays.copyOf(output, compressed);
+                        sizes[i] = compressed;
+                    }else{
+                        blocks[i] = Arrays.copyOf(input, length);
+                        sizes[i] = -length;
+                    }
+                }
+            }finally{
+                deflater.end();
+            }
+        });
+
+        out.writeInt(count);
+        for(int size : sizes){
+            out.writeInt(size);
+        }
+        for(byte[] block : blocks){
+            out.write(block);
+        }
+    }
+
+    /** Reads pixmap data written by {@link #writeApix}, in any mode, as well as files written before the header existed. */
+    public static Pixmap readApix(Fi file){
+        return readApix(file, false);
+    }
+
+    /**
+     * Reads pixmap data written by {@link #writeApix}, in any mode, as well as files written before the header existed.
+     * @param readOnly if true, {@link ApixMode#raw} files on disk are not copied: the pixmap uses a read-only mapping of the file,
+     * and anything that writes to its pixels throws a {@link ReadOnlyBufferException}. Other files are read as usual.
+     */
+    public static Pixmap readApix(Fi file, boolean readOnly){
+        try{
+            if(file.type() != FileType.classpath && file.file().isFile()){
+                Pixmap mapped = mapApix(file.file(), readOnly);
+                if(mapped != null) return mapped;
+            }
+
+            try(DataInputStream in = new DataInputStream(new BufferedInputStream(file.read(), Streams.defaultBufferSize))){
+                in.mark(4);
+                if(in.readInt() != apixMagic){
+                    //files without a header are a single deflate stream
+                    in.reset();
+                    DataInputStream inflated = new DataInputStream(new InflaterInputStream(in));
+                    return readApixStream(inflated, inflated.readInt(), inflated.readInt());
+                }
+
+                int version = in.readUnsignedByte(), mode = in.readUnsignedByte();
+                in.readShort();
+                int width = in.readInt(), height = in.readInt();
+                if(version > apixVersion) throw new IOException("Unsupported APIX version: " + version);
+                if(mode >= ApixMode.all.length) throw new IOException("Unknown APIX mode: " + mode);
+
+                switch(ApixMode.all[mode]){
+                    case deflate: return readApixStream(new DataInputStream(new InflaterInputStream(in)), width, height);
+                    case raw: return readApixStream(in, width, height);
+                    default: return readApixBlocks(in, width, height);
+                }
+            }
         }catch(Exception e){
             throw new ArcRuntimeException("Couldn't read Pixmap from file '" + file + "'", e);
         }
     }
 
+    /**
+     * @return a pixmap with the pixels of a raw APIX file, or null if it is not a raw APIX file.
+     * @param readOnly whether the pixmap can use a read-only mapping of the file, instead of a copy read through the channel.
+     */
+    private static @Nullable Pixmap mapApix(File file, boolean readOnly) throws IOException{
+        try(RandomAccessFile access = new RandomAccessFile(file, "r"); FileChannel channel = access.getChannel()){
+            ByteBuffer header = ByteBuffer.allocate(apixHeaderSize);
+            while(header.hasRemaining() && channel.read(header) != -1);
+            header.flip();
+            if(header.remaining() < apixHeaderSize || header.getInt(0) != apixMagic || header.get(5) != ApixMode.raw.ordinal()) return null;
+
+            int width = header.getInt(8), height = header.getInt(12);
+            long length = (long)width * height * 4;
+            if(channel.size() < apixHeaderSize + length) throw new IOException("Truncated APIX file: expected " + length + " bytes of pixel data");
+            if(readOnly) return new Pixmap(channel.map(MapMode.READ_ONLY, apixHeaderSize, length), width, height);
+
+            //a mapping would keep the file locked on Windows until it is garbage collected, so copies are read directly
+            Pixmap pixmap = new Pixmap(width, height);
+            ByteBuffer pixels = pixmap.pixels;
+            pixels.position(0);
+            try{
+                for(long position = apixHeaderSize; pixels.hasRemaining(); ){
+                    int read = channel.read(pixels, position);
+                    if(read == -1) throw new EOFException("Truncated APIX file: expected " + length + " bytes of pixel data");
+                    position += read;
+                }
+            }catch(IOException e){
+                pixmap.dispose();
+                throw e;
+            }
+            pixels.position(0);
+            return pixmap;
+        }
+    }
+
+    /**
+     * Runs the task over the blocks [0, count), split into one contiguous range per core. The last range runs on the calling thread.
+     * @param range receives the first (inclusive) and last (exclusive) block of each range.
+     */
+    private static void blockRanges(int count, Intc2 range){
+        int tasks = Math.min(OS.cores, count);
+        if(tasks <= 1){
+            range.get(0, count);
+            return;
+        }
+
+        Seq<Future<?>> futures = new Seq<>(tasks - 1);
+        for(int i = 0; i < tasks - 1; i++){
+            int from = count * i / tasks, to = count * (i + 1) / tasks;
+            futures.add(Threads.parallelExecutor().submit(() -> range.get(from, to)));
+        }
+        range.get(count * (tasks - 1) / tasks, count);
+        Threads.awaitAll(futures);
+    }
+
+    private static Pixmap readApixStream(DataInputStream in, int width, int height) throws IOException{
+        Pixmap pixmap = new Pixmap(width, height);
+        ByteBuffer pixels = pixmap.pixels;
+        pixels.position(0);
+        pixels.limit(pixels.capacity());
+        ReadableByteChannel channel = Channels.newChannel(in);
+        while(pixels.hasRemaining() && channel.read(pixels) != -1);
+        pixels.position(0);
+        pixels.limit(pixels.capacity());
+        return pixmap;
+    }
+
+    private static Pixmap readApixBlocks(DataInputStream in, int width, int height) throws IOException{
+        int count = in.readInt(), total = width * height * 4;
+        if(count != (total + apixBlockSize - 1) / apixBlockSize) throw new IOException("Invalid APIX block count: " + count);
+
+        int[] sizes = new int[count], offsets = new int[count + 1];
+        for(int i = 0; i < count; i++){
+            sizes[i] = in.readInt();
+            offsets[i + 1] = offsets[i] + Math.abs(sizes[i]);
+        }
+        byte[] data = new byte[offsets[count]];
+        in.readFully(data);
+
+        Pixmap pixmap = new Pixmap(width, height);
+        blockRanges(count, (from, to) -> {
+            ByteBuffer pixels = pixmap.pixels.duplicate();
+            Inflater inflater = new Inflater(true);
+            byte[] output = new byte[apixBlockSize];
+            try{
+                for(int i = from; i < to; i++){
+                    int length = Math.min(apixBlockSize, total - i * apixBlockSize);
+                    pixels.position(i * apixBlockSize);
+                    if(sizes[i] < 0){
+                        pixels.put(data, offsets[i], length);
+                        continue;
+                    }
+
+                    inflater.reset();
+                    inflater.setInput(data, offsets[i], sizes[i]);
+                    int read = 0;
+                    while(read < length){
+                        int n = inflater.inflate(output, read, length - read);
+                        if(n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                        read += n;
+                    }
+                    if(read != length) throw new ArcRuntimeException("Corrupt APIX block " + i);
+                    pixels.put(output, 0, length);
+                }
+            }catch(DataFormatException e){
+                throw new ArcRuntimeException("Corrupt APIX block", e);
+            }finally{
+                inflater.end();
+            }
+        });
+        return pixmap;
+    }
+
+    /** Storage modes of APIX files. */
+    public enum ApixMode{
+        /** The pixels as a single deflate stream. Smallest files, but decoding is single-threaded. */
+        deflate,
+        /** Uncompressed pixels. Largest files, but files on disk are read through a memory mapping, see {@link PixmapIO#readApix(Fi, boolean)}. */
+        raw,
+        /** The pixels split into 256 KB blocks that are compressed at the fastest level and decompressed in parallel. */
+        blocks;
+
+        public static final ApixMode[] all = values();
+    }
+
     /**
      * Writes the pixmap as a PNG with compression. See {@link PngWriter} to configure the compression level, more efficiently flip the
      * pixmap vertically, and to write out multiple PNGs with minimal allocation.
      */
     public static void writePng(Fi file, Pixmap pixmap){
         try{
-            PngWriter writer = new PngWriter((int)(pixmap.width * pixmap.height * 1.5f)); // Guess at deflated size.
+            PngWriter writer = new PngWriter();
             try{
                 writer.setFlipY(false);
                 writer.write(file, pixmap);
@@ -82,6 +321,10 @@ public class PixmapIO{
 
     /**
      * PNG encoder with compression. An instance can be reused to encode multiple PNGs with minimal allocation.
+     * <br>
+     * Each scanline uses the PNG filter that is expected to compress best, and the image data is written as a series of IDAT chunks
+     * as it is compressed, so the compressed image is never held in memory as a whole. Large images are split into row chunks that
+     * are filtered and deflated in parallel, then concatenated into a single zlib stream.
      * @author Matthias Mann
      * @author Nathan Sweet
      */
@@ -90,19 +333,29 @@ public class PixmapIO{
         private static final int IHDR = 0x49484452, IDAT = 0x49444154, IEND = 0x49454E44;
         private static final byte COLOR_ARGB = 6;
         private static final byte COMPRESSION_DEFLATE = 0;
-        private static final byte FILTER_NONE = 0;
+        private static final byte FILTER_NONE = 0, FILTER_SUB = 1, FILTER_UP = 2, FILTER_AVERAGE = 3, FILTER_PAETH = 4;
         private static final byte INTERLACE_NONE = 0;
+        /** Maximum size of written IDAT chunks. */
+        private static final int IDAT_SIZE = 1 << 16;
+        /** Bytes of preceding data that each parallel chunk uses as its deflate dictionary; the maximum deflate distance. */
+        private static final int DICTIONARY_SIZE = 1 << 15;
 
         private final ChunkBuffer buffer;
         private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] idat = new byte[IDAT_SIZE];
         private boolean flipY = true;
+        private boolean adaptiveFilter = true;
+        private int parallelChunkSize = OS.cores > 1 ? 1 << 18 : 0;
+        private int level = Deflater.DEFAULT_COMPRESSION;
 
         public PngWriter(){
             this(128 * 128);
         }
 
+        /** @param initialBufferSize the initial size of the buffer for header chunks. Image data is streamed, so this can be small. */
         public PngWriter(int initialBufferSize){
-            buffer = new ChunkBuffer(initialBufferSize);
+            buffer = new ChunkBuffer(Math.min(initialBufferSize, 1024));
             deflater = new Deflater();
         }
 
@@ -113,9 +366,27 @@ public class PixmapIO{
 
         /** Sets the deflate compression level. Default is {@link Deflater#DEFAULT_COMPRESSION}. */
         public void setCompression(int level){
+            this.level = level;
             deflater.setLevel(level);
         }
 
+        /**
+         * If true, each scanline is written with the filter whose output has the smallest sum of absolute values, which usually
+         * compresses much better. If false, no filtering is done. Default is true.
+         */
+        public void setAdaptiveFilter(boolean adaptiveFilter){
+            this.adaptiveFilter = adaptiveFilter;
+        }
+
+        /**
+         * Sets the amount of uncompressed image data deflated by each thread, or 0 to always deflate on the calling thread.
+         * Smaller chunks use more threads on small images, but compress slightly worse. Default is 256 KB, or 0 on single-core
+         * systems.
+         */
+        public void setParallelChunkSize(int bytes){
+            this.parallelChunkSize = bytes;
+        }
+
         public void write(Fi file, Pixmap pixmap) throws IOException{
             OutputStream output = file.write(false);
             try{
@@ -127,7 +398,6 @@ public class PixmapIO{
 
         /** Writes the pixmap to the stream without closing the stream. */
         public void write(OutputStream output, Pixmap pixmap) throws IOException{
-            DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(buffer, deflater);
             DataOutputStream dataOutput = new DataOutputStream(output);
             dataOutput.write(SIGNATURE);
 
@@ -141,25 +411,13 @@ public class PixmapIO{
             buffer.writeByte(INTERLACE_NONE);
             buffer.endChunk(dataOutput);
 
-            buffer.writeInt(IDAT);
-            deflater.reset();
-
             int lineLen = pixmap.width * 4;
-            //1 extra byte for filter 0
-            byte[] curLine = new byte[lineLen + 1];
-
-            ByteBuffer pixels = pixmap.pixels;
-            int oldPosition = pixels.position();
-            for(int y = 0, h = pixmap.height; y < h; y++){
-                int py = flipY ? (h - y - 1) : y;
-                pixels.position(py * lineLen);
-                pixels.get(curLine, 1, lineLen);
-
-                deflaterOutput.write(curLine, 0, lineLen + 1);
+            int rowsPerChunk = parallelChunkSize <= 0 ? Integer.MAX_VALUE : Math.max(parallelChunkSize / (lineLen + 1), 1);
+            if(pixmap.height > rowsPerChunk){
+                writeParallel(dataOutput, pixmap, rowsPerChunk);
+            }else{
+                writeSerial(dataOutput, pixmap);
             }
-            pixels.position(oldPosition);
-            deflaterOutput.finish();
-            buffer.endChunk(dataOutput);
 
             buffer.writeInt(IEND);
             buffer.endChunk(dataOutput);
@@ -167,11 +425,235 @@ public class PixmapIO{
             output.flush();
         }
 
+        private void writeSerial(DataOutputStream output, Pixmap pixmap) throws IOException{
+            int lineLen = pixmap.width * 4, height = pixmap.height;
+            byte[] prevLine = new byte[lineLen], curLine = new byte[lineLen], filtered = new byte[lineLen + 1];
+            ByteBuffer pixels = pixmap.pixels.duplicate();
+            int written = 0;
+
+            deflater.reset();
+            for(int y = 0; y < height; y++){
+                pixels.position((flipY ? (height - y - 1) : y) * lineLen);
+                pixels.get(curLine, 0, lineLen);
+                filter(curLine, y == 0 ? null : prevLine, lineLen, adaptiveFilter, filtered, 0);
+
+                deflater.setInput(filtered, 0, lineLen + 1);
+                while(!deflater.needsInput()){
+                    written = deflate(output, written);
+                }
+
+                byte[] temp = prevLine;
+                prevLine = curLine;
+                curLine = temp;
+            }
+
+            deflater.finish();
+            while(!deflater.finished()){
+                written = deflate(output, written);
+            }
+            if(written > 0) writeChunk(output, IDAT, idat, written);
+        }
+
+        /** Deflates into the IDAT buffer, writing it out as a chunk once it is full. */
+        private int deflate(DataOutputStream output, int written) throws IOException{
+            written += deflater.deflate(idat, written, idat.length - written);
+            if(written == idat.length){
+                writeChunk(output, IDAT, idat, written);
+                written = 0;
+            }
+            return written;
+        }
+
+        /**
+         * Each chunk of rows is filtered and deflated as a raw deflate stream on its own thread, using the data before it as the
+         * dictionary. All chunks but the last end with a sync flush, so that they can be concatenated between a zlib header and the
+         * combined Adler-32 checksum. Only a limited number of chunks is in flight at once, and each is written out as soon as
+         * it and all chunks before it are done.
+         */
+        private void writeParallel(DataOutputStream output, Pixmap pixmap, int rowsPerChunk) throws IOException{
+            int height = pixmap.height, chunks = (height + rowsPerChunk - 1) / rowsPerChunk, window = OS.cores * 2;
+            ExecutorService executor = Threads.parallelExecutor();
+            Seq<Future<DeflatedChunk>> pending = new Seq<>(window);
+            int submitted = 0;
+
+            //zlib header; the compression level is only informative
+            int levelFlag = level == Deflater.DEFAULT_COMPRESSION ? 2 : level <= 1 ? 0 : level <= 5 ? 1 : level == 6 ? 2 : 3;
+            int header = (0x78 << 8) | (levelFlag << 6);
+            header += 31 - header % 31;
+            writeChunk(output, IDAT, new byte[]{(byte)(header >>> 8), (byte)header}, 2);
+
+            int adler = 1;
+            try{
+                for(int i = 0; i < chunks; i++){
+                    while(submitted < chunks && submitted < i + window){
+                        int index = submitted++;
+                        int from = index * rowsPerChunk, to = Math.min(from + rowsPerChunk, height);
+                        pending.add(executor.submit(() -> deflateChunk(pixmap, from, to, to == height)));
+                    }
+
+                    DeflatedChunk chunk = pending.remove(0).get();
+                    adler = combineAdler(adler, chunk.adler, chunk.rawLength);
+                    for(int offset = 0; offset < chunk.length; offset += IDAT_SIZE){
+                        writeChunk(output, IDAT, chunk.data, offset, Math.min(IDAT_SIZE, chunk.length - offset));
+                    }
+                }
+            }catch(InterruptedException | ExecutionException e){
+                for(Future<DeflatedChunk> future : pending){
+                    future.cancel(true);
+                }
+                throw new IOException("Error deflating PNG data", e instanceof ExecutionException ? e.getCause() : e);
+            }
+
+            byte[] trailer = {(byte)(adler >>> 24), (byte)(adler >>> 16), (byte)(adler >>> 8), (byte)adler};
+            writeChunk(output, IDAT, trailer, trailer.length);
+        }
+
+        private DeflatedChunk deflateChunk(Pixmap pixmap, int from, int to, boolean last){
+            int lineLen = pixmap.width * 4, stride = lineLen + 1, height = pixmap.height;
+            //rows before the chunk are filtered again, as they make up the dictionary
+            int dictionaryRows = Math.min(from, (DICTIONARY_SIZE + stride - 1) / stride);
+            int first = from - dictionaryRows, dataOffset = dictionaryRows * stride, rawLength = (to - from) * stride;
+
+            byte[] filtered = new byte[(to - first) * stride];
+            byte[] prevLine = new byte[lineLen], curLine = new byte[lineLen];
+            ByteBuffer pixels = pixmap.pixels.duplicate();
+            if(first > 0){
+                pixels.position((flipY ? (height - first) : first - 1) * lineLen);
+                pixels.get(prevLine, 0, lineLen);
+            }
+            for(int y = first; y < to; y++){
+                pixels.position((flipY ? (height - y - 1) : y) * lineLen);
+                pixels.get(curLine, 0, lineLen);
+                filter(curLine, y == 0 ? null : prevLine, lineLen, adaptiveFilter, filtered, (y - first) * stride);
+
+                byte[] temp = prevLine;
+                prevLine = curLine;
+                curLine = temp;
+            }
+
+            Adler32 adler = new Adler32();
+            adler.update(filtered, dataOffset, rawLength);
+
+            Deflater deflater = new Deflater(level, true);
+            try{
+                if(dataOffset > 0){
+                    int length = Math.min(dataOffset, DICTIONARY_SIZE);
+                    deflater.setDictionary(filtered, dataOffset - length, length);
+                }
+                deflater.setInput(filtered, dataOffset, rawLength);
+                if(last) deflater.finish();
+
+                byte[] out = new byte[rawLength / 2 + 64];
+                int length = 0;
+                while(true){
+                    if(length == out.length) out = Arrays.copyOf(out, out.length * 2);
+                    length += deflater.deflate(out, length, out.length - length, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                    //a flush is complete once it leaves space in the output
+                    if(last ? deflater.finished() : length < out.length) break;
+                }
+                return new DeflatedChunk(out, length, (int)adler.getValue(), rawLength);
+            }finally{
+                deflater.end();
+            }
+        }
+
+        private void writeChunk(DataOutputStream output, int type, byte[] data, int length) throws IOException{
+            writeChunk(output, type, data, 0, length);
+        }
+
+        private void writeChunk(DataOutputStream output, int type, byte[] data, int offset, int length) throws IOException{
+            output.writeInt(length);
+            output.writeInt(type);
+            output.write(data, offset, length);
+
+            crc.reset();
+            crc.update(type >>> 24);
+            crc.update(type >>> 16);
+            crc.update(type >>> 8);
+            crc.update(type);
+            crc.update(data, offset, length);
+            output.writeInt((int)crc.getValue());
+        }
+
         @Override
         public void dispose(){
             deflater.end();
         }
 
+        /**
+         * Filters a scanline into {@code out}, starting with the filter type byte.
+         * @param prev the previous unfiltered scanline, or null for the first one.
+         */
+        static void filter(byte[] line, @Nullable byte[] prev, int lineLen, boolean adaptive, byte[] out, int offset){
+            if(!adaptive){
+                out[offset] = FILTER_NONE;
+                System.arraycopy(line, 0, out, offset + 1, lineLen);
+                return;
+            }
+
+            //minimum sum of absolute differences heuristic, as recommended by the PNG specification
+            long none = 0, sub = 0, up = 0, average = 0, paeth = 0;
+            for(int i = 0; i < lineLen; i++){
+                int x = line[i] & 0xff, a = i >= 4 ? line[i - 4] & 0xff : 0, b = prev == null ? 0 : prev[i] & 0xff, c = i >= 4 && prev != null ? prev[i - 4] & 0xff : 0;
+                none += Math.abs((byte)x);
+                sub += Math.abs((byte)(x - a));
+                up += Math.abs((byte)(x - b));
+                average += Math.abs((byte)(x - ((a + b) >>> 1)));
+                paeth += Math.abs((byte)(x - paeth(a, b, c)));
+            }
+
+            byte type = FILTER_NONE;
+            long best = none;
+            if(sub < best){ best = sub; type = FILTER_SUB; }
+            if(up < best){ best = up; type = FILTER_UP; }
+            if(average < best){ best = average; type = FILTER_AVERAGE; }
+            if(paeth < best){ type = FILTER_PAETH; }
+
+            out[offset++] = type;
+            for(int i = 0; i < lineLen; i++){
+                int x = line[i] & 0xff, a = i >= 4 ? line[i - 4] & 0xff : 0, b = prev == null ? 0 : prev[i] & 0xff;
+                switch(type){
+                    case FILTER_NONE: out[offset + i] = (byte)x; break;
+                    case FILTER_SUB: out[offset + i] = (byte)(x - a); break;
+                    case FILTER_UP: out[offset + i] = (byte)(x - b); break;
+                    case FILTER_AVERAGE: out[offset + i] = (byte)(x - ((a + b) >>> 1)); break;
+                    default: out[offset + i] = (byte)(x - paeth(a, b, i >= 4 && prev != null ? prev[i - 4] & 0xff : 0)); break;
+                }
+            }
+        }
+
+        static int paeth(int a, int b, int c){
+            int p = a + b - c, pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+            return pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+        }
+
+        /** @return the Adler-32 checksum of two concatenated blocks of data, given their checksums. Same as zlib's adler32_combine. */
+        static int combineAdler(int adler1, int adler2, long length2){
+            final int base = 65521;
+            long rem = length2 % base;
+            long sum1 = adler1 & 0xffff;
+            long sum2 = (rem * sum1) % base;
+            sum1 += (adler2 & 0xffff) + base - 1;
+            sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff) + base - rem;
+            if(sum1 >= base) sum1 -= base;
+            if(sum1 >= base) sum1 -= base;
+            if(sum2 >= (base << 1)) sum2 -= (base << 1);
+            if(sum2 >= base) sum2 -= base;
+            return (int)(sum1 | (sum2 << 16));
+        }
+
+        static class DeflatedChunk{
+            final byte[] data;
+            final int length, adler, rawLength;
+
+            DeflatedChunk(byte[] data, int length, int adler, int rawLength){
+                this.data = data;
+                this.length = length;
+                this.adler = adler;
+                this.rawLength = rawLength;
+            }
+        }
+
         static class ChunkBuffer extends DataOutputStream{
             final ByteArrayOutputStream buffer;
             final CRC32 crc;
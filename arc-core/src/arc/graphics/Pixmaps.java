@@ -1,5 +1,6 @@
 package arc.graphics;
 
+import arc.func.*;
 import arc.graphics.Texture.*;
 import arc.graphics.g2d.*;
 import arc.graphics.gl.*;
@@ -10,6 +11,7 @@ import arc.util.*;
 
 import java.nio.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /** Various pixmap utilities. */
 public class Pixmaps{
@@ -17,6 +19,12 @@ public class Pixmaps{
     private static Pixmap drawPixmap;
     private static IntSeq tmpArray = new IntSeq();
 
+    /**
+     * Pixmaps with at least this many pixels are split into bands of rows that are processed in parallel by the bulk operations
+     * (drawing, scaling, outlines, bleeding and antialiasing). Set to {@link Integer#MAX_VALUE} to always use the calling thread.
+     */
+    public static int parallelThreshold = 256 * 256;
+
     public static Pixmap noise(int w, int h){
         Pixmap out = new Pixmap(w, h);
         for(int y = 0; y < h; y++){
@@ -91,37 +99,34 @@ public class Pixmaps{
 
     public static Pixmap scale(Pixmap input, float scalex, float scaley){
         Pixmap pixmap = new Pixmap((int)(input.width * scalex), (int)(input.height * scaley));
-        for(int y = 0; y < pixmap.height; y++){
-            for(int x = 0; x < pixmap.width; x++){
-                pixmap.setRaw(x, y, input.getRaw((int)(x / scalex), (int)(y / scaley)));
-            }
+        int width = pixmap.width, iwidth = input.width;
+        int[] columns = new int[width];
+        for(int x = 0; x < width; x++){
+            columns[x] = (int)(x / scalex);
         }
+
+        bands(width, pixmap.height, (from, to) -> {
+            IntBuffer in = input.intPixels(), out = pixmap.intPixels();
+            int[] source = new int[iwidth], row = new int[width];
+            int lastY = -1;
+            for(int y = from; y < to; y++){
+                int sy = (int)(y / scaley);
+                if(sy != lastY){
+                    readRow(in, iwidth, 0, sy, source, iwidth);
+                    lastY = sy;
+                }
+                for(int x = 0; x < width; x++){
+                    row[x] = source[columns[x]];
+                }
+                writeRow(out, width, 0, y, row, width);
+            }
+        });
         return pixmap;
     }
 
     public static Pixmap outline(PixmapRegion region, Color color, int radius){
-        int outlineColor = color.rgba8888();
-        Pixmap out = region.crop();
-        for(int y = 0; y < region.height; y++){
-            for(int x = 0; x < region.width; x++){
-
-                if(region.getA(x, y) < 255){
-                    boolean found = false;
-                    outer:
-                    for(int rx = -radius; rx <= radius; rx++){
-                        for(int ry = -radius; ry <= radius; ry++){
-                            if(Structs.inBounds(rx + x, ry + y, region.width, region.height) && (rx*rx + ry*ry <= radius*radius) && region.getA(rx + x, ry + y) != 0){
-                                found = true;
-                                break outer;
-                            }
-                        }
-                    }
-                    if(found){
-                        out.set(x, y, outlineColor);
-                    }
-                }
-            }
-        }
+        Pixmap out = new Pixmap(region.width, region.height);
+        outline(region.pixmap, region.x, region.y, region.width, region.height, out, color.rgba8888(), radius, 255);
         return out;
     }
 
@@ -133,8 +138,8 @@ public class Pixmaps{
         for(int y = 0; y < pixmap.height; y++){
             for(int x = 0; x < pixmap.width; x++){
                 if(input.empty(x, y) &&
-                ((!input.empty(x, y + 1) && y < pixmap.height - 1) || (!input.empty(x, y - 1) && y > 0) || (!input.empty(x - 1, y) && x > 0) || (!input.empty(x + 1, y) && x < pixmap.width - 1)))
-                    pixmap.set(x, y, col);
+                ((y < pixmap.height - 1 && !input.empty(x, y + 1)) || (y > 0 && !input.empty(x, y - 1)) || (x > 0 && !input.empty(x - 1, y)) || (x < pixmap.width - 1 && !input.empty(x + 1, y))))
+                    pixmap.setRaw(x, y, col);
             }
         }
         return pixmap;
@@ -243,35 +248,46 @@ public class Pixmaps{
      * */
     public static Pixmap bleed(Pixmap image){
         int w = image.width, h = image.height;
-        ByteBuffer pixels = image.pixels;
 
-        for(int y = 0; y < h; y++){
-            for(int x = 0; x < w; x++){
-                if(image.empty(x, y)){
-                    int r = 0, g = 0, b = 0, count = 0;
-                    int pi = (x + y*w)*4;
-
-                    //grab for each direction
-                    for(int i = 0; i < 16; i += 2){
-                        int nx = x + offsets[i];
-                        int ny = y + offsets[i + 1];
-                        int index = (ny*w + nx)*4;
-                        if(nx >= 0 && ny >= 0 && nx < w && ny < h && pixels.get(index + 3) != 0){
-                            r += pixels.get(index) & 0xff;
-                            g += pixels.get(index + 1) & 0xff;
-                            b += pixels.get(index + 2) & 0xff;
-                            count ++;
+        //only transparent pixels are written, and only opaque neighbours are read, so bands can be bled in place independently
+        bands(w, h, (from, to) -> {
+            IntBuffer pixels = image.intPixels();
+            int[] above = new int[w], row = new int[w], below = new int[w];
+            for(int y = from; y < to; y++){
+                if(y > 0) readRow(pixels, w, 0, y - 1, above, w);
+                readRow(pixels, w, 0, y, row, w);
+                if(y < h - 1) readRow(pixels, w, 0, y + 1, below, w);
+                boolean changed = false;
+
+                for(int x = 0; x < w; x++){
+                    if(empty(row[x])){
+                        //grab for each direction
+                        boolean left = x > 0, right = x < w - 1;
+                        long sum = 0;
+                        if(right) sum += bleedSample(row[x + 1]);
+                        if(left) sum += bleedSample(row[x - 1]);
+                        if(y < h - 1){
+                            sum += bleedSample(below[x]);
+                            if(right) sum += bleedSample(below[x + 1]);
+                            if(left) sum += bleedSample(below[x - 1]);
+                        }
+                        if(y > 0){
+                            sum += bleedSample(above[x]);
+                            if(right) sum += bleedSample(above[x + 1]);
+                            if(left) sum += bleedSample(above[x - 1]);
                         }
-                    }
 
-                    if(count > 0){
-                        pixels.put(pi, (byte)(r / count));
-                        pixels.put(pi + 1, (byte)(g / count));
-                        pixels.put(pi + 2, (byte)(b / count));
+                        int count = (int)(sum >>> 48);
+                        if(count > 0){
+                            row[x] = ((int)((sum >>> 32) & 0xffff) / count << 24) | ((int)((sum >>> 16) & 0xffff) / count << 16) | ((int)(sum & 0xffff) / count << 8) | (row[x] & 0xff);
+                            changed = true;
+                        }
                     }
                 }
+
+                if(changed) writeRow(pixels, w, 0, y, row, w);
             }
-        }
+        });
         return image;
     }
 
@@ -419,4 +435,168 @@ public class Pixmaps{
         return image;
     }
 
+    /**
+     * Runs the kernel over the rows [0, height). If the area is at least {@link #parallelThreshold} pixels, the rows are split
+     * into bands that run in parallel, with the last band on the calling thread. Bands must only write to their own rows.
+     * @param band receives the first (inclusive) and last (exclusive) row of each band.
+     */
+    public static void bands(int width, int height, Intc2 band){
+        int tasks = Math.min(OS.cores * 2, height);
+        if((long)width * height < parallelThreshold || tasks <= 1){
+            band.get(0, height);
+            return;
+        }
+
+        Seq<Future<?>> futures = new Seq<>(tasks - 1);
+        for(int i = 0; i < tasks - 1; i++){
+            int from = (int)((long)height * i / tasks), to = (int)((long)height * (i + 1) / tasks);
+            futures.add(Threads.parallelExecutor().submit(() -> band.get(from, to)));
+        }
+        band.get((int)((long)height * (tasks - 1) / tasks), height);
+        Threads.awaitAll(futures);
+    }
+
+    /** @return the color channels of a non-transparent pixel packed into 16-bit sums, with a count of 1 in the top bits. */
+    private static long bleedSample(int color){
+        return empty(color) ? 0L : (1L << 48) | ((long)(color >>> 24) << 32) | ((long)((color >>> 16) & 0xff) << 16) | ((color >>> 8) & 0xff);
+    }
+
+    static void readRow(IntBuffer pixels, int width, int x, int y, int[] out, int length){
+        readRow(pixels, width, x, y, out, 0, length);
+    }
+
+    static void readRow(IntBuffer pixels, int width, int x, int y, int[] out, int offset, int length){
+        pixels.position(x + y * width);
+        pixels.get(out, offset, length);
+    }
+
+    static void writeRow(IntBuffer pixels, int width, int x, int y, int[] in, int length){
+        writeRow(pixels, width, x, y, in, 0, length);
+    }
+
+    static void writeRow(IntBuffer pixels, int width, int x, int y, int[] in, int offset, int length){
+        pixels.position(x + y * width);
+        pixels.put(in, offset, length);
+    }
+
+    /** Scaled blit with bilinear filtering. The pixmaps must not share pixel data. */
+    static void drawBilinear(Pixmap src, int srcx, int srcy, int srcWidth, int srcHeight, Pixmap dst, int dstx, int dsty, int dstWidth, int dstHeight, boolean blending){
+        float x_ratio = ((float)srcWidth - 1) / dstWidth;
+        float y_ratio = ((float)srcHeight - 1) / dstHeight;
+        int rX = Math.max(Mathf.round(x_ratio), 1), rY = Math.max(Mathf.round(y_ratio), 1);
+        int owidth = src.width, oheight = src.height;
+
+        IntSeq columns = new IntSeq(), rows = new IntSeq();
+        FloatSeq xdiffs = new FloatSeq(), ydiffs = new FloatSeq();
+        for(int j = 0; j < dstWidth; j++){
+            int sx = (int)(j * x_ratio) + srcx, dx = j + dstx;
+            if(sx < 0 || dx < 0) continue;
+            if(sx >= owidth || dx >= dst.width) break;
+            columns.add(dx, sx);
+            xdiffs.add((x_ratio * j + srcx) - sx);
+        }
+        for(int i = 0; i < dstHeight; i++){
+            int sy = (int)(i * y_ratio) + srcy, dy = i + dsty;
+            if(sy < 0 || dy < 0) continue;
+            if(sy >= oheight || dy >= dst.height) break;
+            rows.add(dy, sy);
+            ydiffs.add((y_ratio * i + srcy) - sy);
+        }
+        if(columns.isEmpty() || rows.isEmpty()) return;
+
+        int[] cols = columns.items;
+        float[] xdiff = xdiffs.items;
+        int count = columns.size / 2, firstDx = cols[0], span = cols[columns.size - 2] - firstDx + 1;
+
+        bands(span, rows.size / 2, (from, to) -> {
+            IntBuffer sp = src.intPixels(), dp = dst.intPixels();
+            int[] top = new int[owidth], bottom = new int[owidth], out = new int[span];
+            int lastY = -1;
+            for(int r = from; r < to; r++){
+                int dy = rows.items[r * 2], sy = rows.items[r * 2 + 1];
+                float ydiff = ydiffs.items[r];
+                boolean down = sy + rY < srcHeight && sy + rY < oheight;
+                if(sy != lastY){
+                    readRow(sp, owidth, 0, sy, top, owidth);
+                    if(down) readRow(sp, owidth, 0, sy + rY, bottom, owidth);
+                    lastY = sy;
+                }
+                readRow(dp, dst.width, firstDx, dy, out, span);
+
+                for(int c = 0; c < count; c++){
+                    int sx = cols[c * 2 + 1], o = cols[c * 2] - firstDx;
+                    float xd = xdiff[c];
+                    boolean right = sx + rX < srcWidth && sx + rX < owidth;
+
+                    int
+                    c1 = top[sx],
+                    c2 = right ? top[sx + rX] : c1,
+                    c3 = down ? bottom[sx] : c1,
+                    c4 = right && down ? bottom[sx + rX] : c1;
+
+                    float ta = (1 - xd) * (1 - ydiff);
+                    float tb = (xd) * (1 - ydiff);
+                    float tc = (1 - xd) * (ydiff);
+                    float td = (xd) * (ydiff);
+
+                    int red = (int)(((c1 & 0xff000000) >>> 24) * ta + ((c2 & 0xff000000) >>> 24) * tb + ((c3 & 0xff000000) >>> 24) * tc + ((c4 & 0xff000000) >>> 24) * td) & 0xff;
+                    int green = (int)(((c1 & 0xff0000) >>> 16) * ta + ((c2 & 0xff0000) >>> 16) * tb + ((c3 & 0xff0000) >>> 16) * tc + ((c4 & 0xff0000) >>> 16) * td) & 0xff;
+                    int blue = (int)(((c1 & 0xff00) >>> 8) * ta + ((c2 & 0xff00) >>> 8) * tb + ((c3 & 0xff00) >>> 8) * tc + ((c4 & 0xff00) >>> 8) * td) & 0xff;
+                    int alpha = (int)((c1 & 0xff) * ta + (c2 & 0xff) * tb + (c3 & 0xff) * tc + (c4 & 0xff) * td) & 0xff;
+                    int srccol = (red << 24) | (green << 16) | (blue << 8) | alpha;
+
+                    out[o] = !blending ? srccol : Pixmap.blend(srccol, out[o]);
+                }
+                writeRow(dp, dst.width, firstDx, dy, out, span);
+            }
+        });
+    }
+
+    /**
+     * Writes the area of the source into {@code out}, which has the same size, replacing each pixel with an alpha below
+     * {@code maxAlpha} by {@code color} if a non-transparent pixel of the area lies within {@code radius}.
+     * <br>
+     * Each row keeps a prefix count of its non-transparent pixels, so a radius check costs one lookup per row of the circle
+     * instead of one per pixel in it.
+     */
+    static void outline(Pixmap src, int srcx, int srcy, int width, int height, Pixmap out, int color, int radius, int maxAlpha){
+        int[] half = new int[radius + 1];
+        for(int dy = 0; dy <= radius; dy++){
+            int h = (int)Math.sqrt(radius * radius - dy * dy);
+            while((h + 1) * (h + 1) + dy * dy <= radius * radius) h++;
+            while(h > 0 && h * h + dy * dy > radius * radius) h--;
+            half[dy] = h;
+        }
+
+        bands(width, height, (from, to) -> {
+            IntBuffer sp = src.intPixels(), op = out.intPixels();
+            int first = Math.max(from - radius, 0), last = Math.min(to + radius, height), stride = width + 1;
+            int[] counts = new int[(last - first) * stride], row = new int[width];
+
+            for(int y = first; y < last; y++){
+                readRow(sp, src.width, srcx, srcy + y, row, width);
+                int base = (y - first) * stride, total = 0;
+                for(int x = 0; x < width; x++){
+                    if(!empty(row[x])) total++;
+                    counts[base + x + 1] = total;
+                }
+            }
+
+            for(int y = from; y < to; y++){
+                readRow(sp, src.width, srcx, srcy + y, row, width);
+                for(int x = 0; x < width; x++){
+                    if((row[x] & 0xff) >= maxAlpha) continue;
+
+                    for(int dy = Math.max(-radius, -y), maxy = Math.min(radius, height - 1 - y); dy <= maxy; dy++){
+                        int h = half[Math.abs(dy)], base = (y + dy - first) * stride;
+                        if(counts[base + Math.min(x + h, width - 1) + 1] - counts[base + Math.max(x - h, 0)] > 0){
+                            row[x] = color;
+                            break;
+                        }
+                    }
+                }
+                writeRow(op, width, 0, y, row, width);
+            }
+        });
+    }
 }
@@ -524,6 +524,11 @@ public class Font implements Disposable{
         public float cursorX;
         /** The glyph to display for characters not in the font. May be null. */
         public Glyph missingGlyph;
+        /**
+         * Incremented whenever glyphs are dropped or moved to other pages, e.g. when a FreeType font with a page limit evicts unused
+         * glyphs. Layouts created before then are brought up to date by {@link GlyphLayout#updateGlyphs(Font)}.
+         */
+        public int generation;
 
         /** The width of the space character. */
         public float spaceXadvance;
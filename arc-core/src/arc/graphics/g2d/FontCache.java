@@ -8,6 +8,7 @@ import arc.graphics.g2d.Font.FontData;
 import arc.graphics.g2d.Font.Glyph;
 import arc.graphics.g2d.GlyphLayout.GlyphRun;
 import arc.util.Align;
+import arc.util.Nullable;
 import arc.util.pooling.Pools;
 
 /**
@@ -22,12 +23,16 @@ public class FontCache{
 
     private final Font font;
     private final Seq<GlyphLayout> layouts = new Seq<>();
+    /** Position of each layout, relative to the position of the cache. */
+    private final FloatSeq layoutPositions = new FloatSeq();
     private final Seq<GlyphLayout> pooledLayouts = new Seq<>();
     private final Color color = new Color(1, 1, 1, 1);
     private boolean integer;
     private int glyphCount;
     private float x, y;
     private float currentTint;
+    /** The {@link FontData#generation} of the font when the vertices were last built. */
+    private int generation;
 
     /** Vertex data per page. */
     private float[][] pageVertices;
@@ -40,6 +45,8 @@ public class FontCache{
     private IntSeq[] pageGlyphIndices;
     /** Used internally to ensure a correct capacity for multi-page font vertex data. */
     private int[] tempGlyphCount;
+    /** If set, text added by string is laid out through this cache instead of a pooled layout. */
+    private @Nullable GlyphLayoutCache layoutCache;
 
     public FontCache(Font font){
         this(font, font.usesIntegerPositions());
@@ -49,6 +56,7 @@ public class FontCache{
     public FontCache(Font font, boolean integer){
         this.font = font;
         this.integer = integer;
+        this.generation = font.data.generation;
 
         int pageCount = font.regions.size;
         if(pageCount == 0)
@@ -227,6 +235,7 @@ public class FontCache{
     }
 
     public void draw(){
+        validate();
         Seq<TextureRegion> regions = font.getRegions();
         for(int j = 0, n = pageVertices.length; j < n; j++){
             if(idx[j] > 0){ // ignore if this texture has no glyphs
@@ -237,6 +246,7 @@ public class FontCache{
     }
 
     public void draw(int start, int end){
+        validate();
         if(pageVertices.length == 1){ // 1 page.
             Draw.vert(font.getRegion().texture, pageVertices[0], start * 24, (end - start) * 24);
             return;
@@ -292,6 +302,12 @@ public class FontCache{
         Pools.freeAll(pooledLayouts, true);
         pooledLayouts.clear();
         layouts.clear();
+        layoutPositions.clear();
+        clearVertices();
+    }
+
+    private void clearVertices(){
+        glyphCount = 0;
         for(int i = 0, n = idx.length; i < n; i++){
             if(pageGlyphIndices != null) pageGlyphIndices[i].clear();
             idx[i] = 0;
@@ -364,6 +380,7 @@ public class FontCache{
         }
 
         layouts.add(layout);
+        layoutPositions.add(x - this.x, y - this.y);
         requireGlyphs(layout);
         for(int i = 0, n = layout.runs.size; i < n; i++){
             GlyphRun run = layout.runs.get(i);
@@ -381,6 +398,26 @@ public class FontCache{
         currentTint = Color.whiteFloatBits; // Cached glyphs have changed, reset the current tint.
     }
 
+    /**
+     * Builds the vertices again if the font dropped or moved glyphs since they were added, see {@link FontData#generation}.
+     * Colors changed after the text was added are reset.
+     */
+    private void validate(){
+        if(generation == font.data.generation) return;
+        generation = font.data.generation;
+
+        Seq<GlyphLayout> layouts = new Seq<>(this.layouts);
+        FloatSeq positions = new FloatSeq(layoutPositions);
+        this.layouts.clear();
+        layoutPositions.clear();
+        clearVertices();
+        for(int i = 0; i < layouts.size; i++){
+            GlyphLayout layout = layouts.get(i);
+            layout.updateGlyphs(font);
+            addToCache(layout, positions.get(i * 2) + x, positions.get(i * 2 + 1) + y);
+        }
+    }
+
     private void addGlyph(Glyph glyph, float x, float y, float color){
         final float scaleX = font.data.scaleX, scaleY = font.data.scaleY;
         x += glyph.xoffset * scaleX;
@@ -520,9 +557,14 @@ public class FontCache{
      */
     public GlyphLayout addText(CharSequence str, float x, float y, int start, int end, float targetWidth, int halign,
                                boolean wrap, String truncate){
-        GlyphLayout layout = Pools.obtain(GlyphLayout.class, GlyphLayout::new);
-        pooledLayouts.add(layout);
-        layout.setText(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+        GlyphLayout layout;
+        if(layoutCache != null){
+            layout = layoutCache.get(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+        }else{
+            layout = Pools.obtain(GlyphLayout.class, GlyphLayout::new);
+            pooledLayouts.add(layout);
+            layout.setText(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+        }
         addText(layout, x, y);
         return layout;
     }
@@ -542,6 +584,18 @@ public class FontCache{
         return y;
     }
 
+    /**
+     * Sets the cache used to lay out text added by string, or null to lay out every string again. Layouts returned by the
+     * addText and setText methods are then shared and must not be modified.
+     */
+    public void setLayoutCache(@Nullable GlyphLayoutCache layoutCache){
+        this.layoutCache = layoutCache;
+    }
+
+    public @Nullable GlyphLayoutCache getLayoutCache(){
+        return layoutCache;
+    }
+
     public Font getFont(){
         return font;
     }
@@ -561,10 +615,12 @@ public class FontCache{
     }
 
     public float[] getVertices(int page){
+        validate();
         return pageVertices[page];
     }
 
     public int getVertexCount(int page){
+        validate();
         return idx[page];
     }
 
@@ -23,6 +23,10 @@ public class GlyphLayout implements Poolable{
     private final Seq<Color> colorStack = new Seq<>(4);
     public boolean ignoreMarkup = false;
     public float width, height;
+    /** The {@link FontData#generation} of the font when this layout was created. */
+    private int generation;
+    /** Set for layouts owned by a {@link GlyphLayoutCache}, which must not be laid out again or freed. */
+    boolean shared;
 
     /** Creates an empty GlyphLayout. */
     public GlyphLayout(){
@@ -73,8 +77,10 @@ public class GlyphLayout implements Poolable{
      */
     public void setText(Font font, CharSequence str, int start, int end, Color color, float targetWidth, int halign,
                         boolean wrap, String truncate){
+        checkShared();
 
         FontData fontData = font.data;
+        generation = fontData.generation;
 
         if(truncate != null)
             wrap = true; // Causes truncate code to run, doesn't actually cause wrapping.
@@ -508,8 +514,39 @@ public class GlyphLayout implements Poolable{
         return -1; // Unclosed color tag.
     }
 
+    /**
+     * Replaces the glyphs that the font dropped since this layout was created with their current instances, see
+     * {@link FontData#generation}. The metrics of a glyph do not change when it is created again, so the layout keeps its size.
+     * @return whether the layout was out of date.
+     */
+    public boolean updateGlyphs(Font font){
+        FontData data = font.data;
+        if(generation == data.generation) return false;
+        generation = data.generation;
+
+        for(int i = 0, n = runs.size; i < n; i++){
+            Seq<Glyph> glyphs = runs.get(i).glyphs;
+            for(int j = 0, m = glyphs.size; j < m; j++){
+                Glyph current = data.getGlyph((char)glyphs.get(j).id);
+                if(current == null) current = data.missingGlyph;
+                if(current != null) glyphs.set(j, current);
+            }
+        }
+        return true;
+    }
+
+    /** @return whether this layout is owned by a {@link GlyphLayoutCache}, so that it must not be modified or freed. */
+    public boolean isShared(){
+        return shared;
+    }
+
+    private void checkShared(){
+        if(shared) throw new IllegalStateException("Layout is shared by a GlyphLayoutCache and must not be modified or freed.");
+    }
+
     @Override
     public void reset(){
+        checkShared();
         Pools.get(GlyphRun.class, GlyphRun::new).freeAll(runs);
         runs.clear();
 
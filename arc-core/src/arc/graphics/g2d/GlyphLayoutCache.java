@@ -0,0 +1,226 @@
+package arc.graphics.g2d;
+
+import arc.graphics.*;
+import arc.graphics.g2d.Font.*;
+import arc.struct.*;
+import arc.util.*;
+
+/**
+ * Bounded least-recently-used cache of {@link GlyphLayout}s, keyed by font, text, color, target width, alignment, wrapping and
+ * truncation. Repeatedly laying out the same strings, e.g. for labels that are measured and drawn every frame, then only costs a
+ * lookup.
+ * <br>
+ * Returned layouts are shared between all callers that ask for the same text and stay owned by the cache, so they must be treated as
+ * read-only: {@link GlyphLayout#setText}, {@link GlyphLayout#reset()} and freeing them to a pool throw an
+ * {@link IllegalStateException}, see {@link GlyphLayout#isShared()}. Their public fields are not guarded and must not be changed
+ * either; lay out text that needs changes in a layout of its own. A layout stays valid after it is evicted; it is simply no longer
+ * handed out.
+ * The scale and markup settings of the font's {@link FontData} are part of the key. Glyphs that the font dropped or moved since a
+ * layout was cached (see {@link FontData#generation}) are updated when it is next returned; other changes to the font require a
+ * {@link #clear()}.
+ * <br>
+ * Not thread-safe; like the rest of text rendering, it should only be used on the rendering thread.
+ * @see FontCache#setLayoutCache(GlyphLayoutCache)
+ */
+public class GlyphLayoutCache{
+    private final ObjectMap<Entry, Entry> entries;
+    private final Entry lookup = new Entry();
+    /** Sentinel of the usage list; head.next is the most recently used entry, head.prev the least. */
+    private final Entry head = new Entry();
+    private int capacity;
+    private int hits, misses, evictions;
+
+    public GlyphLayoutCache(){
+        this(512);
+    }
+
+    /** @param capacity the maximum number of layouts to keep. */
+    public GlyphLayoutCache(int capacity){
+        if(capacity < 1) throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        this.capacity = capacity;
+        entries = new ObjectMap<>(capacity);
+        head.prev = head.next = head;
+    }
+
+    /** @see #get(Font, CharSequence, int, int, Color, float, int, boolean, String) */
+    public GlyphLayout get(Font font, CharSequence str){
+        return get(font, str, 0, str.length(), font.getColor(), 0, Align.left, false, null);
+    }
+
+    /** @see #get(Font, CharSequence, int, int, Color, float, int, boolean, String) */
+    public GlyphLayout get(Font font, CharSequence str, Color color, float targetWidth, int halign, boolean wrap){
+        return get(font, str, 0, str.length(), color, targetWidth, halign, wrap, null);
+    }
+
+    /**
+     * Returns the layout for the specified text, laying it out only if it is not cached yet.
+     * The parameters are the same as those of {@link GlyphLayout#setText(Font, CharSequence, int, int, Color, float, int, boolean, String)}.
+     * @return a shared layout that is owned by this cache and must not be modified.
+     */
+    public GlyphLayout get(Font font, CharSequence str, int start, int end, Color color, float targetWidth, int halign,
+                           boolean wrap, @Nullable String truncate){
+        Entry key = lookup.set(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+        Entry entry = entries.get(key);
+        lookup.text = null;
+
+        if(entry != null){
+            hits++;
+            entry.unlink();
+            entry.linkAfter(head);
+            entry.layout.updateGlyphs(font);
+            return entry.layout;
+        }
+
+        misses++;
+        entry = new Entry().set(font, str.subSequence(start, end).toString(), 0, end - start, color, targetWidth, halign, wrap, truncate);
+        entry.hash = key.hash;
+        entry.layout = new GlyphLayout(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+        entry.layout.shared = true;
+        entries.put(entry, entry);
+        entry.linkAfter(head);
+
+        while(entries.size > capacity){
+            evict();
+        }
+        return entry.layout;
+    }
+
+    private void evict(){
+        Entry eldest = head.prev;
+        eldest.unlink();
+        entries.remove(eldest);
+        //the layout may still be referenced by whoever drew it last, so it is left to the GC instead of being pooled
+        eldest.layout = null;
+        evictions++;
+    }
+
+    /** Removes all layouts, e.g. after a font was disposed or its glyphs changed. The counters are kept. */
+    public void clear(){
+        entries.clear();
+        head.prev = head.next = head;
+    }
+
+    /** Sets the maximum number of layouts, evicting the least recently used ones if there are more. */
+    public void setCapacity(int capacity){
+        if(capacity < 1) throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        this.capacity = capacity;
+        while(entries.size > capacity){
+            evict();
+        }
+    }
+
+    public int getCapacity(){
+        return capacity;
+    }
+
+    public int size(){
+        return entries.size;
+    }
+
+    /** @return the number of lookups that returned a cached layout. */
+    public int getHits(){
+        return hits;
+    }
+
+    /** @return the number of lookups that had to lay out the text. */
+    public int getMisses(){
+        return misses;
+    }
+
+    /** @return the number of layouts dropped because the cache was full. */
+    public int getEvictions(){
+        return evictions;
+    }
+
+    public void resetCounters(){
+        hits = misses = evictions = 0;
+    }
+
+    @Override
+    public String toString(){
+        return "GlyphLayoutCache{size=" + entries.size + "/" + capacity + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+    }
+
+    static class Entry{
+        Font font;
+        CharSequence text;
+        int start, end;
+        float r, g, b, a;
+        float targetWidth, scaleX, scaleY;
+        int halign;
+        boolean wrap, markup;
+        @Nullable String truncate;
+        int hash;
+
+        GlyphLayout layout;
+        Entry prev, next;
+
+        Entry set(Font font, CharSequence text, int start, int end, Color color, float targetWidth, int halign, boolean wrap, @Nullable String truncate){
+            FontData data = font.getData();
+            this.font = font;
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.r = color.r;
+            this.g = color.g;
+            this.b = color.b;
+            this.a = color.a;
+            this.targetWidth = targetWidth;
+            this.scaleX = data.scaleX;
+            this.scaleY = data.scaleY;
+            this.halign = halign;
+            this.wrap = wrap;
+            this.markup = data.markupEnabled;
+            this.truncate = truncate;
+
+            int h = System.identityHashCode(font);
+            for(int i = start; i < end; i++){
+                h = 31 * h + text.charAt(i);
+            }
+            h = 31 * h + Float.floatToIntBits(r);
+            h = 31 * h + Float.floatToIntBits(g);
+            h = 31 * h + Float.floatToIntBits(b);
+            h = 31 * h + Float.floatToIntBits(a);
+            h = 31 * h + Float.floatToIntBits(targetWidth);
+            h = 31 * h + Float.floatToIntBits(scaleX);
+            h = 31 * h + Float.floatToIntBits(scaleY);
+            h = 31 * h + halign;
+            h = 31 * h + (wrap ? 1 : 0) + (markup ? 2 : 0);
+            if(truncate != null) h = 31 * h + truncate.hashCode();
+            hash = h;
+            return this;
+        }
+
+        void linkAfter(Entry entry){
+            prev = entry;
+            next = entry.next;
+            entry.next.prev = this;
+            entry.next = this;
+        }
+
+        void unlink(){
+            prev.next = next;
+            next.prev = prev;
+            prev = next = null;
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this == o) return true;
+            if(!(o instanceof Entry)) return false;
+            Entry e = (Entry)o;
+            if(hash != e.hash || font != e.font || end - start != e.end - e.start || halign != e.halign || wrap != e.wrap || markup != e.markup
+            || r != e.r || g != e.g || b != e.b || a != e.a || targetWidth != e.targetWidth || scaleX != e.scaleX || scaleY != e.scaleY
+            || (truncate == null ? e.truncate != null : !truncate.equals(e.truncate))) return false;
+            for(int i = start, j = e.start; i < end; i++, j++){
+                if(text.charAt(i) != e.text.charAt(j)) return false;
+            }
+            return true;
+        }
+    }
+}
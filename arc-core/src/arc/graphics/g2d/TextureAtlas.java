@@ -3,6 +3,7 @@ package arc.graphics.g2d;
 import arc.*;
 import arc.Files.*;
 import arc.files.*;
+import arc.func.*;
 import arc.graphics.*;
 import arc.graphics.Texture.*;
 import arc.graphics.g2d.TextureAtlas.TextureAtlasData.*;
@@ -80,6 +81,8 @@ public class TextureAtlas implements Disposable{
 
     private void load(TextureAtlasData data){
         ObjectMap<AtlasPage, Texture> pageToTexture = new ObjectMap<>();
+        regions.ensureCapacity(data.regions.size);
+        regionmap.ensureCapacity(data.regions.size);
         for(AtlasPage page : data.pages){
             Texture texture;
             if(page.texture == null){
@@ -304,6 +307,14 @@ public class TextureAtlas implements Disposable{
         final Seq<Region> regions = new Seq<>();
 
         public TextureAtlasData(Fi packFile, Fi imagesDir, boolean flip){
+            this(packFile, imagesDir, flip, null);
+        }
+
+        /**
+         * @param pageRead called on the reading thread as soon as the header of each page has been read, before its regions. Can be
+         * used to start loading the page image while the rest of the pack file is parsed.
+         */
+        public TextureAtlasData(Fi packFile, Fi imagesDir, boolean flip, @Nullable Cons<AtlasPage> pageRead){
             try(Reads read = packFile.reads()){
                 for(byte b : formatHeader){
                     if(read.b() != b){
@@ -327,7 +338,9 @@ public class TextureAtlas implements Disposable{
 
                     AtlasPage page = new AtlasPage(file, pageWidth, pageHeight, min.isMipMap(), min, mag, wrapX, wrapY, id);
                     pages.add(page);
+                    if(pageRead != null) pageRead.get(page);
 
+                    regions.ensureCapacity(rects);
                     for(int j = 0; j < rects; j++){
                         Region region = new Region();
                         region.flip = flip;
@@ -83,6 +83,11 @@ public class FrameBuffer extends GLFrameBuffer<Texture>{
         build();
     }
 
+    /** @return the format of the color buffer. */
+    public Format getFormat(){
+        return format;
+    }
+
     /** Blits this buffer onto the screen using the specified shader. */
     public void blit(Shader shader){
         Draw.blit(this, shader);
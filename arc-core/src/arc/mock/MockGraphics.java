@@ -171,6 +171,12 @@ public class MockGraphics extends Graphics{
         frames++;
     }
 
+    /** Updates the frame counter like {@link #updateTime()}, but reports a fixed delta time instead of the measured one. */
+    public void updateTime(float fixedDelta){
+        updateTime();
+        deltaTime = fixedDelta;
+    }
+
     public void incrementFrameId(){
         frameId++;
     }
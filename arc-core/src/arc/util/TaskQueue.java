@@ -1,36 +1,122 @@
 package arc.util;
 
-import arc.struct.*;
+import java.util.concurrent.atomic.*;
 
+/**
+ * Queue of tasks posted from any thread and run on a single consumer thread, usually the main loop. Posting never locks: each post
+ * swaps itself in as the tail of a linked list, and {@link #run()} consumes from the head.
+ * <p>
+ * {@link #run()} must only be called from the consumer thread. {@link #clear()} may be called from any thread.
+ */
 public class TaskQueue{
-    private final Seq<Runnable> runnables = new Seq<>();
-    private final Seq<Runnable> executedRunnables = new Seq<>();
-
-    public void run(){
-        synchronized(runnables){
-            executedRunnables.clear();
-            executedRunnables.addAll(runnables);
-            runnables.clear();
+    private final AtomicReference<Node> tail;
+    private final AtomicInteger size = new AtomicInteger();
+    private Node head;
+
+    private long timeBudget, lastDrainTime;
+    private int lastDrained, peakSize;
+
+    public TaskQueue(){
+        head = new Node(null);
+        tail = new AtomicReference<>(head);
+    }
+
+    /**
+     * Runs the tasks that were posted before this call. Tasks posted while running are run on the next call. If a time budget is
+     * set and exceeded, the remaining tasks are also left for the next call.
+     */
+    public synchronized void run(){
+        int pending = size.get();
+        Node last = tail.get();
+        //the tasks counted by size may already have been run by the previous call
+        if(pending <= 0 || last == head){
+            lastDrained = 0;
+            lastDrainTime = 0;
+            return;
         }
 
-        for(Runnable runnable : executedRunnables){
-            runnable.run();
+        peakSize = Math.max(peakSize, pending);
+        long start = Time.nanos();
+        int drained = 0;
+
+        try{
+            Node next;
+            while((next = head.next) != null){
+                head = next;
+                Runnable runnable = next.runnable;
+                next.runnable = null;
+                size.decrementAndGet();
+                drained++;
+
+                runnable.run();
+
+                //stop at the tail seen on entry, or if a task cleared the queue
+                if(next == last || head != next || (timeBudget > 0 && Time.timeSinceNanos(start) >= timeBudget)) break;
+            }
+        }finally{
+            lastDrained = drained;
+            lastDrainTime = Time.timeSinceNanos(start);
         }
     }
 
+    /** @return the number of posted tasks that have not run yet. */
     public int size(){
-        return runnables.size;
+        //a node can be consumed before its post increments the count
+        return Math.max(size.get(), 0);
     }
 
-    public void clear(){
-        synchronized(runnables){
-            runnables.clear();
+    /** Removes all tasks that have not run yet. Safe to call from any thread, including from a running task. */
+    public synchronized void clear(){
+        Node next;
+        while((next = head.next) != null){
+            head = next;
+            next.runnable = null;
+            size.decrementAndGet();
         }
     }
 
     public void post(Runnable runnable){
-        synchronized(runnables){
-            runnables.add(runnable);
+        if(runnable == null) throw new IllegalArgumentException("runnable cannot be null.");
+        Node node = new Node(runnable);
+        tail.getAndSet(node).next = node;
+        //count the task only once it is reachable, so that run() never sees a count without a node
+        size.incrementAndGet();
+    }
+
+    /**
+     * Limits how long a single {@link #run()} call may take, so that a flood of posted tasks is spread over several frames. At least
+     * one task is run per call.
+     * @param nanos the budget in nanoseconds, or 0 for no limit.
+     */
+    public void setTimeBudget(long nanos){
+        this.timeBudget = nanos;
+    }
+
+    public long getTimeBudget(){
+        return timeBudget;
+    }
+
+    /** @return the time the last {@link #run()} call took, in nanoseconds. */
+    public long getLastDrainTime(){
+        return lastDrainTime;
+    }
+
+    /** @return the number of tasks run by the last {@link #run()} call. */
+    public int getLastDrained(){
+        return lastDrained;
+    }
+
+    /** @return the largest number of pending tasks seen at the start of a {@link #run()} call. */
+    public int getPeakSize(){
+        return peakSize;
+    }
+
+    static final class Node{
+        volatile Node next;
+        Runnable runnable;
+
+        Node(Runnable runnable){
+            this.runnable = runnable;
         }
     }
 }
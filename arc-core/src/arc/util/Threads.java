@@ -145,6 +145,21 @@ public class Threads{
         return cachedExecutor(null);
     }
 
+    private static volatile @Nullable ExecutorService parallel;
+
+    /**
+     * @return a shared executor with one thread per core, for splitting short CPU-bound work such as image processing into parallel
+     * tasks. Its threads expire after 1 minute of inactivity. Tasks running on it must not wait for other tasks submitted to it.
+     */
+    public static ExecutorService parallelExecutor(){
+        if(parallel == null){
+            synchronized(Threads.class){
+                if(parallel == null) parallel = cachedExecutor("Parallel", OS.cores);
+            }
+        }
+        return parallel;
+    }
+
     /** @return an executor with no max thread count. threads expire after 1 minute of inactivity
      *  @param min the number of threads to keep alive at all times after they are first started */
     public static ExecutorService unboundedExecutor(@Nullable String name, int min){
@@ -4,8 +4,6 @@ import arc.*;
 import arc.struct.*;
 import arc.func.*;
 import arc.util.Timer.*;
-import arc.util.pooling.Pool.*;
-import arc.util.pooling.*;
 
 public class Time{
     /** Conversion factors for ticks to other unit values. */
@@ -19,18 +17,36 @@ public class Time{
     public static final long nanosPerMilli = 1000000;
 
     private static double timeRaw, globalTimeRaw;
-
-    private static Seq<DelayRun> runs = new Seq<>();
-    private static Seq<DelayRun> removal = new Seq<>();
+    /** Time that delayed runs are scheduled against. Unlike {@link #timeRaw}, this is never reset. */
+    private static double runTime;
+
+    private static TimingWheel runs = new TimingWheel();
+    private static Cons<TimingWheel.Entry> expired = Time::expire;
+    /** Whether delayed runs are being expired, and how many runs without a delay were scheduled meanwhile. */
+    private static boolean updating;
+    private static int immediate;
     private static LongSeq marks = new LongSeq();
     private static Floatp deltaimpl = () -> Math.min(Core.graphics.getDeltaTime() * 60f, 3f);
 
-    /** Runs a task with a delay of several ticks. If Time.clear() is called, this task will be cancelled. */
+    /**
+     * Runs a task with a delay of several ticks. If Time.clear() is called, this task will be cancelled.
+     * A delay of zero or less that is scheduled from within a running task runs in the same {@link #update()}.
+     */
     public static void run(float delay, Runnable r){
-        DelayRun run = Pools.obtain(DelayRun.class, DelayRun::new);
+        schedule(delay, r);
+    }
+
+    /**
+     * Runs a task with a delay of several ticks. If Time.clear() is called, this task will be cancelled.
+     * @return a handle that can be used to cancel the task before it runs.
+     */
+    public static DelayRun schedule(float delay, Runnable r){
+        DelayRun run = new DelayRun();
         run.finish = r;
-        run.delay = delay;
-        runs.add(run);
+        run.time = runTime + delay;
+        runs.schedule(run, (long)Math.floor(run.time));
+        if(updating && delay <= 0) immediate++;
+        return run;
     }
 
     /** Runs a task with a delay of several ticks. Unless the application is closed, this task will always complete. */
@@ -66,7 +82,6 @@ public class Time{
     /** Use normal delta time (e. g. delta * 60) */
     public static void update(){
         timeRaw += delta;
-        removal.clear();
 
         if(Double.isInfinite(timeRaw) || Double.isNaN(timeRaw)){
             timeRaw = 0;
@@ -75,23 +90,42 @@ public class Time{
         time = (float)timeRaw;
         globalTime = (float)globalTimeRaw;
 
-        for(DelayRun run : runs){
-            run.delay -= delta;
-
-            if(run.delay <= 0){
-                run.finish.run();
-                removal.add(run);
-                Pools.free(run);
+        runTime += delta;
+        long tick = (long)Math.floor(runTime);
+        updating = true;
+        try{
+            runs.advance(tick, expired);
+            //runs without a delay that were scheduled by other runs expire in this update, too
+            while(immediate > 0){
+                immediate = 0;
+                runs.advance(tick, expired);
             }
+        }finally{
+            updating = false;
+            immediate = 0;
         }
-
-        runs.removeAll(removal);
     }
 
+    /** Cancels all tasks scheduled with {@link #run(float, Runnable)}. */
     public static void clear(){
         runs.clear();
     }
 
+    /** @return the number of tasks scheduled with {@link #run(float, Runnable)} that have not run yet. */
+    public static int pendingRuns(){
+        return runs.size();
+    }
+
+    private static void expire(TimingWheel.Entry entry){
+        DelayRun run = (DelayRun)entry;
+        if(run.time > runTime){
+            //expires later in the current tick
+            runs.schedule(run, run.getDeadline());
+        }else{
+            run.finish.run();
+        }
+    }
+
     public static void setDeltaProvider(Floatp impl){
         deltaimpl = impl;
         delta = impl.get();
@@ -147,14 +181,14 @@ public class Time{
         return millis() - prevTime;
     }
 
-    public static class DelayRun implements Poolable{
-        float delay;
+    /** A task scheduled with {@link #run(float, Runnable)}. Call {@link #cancel()} to prevent it from running. */
+    public static class DelayRun extends TimingWheel.Entry{
+        double time;
         Runnable finish;
 
-        @Override
-        public void reset(){
-            delay = 0;
-            finish = null;
+        /** @return the remaining delay in ticks. */
+        public float getDelay(){
+            return isScheduled() ? (float)Math.max(time - runTime, 0) : 0f;
         }
     }
 }
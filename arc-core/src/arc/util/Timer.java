@@ -4,10 +4,16 @@ import arc.Application;
 import arc.ApplicationListener;
 import arc.Core;
 import arc.Files;
+import arc.func.Cons;
 import arc.struct.Seq;
 
+import java.util.concurrent.Executor;
+
 /**
- * Executes tasks in the future on the main loop thread.
+ * Executes tasks in the future on the main loop thread, or on an {@link Executor} if one is set.
+ * <p>
+ * Tasks are kept in a {@link TimingWheel} with a resolution of one millisecond, so scheduling and cancelling a task takes constant
+ * time, and updating the timer only touches the tasks that are due.
  * @author Nathan Sweet
  */
 // TimerThread access is synchronized using threadLock.
@@ -17,9 +23,26 @@ public class Timer{
     static final Object threadLock = new Object();
     static TimerThread thread;
 
-    final Seq<Task> tasks = new Seq<>(false, 8);
+    /** Ticks are {@link #nanoMillis()}. */
+    final TimingWheel wheel;
+    private final Cons<TimingWheel.Entry> expired = e -> fire(((TaskEntry)e).task);
+    private final Cons<TimingWheel.Entry> removed = e -> {
+        Task task = ((TaskEntry)e).task;
+        synchronized(task){
+            task.executeTimeMillis = 0;
+            task.timer = null;
+        }
+    };
+    /** When the timer thread will update this timer next, if no task is scheduled before that. */
+    private volatile long updateTimeMillis = Long.MAX_VALUE;
+    private volatile @Nullable Executor executor;
+    private final Seq<TimingWheel.Entry> delayed = new Seq<>();
+
+    private final Object latenessLock = new Object();
+    private long fired, totalLateness, maxLateness;
 
     public Timer(){
+        wheel = new TimingWheel(nanoMillis());
         start();
     }
 
@@ -136,22 +159,34 @@ public class Timer{
      * @param repeatCount If negative, the task will repeat forever.
      */
     public Task scheduleTask(Task task, float delaySeconds, float intervalSeconds, int repeatCount){
+        long executeTimeMillis;
         synchronized(this){
             synchronized(task){
                 if(task.timer != null) throw new IllegalArgumentException("The same task may not be scheduled twice.");
                 task.timer = this;
-                task.executeTimeMillis = System.nanoTime() / 1000000 + (long)(delaySeconds * 1000);
+                task.executeTimeMillis = executeTimeMillis = nanoMillis() + (long)(delaySeconds * 1000);
                 task.intervalMillis = (long)(intervalSeconds * 1000);
                 task.repeatCount = repeatCount;
-                tasks.add(task);
+                wheel.schedule(task.entry, task.executeTimeMillis);
             }
         }
-        synchronized(threadLock){
-            threadLock.notifyAll();
+        //only wake the timer thread if the task is due before it would wake up anyway
+        if(executeTimeMillis < updateTimeMillis){
+            synchronized(threadLock){
+                threadLock.notifyAll();
+            }
         }
         return task;
     }
 
+    /**
+     * Sets where the tasks of this timer are run.
+     * @param executor the executor to run tasks on, or null to post them to the application they were created in.
+     */
+    public void setExecutor(@Nullable Executor executor){
+        this.executor = executor;
+    }
+
     /** Stops the timer, tasks will not be executed and time that passes will not be applied to the task delays. */
     public void stop(){
         synchronized(threadLock){
@@ -172,14 +207,7 @@ public class Timer{
 
     /** Cancels all tasks. */
     public synchronized void clear(){
-        for(int i = 0, n = tasks.size; i < n; i++){
-            Task task = tasks.get(i);
-            synchronized(task){
-                task.executeTimeMillis = 0;
-                task.timer = null;
-            }
-        }
-        tasks.clear();
+        wheel.clear(removed);
     }
 
     /**
@@ -187,41 +215,92 @@ public class Timer{
      * instance to prevent tasks being added, removed, or updated.
      */
     public synchronized boolean isEmpty(){
-        return tasks.size == 0;
+        return wheel.size() == 0;
+    }
+
+    /** @return the number of task runs that lateness was measured for. */
+    public long getFired(){
+        synchronized(latenessLock){
+            return fired;
+        }
+    }
+
+    /** @return the average time between when tasks were scheduled to run and when they actually started running, in milliseconds. */
+    public float getAverageLateness(){
+        synchronized(latenessLock){
+            return fired == 0 ? 0f : totalLateness / (float)fired;
+        }
+    }
+
+    /** @return the longest time between when a task was scheduled to run and when it actually started running, in milliseconds. */
+    public long getMaxLateness(){
+        synchronized(latenessLock){
+            return maxLateness;
+        }
+    }
+
+    public void resetLateness(){
+        synchronized(latenessLock){
+            fired = totalLateness = maxLateness = 0;
+        }
     }
 
     synchronized long update(long timeMillis, long waitMillis){
-        for(int i = 0, n = tasks.size; i < n; i++){
-            Task task = tasks.get(i);
-            synchronized(task){
-                if(task.executeTimeMillis > timeMillis){
-                    waitMillis = Math.min(waitMillis, task.executeTimeMillis - timeMillis);
-                    continue;
-                }
-                if(task.repeatCount == 0){
-                    task.timer = null;
-                    tasks.remove(i);
-                    i--;
-                    n--;
-                }else{
-                    task.executeTimeMillis = timeMillis + task.intervalMillis;
-                    waitMillis = Math.min(waitMillis, task.intervalMillis);
-                    if(task.repeatCount > 0) task.repeatCount--;
-                }
-                task.app.post(task);
-            }
+        wheel.advance(timeMillis, expired);
+
+        long next = wheel.nextTick();
+        if(next != Long.MAX_VALUE){
+            waitMillis = Math.min(waitMillis, Math.max(next - timeMillis, 0));
         }
+        updateTimeMillis = timeMillis + waitMillis;
         return waitMillis;
     }
 
-    /** Adds the specified delay to all tasks. */
+    private void fire(Task task){
+        synchronized(task){
+            task.scheduledMillis = task.entry.getDeadline();
+            task.firedBy = this;
+            if(task.repeatCount == 0){
+                task.timer = null;
+            }else{
+                task.executeTimeMillis = wheel.getTick() + task.intervalMillis;
+                wheel.schedule(task.entry, task.executeTimeMillis);
+                if(task.repeatCount > 0) task.repeatCount--;
+            }
+
+            Executor executor = this.executor;
+            if(executor != null){
+                executor.execute(task.fire);
+            }else{
+                task.app.post(task.fire);
+            }
+        }
+    }
+
+    void lateness(long millis){
+        synchronized(latenessLock){
+            fired++;
+            totalLateness += millis;
+            maxLateness = Math.max(maxLateness, millis);
+        }
+    }
+
+    /** Adds the specified delay to all scheduled tasks. Tasks scheduled afterwards are not affected. */
     public synchronized void delay(long delayMillis){
-        for(int i = 0, n = tasks.size; i < n; i++){
-            Task task = tasks.get(i);
+        //the wheel cannot go back in time, so move every task forward instead
+        wheel.clear(delayed::add);
+        for(TimingWheel.Entry entry : delayed){
+            Task task = ((TaskEntry)entry).task;
             synchronized(task){
-                task.executeTimeMillis += delayMillis;
+                task.executeTimeMillis = entry.getDeadline() + delayMillis;
+                wheel.schedule(entry, task.executeTimeMillis);
             }
         }
+        delayed.clear();
+    }
+
+    static long nanoMillis(){
+        return System.nanoTime() / 1000000;
     }
 
     /**
@@ -230,9 +309,11 @@ public class Timer{
      */
     static abstract public class Task implements Runnable{
         final Application app;
-        long executeTimeMillis, intervalMillis;
+        final TaskEntry entry = new TaskEntry(this);
+        final Runnable fire = this::fire;
+        long executeTimeMillis, intervalMillis, scheduledMillis;
         int repeatCount;
-        volatile Timer timer;
+        volatile Timer timer, firedBy;
 
         public Task(){
             app = Core.app; // Store which app to post
@@ -253,7 +334,7 @@ public class Timer{
                     synchronized(this){
                         executeTimeMillis = 0;
                         this.timer = null;
-                        timer.tasks.remove(this, true);
+                        timer.wheel.remove(entry);
                     }
                 }
             }else{
@@ -283,6 +364,20 @@ public class Timer{
         public synchronized long getExecuteTimeMillis(){
             return executeTimeMillis;
         }
+
+        private void fire(){
+            Timer timer = firedBy;
+            if(timer != null) timer.lateness(Math.max(nanoMillis() - scheduledMillis, 0));
+            run();
+        }
+    }
+
+    static class TaskEntry extends TimingWheel.Entry{
+        final Task task;
+
+        TaskEntry(Task task){
+            this.task = task;
+        }
     }
 
     /**
@@ -0,0 +1,228 @@
+package arc.util;
+
+import arc.func.*;
+
+/**
+ * A hierarchical timing wheel of {@link Entry}s keyed by an integer tick. Scheduling and cancelling are O(1), and advancing the
+ * wheel only touches entries that expire, plus an occasional cascade of entries from the coarser levels.
+ * <p>
+ * The wheel has four levels of 256 slots; level {@code n} slots each cover {@code 256^n} ticks. Entries further than
+ * {@code 2^32} ticks in the future are kept in the last level and cascaded again until they are in range.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TimingWheel{
+    static final int bits = 8, slots = 1 << bits, mask = slots - 1, levels = 4;
+    /** Slot of entries that were scheduled at or before the current tick. */
+    static final int due = slots * levels;
+    /** Slot of entries that are being expired. */
+    static final int expiring = due + 1;
+    static final long maxSpan = (1L << (bits * levels)) - 1;
+
+    private final Entry[] heads = new Entry[expiring + 1], tails = new Entry[expiring + 1];
+    private long current;
+    private int size, nearSize;
+
+    public TimingWheel(){
+        this(0);
+    }
+
+    /** @param tick the tick that the wheel starts at. */
+    public TimingWheel(long tick){
+        current = tick;
+    }
+
+    /**
+     * Schedules an entry to expire once the wheel is advanced to the specified tick. Entries at or before the current tick expire on
+     * the next call to {@link #advance(long, Cons)}.
+     * @throws IllegalArgumentException if the entry is already scheduled in a wheel.
+     */
+    public void schedule(Entry entry, long tick){
+        if(entry.wheel != null) throw new IllegalArgumentException("Entry is already scheduled.");
+        entry.wheel = this;
+        entry.deadline = tick;
+        size++;
+        link(entry, tick <= current ? due : slot(tick));
+    }
+
+    /** @return whether the entry was scheduled in this wheel and has been removed. */
+    public boolean remove(Entry entry){
+        if(entry.wheel != this) return false;
+        unlink(entry);
+        entry.wheel = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel up to and including the specified tick, removing every entry that expires and passing it to the listener.
+     * Entries may be scheduled and removed from within the listener; entries scheduled at or before the current tick expire on the
+     * next call.
+     */
+    public void advance(long tick, Cons<Entry> expired){
+        expire(due, expired);
+
+        while(current < tick){
+            //nothing to cascade or expire, skip ahead
+            if(size == 0){
+                current = tick;
+                break;
+            }
+            //nothing in the first level, skip to the next cascade
+            if(nearSize == 0){
+                current = Math.min(tick, current | mask);
+                if(current == tick) break;
+            }
+
+            long now = ++current;
+            for(int level = 1; level < levels && ((now >>> (bits * (level - 1))) & mask) == 0; level++){
+                cascade(level * slots + (int)((now >>> (bits * level)) & mask));
+            }
+            expire((int)(now & mask), expired);
+        }
+    }
+
+    /** Removes all entries without expiring them. */
+    public void clear(){
+        clear(null);
+    }
+
+    /** Removes all entries without expiring them, passing each one to the listener after it was removed. */
+    public void clear(@Nullable Cons<Entry> removed){
+        for(int i = 0; i < heads.length; i++){
+            for(Entry entry = heads[i]; entry != null; ){
+                Entry next = entry.next;
+                entry.wheel = null;
+                entry.prev = entry.next = null;
+                if(removed != null) removed.get(entry);
+                entry = next;
+            }
+            heads[i] = tails[i] = null;
+        }
+        size = nearSize = 0;
+    }
+
+    /**
+     * @return the earliest tick at which advancing the wheel may expire an entry, or {@link Long#MAX_VALUE} if it is empty. This is
+     * exact for entries less than 256 ticks ahead; otherwise it is the next tick that moves entries down a level.
+     */
+    public long nextTick(){
+        if(size == 0) return Long.MAX_VALUE;
+        if(heads[due] != null) return current;
+
+        long boundary = (current | mask) + 1;
+        if(nearSize > 0){
+            for(long tick = current + 1; tick <= current + mask; tick++){
+                if(heads[(int)(tick & mask)] != null){
+                    return size > nearSize ? Math.min(tick, boundary) : tick;
+                }
+            }
+        }
+        return boundary;
+    }
+
+    /** @return the last tick that the wheel was advanced to. */
+    public long getTick(){
+        return current;
+    }
+
+    /** @return the number of scheduled entries. */
+    public int size(){
+        return size;
+    }
+
+    private void expire(int slot, Cons<Entry> expired){
+        if(heads[slot] == null) return;
+
+        //move the slot aside, so entries scheduled into it by the listener are not expired in this pass
+        heads[expiring] = heads[slot];
+        tails[expiring] = tails[slot];
+        heads[slot] = tails[slot] = null;
+        for(Entry entry = heads[expiring]; entry != null; entry = entry.next){
+            if(slot < slots) nearSize--;
+            entry.slot = expiring;
+        }
+
+        Entry entry;
+        while((entry = heads[expiring]) != null){
+            remove(entry);
+            expired.get(entry);
+        }
+    }
+
+    private void cascade(int slot){
+        Entry entry = heads[slot];
+        heads[slot] = tails[slot] = null;
+        while(entry != null){
+            Entry next = entry.next;
+            entry.prev = entry.next = null;
+            link(entry, slot(entry.deadline));
+            entry = next;
+        }
+    }
+
+    private int slot(long tick){
+        long delta = tick - current;
+        if(delta < 0) return due;
+        if(delta > maxSpan) tick = current + maxSpan;
+
+        for(int level = 0; level < levels - 1; level++){
+            if(delta < 1L << (bits * (level + 1))){
+                return level * slots + (int)((tick >>> (bits * level)) & mask);
+            }
+        }
+        return (levels - 1) * slots + (int)((tick >>> (bits * (levels - 1))) & mask);
+    }
+
+    private void link(Entry entry, int slot){
+        if(slot < slots) nearSize++;
+        entry.slot = slot;
+        entry.prev = tails[slot];
+        entry.next = null;
+        if(tails[slot] == null){
+            heads[slot] = entry;
+        }else{
+            tails[slot].next = entry;
+        }
+        tails[slot] = entry;
+    }
+
+    private void unlink(Entry entry){
+        int slot = entry.slot;
+        if(slot < slots) nearSize--;
+        if(entry.prev == null){
+            heads[slot] = entry.next;
+        }else{
+            entry.prev.next = entry.next;
+        }
+        if(entry.next == null){
+            tails[slot] = entry.prev;
+        }else{
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = entry.next = null;
+    }
+
+    /** An element of a {@link TimingWheel}. Subclasses carry the payload. */
+    public static class Entry{
+        @Nullable TimingWheel wheel;
+        @Nullable Entry prev, next;
+        long deadline;
+        int slot;
+
+        /** @return whether this entry was scheduled and has been removed from its wheel. */
+        public boolean cancel(){
+            return wheel != null && wheel.remove(this);
+        }
+
+        /** @return whether this entry is scheduled in a wheel and has not expired yet. */
+        public boolean isScheduled(){
+            return wheel != null;
+        }
+
+        /** @return the tick this entry was last scheduled at. */
+        public long getDeadline(){
+            return deadline;
+        }
+    }
+}
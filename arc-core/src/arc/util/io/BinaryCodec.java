@@ -0,0 +1,143 @@
+package arc.util.io;
+
+import arc.func.*;
+import arc.struct.*;
+import arc.util.*;
+
+/**
+ * Registry of versioned, per-class binary schemas for {@link BinaryOutput} and {@link BinaryInput}.
+ * <br>
+ * Each value is prefixed with the version of the schema that wrote it. When reading, only the fields that existed in that
+ * version are read, so data written by older schemas stays readable after fields are added or removed.
+ * <pre>
+ * codec.register(Point.class, 2, Point::new)
+ *     .field(1, (p, out) -> out.vi(p.x), (p, in) -> p.x = in.vi())
+ *     .field(1, (p, out) -> out.vi(p.y), (p, in) -> p.y = in.vi())
+ *     .field(2, (p, out) -> out.istr(p.label), (p, in) -> p.label = in.istr());
+ * </pre>
+ */
+@SuppressWarnings("unchecked")
+public class BinaryCodec{
+    private final ObjectMap<Class<?>, Schema<?>> schemas = new ObjectMap<>();
+
+    /**
+     * Registers a schema for the specified class, replacing any previous one.
+     * @param version the current version, at least 1. Written in front of every value.
+     */
+    public <T> Schema<T> register(Class<T> type, int version, Prov<T> constructor){
+        if(version < 1) throw new IllegalArgumentException("Schema version must be at least 1: " + version);
+        Schema<T> schema = new Schema<>(type, version, constructor);
+        schemas.put(type, schema);
+        return schema;
+    }
+
+    public <T> Schema<T> get(Class<T> type){
+        Schema<T> schema = (Schema<T>)schemas.get(type);
+        if(schema == null) throw new ArcRuntimeException("No binary schema registered for " + type.getName());
+        return schema;
+    }
+
+    public boolean has(Class<?> type){
+        return schemas.containsKey(type);
+    }
+
+    /** Writes a nullable value with the schema registered for its class. */
+    public <T> void write(BinaryOutput output, @Nullable T value){
+        if(value == null){
+            output.vu(0);
+            return;
+        }
+        ((Schema<T>)get(value.getClass())).write(output, value);
+    }
+
+    /** Reads a nullable value with the schema registered for the specified class. */
+    public @Nullable <T> T read(BinaryInput input, Class<T> type){
+        return get(type).read(input);
+    }
+
+    /** Writes the size of the sequence, followed by each element. */
+    public <T> void writeSeq(BinaryOutput output, Seq<T> values){
+        output.vu(values.size);
+        for(int i = 0; i < values.size; i++){
+            write(output, values.get(i));
+        }
+    }
+
+    public <T> Seq<T> readSeq(BinaryInput input, Class<T> type){
+        Schema<T> schema = get(type);
+        int size = input.vu();
+        Seq<T> result = new Seq<>(size);
+        for(int i = 0; i < size; i++){
+            result.add(schema.read(input));
+        }
+        return result;
+    }
+
+    public static class Schema<T>{
+        public final Class<T> type;
+        public final int version;
+
+        private final Prov<T> constructor;
+        private final Seq<FieldEntry<T>> fields = new Seq<>();
+
+        Schema(Class<T> type, int version, Prov<T> constructor){
+            this.type = type;
+            this.version = version;
+            this.constructor = constructor;
+        }
+
+        /** Adds a field that exists from version {@code since} onward. Fields are written and read in the order they are added. */
+        public Schema<T> field(int since, Cons2<T, BinaryOutput> writer, Cons2<T, BinaryInput> reader){
+            return field(since, Integer.MAX_VALUE, writer, reader);
+        }
+
+        /**
+         * Adds a field that exists from version {@code since} up to, but not including, version {@code until}.
+         * Removed fields are no longer written, but are still read from older data; the reader may simply discard the value.
+         */
+        public Schema<T> field(int since, int until, @Nullable Cons2<T, BinaryOutput> writer, Cons2<T, BinaryInput> reader){
+            if(since > version) throw new IllegalArgumentException("Field version " + since + " is newer than the schema version " + version + " (" + type.getName() + ")");
+            if(until <= since) throw new IllegalArgumentException("Field removed before it was added: " + since + " -> " + until + " (" + type.getName() + ")");
+            if(until > version && writer == null) throw new IllegalArgumentException("Current fields need a writer (" + type.getName() + ")");
+            fields.add(new FieldEntry<>(since, until, writer, reader));
+            return this;
+        }
+
+        public void write(BinaryOutput output, T value){
+            output.vu(version);
+            for(int i = 0; i < fields.size; i++){
+                FieldEntry<T> field = fields.get(i);
+                if(field.until > version) field.writer.get(value, output);
+            }
+        }
+
+        public @Nullable T read(BinaryInput input){
+            int version = input.vu();
+            if(version == 0) return null;
+            return read(input, constructor.get(), version);
+        }
+
+        /** Reads the fields of a value written with the specified version into an existing object. */
+        public T read(BinaryInput input, T value, int version){
+            if(version > this.version) throw new ArcRuntimeException("Cannot read " + type.getName() + " version " + version + ", newest known is " + this.version);
+            for(int i = 0; i < fields.size; i++){
+                FieldEntry<T> field = fields.get(i);
+                if(field.since <= version && version < field.until) field.reader.get(value, input);
+            }
+            return value;
+        }
+    }
+
+    static class FieldEntry<T>{
+        final int since, until;
+        final Cons2<T, BinaryOutput> writer;
+        final Cons2<T, BinaryInput> reader;
+
+        FieldEntry(int since, int until, Cons2<T, BinaryOutput> writer, Cons2<T, BinaryInput> reader){
+            this.since = since;
+            this.until = until;
+            this.writer = writer;
+            this.reader = reader;
+        }
+    }
+}
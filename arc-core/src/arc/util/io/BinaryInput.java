@@ -0,0 +1,285 @@
+package arc.util.io;
+
+import arc.struct.*;
+import arc.util.*;
+
+import java.io.*;
+import java.nio.*;
+
+/**
+ * Reads data written by {@link BinaryOutput} from a byte array, with the concise method names of {@link Reads}.
+ * Reading past the end throws an {@link ArcRuntimeException}.
+ * <br>
+ * Also implements {@link DataInput}, so it can be passed to {@link Reads} and other existing serialization code.
+ */
+public class BinaryInput implements DataInput{
+    private final Seq<String> strings = new Seq<>();
+    private byte[] bytes;
+    private ByteBuffer view;
+    private int position, limit;
+
+    public BinaryInput(byte[] bytes){
+        this(bytes, 0, bytes.length);
+    }
+
+    public BinaryInput(byte[] bytes, int offset, int length){
+        set(bytes, offset, length);
+    }
+
+    /** Reads the remaining bytes of the buffer. If it is not backed by an array, they are copied once. */
+    public BinaryInput(ByteBuffer buffer){
+        if(buffer.hasArray()){
+            set(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }else{
+            byte[] copy = new byte[buffer.remaining()];
+            buffer.duplicate().get(copy);
+            set(copy, 0, copy.length);
+        }
+    }
+
+    /** Switches to a new source and clears the string table. */
+    public void set(byte[] bytes, int offset, int length){
+        if(this.bytes != bytes){
+            this.bytes = bytes;
+            view = ByteBuffer.wrap(bytes);
+        }
+        position = offset;
+        limit = offset + length;
+        strings.clear();
+    }
+
+    public int position(){
+        return position;
+    }
+
+    public int remaining(){
+        return limit - position;
+    }
+
+    private int require(int amount){
+        if(limit - position < amount) throw new ArcRuntimeException("End of input: " + amount + " bytes requested, " + (limit - position) + " remaining");
+        int result = position;
+        position += amount;
+        return result;
+    }
+
+    /** read byte */
+    public byte b(){
+        return bytes[require(1)];
+    }
+
+    /** read byte array */
+    public byte[] b(byte[] array, int offset, int length){
+        System.arraycopy(bytes, require(length), array, offset, length);
+        return array;
+    }
+
+    /** read byte array */
+    public byte[] b(byte[] array){
+        return b(array, 0, array.length);
+    }
+
+    /** read unsigned byte */
+    public int ub(){
+        return bytes[require(1)] & 0xFF;
+    }
+
+    /** read boolean */
+    public boolean bool(){
+        return bytes[require(1)] != 0;
+    }
+
+    /** read short */
+    public short s(){
+        return view.getShort(require(2));
+    }
+
+    /** read unsigned short */
+    public int us(){
+        return view.getShort(require(2)) & 0xFFFF;
+    }
+
+    /** read int */
+    public int i(){
+        return view.getInt(require(4));
+    }
+
+    /** read long */
+    public long l(){
+        return view.getLong(require(8));
+    }
+
+    /** read float */
+    public float f(){
+        return view.getFloat(require(4));
+    }
+
+    /** read double */
+    public double d(){
+        return view.getDouble(require(8));
+    }
+
+    /** read unsigned varint */
+    public int vu(){
+        int result = 0;
+        for(int shift = 0; shift < 35; shift += 7){
+            byte b = bytes[require(1)];
+            result |= (b & 0x7F) << shift;
+            if(b >= 0) return result;
+        }
+        throw new ArcRuntimeException("Malformed varint");
+    }
+
+    /** read zigzag-encoded signed varint */
+    public int vi(){
+        int value = vu();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** read zigzag-encoded signed varint long */
+    public long vl(){
+        long value = 0;
+        for(int shift = 0; shift < 70; shift += 7){
+            byte b = bytes[require(1)];
+            value |= (long)(b & 0x7F) << shift;
+            if(b >= 0) return (value >>> 1) ^ -(value & 1);
+        }
+        throw new ArcRuntimeException("Malformed varint");
+    }
+
+    /** read nullable string written by {@link BinaryOutput#str(String)} */
+    public @Nullable String str(){
+        int length = vu() - 1;
+        if(length == -1) return null;
+        return new String(bytes, require(length), length, Strings.utf8);
+    }
+
+    /** read string written by {@link BinaryOutput#istr(String)} */
+    public @Nullable String istr(){
+        int index = vu();
+        if(index != 0){
+            if(index > strings.size) throw new ArcRuntimeException("Invalid string table index: " + index);
+            return strings.get(index - 1);
+        }
+        String value = str();
+        if(value != null) strings.add(value);
+        return value;
+    }
+
+    /** read raw shorts */
+    public short[] shorts(short[] array, int offset, int length){
+        view.position(require(length * 2));
+        view.asShortBuffer().get(array, offset, length);
+        return array;
+    }
+
+    /** read raw ints */
+    public int[] ints(int[] array, int offset, int length){
+        view.position(require(length * 4));
+        view.asIntBuffer().get(array, offset, length);
+        return array;
+    }
+
+    /** read raw longs */
+    public long[] longs(long[] array, int offset, int length){
+        view.position(require(length * 8));
+        view.asLongBuffer().get(array, offset, length);
+        return array;
+    }
+
+    /** read raw floats */
+    public float[] floats(float[] array, int offset, int length){
+        view.position(require(length * 4));
+        view.asFloatBuffer().get(array, offset, length);
+        return array;
+    }
+
+    /** read raw doubles */
+    public double[] doubles(double[] array, int offset, int length){
+        view.position(require(length * 8));
+        view.asDoubleBuffer().get(array, offset, length);
+        return array;
+    }
+
+    /** skip bytes */
+    public void skip(int amount){
+        require(amount);
+    }
+
+    @Override
+    public void readFully(byte[] b){
+        b(b);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len){
+        b(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n){
+        n = Math.max(Math.min(n, limit - position), 0);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public boolean readBoolean(){
+        return bool();
+    }
+
+    @Override
+    public byte readByte(){
+        return b();
+    }
+
+    @Override
+    public int readUnsignedByte(){
+        return ub();
+    }
+
+    @Override
+    public short readShort(){
+        return s();
+    }
+
+    @Override
+    public int readUnsignedShort(){
+        return us();
+    }
+
+    @Override
+    public char readChar(){
+        return (char)us();
+    }
+
+    @Override
+    public int readInt(){
+        return i();
+    }
+
+    @Override
+    public long readLong(){
+        return l();
+    }
+
+    @Override
+    public float readFloat(){
+        return f();
+    }
+
+    @Override
+    public double readDouble(){
+        return d();
+    }
+
+    @Override
+    public String readLine(){
+        throw new RuntimeException("Stub!");
+    }
+
+    @Override
+    public String readUTF() throws IOException{
+        return DataInputStream.readUTF(this);
+    }
+}
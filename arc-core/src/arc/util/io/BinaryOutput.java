@@ -0,0 +1,337 @@
+package arc.util.io;
+
+import arc.struct.*;
+import arc.util.*;
+
+import java.io.*;
+import java.nio.*;
+
+/**
+ * Growable byte array output with the concise method names of {@link Writes}. Primitives are written straight into the backing
+ * array without going through streams, and variable-length (varint/zigzag) encodings, interned strings and bulk primitive arrays
+ * are supported on top. Multi-byte values are big-endian, so fixed-width data is readable by any {@link DataInput}.
+ * <br>
+ * Also implements {@link DataOutput}, so it can be passed to {@link Writes} and other existing serialization code.
+ * @see BinaryInput
+ */
+public class BinaryOutput implements DataOutput{
+    private final ObjectIntMap<String> strings = new ObjectIntMap<>();
+    private byte[] bytes;
+    private ByteBuffer view;
+    private int position;
+
+    public BinaryOutput(){
+        this(256);
+    }
+
+    public BinaryOutput(int capacity){
+        bytes = new byte[Math.max(capacity, 16)];
+        view = ByteBuffer.wrap(bytes);
+    }
+
+    /** @return the backing array. Only the first {@link #size()} bytes are valid, and the array is replaced when it grows. */
+    public byte[] bytes(){
+        return bytes;
+    }
+
+    /** @return a copy of the written bytes. */
+    public byte[] toBytes(){
+        byte[] result = new byte[position];
+        System.arraycopy(bytes, 0, result, 0, position);
+        return result;
+    }
+
+    public int size(){
+        return position;
+    }
+
+    /** Rewinds to the start and clears the string table, keeping the backing array. */
+    public void reset(){
+        position = 0;
+        strings.clear();
+    }
+
+    public void writeTo(OutputStream output) throws IOException{
+        output.write(bytes, 0, position);
+    }
+
+    public void writeTo(ByteBuffer buffer){
+        buffer.put(bytes, 0, position);
+    }
+
+    /** Makes sure that at least the specified number of bytes can be written without growing. */
+    public void ensureCapacity(int amount){
+        if(position + amount > bytes.length){
+            byte[] newBytes = new byte[Math.max(position + amount, (int)Math.min(bytes.length * 2L, Integer.MAX_VALUE - 8))];
+            System.arraycopy(bytes, 0, newBytes, 0, position);
+            bytes = newBytes;
+            view = ByteBuffer.wrap(bytes);
+        }
+    }
+
+    /** write byte */
+    public void b(int value){
+        ensureCapacity(1);
+        bytes[position++] = (byte)value;
+    }
+
+    /** write bytes */
+    public void b(byte[] array, int offset, int length){
+        ensureCapacity(length);
+        System.arraycopy(array, offset, bytes, position, length);
+        position += length;
+    }
+
+    /** write bytes */
+    public void b(byte[] array){
+        b(array, 0, array.length);
+    }
+
+    /** write boolean (writes a byte internally) */
+    public void bool(boolean value){
+        b(value ? 1 : 0);
+    }
+
+    /** write short */
+    public void s(int value){
+        ensureCapacity(2);
+        view.putShort(position, (short)value);
+        position += 2;
+    }
+
+    /** write int */
+    public void i(int value){
+        ensureCapacity(4);
+        view.putInt(position, value);
+        position += 4;
+    }
+
+    /** write long */
+    public void l(long value){
+        ensureCapacity(8);
+        view.putLong(position, value);
+        position += 8;
+    }
+
+    /** write float */
+    public void f(float value){
+        ensureCapacity(4);
+        view.putFloat(position, value);
+        position += 4;
+    }
+
+    /** write double */
+    public void d(double value){
+        ensureCapacity(8);
+        view.putDouble(position, value);
+        position += 8;
+    }
+
+    /** write unsigned varint; 1 byte for values below 128, 5 bytes at most. Negative values always take 5 bytes. */
+    public void vu(int value){
+        ensureCapacity(5);
+        while((value & ~0x7F) != 0){
+            bytes[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte)value;
+    }
+
+    /** write signed varint, zigzag encoded so that values close to zero are small. */
+    public void vi(int value){
+        vu((value << 1) ^ (value >> 31));
+    }
+
+    /** write signed varint long, zigzag encoded. */
+    public void vl(long value){
+        value = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while((value & ~0x7FL) != 0){
+            bytes[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte)value;
+    }
+
+    /** write nullable string as a varint byte length followed by UTF-8. */
+    public void str(@Nullable String value){
+        if(value == null){
+            vu(0);
+            return;
+        }
+
+        int length = value.length();
+        for(int i = 0; i < length; i++){
+            if(value.charAt(i) >= 0x80){
+                byte[] encoded = value.getBytes(Strings.utf8);
+                vu(encoded.length + 1);
+                b(encoded);
+                return;
+            }
+        }
+
+        //ASCII fast path
+        vu(length + 1);
+        ensureCapacity(length);
+        for(int i = 0; i < length; i++){
+            bytes[position++] = (byte)value.charAt(i);
+        }
+    }
+
+    /**
+     * Write string through the string table: the first occurrence is written in full, later ones as a varint index.
+     * Must be read with {@link BinaryInput#istr()}, in the same order. The table is cleared by {@link #reset()}.
+     */
+    public void istr(@Nullable String value){
+        int index = value == null ? -1 : strings.get(value, -1);
+        if(index != -1){
+            vu(index + 1);
+        }else{
+            vu(0);
+            str(value);
+            if(value != null) strings.put(value, strings.size);
+        }
+    }
+
+    /** write raw shorts, without a length */
+    public void shorts(short[] array, int offset, int length){
+        ensureCapacity(length * 2);
+        view.position(position);
+        view.asShortBuffer().put(array, offset, length);
+        position += length * 2;
+    }
+
+    /** write raw ints, without a length */
+    public void ints(int[] array, int offset, int length){
+        ensureCapacity(length * 4);
+        view.position(position);
+        view.asIntBuffer().put(array, offset, length);
+        position += length * 4;
+    }
+
+    /** write raw longs, without a length */
+    public void longs(long[] array, int offset, int length){
+        ensureCapacity(length * 8);
+        view.position(position);
+        view.asLongBuffer().put(array, offset, length);
+        position += length * 8;
+    }
+
+    /** write raw floats, without a length */
+    public void floats(float[] array, int offset, int length){
+        ensureCapacity(length * 4);
+        view.position(position);
+        view.asFloatBuffer().put(array, offset, length);
+        position += length * 4;
+    }
+
+    /** write raw doubles, without a length */
+    public void doubles(double[] array, int offset, int length){
+        ensureCapacity(length * 8);
+        view.position(position);
+        view.asDoubleBuffer().put(array, offset, length);
+        position += length * 8;
+    }
+
+    @Override
+    public void write(int b){
+        b(b);
+    }
+
+    @Override
+    public void write(byte[] b){
+        b(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len){
+        b(b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v){
+        bool(v);
+    }
+
+    @Override
+    public void writeByte(int v){
+        b(v);
+    }
+
+    @Override
+    public void writeShort(int v){
+        s(v);
+    }
+
+    @Override
+    public void writeChar(int v){
+        s(v);
+    }
+
+    @Override
+    public void writeInt(int v){
+        i(v);
+    }
+
+    @Override
+    public void writeLong(long v){
+        l(v);
+    }
+
+    @Override
+    public void writeFloat(float v){
+        f(v);
+    }
+
+    @Override
+    public void writeDouble(double v){
+        d(v);
+    }
+
+    @Override
+    public void writeBytes(String s){
+        int length = s.length();
+        ensureCapacity(length);
+        for(int i = 0; i < length; i++){
+            bytes[position++] = (byte)s.charAt(i);
+        }
+    }
+
+    @Override
+    public void writeChars(String s){
+        int length = s.length();
+        ensureCapacity(length * 2);
+        for(int i = 0; i < length; i++){
+            view.putChar(position, s.charAt(i));
+            position += 2;
+        }
+    }
+
+    /** Writes modified UTF-8, compatible with {@link DataInput#readUTF()}. */
+    @Override
+    public void writeUTF(String s){
+        int length = s.length();
+        int utfLength = 0;
+        for(int i = 0; i < length; i++){
+            char c = s.charAt(i);
+            utfLength += c >= 0x0001 && c <= 0x007F ? 1 : c > 0x07FF ? 3 : 2;
+        }
+        if(utfLength > 65535) throw new ArcRuntimeException("Encoded string too long: " + utfLength + " bytes");
+
+        s(utfLength);
+        ensureCapacity(utfLength);
+        for(int i = 0; i < length; i++){
+            char c = s.charAt(i);
+            if(c >= 0x0001 && c <= 0x007F){
+                bytes[position++] = (byte)c;
+            }else if(c > 0x07FF){
+                bytes[position++] = (byte)(0xE0 | ((c >> 12) & 0x0F));
+                bytes[position++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte)(0x80 | (c & 0x3F));
+            }else{
+                bytes[position++] = (byte)(0xC0 | ((c >> 6) & 0x1F));
+                bytes[position++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+    }
+}
@@ -159,4 +159,32 @@ public final class Streams{
             return buf;
         }
     }
+
+    /** An InputStream that reads the remaining bytes of a ByteBuffer, advancing its position. */
+    public static class ByteBufferInputStream extends InputStream{
+        private final ByteBuffer buffer;
+
+        public ByteBufferInputStream(ByteBuffer buffer){
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(){
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length){
+            if(length == 0) return 0;
+            if(!buffer.hasRemaining()) return -1;
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
+
+        @Override
+        public int available(){
+            return buffer.remaining();
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package arc.util.pooling;
+
+import arc.struct.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A thread-safe pool that does not lock in the common case. Each thread obtains from and frees to its own magazine, a small array
+ * of free objects. Only when a magazine is empty or full is it exchanged with the shared depot, a lock-free queue of full magazines.
+ * <p>
+ * {@link #max} bounds the number of objects in the depot; every thread that uses the pool may additionally hold up to
+ * {@link #magazineSize} free objects.
+ * @see Pools
+ */
+@SuppressWarnings("unchecked")
+public abstract class ConcurrentPool<T> extends Pool<T>{
+    /** Number of free objects each thread caches before handing them to the depot. */
+    public final int magazineSize;
+    /**
+     * If true, freeing an object that is already free throws an {@link IllegalStateException}. This tracks every free object in a
+     * synchronized set, so it should only be enabled while debugging.
+     */
+    public volatile boolean debug;
+
+    private final int maxMagazines;
+    private final ThreadLocal<Magazine> local = new ThreadLocal<Magazine>(){
+        @Override
+        protected Magazine initialValue(){
+            return new Magazine(magazineSize);
+        }
+    };
+    private final ConcurrentLinkedQueue<Object[]> full = new ConcurrentLinkedQueue<>(), empty = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger fullCount = new AtomicInteger();
+    private final Set<Object> freed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Creates a pool with a magazine size of 32 and no maximum. */
+    public ConcurrentPool(){
+        this(32, Integer.MAX_VALUE);
+    }
+
+    /** @param max the maximum number of free objects to store in the shared depot. */
+    public ConcurrentPool(int magazineSize, int max){
+        super(0, max);
+        if(magazineSize < 1) throw new IllegalArgumentException("magazineSize must be at least 1: " + magazineSize);
+        this.magazineSize = magazineSize;
+        this.maxMagazines = Math.max(max / magazineSize, 1);
+    }
+
+    @Override
+    public T obtain(){
+        Magazine mag = local.get();
+        if(mag.size == 0){
+            Object[] loaded = full.poll();
+            if(loaded == null) return newObject();
+
+            fullCount.decrementAndGet();
+            empty.offer(mag.items);
+            mag.items = loaded;
+            mag.size = loaded.length;
+        }
+
+        T object = (T)mag.items[--mag.size];
+        mag.items[mag.size] = null;
+        if(debug){
+            synchronized(freed){
+                freed.remove(object);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Puts the specified object in the calling thread's magazine, making it eligible to be returned by {@link #obtain()}. If
+     * the magazine is full and the depot already holds {@link #max} objects, the object is reset but not added to the pool.
+     */
+    @Override
+    public void free(T object){
+        if(object == null) throw new IllegalArgumentException("object cannot be null.");
+        if(debug){
+            synchronized(freed){
+                if(!freed.add(object)) throw new IllegalStateException("Object was freed twice: " + object);
+            }
+        }
+
+        reset(object);
+        Magazine mag = local.get();
+        if(mag.size == magazineSize){
+            if(fullCount.incrementAndGet() > maxMagazines){
+                //depot is full, drop the object
+                fullCount.decrementAndGet();
+                if(debug){
+                    synchronized(freed){
+                        freed.remove(object);
+                    }
+                }
+                return;
+            }
+
+            full.offer(mag.items);
+            Object[] items = empty.poll();
+            mag.items = items == null ? new Object[magazineSize] : items;
+            mag.size = 0;
+            peak = Math.max(peak, fullCount.get() * magazineSize);
+        }
+        mag.items[mag.size++] = object;
+    }
+
+    @Override
+    public void freeAll(Seq<T> objects){
+        if(objects == null) throw new IllegalArgumentException("objects cannot be null.");
+        for(int i = 0; i < objects.size; i++){
+            T object = objects.get(i);
+            if(object != null) free(object);
+        }
+    }
+
+    /** Removes all free objects from the depot and the calling thread's magazine. Magazines of other threads are kept. */
+    @Override
+    public void clear(){
+        Magazine mag = local.get();
+        Arrays.fill(mag.items, 0, mag.size, null);
+        mag.size = 0;
+        while(full.poll() != null){
+            fullCount.decrementAndGet();
+        }
+        synchronized(freed){
+            freed.clear();
+        }
+    }
+
+    /** @return the number of objects in the depot and the calling thread's magazine; other threads' magazines are not counted. */
+    @Override
+    public int getFree(){
+        return fullCount.get() * magazineSize + local.get().size;
+    }
+
+    static class Magazine{
+        Object[] items;
+        int size;
+
+        Magazine(int capacity){
+            items = new Object[capacity];
+        }
+    }
+}
@@ -48,11 +48,12 @@ abstract public class Pool<T>{
      */
     public void free(T object){
         if(object == null) throw new IllegalArgumentException("object cannot be null.");
+        //reset first, so that objects which refuse to be reset are not pooled
+        reset(object);
         if(freeObjects.size < max){
             freeObjects.add(object);
             peak = Math.max(peak, freeObjects.size);
         }
-        reset(object);
     }
 
     /**
@@ -76,8 +77,8 @@ abstract public class Pool<T>{
         for(int i = 0; i < objects.size; i++){
             T object = objects.get(i);
             if(object == null) continue;
-            if(freeObjects.size < max) freeObjects.add(object);
             reset(object);
+            if(freeObjects.size < max) freeObjects.add(object);
         }
         peak = Math.max(peak, freeObjects.size);
     }
@@ -1,34 +1,44 @@
 package arc.util.pooling;
 
 import arc.struct.Seq;
-import arc.struct.ObjectMap;
 import arc.func.Prov;
 
+import java.util.concurrent.*;
+
 /**
  * Stores a map of {@link Pool}s by type for convenient static access.
+ * <p>
+ * Pools created by this class are {@link ConcurrentPool}s, which can be used from any thread without locking. For frequently
+ * pooled types, keep the pool returned by {@link #get(Class, Prov)} instead of looking it up on every call. Pools registered with
+ * {@link #set(Class, Pool)} that are not concurrent are accessed while holding the lock of this class.
  * @author Nathan Sweet
  */
 @SuppressWarnings("unchecked")
 public class Pools{
-    private static final ObjectMap<Class, Pool> typePools = new ObjectMap<>();
+    private static final ConcurrentHashMap<Class, Pool> typePools = new ConcurrentHashMap<>();
 
     private Pools(){
     }
 
     /**
-     * Returns a new or existing pool for the specified type, stored in a Class to {@link Pool} map. Note that the max size is ignored for some reason.
-     * if this is not the first time this pool has been requested.
+     * Returns a new or existing pool for the specified type, stored in a Class to {@link Pool} map. The max size is ignored if this is
+     * not the first time this pool has been requested.
+     * <p>
+     * The pool is a {@link ConcurrentPool} with a magazine size of 32, so max only bounds the free objects in its shared depot
+     * (rounded down to a multiple of 32, at least 32). Every thread that uses the pool can hold up to 32 more free objects, so with
+     * N threads the pool can retain up to max + 32 * N objects.
      */
     public static <T> Pool<T> get(Class<T> type, Prov<T> supplier, int max){
         Pool<T> pool = typePools.get(type);
         if(pool == null){
-            pool = new Pool<T>(4, max){
+            pool = new ConcurrentPool<T>(32, max){
                 @Override
                 protected T newObject(){
                     return supplier.get();
                 }
             };
-            typePools.put(type, pool);
+            Pool<T> existing = typePools.putIfAbsent(type, pool);
+            if(existing != null) pool = existing;
         }
         return pool;
     }
@@ -47,16 +57,30 @@ public class Pools{
     }
 
     /** Obtains an object from the {@link #get(Class, Prov) pool}. */
-    public static synchronized <T> T obtain(Class<T> type, Prov<T> supplier){
-        return get(type, supplier).obtain();
+    public static <T> T obtain(Class<T> type, Prov<T> supplier){
+        Pool<T> pool = get(type, supplier);
+        if(pool instanceof ConcurrentPool) return pool.obtain();
+        synchronized(Pools.class){
+            return pool.obtain();
+        }
     }
 
     /** Frees an object from the {@link #get(Class, Prov) pool}. */
-    public static synchronized void free(Object object){
+    public static void free(Object object){
         if(object == null) throw new IllegalArgumentException("Object cannot be null.");
         Pool pool = typePools.get(object.getClass());
         if(pool == null) return; // Ignore freeing an object that was never retained.
-        pool.free(object);
+        free(pool, object);
+    }
+
+    private static void free(Pool pool, Object object){
+        if(pool instanceof ConcurrentPool){
+            pool.free(object);
+        }else{
+            synchronized(Pools.class){
+                pool.free(object);
+            }
+        }
     }
 
     /**
@@ -81,7 +105,7 @@ public class Pools{
                 pool = typePools.get(object.getClass());
                 if(pool == null) continue; // Ignore freeing an object that was never retained.
             }
-            pool.free(object);
+            free(pool, object);
             if(!samePool) pool = null;
         }
     }
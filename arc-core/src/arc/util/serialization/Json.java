@@ -8,6 +8,7 @@ import arc.struct.Queue;
 import arc.struct.OrderedMap.*;
 import arc.util.*;
 import arc.util.io.*;
+import arc.util.serialization.JsonPullParser.*;
 import arc.util.serialization.JsonValue.*;
 import arc.util.serialization.JsonWriter.*;
 
@@ -839,6 +840,31 @@ public class Json{
         return readValue(type, elementType, new JsonReader().parse(json));
     }
 
+    /**
+     * Reads directly from a pull parser, without building a DOM for the whole document. The parser is closed afterwards.
+     * @param type May be null if the type is unknown.
+     * @return May be null.
+     * @see #readValue(Class, Class, JsonPullParser)
+     */
+    public <T> T fromJson(Class<T> type, JsonPullParser parser){
+        return fromJson(type, null, parser);
+    }
+
+    /**
+     * Reads directly from a pull parser, without building a DOM for the whole document. The parser is closed afterwards.
+     * @param type May be null if the type is unknown.
+     * @param elementType May be null if the type is unknown.
+     * @return May be null.
+     */
+    public <T> T fromJson(Class<T> type, Class elementType, JsonPullParser parser){
+        try{
+            parser.nextToken();
+            return readValue(type, elementType, parser);
+        }finally{
+            parser.close();
+        }
+    }
+
     public void readField(Object object, String name, JsonValue jsonData){
         readField(object, name, name, null, jsonData);
     }
@@ -1199,6 +1225,224 @@ public class Json{
         return null;
     }
 
+    public <T> T readValue(Class<T> type, Class elementType, JsonPullParser parser){
+        return readValue(type, elementType, parser, null);
+    }
+
+    /**
+     * Reads the value at the current token of the parser. For objects and arrays, the parser is left on the matching end token.
+     * <br>
+     * Plain objects, maps, arrays and collections are bound as their tokens are read. Values of types with a {@link Serializer},
+     * {@link JsonSerializable} types, and objects whose class cannot be bound incrementally are read into a {@link JsonValue}
+     * first and handed to {@link #readValue(Class, Class, JsonValue, Class)}, so only that value is held in memory.
+     * A class tag is only recognized as the first field of an object, where {@link #writeType(Class)} puts it.
+     * @param type May be null if the type is unknown.
+     * @param elementType May be null if the type is unknown.
+     * @return May be null.
+     */
+    public <T> T readValue(Class<T> type, Class elementType, JsonPullParser parser, Class keytype){
+        Token token = parser.token();
+        if(token == null || token == Token.end || token == Token.objectEnd || token == Token.arrayEnd){
+            throw new SerializationException("Expected a value, found: " + token);
+        }
+
+        if(token == Token.objectStart) return readObject(type, elementType, parser, keytype);
+
+        if(type == null || (classToSerializer.get(type) == null && !JsonSerializable.class.isAssignableFrom(type))){
+            switch(token){
+                case arrayStart:
+                    return readArray(type, elementType, parser);
+                case nullValue:
+                    return null;
+                case bool:
+                    if(type == null || type == boolean.class || type == Boolean.class) return (T)(Boolean)parser.booleanValue();
+                    break;
+                case string:
+                    if(type == null || type == String.class || type == CharSequence.class) return (T)parser.stringValue();
+                    break;
+                case number:
+                    try{
+                        if(type == null || type == float.class || type == Float.class) return (T)(Float)parser.floatValue();
+                        if(type == int.class || type == Integer.class) return (T)(Integer)parser.intValue();
+                        if(type == long.class || type == Long.class) return (T)(Long)parser.longValue();
+                        if(type == double.class || type == Double.class) return (T)(Double)parser.doubleValue();
+                        if(type == String.class) return (T)parser.stringValue();
+                        if(type == short.class || type == Short.class) return (T)(Short)(short)parser.intValue();
+                        if(type == byte.class || type == Byte.class) return (T)(Byte)(byte)parser.intValue();
+                    }catch(NumberFormatException ignored){
+                    }
+                    break;
+            }
+        }
+
+        return readValue(type, elementType, parser.readValue(), keytype);
+    }
+
+    private <T> T readObject(Class<T> type, Class elementType, JsonPullParser parser, Class keytype){
+        Token token = parser.nextToken();
+        String className = null;
+        if(token != Token.objectEnd && typeName != null && typeName.equals(parser.name())){
+            className = parser.stringValue();
+            type = resolveClass(className);
+            token = parser.nextToken();
+        }
+
+        if(!canReadIncrementally(type)){
+            //collect the rest of this object and let the DOM reader handle it
+            JsonValue jsonData = new JsonValue(ValueType.object);
+            JsonValue last = null;
+            if(className != null){
+                last = new JsonValue(className);
+                last.name = typeName;
+                last.parent = jsonData;
+                jsonData.child = last;
+                jsonData.size++;
+            }
+            for(; token != Token.objectEnd; token = parser.nextToken()){
+                String name = parser.name();
+                JsonValue child = parser.readValue();
+                child.name = name;
+                child.parent = jsonData;
+                if(last == null){
+                    jsonData.child = child;
+                }else{
+                    last.next = child;
+                    child.prev = last;
+                }
+                last = child;
+                jsonData.size++;
+            }
+            return readValue(type, elementType, jsonData, keytype);
+        }
+
+        Object object = newInstance(type);
+
+        if(object instanceof ObjectMap){
+            ObjectMap result = (ObjectMap)object;
+            for(; token != Token.objectEnd; token = parser.nextToken()){
+                String name = parser.name();
+                result.put(keytype != null ? readValue(keytype, null, new JsonValue(name)) : name, readValue(elementType, null, parser));
+            }
+            return (T)result;
+        }
+        if(object instanceof IntMap){
+            IntMap result = (IntMap)object;
+            for(; token != Token.objectEnd; token = parser.nextToken()){
+                result.put(Integer.parseInt(parser.name()), readValue(elementType, null, parser));
+            }
+            return (T)result;
+        }
+        if(object instanceof ArrayMap){
+            ArrayMap result = (ArrayMap)object;
+            for(; token != Token.objectEnd; token = parser.nextToken()){
+                result.put(parser.name(), readValue(elementType, null, parser));
+            }
+            return (T)result;
+        }
+        if(object instanceof Map){
+            Map result = (Map)object;
+            for(; token != Token.objectEnd; token = parser.nextToken()){
+                String name = parser.name();
+                if(name.equals(typeName)) continue;
+                result.put(name, readValue(elementType, null, parser));
+            }
+            return (T)result;
+        }
+
+        ObjectMap<String, FieldMetadata> fields = getFields(type);
+        for(; token != Token.objectEnd; token = parser.nextToken()){
+            String name = parser.name();
+            FieldMetadata metadata = fields.get(name.replace(" ", "_"));
+            if(metadata == null){
+                if(name.equals(typeName)){
+                    if(resolveClass(parser.stringValue()) == type) continue;
+                    throw new SerializationException("Class tag must be the first field of an object when reading incrementally: " + parser.stringValue() + " (" + type.getName() + ")");
+                }
+                if(ignoreUnknownFields || ignoreUnknownField(type, name)){
+                    if(debug) Log.warn("Ignoring unknown field: " + name + " (" + type.getName() + ")");
+                    parser.skipChildren();
+                    continue;
+                }else{
+                    throw new SerializationException("Field not found: " + name + " (" + type.getName() + ")");
+                }
+            }
+            Field field = metadata.field;
+            try{
+                field.set(object, readValue(field.getType(), metadata.elementType, parser, metadata.keyType));
+            }catch(IllegalAccessException ex){
+                throw new SerializationException("Error accessing field: " + field.getName() + " (" + type.getName() + ")", ex);
+            }catch(SerializationException ex){
+                ex.addTrace(field.getName() + " (" + type.getName() + ")");
+                throw ex;
+            }catch(RuntimeException runtimeEx){
+                SerializationException ex = new SerializationException(runtimeEx);
+                ex.addTrace(field.getName() + " (" + type.getName() + ")");
+                throw ex;
+            }
+        }
+        return (T)object;
+    }
+
+    private <T> T readArray(Class<T> type, Class elementType, JsonPullParser parser){
+        if(type == null || type == Object.class) type = (Class<T>)Seq.class;
+        if(Seq.class.isAssignableFrom(type)){
+            Seq result = type == Seq.class ? new Seq() : (Seq)newInstance(type);
+            for(Token token = parser.nextToken(); token != Token.arrayEnd; token = parser.nextToken())
+                result.add(readValue(elementType, null, parser));
+            return (T)result;
+        }
+        if(ObjectSet.class.isAssignableFrom(type)){
+            ObjectSet result = type == ObjectSet.class ? new ObjectSet() : (ObjectSet)newInstance(type);
+            for(Token token = parser.nextToken(); token != Token.arrayEnd; token = parser.nextToken())
+                result.add(readValue(elementType, null, parser));
+            return (T)result;
+        }
+        if(arc.struct.Queue.class.isAssignableFrom(type)){
+            arc.struct.Queue result = type == arc.struct.Queue.class ? new arc.struct.Queue() : (Queue)newInstance(type);
+            for(Token token = parser.nextToken(); token != Token.arrayEnd; token = parser.nextToken())
+                result.addLast(readValue(elementType, null, parser));
+            return (T)result;
+        }
+        if(Collection.class.isAssignableFrom(type)){
+            Collection result = type.isInterface() ? new ArrayList() : (Collection)newInstance(type);
+            for(Token token = parser.nextToken(); token != Token.arrayEnd; token = parser.nextToken())
+                result.add(readValue(elementType, null, parser));
+            return (T)result;
+        }
+        if(type.isArray()){
+            Class componentType = type.getComponentType();
+            if(elementType == null) elementType = componentType;
+            Seq values = new Seq();
+            for(Token token = parser.nextToken(); token != Token.arrayEnd; token = parser.nextToken())
+                values.add(readValue(elementType, null, parser));
+            Object result = java.lang.reflect.Array.newInstance(componentType, values.size);
+            for(int i = 0; i < values.size; i++)
+                java.lang.reflect.Array.set(result, i, values.get(i));
+            return (T)result;
+        }
+        throw new SerializationException("Unable to convert array to required type: " + type.getName());
+    }
+
+    /** @return whether objects of this type can be bound field by field from a {@link JsonPullParser}. */
+    private boolean canReadIncrementally(Class type){
+        return type != null && classToSerializer.get(type) == null && !JsonSerializable.class.isAssignableFrom(type)
+        && type != String.class && !Reflect.isWrapper(type) && !Enum.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type)
+        && !type.isArray() && !type.isInterface() && !Modifier.isAbstract(type.getModifiers())
+        && !ObjectIntMap.class.isAssignableFrom(type) && !ObjectSet.class.isAssignableFrom(type) && !IntSet.class.isAssignableFrom(type);
+    }
+
+    private Class resolveClass(String className){
+        Class type = getClass(className);
+        if(type == null){
+            try{
+                type = Class.forName(className);
+            }catch(Throwable ex){
+                throw new SerializationException(ex);
+            }
+        }
+        return type;
+    }
+
     /**
      * Each field on the <code>to</code> object is set to the value for the field with the same name on the <code>from</code>
      * object. The <code>to</code> object must have at least all the fields of the <code>from</code> object with the same name and
@@ -0,0 +1,236 @@
+package arc.util.serialization;
+
+import arc.util.*;
+import arc.util.serialization.JsonValue.*;
+
+import java.io.*;
+
+/**
+ * Cursor-style JSON parser. Instead of building a {@link JsonValue} tree, the document is walked one token at a time with
+ * {@link #nextToken()}, and the value of the current token is read through the typed accessors. Memory use does not depend on
+ * the size of the document.
+ * <br>
+ * Instances are obtained through {@link JsonReader#pull} and {@link UBJsonReader#pull}.
+ * <pre>
+ * JsonPullParser parser = new JsonReader().pull(file);
+ * parser.nextToken(); //objectStart
+ * while(parser.nextToken() != Token.objectEnd){
+ *     if(parser.name().equals("width")) width = parser.intValue();
+ *     else parser.skipChildren();
+ * }
+ * </pre>
+ */
+public abstract class JsonPullParser implements Closeable{
+    protected @Nullable Token token;
+    protected @Nullable String name, stringValue;
+    protected long longValue;
+    protected double doubleValue;
+    protected boolean isDouble;
+    protected int depth;
+
+    /**
+     * Advances to the next token.
+     * @return the new current token; {@link Token#end} once the root value has been fully read.
+     * @throws SerializationException if the input is malformed.
+     */
+    public abstract Token nextToken();
+
+    /** @return the current token, or null if {@link #nextToken()} has not been called yet. */
+    public @Nullable Token token(){
+        return token;
+    }
+
+    /** @return the name of the current value if its parent is an object, otherwise null. */
+    public @Nullable String name(){
+        return name;
+    }
+
+    /** @return the nesting level of the current token. Start tokens report the depth of their contents, end tokens that of their parent. */
+    public int depth(){
+        return depth;
+    }
+
+    public boolean isNull(){
+        return token == Token.nullValue;
+    }
+
+    /**
+     * If the current token is {@link Token#objectStart} or {@link Token#arrayStart}, advances to its matching end token.
+     * Otherwise this does nothing.
+     */
+    public void skipChildren(){
+        if(token != Token.objectStart && token != Token.arrayStart) return;
+        int target = depth - 1;
+        while(true){
+            Token next = nextToken();
+            if(next == Token.end) throw new SerializationException("Unexpected end of input.");
+            if((next == Token.objectEnd || next == Token.arrayEnd) && depth == target) return;
+        }
+    }
+
+    /** @return the current value as a string; null for a null value. */
+    public @Nullable String stringValue(){
+        switch(current()){
+            case string:
+                return stringValue;
+            case number:
+                return stringValue != null ? stringValue : isDouble ? Double.toString(doubleValue) : Long.toString(longValue);
+            case bool:
+                return longValue != 0 ? "true" : "false";
+            case nullValue:
+                return null;
+        }
+        throw typeMismatch("string");
+    }
+
+    public long longValue(){
+        switch(current()){
+            case string:
+                return Long.parseLong(stringValue);
+            case number:
+                return isDouble ? (long)doubleValue : longValue;
+            case bool:
+                return longValue;
+        }
+        throw typeMismatch("long");
+    }
+
+    public int intValue(){
+        switch(current()){
+            case string:
+                return Integer.parseInt(stringValue);
+            case number:
+                return isDouble ? (int)doubleValue : (int)longValue;
+            case bool:
+                return (int)longValue;
+        }
+        throw typeMismatch("int");
+    }
+
+    public double doubleValue(){
+        switch(current()){
+            case string:
+                return Double.parseDouble(stringValue);
+            case number:
+                return isDouble ? doubleValue : (double)longValue;
+            case bool:
+                return longValue;
+        }
+        throw typeMismatch("double");
+    }
+
+    public float floatValue(){
+        switch(current()){
+            case string:
+                return Float.parseFloat(stringValue);
+            case number:
+                return isDouble ? (float)doubleValue : (float)longValue;
+            case bool:
+                return longValue;
+        }
+        throw typeMismatch("float");
+    }
+
+    public boolean booleanValue(){
+        switch(current()){
+            case string:
+                return stringValue.equalsIgnoreCase("true");
+            case number:
+                return isDouble ? doubleValue != 0 : longValue != 0;
+            case bool:
+                return longValue != 0;
+        }
+        throw typeMismatch("boolean");
+    }
+
+    /**
+     * Reads the current value into a {@link JsonValue}. For start tokens, the whole subtree is read and the parser is left on
+     * the matching end token. This is useful for handing small parts of a large document to code that expects a DOM.
+     */
+    public JsonValue readValue(){
+        JsonValue value;
+        switch(current()){
+            case objectStart:
+            case arrayStart:
+                value = new JsonValue(token == Token.objectStart ? ValueType.object : ValueType.array);
+                JsonValue last = null;
+                while(true){
+                    Token next = nextToken();
+                    if(next == Token.objectEnd || next == Token.arrayEnd) break;
+                    if(next == Token.end) throw new SerializationException("Unexpected end of input.");
+                    String childName = name;
+                    JsonValue child = readValue();
+                    child.name = childName;
+                    child.parent = value;
+                    if(last == null){
+                        value.child = child;
+                    }else{
+                        last.next = child;
+                        child.prev = last;
+                    }
+                    last = child;
+                    value.size++;
+                }
+                break;
+            case string:
+                value = new JsonValue(stringValue);
+                break;
+            case number:
+                value = isDouble ? new JsonValue(doubleValue, stringValue) : new JsonValue(longValue, stringValue);
+                break;
+            case bool:
+                value = new JsonValue(longValue != 0);
+                break;
+            case nullValue:
+                value = new JsonValue(ValueType.nullValue);
+                break;
+            default:
+                throw new SerializationException("No value at token: " + token);
+        }
+        return value;
+    }
+
+    @Override
+    public void close(){
+    }
+
+    protected void setString(@Nullable String value){
+        token = value == null ? Token.nullValue : Token.string;
+        stringValue = value;
+    }
+
+    protected void setLong(long value, @Nullable String stringValue){
+        token = Token.number;
+        isDouble = false;
+        longValue = value;
+        this.stringValue = stringValue;
+    }
+
+    protected void setDouble(double value, @Nullable String stringValue){
+        token = Token.number;
+        isDouble = true;
+        doubleValue = value;
+        this.stringValue = stringValue;
+    }
+
+    protected void setBoolean(boolean value){
+        token = Token.bool;
+        longValue = value ? 1 : 0;
+        stringValue = null;
+    }
+
+    private Token current(){
+        if(token == null) throw new IllegalStateException("nextToken() has not been called.");
+        return token;
+    }
+
+    private IllegalStateException typeMismatch(String type){
+        return new IllegalStateException("Value cannot be converted to " + type + ": " + token + (name == null ? "" : " (" + name + ")"));
+    }
+
+    public enum Token{
+        objectStart, objectEnd, arrayStart, arrayEnd, string, number, bool, nullValue,
+        /** Returned once the root value has been fully read. */
+        end
+    }
+}
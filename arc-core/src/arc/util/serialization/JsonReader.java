@@ -7,12 +7,14 @@ import arc.struct.Seq;
 import arc.files.Fi;
 import arc.util.Strings;
 import arc.util.io.Streams;
+import arc.util.io.Streams.ByteBufferInputStream;
 import arc.util.serialization.JsonValue.ValueType;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 
 /**
  * Lightweight JSON parser.<br>
@@ -149,6 +151,31 @@ public class JsonReader implements BaseJsonReader{
         }
     }
 
+    /** @return a {@link JsonPullParser} that reads tokens from the reader incrementally, without building a DOM. */
+    public JsonPullParser pull(Reader reader){
+        return new JsonTextPullParser(reader);
+    }
+
+    public JsonPullParser pull(InputStream input){
+        return pull(new InputStreamReader(input, Strings.utf8));
+    }
+
+    public JsonPullParser pull(ByteBuffer buffer){
+        return pull(new ByteBufferInputStream(buffer));
+    }
+
+    public JsonPullParser pull(Fi file){
+        return pull(file.reader("UTF-8"));
+    }
+
+    public JsonPullParser pull(String json){
+        return new JsonTextPullParser(json);
+    }
+
+    public JsonPullParser pull(char[] data, int offset, int length){
+        return new JsonTextPullParser(data, offset, length);
+    }
+
     public JsonValue parse(char[] data, int offset, int length){
         int cs, p = offset, top;
         int[] stack = new int[4];
@@ -0,0 +1,270 @@
+package arc.util.serialization;
+
+import arc.util.*;
+import arc.util.io.*;
+
+import java.io.*;
+
+/**
+ * {@link JsonPullParser} for textual JSON. Accepts the same relaxed syntax as {@link JsonReader}: comments, unquoted names and
+ * values, and optional commas. Input is read through a fixed-size buffer, so arbitrarily large documents can be processed.
+ */
+public class JsonTextPullParser extends JsonPullParser{
+    private final StringBuilder builder = new StringBuilder(32);
+    private @Nullable Reader reader;
+    private char[] buffer;
+    private int pos, limit;
+    private boolean[] objects = new boolean[8];
+    private boolean started;
+
+    public JsonTextPullParser(Reader reader){
+        this(reader, 8192);
+    }
+
+    public JsonTextPullParser(Reader reader, int bufferSize){
+        this.reader = reader;
+        this.buffer = new char[bufferSize];
+    }
+
+    /** Parses directly from the specified array, without copying it. */
+    public JsonTextPullParser(char[] data, int offset, int length){
+        this.buffer = data;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    public JsonTextPullParser(String json){
+        this(json.toCharArray(), 0, json.length());
+    }
+
+    @Override
+    public Token nextToken(){
+        name = null;
+        stringValue = null;
+
+        int c = skipSpace();
+        if(depth == 0){
+            if(started){
+                if(c != -1) throw error("Unexpected content after root value");
+                return token = Token.end;
+            }
+            if(c == -1) throw error("Unexpected end of input");
+            started = true;
+        }else{
+            boolean object = objects[depth - 1];
+            if(c == -1) throw error(object ? "Unmatched brace" : "Unmatched bracket");
+            if(c == (object ? '}' : ']')){
+                pos++;
+                depth--;
+                return token = object ? Token.objectEnd : Token.arrayEnd;
+            }
+            if(object){
+                name = c == '"' ? readQuoted() : readUnquoted(true);
+                if(skipSpace() != ':') throw error("Expected ':' after name");
+                pos++;
+                c = skipSpace();
+                if(c == -1) throw error("Unexpected end of input");
+            }
+        }
+
+        switch(c){
+            case '{':
+                pos++;
+                push(true);
+                return token = Token.objectStart;
+            case '[':
+                pos++;
+                push(false);
+                return token = Token.arrayStart;
+            case '}':
+            case ']':
+            case ',':
+            case ':':
+                throw error("Unexpected '" + (char)c + "'");
+            case '"':
+                setString(readQuoted());
+                return token;
+            default:
+                readUnquotedValue(readUnquoted(false));
+                return token;
+        }
+    }
+
+    @Override
+    public void close(){
+        Streams.close(reader);
+    }
+
+    private void push(boolean object){
+        if(depth == objects.length){
+            boolean[] newObjects = new boolean[objects.length * 2];
+            System.arraycopy(objects, 0, newObjects, 0, objects.length);
+            objects = newObjects;
+        }
+        objects[depth++] = object;
+    }
+
+    /** Interprets an unquoted value the same way {@link JsonReader} does. */
+    private void readUnquotedValue(String value){
+        switch(value){
+            case "true": setBoolean(true); return;
+            case "false": setBoolean(false); return;
+            case "null": setString(null); return;
+        }
+
+        boolean couldBeDouble = false, couldBeLong = true;
+        outer:
+        for(int i = 0; i < value.length(); i++){
+            switch(value.charAt(i)){
+                case '0': case '1': case '2': case '3': case '4':
+                case '5': case '6': case '7': case '8': case '9':
+                case '-': case '+':
+                    break;
+                case '.': case 'e': case 'E':
+                    couldBeDouble = true;
+                    couldBeLong = false;
+                    break;
+                default:
+                    couldBeDouble = false;
+                    couldBeLong = false;
+                    break outer;
+            }
+        }
+
+        try{
+            if(couldBeDouble){
+                setDouble(Double.parseDouble(value), value);
+                return;
+            }else if(couldBeLong){
+                setLong(Long.parseLong(value), value);
+                return;
+            }
+        }catch(NumberFormatException ignored){
+        }
+        setString(value);
+    }
+
+    /** Skips whitespace, comments and commas. @return the next significant character without consuming it, or -1 at the end of input. */
+    private int skipSpace(){
+        while(true){
+            if(pos == limit && !fill()) return -1;
+            char c = buffer[pos];
+            if(c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == ','){
+                pos++;
+            }else if(c == '/' && peek(1) == '/'){
+                while(true){
+                    if(pos == limit && !fill()) return -1;
+                    if(buffer[pos++] == '\n') break;
+                }
+            }else if(c == '/' && peek(1) == '*'){
+                pos += 2;
+                while(true){
+                    if(pos == limit && !fill()) throw error("Unterminated comment");
+                    if(buffer[pos++] == '*' && peek(0) == '/'){
+                        pos++;
+                        break;
+                    }
+                }
+            }else{
+                return c;
+            }
+        }
+    }
+
+    private String readQuoted(){
+        pos++;
+        builder.setLength(0);
+        while(true){
+            if(pos == limit && !fill()) throw error("Unterminated string");
+            char c = buffer[pos++];
+            if(c == '"') return builder.toString();
+            if(c != '\\'){
+                builder.append(c);
+                continue;
+            }
+            if(pos == limit && !fill()) throw error("Unterminated string");
+            c = buffer[pos++];
+            switch(c){
+                case '"':
+                case '\\':
+                case '/':
+                    break;
+                case 'b': c = '\b'; break;
+                case 'f': c = '\f'; break;
+                case 'n': c = '\n'; break;
+                case 'r': c = '\r'; break;
+                case 't': c = '\t'; break;
+                case 'u':
+                    int code = 0;
+                    for(int i = 0; i < 4; i++){
+                        if(pos == limit && !fill()) throw error("Unterminated string");
+                        int digit = Character.digit(buffer[pos++], 16);
+                        if(digit == -1) throw error("Illegal unicode escape");
+                        code = code << 4 | digit;
+                    }
+                    c = (char)code;
+                    break;
+                default:
+                    throw error("Illegal escaped character: \\" + c);
+            }
+            builder.append(c);
+        }
+    }
+
+    /** Reads an unquoted name (terminated by ':') or value (terminated by ',', '}', ']' or a line break), trimming trailing whitespace. */
+    private String readUnquoted(boolean isName){
+        builder.setLength(0);
+        while(true){
+            if(pos == limit && !fill()) break;
+            char c = buffer[pos];
+            if(isName ? c == ':' : (c == ',' || c == '}' || c == ']' || c == '\n' || c == '\r')) break;
+            if(c == '/' && (peek(1) == '/' || peek(1) == '*')) break;
+            builder.append(c);
+            pos++;
+        }
+        int length = builder.length();
+        while(length > 0 && Character.isWhitespace(builder.charAt(length - 1))) length--;
+        if(length == 0) throw error(isName ? "Expected name" : "Expected value");
+        builder.setLength(length);
+        return builder.toString();
+    }
+
+    /** @return the character at the given offset from the current position, or -1 if there is none. May refill the buffer. */
+    private int peek(int offset){
+        if(pos + offset >= limit){
+            if(reader == null) return -1;
+            //keep the unread part of the buffer
+            int remaining = limit - pos;
+            System.arraycopy(buffer, pos, buffer, 0, remaining);
+            pos = 0;
+            limit = remaining;
+            if(!read()) return -1;
+            if(pos + offset >= limit) return -1;
+        }
+        return buffer[pos + offset];
+    }
+
+    private boolean fill(){
+        if(reader == null) return false;
+        pos = 0;
+        limit = 0;
+        return read();
+    }
+
+    private boolean read(){
+        try{
+            int count = reader.read(buffer, limit, buffer.length - limit);
+            if(count <= 0) return false;
+            limit += count;
+            return true;
+        }catch(IOException ex){
+            throw new SerializationException(ex);
+        }
+    }
+
+    private SerializationException error(String message){
+        int start = Math.max(0, pos - 32), end = Math.min(limit, pos + 32);
+        return new SerializationException("Error parsing JSON: " + message + " near: "
+        + new String(buffer, start, pos - start) + "*ERROR*" + new String(buffer, pos, Math.max(end - pos, 0)));
+    }
+}
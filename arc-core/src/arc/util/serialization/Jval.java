@@ -14,7 +14,7 @@ public class Jval{
         FALSE = new Jval(false),
         NULL = new Jval(null);
 
-    /** Internal value. May be a string, number, boolean, JsonArray, JsonMap or null. */
+    /** Internal value. May be a string, number, boolean, JsonArray, JsonMap, null, or a not yet decoded {@link Lazy} value. */
     private @Nullable Object value;
 
     Jval(Object value){
@@ -23,6 +23,10 @@ public class Jval{
         if(getType() == null) throw new IllegalArgumentException("Invalid JSON value: " + value);
     }
 
+    private Jval(Lazy lazy){
+        this.value = lazy;
+    }
+
     public static Jval newObject(){
         return new Jval(new JsonMap());
     }
@@ -71,7 +75,54 @@ public class Jval{
         }
     }
 
+    /**
+     * Lazily reads a Hjson value from the given string. Only a compact index of the document structure is built up front;
+     * values are decoded when first accessed, and key lookups through {@link #get(String)} and {@link #has(String)} compare
+     * against the source text without decoding the rest of the object. This is much cheaper than {@link #read(String)} for
+     * large documents of which only a small part is used.
+     * <p>
+     * Structural errors are reported immediately, but malformed scalar values only when they are accessed.
+     * </p>
+     */
+    public static Jval readLazy(String text){
+        return readLazy(text.toCharArray(), text.length());
+    }
+
+    /** @see #readLazy(String) */
+    public static Jval readLazy(byte[] bytes){
+        java.nio.CharBuffer chars = Strings.utf8.decode(java.nio.ByteBuffer.wrap(bytes));
+        if(chars.hasArray() && chars.arrayOffset() == 0) return readLazy(chars.array(), chars.remaining());
+        char[] result = new char[chars.remaining()];
+        chars.get(result);
+        return readLazy(result, result.length);
+    }
+
+    /** @see #readLazy(String) */
+    public static Jval readLazy(Reader reader){
+        try{
+            return readLazy(Hparser.readToEnd(reader));
+        }catch(IOException e){
+            throw new ArcRuntimeException(e);
+        }
+    }
+
+    /**
+     * @param text the source; must not be modified while any value read from it is in use.
+     * @see #readLazy(String)
+     */
+    public static Jval readLazy(char[] text, int length){
+        Hindex index = new Hindex(text, length);
+        return new Jval(new Lazy(index, index.root));
+    }
+
+    /** Decodes a lazily read value, if necessary. Children of objects and arrays stay lazy. */
+    private @Nullable Object value(){
+        if(value instanceof Lazy) value = ((Lazy)value).decode();
+        return value;
+    }
+
     public Jtype getType(){
+        Object value = value();
         return value == null ? Jtype.nil :
                 value instanceof Number ? Jtype.number :
                 value instanceof String ? Jtype.string :
@@ -87,27 +138,28 @@ public class Jval{
     public static Jval valueOf(String string){ return string == null ? NULL : new Jval(string); }
     public static Jval valueOf(boolean value){ return value ? TRUE : FALSE; }
 
-    public boolean isObject(){ return value instanceof JsonMap; }
-    public boolean isArray(){ return value instanceof JsonArray; }
-    public boolean isNumber(){ return value instanceof Number; }
-    public boolean isString(){ return value instanceof String; }
-    public boolean isBoolean(){ return value instanceof Boolean; }
-    public boolean isTrue(){ return value == Boolean.TRUE; }
-    public boolean isFalse(){ return value == Boolean.FALSE; }
-    public boolean isNull(){ return value == null; }
-
-    public JsonMap asObject(){ if(!(value instanceof JsonMap)) throw new UnsupportedOperationException("Not an object: " + this); return (JsonMap)value; }
-    public JsonArray asArray(){ if(!(value instanceof JsonArray)) throw new UnsupportedOperationException("Not an array: " + this); return (JsonArray)value; }
+    public boolean isObject(){ return value() instanceof JsonMap; }
+    public boolean isArray(){ return value() instanceof JsonArray; }
+    public boolean isNumber(){ return value() instanceof Number; }
+    public boolean isString(){ return value() instanceof String; }
+    public boolean isBoolean(){ return value() instanceof Boolean; }
+    public boolean isTrue(){ return value() == Boolean.TRUE; }
+    public boolean isFalse(){ return value() == Boolean.FALSE; }
+    public boolean isNull(){ return value() == null; }
+
+    public JsonMap asObject(){ if(!(value() instanceof JsonMap)) throw new UnsupportedOperationException("Not an object: " + this); return (JsonMap)value; }
+    public JsonArray asArray(){ if(!(value() instanceof JsonArray)) throw new UnsupportedOperationException("Not an array: " + this); return (JsonArray)value; }
     public int asInt(){ return asNumber().intValue(); }
     public long asLong(){ return asNumber().longValue(); }
     public float asFloat(){ return asNumber().floatValue(); }
     public double asDouble(){ return asNumber().doubleValue(); }
-    public String asString(){ if(!(value instanceof String) && !(value instanceof Number)) throw new UnsupportedOperationException("Not a string: " + this); return String.valueOf(value); }
-    public boolean asBool(){ if(!(value instanceof Boolean)) throw new UnsupportedOperationException("Not a bool: " + this); return (Boolean)value; }
-    public Number asNumber(){ if(!(value instanceof Number)) throw new UnsupportedOperationException("Not a number: " + this); return ((Number)value); }
+    public String asString(){ if(!(value() instanceof String) && !(value() instanceof Number)) throw new UnsupportedOperationException("Not a string: " + this); return String.valueOf(value); }
+    public boolean asBool(){ if(!(value() instanceof Boolean)) throw new UnsupportedOperationException("Not a bool: " + this); return (Boolean)value; }
+    public Number asNumber(){ if(!(value() instanceof Number)) throw new UnsupportedOperationException("Not a number: " + this); return ((Number)value); }
 
     public Jval get(String name){
         if(name == null) throw new NullPointerException("name is null");
+        if(value instanceof Lazy && ((Lazy)value).isObject()) return ((Lazy)value).get(name);
         return asObject().get(name);
     }
 
@@ -167,6 +219,7 @@ public class Jval{
 
     public boolean has(String name){
         if(name == null) throw new NullPointerException("name is null");
+        if(value instanceof Lazy && ((Lazy)value).isObject()) return ((Lazy)value).find(name) != -1;
         return asObject().containsKey(name);
     }
 
@@ -274,9 +327,9 @@ public class Jval{
 
     @Override
     public boolean equals(Object object){
-        return object != null && object.getClass() == getClass() &&
-            ((value == null && ((Jval)object).value == null)
-            || (((Jval)object).value != null && value != null && value.equals(((Jval)object).value)));
+        if(object == null || object.getClass() != getClass()) return false;
+        Object value = value(), other = ((Jval)object).value();
+        return (value == null && other == null) || (other != null && value != null && value.equals(other));
     }
 
     /** Alias class of whatever is used to store json maps (objects). */
@@ -369,6 +422,425 @@ public class Jval{
         string, number, object, array, bool, nil,
     }
 
+    /** A value read by {@link #readLazy(String)} that has not been decoded yet. */
+    static class Lazy{
+        final Hindex index;
+        final int node;
+        /** Children that have been handed out, so that they are shared with the decoded container. */
+        @Nullable Jval[] children;
+
+        Lazy(Hindex index, int node){
+            this.index = index;
+            this.node = node;
+        }
+
+        boolean isObject(){
+            return index.kind(node) == Hindex.object;
+        }
+
+        /** @return the entry index of the last key with this name, as later duplicates replace earlier ones; or -1. */
+        int find(String name){
+            for(int i = index.count(node) - 1; i >= 0; i--){
+                if(index.keyEquals(node, i, name)) return i;
+            }
+            return -1;
+        }
+
+        @Nullable Jval get(String name){
+            int entry = find(name);
+            return entry == -1 ? null : child(entry);
+        }
+
+        Jval child(int entry){
+            if(children == null) children = new Jval[index.count(node)];
+            if(children[entry] == null) children[entry] = new Jval(new Lazy(index, index.child(node, entry)));
+            return children[entry];
+        }
+
+        @Nullable Object decode(){
+            int count = index.count(node);
+            switch(index.kind(node)){
+                case Hindex.object:
+                    JsonMap map = new JsonMap();
+                    map.ensureCapacity(count);
+                    for(int i = 0; i < count; i++){
+                        map.put(index.key(node, i), child(i));
+                    }
+                    return map;
+                case Hindex.array:
+                    JsonArray array = new JsonArray();
+                    array.ensureCapacity(count);
+                    for(int i = 0; i < count; i++){
+                        array.add(child(i));
+                    }
+                    return array;
+                default:
+                    return index.scalar(node).value;
+            }
+        }
+    }
+
+    /**
+     * Structural index of a Hjson document, built by a scanner that follows the same rules as {@link Hparser} without
+     * decoding anything. Each node takes 5 ints: kind, start, end, first entry and entry count. Object entries take 3 ints
+     * (key start, key end, child node), array entries 1 (child node).
+     */
+    static class Hindex{
+        static final int scalar = 0, object = 1, array = 2;
+
+        final char[] text;
+        final int length;
+        final IntSeq nodes = new IntSeq(), entries = new IntSeq();
+        final int root;
+
+        private final Seq<IntSeq> scratch = new Seq<>();
+        private int pos, depth;
+        private boolean isArray;
+
+        Hindex(char[] text, int length){
+            this.text = text;
+            this.length = length;
+
+            skipWhiteSpace();
+            int node;
+            if(current() == '[' || current() == '{'){
+                node = checkTrailing(value());
+            }else{
+                try{
+                    //assume we have a root object without braces
+                    node = checkTrailing(object(true));
+                }catch(JsonParseException exception){
+                    //test if we are dealing with a single value instead
+                    nodes.clear();
+                    entries.clear();
+                    pos = depth = 0;
+                    isArray = false;
+                    skipWhiteSpace();
+                    try{
+                        node = checkTrailing(value());
+                    }catch(JsonParseException ignored){
+                        throw exception;
+                    }
+                }
+            }
+            root = node;
+            scratch.clear();
+        }
+
+        int kind(int node){
+            return nodes.items[node];
+        }
+
+        int count(int node){
+            return nodes.items[node + 4];
+        }
+
+        int child(int node, int entry){
+            int first = nodes.items[node + 3];
+            return kind(node) == object ? entries.items[first + entry * 3 + 2] : entries.items[first + entry];
+        }
+
+        String key(int node, int entry){
+            int offset = nodes.items[node + 3] + entry * 3, start = entries.items[offset], end = entries.items[offset + 1];
+            if(text[start] == '"' || text[start] == '\''){
+                if(!contains(start, end, '\\')) return new String(text, start + 1, end - start - 2);
+                try{
+                    return new Hparser(new String(text, start, end - start)).parseValue().asString();
+                }catch(IOException e){
+                    throw new ArcRuntimeException(e);
+                }
+            }
+            return new String(text, start, end - start);
+        }
+
+        boolean keyEquals(int node, int entry, String name){
+            int offset = nodes.items[node + 3] + entry * 3, start = entries.items[offset], end = entries.items[offset + 1];
+            if(text[start] == '"' || text[start] == '\''){
+                if(contains(start, end, '\\')) return key(node, entry).equals(name);
+                start++;
+                end--;
+            }
+            if(end - start != name.length()) return false;
+            for(int i = 0; i < name.length(); i++){
+                if(text[start + i] != name.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        Jval scalar(int node){
+            int start = nodes.items[node + 1], end = nodes.items[node + 2];
+            String source = new String(text, start, end - start);
+            if(source.startsWith("'''")){
+                //multiline strings strip indentation relative to their starting column
+                int column = 0;
+                while(start - column - 1 >= 0 && text[start - column - 1] != '\n') column++;
+                StringBuilder padded = new StringBuilder(column + source.length());
+                for(int i = 0; i < column; i++) padded.append(' ');
+                source = padded.append(source).toString();
+            }
+            try{
+                return new Hparser(source).parseValue();
+            }catch(IOException e){
+                throw new ArcRuntimeException(e);
+            }
+        }
+
+        private boolean contains(int start, int end, char c){
+            for(int i = start; i < end; i++){
+                if(text[i] == c) return true;
+            }
+            return false;
+        }
+
+        private int current(){
+            return pos < length ? text[pos] : -1;
+        }
+
+        private int peek(){
+            return pos + 1 < length ? text[pos + 1] : -1;
+        }
+
+        private int checkTrailing(int node){
+            skipWhiteSpace();
+            if(pos < length) throw error("Extra characters in input: " + text[pos]);
+            return node;
+        }
+
+        private int addNode(int kind, int start, int end, IntSeq children){
+            int node = nodes.size;
+            nodes.add(kind, start, end, entries.size);
+            nodes.add(children == null ? 0 : kind == object ? children.size / 3 : children.size);
+            if(children != null) entries.addAll(children);
+            return node;
+        }
+
+        private IntSeq pushScratch(){
+            if(depth == scratch.size) scratch.add(new IntSeq());
+            IntSeq seq = scratch.get(depth++);
+            seq.clear();
+            return seq;
+        }
+
+        private int value(){
+            int start = pos;
+            switch(current()){
+                case -1:
+                    throw error("Unexpected end of input");
+                case '\'':
+                case '"':
+                    skipString(true);
+                    return addNode(scalar, start, pos, null);
+                case '[':
+                    return array();
+                case '{':
+                    return object(false);
+                default:
+                    skipQuoteless();
+                    return addNode(scalar, start, pos, null);
+            }
+        }
+
+        private int array(){
+            int start = pos;
+            isArray = true;
+            pos++;
+            IntSeq children = pushScratch();
+            skipWhiteSpace();
+            if(current() != ']'){
+                while(true){
+                    skipWhiteSpace();
+                    children.add(value());
+                    skipWhiteSpace();
+                    if(current() == ','){
+                        pos++;
+                        skipWhiteSpace();
+                    }
+                    if(current() == ']') break;
+                    else if(pos >= length) throw error("End of input while parsing an array (did you forget a closing ']'?)");
+                }
+            }
+            pos++;
+            isArray = false;
+            depth--;
+            return addNode(array, start, pos, children);
+        }
+
+        private int object(boolean withoutBraces){
+            int start = pos;
+            if(!withoutBraces) pos++;
+            IntSeq children = pushScratch();
+            skipWhiteSpace();
+            while(true){
+                if(withoutBraces){
+                    if(pos >= length) break;
+                }else{
+                    if(pos >= length) throw error("End of input while parsing an object (did you forget a closing '}'?)");
+                    if(current() == '}'){
+                        pos++;
+                        break;
+                    }
+                }
+                int keyStart = pos, keyEnd = skipName();
+                skipWhiteSpace();
+                if(current() != ':') throw error(pos >= length ? "Unexpected end of input" : "Expected ':'");
+                pos++;
+                skipWhiteSpace();
+                int child = value();
+                children.add(keyStart, keyEnd, child);
+                skipWhiteSpace();
+                if(current() == ','){
+                    pos++;
+                    skipWhiteSpace();
+                }
+            }
+            depth--;
+            return addNode(object, start, pos, children);
+        }
+
+        /** @return the end of the name, which excludes trailing whitespace for unquoted names. */
+        private int skipName(){
+            int c = current();
+            if(c == '"' || c == '\''){
+                skipString(false);
+                return pos;
+            }
+
+            int start = pos, space = -1;
+            while(true){
+                c = current();
+                if(c == ':'){
+                    if(pos == start) throw error("Found ':' but no key name (for an empty key name use quotes)");
+                    else if(space == Integer.MAX_VALUE){
+                        throw error("Found whitespace in your key name (use quotes to include)");
+                    }
+                    return space >= 0 ? space : pos;
+                }else if(Hparser.isWhiteSpace(c)){
+                    if(space < 0) space = pos;
+                }else if(c < ' '){
+                    throw error("Name is not closed");
+                }else if(Hwriter.isPunctuatorChar(c)){
+                    throw error("Found '" + (char)c + "' where a key name was expected (check your syntax or use quotes if the key name includes {}[],: or whitespace)");
+                }else if(space >= 0){
+                    //whitespace followed by more name characters
+                    space = Integer.MAX_VALUE;
+                }
+                pos++;
+            }
+        }
+
+        private void skipString(boolean allowML){
+            int exit = text[pos++], start = pos;
+            while(pos < length && text[pos] != exit){
+                pos += text[pos] == '\\' ? 2 : 1;
+            }
+            boolean empty = pos == start;
+            pos++;
+
+            if(allowML && exit == '\'' && empty && current() == '\''){
+                //''' multiline string, ends at the next '''
+                pos++;
+                int triple = 0;
+                while(pos < length){
+                    if(text[pos++] == '\''){
+                        if(++triple == 3) return;
+                    }else{
+                        triple = 0;
+                    }
+                }
+                throw error("Bad multiline string");
+            }
+            pos = Math.min(pos, length);
+        }
+
+        private void skipQuoteless(){
+            int start = pos, first = current();
+            if(Hwriter.isPunctuatorChar(first)){
+                throw error("Found a punctuator character '" + (char)first + "' when expecting a quoteless string (check your syntax)");
+            }
+            pos++;
+            while(true){
+                int c = current();
+                boolean isEol = c < 0 || c == '\r' || c == '\n' || (c == ',' && isArray) || c == ']';
+                if(isEol || c == ',' || c == '}' || c == '#' || c == '/' && (peek() == '/' || peek() == '*')){
+                    switch(first){
+                        case 'f':
+                        case 'n':
+                        case 't':
+                            if(isKeyword(start, pos)) return;
+                            break;
+                        default:
+                            if((first == '-' || first >= '0' && first <= '9') && isNumber(start, pos)) return;
+                    }
+                    if(isEol) return;
+                }
+                pos++;
+            }
+        }
+
+        private boolean isKeyword(int start, int end){
+            while(end > start && Hparser.isWhiteSpace(text[end - 1])) end--;
+            while(start < end && Hparser.isWhiteSpace(text[start])) start++;
+            return matches(start, end, "true") || matches(start, end, "false") || matches(start, end, "null");
+        }
+
+        private boolean matches(int start, int end, String word){
+            if(end - start != word.length()) return false;
+            for(int i = 0; i < word.length(); i++){
+                if(text[start + i] != word.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /** Same rules as {@link Hparser#tryParseNumber(StringBuilder, boolean)} without a stop character, without parsing. */
+        private boolean isNumber(int idx, int len){
+            if(idx < len && text[idx] == '-') idx++;
+            if(idx >= len) return false;
+            char first = text[idx++];
+            if(!isDigit(first)) return false;
+            if(first == '0' && idx < len && isDigit(text[idx])) return false;
+            while(idx < len && isDigit(text[idx])) idx++;
+            if(idx < len && text[idx] == '.'){
+                idx++;
+                if(idx >= len || !isDigit(text[idx++])) return false;
+                while(idx < len && isDigit(text[idx])) idx++;
+            }
+            while(idx < len && Hparser.isWhiteSpace(text[idx])) idx++;
+            return idx >= len;
+        }
+
+        private static boolean isDigit(char c){
+            return c >= '0' && c <= '9';
+        }
+
+        private void skipWhiteSpace(){
+            while(pos < length){
+                while(pos < length && Hparser.isWhiteSpace(text[pos])) pos++;
+                int c = current();
+                if(c == '#' || c == '/' && peek() == '/'){
+                    while(pos < length && text[pos] != '\n') pos++;
+                }else if(c == '/' && peek() == '*'){
+                    pos += 2;
+                    while(pos < length && !(text[pos] == '*' && peek() == '/')) pos++;
+                    pos += 2;
+                }else{
+                    break;
+                }
+            }
+            pos = Math.min(pos, length);
+        }
+
+        private JsonParseException error(String message){
+            int line = 1, lineStart = 0;
+            for(int i = 0; i < pos && i < length; i++){
+                if(text[i] == '\n'){
+                    line++;
+                    lineStart = i + 1;
+                }
+            }
+            return new JsonParseException(message, pos, line, pos - lineStart);
+        }
+    }
+
     static class Hparser{
         private final String buffer;
         private Reader reader;
@@ -439,6 +911,13 @@ public class Jval{
             }
         }
 
+        /** Parses a single value spanning the whole input, as extracted by {@link Hindex}. */
+        Jval parseValue() throws IOException{
+            read();
+            skipWhiteSpace();
+            return checkTrailing(readValue());
+        }
+
         Jval checkTrailing(Jval v) throws JsonParseException, IOException{
             skipWhiteSpace();
             if(!isEndOfText()) throw error("Extra characters in input: " + current);
@@ -0,0 +1,191 @@
+package arc.util.serialization;
+
+import arc.util.*;
+import arc.util.io.*;
+
+import java.io.*;
+import java.nio.*;
+
+/** {@link JsonPullParser} for UBJSON, reading the same format as {@link UBJsonReader}. */
+public class UBJsonPullParser extends JsonPullParser{
+    private final DataInput input;
+    private final boolean oldFormat;
+    private byte[] bytes = new byte[64];
+    /** Per container: whether it is an object, the remaining element count (-1 if unbounded) and the fixed value type (0 if none). */
+    private boolean[] objects = new boolean[8];
+    private long[] remaining = new long[8];
+    private byte[] valueTypes = new byte[8];
+    /** Type marker consumed while reading a container header, or -1. */
+    private int pending = -1;
+    private boolean started;
+
+    /** For best performance, the stream should be buffered. */
+    public UBJsonPullParser(InputStream input, boolean oldFormat){
+        this((DataInput)new DataInputStream(input), oldFormat);
+    }
+
+    public UBJsonPullParser(ByteBuffer buffer, boolean oldFormat){
+        this(new ByteBufferInput(buffer), oldFormat);
+    }
+
+    public UBJsonPullParser(DataInput input, boolean oldFormat){
+        this.input = input;
+        this.oldFormat = oldFormat;
+    }
+
+    @Override
+    public Token nextToken(){
+        name = null;
+        stringValue = null;
+
+        try{
+            byte type;
+            if(depth == 0){
+                if(started) return token = Token.end;
+                started = true;
+                type = input.readByte();
+            }else{
+                int index = depth - 1;
+                boolean object = objects[index];
+                if(remaining[index] == 0){
+                    depth--;
+                    return token = object ? Token.objectEnd : Token.arrayEnd;
+                }
+
+                if(object){
+                    type = nextType();
+                    if(type == '}' && remaining[index] < 0){
+                        depth--;
+                        return token = Token.objectEnd;
+                    }
+                    name = readString(true, type);
+                    type = valueTypes[index] == 0 ? input.readByte() : valueTypes[index];
+                }else{
+                    type = valueTypes[index] == 0 || pending != -1 ? nextType() : valueTypes[index];
+                    if(type == ']' && remaining[index] < 0){
+                        depth--;
+                        return token = Token.arrayEnd;
+                    }
+                }
+                if(remaining[index] > 0) remaining[index]--;
+            }
+            readValue(type);
+            return token;
+        }catch(IOException ex){
+            throw new SerializationException(ex);
+        }
+    }
+
+    @Override
+    public void close(){
+        if(input instanceof Closeable) Streams.close((Closeable)input);
+    }
+
+    private byte nextType() throws IOException{
+        if(pending != -1){
+            byte type = (byte)pending;
+            pending = -1;
+            return type;
+        }
+        return input.readByte();
+    }
+
+    private void readValue(byte type) throws IOException{
+        switch(type){
+            case '[': readContainer(false); break;
+            case '{': readContainer(true); break;
+            case 'a':
+            case 'A':
+                byte dataType = input.readByte();
+                long size = type == 'A' ? input.readInt() : input.readUnsignedByte();
+                push(false, size, dataType);
+                token = Token.arrayStart;
+                break;
+            case 'Z': setString(null); break;
+            case 'T': setBoolean(true); break;
+            case 'F': setBoolean(false); break;
+            case 'B':
+            case 'U': setLong(input.readUnsignedByte(), null); break;
+            case 'i': setLong(oldFormat ? input.readShort() : input.readByte(), null); break;
+            case 'I': setLong(oldFormat ? input.readInt() : input.readShort(), null); break;
+            case 'l': setLong(input.readInt(), null); break;
+            case 'L': setLong(input.readLong(), null); break;
+            case 'd': setDouble(input.readFloat(), null); break;
+            case 'D': setDouble(input.readDouble(), null); break;
+            case 's':
+            case 'S': setString(readString(false, type)); break;
+            case 'C': setLong(input.readChar(), null); break;
+            default: throw new SerializationException("Unrecognized data type: " + (char)type);
+        }
+    }
+
+    private void readContainer(boolean object) throws IOException{
+        byte type = input.readByte();
+        byte valueType = 0;
+        if(type == '$'){
+            valueType = input.readByte();
+            type = input.readByte();
+        }
+        long size = -1;
+        if(type == '#'){
+            size = readSize(input.readByte(), false, -1);
+            if(size < 0) throw new SerializationException("Unrecognized data type");
+            //a sized array with a fixed value type has no per-element type markers
+            if(size > 0 && (object || valueType == 0)) pending = input.readByte();
+        }else{
+            pending = type;
+        }
+        push(object, size, valueType);
+        token = object ? Token.objectStart : Token.arrayStart;
+    }
+
+    private void push(boolean object, long size, byte valueType){
+        if(depth == objects.length){
+            int length = objects.length * 2;
+            boolean[] newObjects = new boolean[length];
+            long[] newRemaining = new long[length];
+            byte[] newValueTypes = new byte[length];
+            System.arraycopy(objects, 0, newObjects, 0, depth);
+            System.arraycopy(remaining, 0, newRemaining, 0, depth);
+            System.arraycopy(valueTypes, 0, newValueTypes, 0, depth);
+            objects = newObjects;
+            remaining = newRemaining;
+            valueTypes = newValueTypes;
+        }
+        objects[depth] = object;
+        remaining[depth] = size;
+        valueTypes[depth] = valueType;
+        depth++;
+    }
+
+    private String readString(boolean sOptional, byte type) throws IOException{
+        long size = -1;
+        if(type == 'S'){
+            size = readSize(input.readByte(), true, -1);
+        }else if(type == 's'){
+            size = input.readUnsignedByte();
+        }else if(sOptional){
+            size = readSize(type, false, -1);
+        }
+        if(size < 0) throw new SerializationException("Unrecognized data type, string expected");
+        if(size == 0) return "";
+        if(bytes.length < size) bytes = new byte[Math.max((int)size, bytes.length * 2)];
+        input.readFully(bytes, 0, (int)size);
+        return new String(bytes, 0, (int)size, Strings.utf8);
+    }
+
+    private long readSize(byte type, boolean useIntOnError, long defaultValue) throws IOException{
+        if(type == 'i') return input.readUnsignedByte();
+        if(type == 'I') return input.readUnsignedShort();
+        if(type == 'l') return input.readInt();
+        if(type == 'L') return input.readLong();
+        if(useIntOnError){
+            long result = (long)(type & 0xFF) << 24;
+            result |= (long)(input.readByte() & 0xFF) << 16;
+            result |= (long)(input.readByte() & 0xFF) << 8;
+            result |= (long)(input.readByte() & 0xFF);
+            return result;
+        }
+        return defaultValue;
+    }
+}
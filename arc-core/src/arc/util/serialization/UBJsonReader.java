@@ -8,6 +8,7 @@ import arc.util.io.Streams;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Lightweight UBJSON parser.<br>
@@ -45,6 +46,22 @@ public class UBJsonReader implements BaseJsonReader{
         }
     }
 
+    /**
+     * @return a {@link JsonPullParser} that reads tokens from the stream incrementally, without building a DOM.
+     * For best performance you should provide buffered streams to this method!
+     */
+    public JsonPullParser pull(InputStream input){
+        return new UBJsonPullParser(input, oldFormat);
+    }
+
+    public JsonPullParser pull(ByteBuffer buffer){
+        return new UBJsonPullParser(buffer, oldFormat);
+    }
+
+    public JsonPullParser pull(Fi file){
+        return pull(file.read(8192));
+    }
+
     public JsonValue parse(final DataInputStream din) throws IOException{
         try{
             return parse(din, din.readByte());
@@ -0,0 +1,183 @@
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.Font.*;
+import arc.mock.*;
+import arc.util.*;
+import arc.util.pooling.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class GlyphLayoutCacheTest{
+    static Font font, other;
+
+    @BeforeClass
+    public static void init(){
+        Core.app = new MockApplication();
+        Core.graphics = new MockGraphics();
+        Core.gl = Core.gl20 = new MockGL20();
+        font = createFont();
+        other = createFont();
+    }
+
+    @AfterClass
+    public static void dispose(){
+        font.dispose();
+        other.dispose();
+        Core.gl = Core.gl20 = null;
+    }
+
+    @Test
+    public void lruOrder(){
+        GlyphLayoutCache cache = new GlyphLayoutCache(3);
+        GlyphLayout a = cache.get(font, "a"), b = cache.get(font, "b"), c = cache.get(font, "c");
+        assertEquals(3, cache.size());
+
+        //a becomes the most recently used, so b is the eldest
+        assertSame(a, cache.get(font, "a"));
+        GlyphLayout d = cache.get(font, "d");
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertSame(a, cache.get(font, "a"));
+        assertSame(c, cache.get(font, "c"));
+        assertSame(d, cache.get(font, "d"));
+
+        //b was evicted and is laid out again, which evicts a, the eldest by now
+        GlyphLayout b2 = cache.get(font, "b");
+        assertNotSame(b, b2);
+        assertEquals(2, cache.getEvictions());
+        GlyphLayout a2 = cache.get(font, "a");
+        assertNotSame(a, a2);
+        assertEquals(3, cache.getEvictions());
+
+        //evicted layouts stay usable
+        assertEquals(1, b.runs.first().glyphs.size);
+
+        //shrinking keeps the most recently used layouts
+        cache.setCapacity(1);
+        assertEquals(1, cache.size());
+        assertEquals(5, cache.getEvictions());
+        assertSame(a2, cache.get(font, "a"));
+
+        try{
+            cache.setCapacity(0);
+            fail("Capacity of 0 was accepted");
+        }catch(IllegalArgumentException expected){
+        }
+    }
+
+    @Test
+    public void counters(){
+        GlyphLayoutCache cache = new GlyphLayoutCache(2);
+        cache.get(font, "one");
+        cache.get(font, "two");
+        cache.get(font, "one");
+        cache.get(font, "three");
+        cache.get(font, "one");
+        cache.get(font, "two");
+
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+        assertEquals("GlyphLayoutCache{size=2/2, hits=2, misses=4, evictions=2}", cache.toString());
+
+        //clearing keeps the counters, resetting keeps the layouts
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getHits());
+        cache.get(font, "one");
+        cache.resetCounters();
+        assertEquals(0, cache.getHits() + cache.getMisses() + cache.getEvictions());
+        cache.get(font, "one");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void keys(){
+        GlyphLayoutCache cache = new GlyphLayoutCache();
+        Color color = Color.white;
+        GlyphLayout layout = cache.get(font, "some text", 0, 9, color, 200f, Align.left, true, null);
+
+        //equal text from any source, including a range of a longer string, finds the same layout
+        assertSame(layout, cache.get(font, new StringBuilder("some text"), 0, 9, color.cpy(), 200f, Align.left, true, null));
+        assertSame(layout, cache.get(font, "[some text]", 1, 10, color, 200f, Align.left, true, null));
+
+        //every other parameter is part of the key
+        assertNotSame(layout, cache.get(other, "some text", 0, 9, color, 200f, Align.left, true, null));
+        assertNotSame(layout, cache.get(font, "some texts", 0, 10, color, 200f, Align.left, true, null));
+        assertNotSame(layout, cache.get(font, "some text", 0, 9, Color.red, 200f, Align.left, true, null));
+        assertNotSame(layout, cache.get(font, "some text", 0, 9, color, 201f, Align.left, true, null));
+        assertNotSame(layout, cache.get(font, "some text", 0, 9, color, 200f, Align.center, true, null));
+        assertNotSame(layout, cache.get(font, "some text", 0, 9, color, 200f, Align.left, false, null));
+        assertNotSame(layout, cache.get(font, "some text", 0, 9, color, 200f, Align.left, true, ""));
+        assertNotSame(layout, cache.get(font, "some text", 0, 9, color, 200f, Align.left, true, "..."));
+
+        font.getData().setScale(2f);
+        GlyphLayout scaled = cache.get(font, "some text", 0, 9, color, 200f, Align.left, true, null);
+        font.getData().setScale(1f);
+        assertNotSame(layout, scaled);
+        assertTrue(scaled.width > layout.width);
+
+        font.getData().markupEnabled = true;
+        assertNotSame(layout, cache.get(font, "some text", 0, 9, color, 200f, Align.left, true, null));
+        font.getData().markupEnabled = false;
+
+        assertEquals(11, cache.size());
+        assertEquals(2, cache.getHits());
+        assertSame(layout, cache.get(font, "some text", 0, 9, color, 200f, Align.left, true, null));
+    }
+
+    @Test
+    public void shared(){
+        GlyphLayoutCache cache = new GlyphLayoutCache();
+        GlyphLayout layout = cache.get(font, "abc");
+        assertTrue(layout.isShared());
+        float width = layout.width;
+        //frees are ignored for types without a pool
+        GlyphLayout pooled = GlyphLayout.obtain();
+
+        for(Runnable change : new Runnable[]{() -> layout.setText(font, "other"), layout::reset, layout::free, () -> Pools.free(layout)}){
+            try{
+                change.run();
+                fail("Shared layout was modified");
+            }catch(IllegalStateException expected){
+            }
+        }
+        assertEquals(width, layout.width, 0f);
+        assertEquals(3, layout.runs.first().glyphs.size);
+
+        //a rejected free does not put the layout in the pool
+        pooled.free();
+        for(int i = 0; i < 4; i++){
+            GlyphLayout obtained = GlyphLayout.obtain();
+            assertFalse(obtained.isShared());
+            obtained.setText(font, "abc");
+        }
+        assertFalse(new GlyphLayout(font, "abc").isShared());
+    }
+
+    /** @return a font with a box glyph for every printable ASCII character. */
+    static Font createFont(){
+        Pixmap pixmap = new Pixmap(16, 16);
+        TextureRegion region = new TextureRegion(new Texture(pixmap));
+        pixmap.dispose();
+
+        FontData data = new FontData();
+        data.lineHeight = 12f;
+        data.capHeight = 8f;
+        data.ascent = 2f;
+        data.down = -12f;
+        for(char c = ' '; c <= '~'; c++){
+            Glyph glyph = new Glyph();
+            glyph.id = c;
+            glyph.width = c == ' ' ? 0 : 6;
+            glyph.height = 8;
+            glyph.xadvance = 7;
+            data.setGlyph(c, glyph);
+        }
+        data.spaceXadvance = 7f;
+        return new Font(data, region, false);
+    }
+}
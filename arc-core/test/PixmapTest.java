@@ -1,9 +1,17 @@
+import arc.files.*;
+import arc.func.*;
 import arc.graphics.*;
+import arc.graphics.PixmapIO.*;
+import arc.graphics.g2d.*;
 import arc.math.*;
 import arc.math.geom.*;
 import arc.util.*;
 import org.junit.*;
 
+import java.io.*;
+import java.nio.*;
+import java.util.zip.*;
+
 import static org.junit.Assert.*;
 
 public class PixmapTest{
@@ -39,6 +47,209 @@ public class PixmapTest{
         crop.draw(base, 0, 176, x, x, 0, 0, x, x, true);
     }
 
+    @Test
+    public void disposedPixels(){
+        ArcNativesLoader.load();
+        Pixmap pixmap = new Pixmap(4, 4);
+        pixmap.intPixels();
+        pixmap.dispose();
+        try{
+            pixmap.intPixels();
+            fail("Disposed pixmap returned its pixels");
+        }catch(ArcRuntimeException expected){
+        }
+    }
+
+    @Test
+    public void bulkKernels(){
+        //large enough to be split into parallel bands
+        int w = 317, h = 293;
+        Pixmap src = randomPixmap(w, h, 3), dst = randomPixmap(w + 9, h + 4, 5);
+
+        Pixmap blended = dst.copy();
+        blended.draw(src, -3, 5, true);
+        Pixmap expected = dst.copy();
+        for(int y = 0; y < h; y++){
+            for(int x = 0; x < w; x++){
+                if(expected.in(x - 3, y + 5)) expected.setRaw(x - 3, y + 5, Pixmap.blend(src.getRaw(x, y), expected.getRaw(x - 3, y + 5)));
+            }
+        }
+        assertPixmapEquals(expected, blended);
+
+        Pixmap scaled = Pixmaps.scale(src, 2.5f, 0.5f);
+        for(int y = 0; y < scaled.height; y++){
+            for(int x = 0; x < scaled.width; x++){
+                assertEquals(src.getRaw((int)(x / 2.5f), (int)(y / 0.5f)), scaled.getRaw(x, y));
+            }
+        }
+
+        int radius = 3, color = Color.red.rgba();
+        Pixmap outlined = src.outline(color, radius);
+        expected = src.copy();
+        for(int y = 0; y < h; y++){
+            for(int x = 0; x < w; x++){
+                if(src.getA(x, y) != 0) continue;
+                boolean found = false;
+                for(int dx = -radius; dx <= radius; dx++){
+                    for(int dy = -radius; dy <= radius; dy++){
+                        found |= dx*dx + dy*dy <= radius*radius && !Pixmap.empty(src.get(x + dx, y + dy));
+                    }
+                }
+                if(found) expected.setRaw(x, y, color);
+            }
+        }
+        assertPixmapEquals(expected, outlined);
+
+        Pixmap bled = Pixmaps.bleed(src.copy());
+        for(int y = 0; y < h; y++){
+            for(int x = 0; x < w; x++){
+                int c = src.getRaw(x, y), r = 0, g = 0, b = 0, count = 0;
+                if(!Pixmap.empty(c)){
+                    assertEquals(c, bled.getRaw(x, y));
+                    continue;
+                }
+                for(int dx = -1; dx <= 1; dx++){
+                    for(int dy = -1; dy <= 1; dy++){
+                        int n = src.get(x + dx, y + dy);
+                        if(!Pixmap.empty(n)){
+                            r += n >>> 24;
+                            g += (n >>> 16) & 0xff;
+                            b += (n >>> 8) & 0xff;
+                            count++;
+                        }
+                    }
+                }
+                assertEquals(count == 0 ? c : ((r / count) << 24) | ((g / count) << 16) | ((b / count) << 8), bled.getRaw(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void pngRoundTrip() throws IOException{
+        Pixmap pixmap = randomPixmap(301, 203, 9);
+        //smooth gradient in the top half, so that every filter type gets picked somewhere
+        for(int y = 0; y < 100; y++){
+            for(int x = 0; x < pixmap.width; x++){
+                pixmap.setRaw(x, y, (x << 24) | (y << 16) | ((x + y) << 8) | 255);
+            }
+        }
+
+        for(int chunkSize : new int[]{0, 5000}){
+            PngWriter writer = new PngWriter();
+            writer.setFlipY(false);
+            writer.setParallelChunkSize(chunkSize);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.write(out, pixmap);
+            writer.dispose();
+
+            PngReader reader = new PngReader();
+            ByteBuffer pixels = reader.read(new ByteArrayInputStream(out.toByteArray()));
+            Pixmap read = new Pixmap(pixels, reader.width, reader.height);
+            assertPixmapEquals(pixmap, read);
+        }
+    }
+
+    @Test
+    public void apixRoundTrip() throws IOException{
+        //large enough for several blocks; the top half compresses, the random bottom half gets stored
+        Pixmap pixmap = randomPixmap(400, 500, 11);
+        pixmap.fillRect(0, 0, pixmap.width, 250, 0xff00ffff);
+
+        Fi file = new Fi(File.createTempFile("pixmap", ".apix"));
+        try{
+            for(ApixMode mode : ApixMode.all){
+                PixmapIO.writeApix(file, pixmap, mode);
+                assertPixmapEquals(pixmap, PixmapIO.readApix(file));
+                assertPixmapEquals(pixmap, PixmapIO.readApix(file, true));
+            }
+
+            //raw files are mapped read-only, so they can be read without write access
+            PixmapIO.writeApix(file, pixmap, ApixMode.raw);
+            byte[] raw = file.readBytes();
+            assertTrue(file.file().setWritable(false));
+            Pixmap copy = PixmapIO.readApix(file), mapped = PixmapIO.readApix(file, true);
+            assertPixmapEquals(pixmap, copy);
+            assertPixmapEquals(pixmap, mapped);
+            copy.fill(0);
+            try{
+                mapped.fill(0);
+                fail("Read-only pixmap was written to");
+            }catch(ReadOnlyBufferException expected){
+            }
+            assertPixmapEquals(pixmap, mapped);
+            assertArrayEquals(raw, file.readBytes());
+            assertTrue(file.file().setWritable(true));
+
+            //files without a header are still readable
+            try(DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(file.write()))){
+                out.writeInt(pixmap.width);
+                out.writeInt(pixmap.height);
+                byte[] bytes = new byte[pixmap.width * pixmap.height * 4];
+                pixmap.pixels.duplicate().get(bytes);
+                out.write(bytes);
+            }
+            assertPixmapEquals(pixmap, PixmapIO.readApix(file));
+        }finally{
+            file.delete();
+        }
+    }
+
+    @Test
+    public void benchmarkKernels(){
+        //not an actual benchmark, ignore
+        int size = 2048;
+        Pixmap src = randomPixmap(size, size, 3), small = randomPixmap(size / 4, size / 4, 7);
+        PixmapRegion region = new PixmapRegion(src, 1, 1, size - 2, size - 2);
+
+        compare("Bilinear scale", 5, () -> new Pixmap(size, size), out -> Legacy.draw(out, small, 0, 0, small.width, small.height, 0, 0, size, size, true, false), out -> out.draw(small, 0, 0, small.width, small.height, 0, 0, size, size, true, false));
+        compare("Pixmaps.scale", 5, () -> null, out -> Legacy.scale(src, 0.5f, 0.5f).dispose(), out -> Pixmaps.scale(src, 0.5f).dispose());
+        compare("Radius outline", 3, () -> null, out -> Legacy.outline(src, -1, 4).dispose(), out -> src.outline(-1, 4).dispose());
+        compare("Region outline", 3, () -> null, out -> Legacy.outline(region, Color.white, 4).dispose(), out -> Pixmaps.outline(region, Color.white, 4).dispose());
+        compare("Bleed", 5, () -> src.copy(), out -> Legacy.bleed(out), out -> Pixmaps.bleed(out));
+
+        src.dispose();
+        small.dispose();
+    }
+
+    /** Logs the best time of the per-pixel and the bulk implementation, after a warmup. The setup runs before every timed run. */
+    static void compare(String name, int runs, Prov<Pixmap> setup, Cons<Pixmap> legacy, Cons<Pixmap> bulk){
+        float[] best = {Float.MAX_VALUE, Float.MAX_VALUE};
+        for(int i = 0; i < runs + 2; i++){
+            for(int k = 0; k < 2; k++){
+                Pixmap out = setup.get();
+                long start = Time.nanos();
+                (k == 0 ? legacy : bulk).get(out);
+                //the first runs are warmup
+                if(i >= 2) best[k] = Math.min(best[k], Time.millisSinceNanos(start));
+                if(out != null) out.dispose();
+            }
+        }
+        Log.info("@: per-pixel @ms, bulk @ms", name, Strings.fixed(best[0], 1), Strings.fixed(best[1], 1));
+    }
+
+    static Pixmap randomPixmap(int width, int height, long seed){
+        Rand rand = new Rand(seed);
+        Pixmap pixmap = new Pixmap(width, height);
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++){
+                int color = rand.nextInt();
+                //mostly transparent, so that outlines and bleeding have work to do
+                pixmap.setRaw(x, y, rand.chance(0.7) ? color & 0xffffff00 : color);
+            }
+        }
+        return pixmap;
+    }
+
+    static void assertPixmapEquals(Pixmap expected, Pixmap actual){
+        assertEquals(expected.width, actual.width);
+        assertEquals(expected.height, actual.height);
+        for(int y = 0; y < expected.height; y++){
+            for(int x = 0; x < expected.width; x++){
+                assertEquals(expected.getRaw(x, y), actual.getRaw(x, y));
+            }
+        }
+    }
+
     static  Rect rect = new Rect();
     static Vec2 v1 = new Vec2(), v2 = new Vec2();
 
@@ -109,4 +320,245 @@ public class PixmapTest{
         Log.info("Time for B: " + Time.elapsed());
     }
 
-}
\ No newline at end of file
+    /** The per-pixel implementations from before the bulk kernels, as the baseline for {@link #benchmarkKernels()}. */
+    static class Legacy{
+        private static final int[] offsets = {1, 0, 1, 1, 0, 1, -1, 1, -1, 0, -1, -1, 0, -1, 1, -1};
+
+        static void draw(Pixmap dst, Pixmap pixmap, int srcx, int srcy, int srcWidth, int srcHeight, int dstx, int dsty, int dstWidth, int dstHeight, boolean filtering, boolean blending){
+            int width = dst.width, height = dst.height, owidth = pixmap.width, oheight = pixmap.height;
+
+            //don't bother drawing invalid regions
+            if(srcWidth == 0 || srcHeight == 0 || dstWidth == 0 || dstHeight == 0){
+                return;
+            }
+
+            if(srcWidth == dstWidth && srcHeight == dstHeight){
+
+                //same-size blit, no filtering
+                int sx, dx;
+                int sy = srcy, dy = dsty;
+
+                if(blending){
+                    for(; sy < srcy + srcHeight; sy++, dy++){
+                        if(sy < 0 || dy < 0) continue;
+                        if(sy >= oheight || dy >= height) break;
+
+                        for(sx = srcx, dx = dstx; sx < srcx + srcWidth; sx++, dx++){
+                            if(sx < 0 || dx < 0) continue;
+                            if(sx >= owidth || dx >= width) break;
+                            dst.setRaw(dx, dy, Pixmap.blend(pixmap.getRaw(sx, sy), dst.getRaw(dx, dy)));
+                        }
+                    }
+                }else if(dst.pixels != pixmap.pixels){ //make sure the buffers are different to prevent a crash
+                    ByteBuffer pixels = dst.pixels, otherPixels = pixmap.pixels;
+                    int
+                    startY = Math.max(dsty, 0),
+                    endY = Math.min(Math.min(dsty + Math.min(dstHeight, oheight), height), dsty - srcy + oheight),
+                    startX = Math.max(dstx, 0),
+                    endX = Math.min(Math.min(dstx + Math.min(dstWidth, owidth), width), dstx - srcx + owidth),
+                    offsetY = dsty - srcy,
+                    scanX = Math.max(Math.max(srcx, -dstx), 0),
+                    scanWidth = (endX - startX) * 4;
+
+                    while(startY < endY){
+
+                        int offset = (startY * width + startX) * 4;
+                        int otherOffset = ((startY - offsetY) * owidth + scanX) * 4;
+
+                        pixels.position(offset);
+                        otherPixels.limit(otherOffset + scanWidth);
+                        otherPixels.position(otherOffset);
+
+                        pixels.put(otherPixels);
+
+                        //ideally I would use the method below, but it's Java 16 API (how has nobody needed to do this before then?)
+                        //pixels.put(
+                        //    (startY * width + startX) * 4, otherPixels,
+                        //    ((startY - offsetY) * owidth + scanX) * 4, scanWidth
+                        //);
+
+                        startY ++;
+                    }
+
+                    pixels.position(0);
+                    otherPixels.position(0);
+                    otherPixels.limit(otherPixels.capacity());
+                }else{ //drawing a pixmap onto itself is not a good idea, but it's better than crashing
+                    for(; sy < srcy + srcHeight; sy++, dy++){
+                        if(sy < 0 || dy < 0) continue;
+                        if(sy >= oheight || dy >= height) break;
+
+                        for(sx = srcx, dx = dstx; sx < srcx + srcWidth; sx++, dx++){
+                            if(sx < 0 || dx < 0) continue;
+                            if(sx >= owidth || dx >= width) break;
+                            dst.setRaw(dx, dy, pixmap.getRaw(sx, sy));
+                        }
+                    }
+                }
+            }else{
+                if(filtering){
+                    //blit with bilinear filtering
+                    float x_ratio = ((float)srcWidth - 1) / dstWidth;
+                    float y_ratio = ((float)srcHeight - 1) / dstHeight;
+                    int rX = Math.max(Mathf.round(x_ratio), 1), rY = Math.max(Mathf.round(y_ratio), 1);
+                    float xdiff, ydiff;
+                    int spitch = 4 * owidth;
+                    int dx, dy, sx, sy, i = 0, j;
+                    ByteBuffer spixels = pixmap.pixels;
+
+                    for(; i < dstHeight; i++){
+                        sy = (int)(i * y_ratio) + srcy;
+                        dy = i + dsty;
+                        ydiff = (y_ratio * i + srcy) - sy;
+                        if(sy < 0 || dy < 0) continue;
+                        if(sy >= oheight || dy >= height) break;
+
+                        for(j = 0; j < dstWidth; j++){
+                            sx = (int)(j * x_ratio) + srcx;
+                            dx = j + dstx;
+                            xdiff = (x_ratio * j + srcx) - sx;
+                            if(sx < 0 || dx < 0) continue;
+                            if(sx >= owidth || dx >= width) break;
+
+                            int
+                            srcp = (sx + sy * owidth) * 4,
+                            c1 = spixels.getInt(srcp),
+                            c2 = sx + rX < srcWidth ? spixels.getInt(srcp + 4 *rX) : c1,
+                            c3 = sy + rY < srcHeight ? spixels.getInt(srcp + spitch * rY) : c1,
+                            c4 = sx + rX < srcWidth && sy + rY < srcHeight ? spixels.getInt(srcp + 4 * rX + spitch * rY) : c1;
+
+                            float ta = (1 - xdiff) * (1 - ydiff);
+                            float tb = (xdiff) * (1 - ydiff);
+                            float tc = (1 - xdiff) * (ydiff);
+                            float td = (xdiff) * (ydiff);
+
+                            int r = (int)(((c1 & 0xff000000) >>> 24) * ta + ((c2 & 0xff000000) >>> 24) * tb + ((c3 & 0xff000000) >>> 24) * tc + ((c4 & 0xff000000) >>> 24) * td) & 0xff;
+                            int g = (int)(((c1 & 0xff0000) >>> 16) * ta + ((c2 & 0xff0000) >>> 16) * tb + ((c3 & 0xff0000) >>> 16) * tc + ((c4 & 0xff0000) >>> 16) * td) & 0xff;
+                            int b = (int)(((c1 & 0xff00) >>> 8) * ta + ((c2 & 0xff00) >>> 8) * tb + ((c3 & 0xff00) >>> 8) * tc + ((c4 & 0xff00) >>> 8) * td) & 0xff;
+                            int a = (int)((c1 & 0xff) * ta + (c2 & 0xff) * tb + (c3 & 0xff) * tc + (c4 & 0xff) * td) & 0xff;
+                            int srccol = (r << 24) | (g << 16) | (b << 8) | a;
+
+                            dst.setRaw(dx, dy, !blending ? srccol : Pixmap.blend(srccol, dst.getRaw(dx, dy)));
+                        }
+                    }
+                }else{
+                    //blit with nearest neighbor filtering
+                    int xratio = (srcWidth << 16) / dstWidth + 1;
+                    int yratio = (srcHeight << 16) / dstHeight + 1;
+                    int dx, dy, sx, sy;
+
+                    for(int i = 0; i < dstHeight; i++){
+                        sy = ((i * yratio) >> 16) + srcy;
+                        dy = i + dsty;
+                        if(sy < 0 || dy < 0) continue;
+                        if(sy >= oheight || dy >= height) break;
+
+                        for(int j = 0; j < dstWidth; j++){
+                            sx = ((j * xratio) >> 16) + srcx;
+                            dx = j + dstx;
+                            if(sx < 0 || dx < 0) continue;
+                            if(sx >= owidth || dx >= width) break;
+
+                            dst.setRaw(dx, dy, !blending ? pixmap.getRaw(sx, sy) : Pixmap.blend(pixmap.getRaw(sx, sy), dst.getRaw(dx, dy)));
+                        }
+                    }
+                }
+            }
+        }
+
+        static Pixmap scale(Pixmap input, float scalex, float scaley){
+            Pixmap pixmap = new Pixmap((int)(input.width * scalex), (int)(input.height * scaley));
+            for(int y = 0; y < pixmap.height; y++){
+                for(int x = 0; x < pixmap.width; x++){
+                    pixmap.setRaw(x, y, input.getRaw((int)(x / scalex), (int)(y / scaley)));
+                }
+            }
+            return pixmap;
+        }
+
+        static Pixmap outline(Pixmap input, int color, int radius){
+            Pixmap pixmap = input.copy();
+
+            for(int y = 0; y < input.height; y++){
+                for(int x = 0; x < input.width; x++){
+                    if(input.getA(x, y) == 0){
+                        boolean found = false;
+                        outer:
+                        for(int dx = -radius; dx <= radius; dx++){
+                            for(int dy = -radius; dy <= radius; dy++){
+                                if((dx*dx + dy*dy <= radius*radius) && !Pixmap.empty(input.get(x + dx, y + dy))){
+                                    found = true;
+                                    break outer;
+                                }
+                            }
+                        }
+                        if(found){
+                            pixmap.setRaw(x, y, color);
+                        }
+                    }
+                }
+            }
+            return pixmap;
+        }
+
+        static Pixmap outline(PixmapRegion region, Color color, int radius){
+            int outlineColor = color.rgba8888();
+            Pixmap out = region.crop();
+            for(int y = 0; y < region.height; y++){
+                for(int x = 0; x < region.width; x++){
+
+                    if(region.getA(x, y) < 255){
+                        boolean found = false;
+                        outer:
+                        for(int rx = -radius; rx <= radius; rx++){
+                            for(int ry = -radius; ry <= radius; ry++){
+                                if(Structs.inBounds(rx + x, ry + y, region.width, region.height) && (rx*rx + ry*ry <= radius*radius) && region.getA(rx + x, ry + y) != 0){
+                                    found = true;
+                                    break outer;
+                                }
+                            }
+                        }
+                        if(found){
+                            out.set(x, y, outlineColor);
+                        }
+                    }
+                }
+            }
+            return out;
+        }
+
+        static Pixmap bleed(Pixmap image){
+            int w = image.width, h = image.height;
+            ByteBuffer pixels = image.pixels;
+
+            for(int y = 0; y < h; y++){
+                for(int x = 0; x < w; x++){
+                    if(image.empty(x, y)){
+                        int r = 0, g = 0, b = 0, count = 0;
+                        int pi = (x + y*w)*4;
+
+                        //grab for each direction
+                        for(int i = 0; i < 16; i += 2){
+                            int nx = x + offsets[i];
+                            int ny = y + offsets[i + 1];
+                            int index = (ny*w + nx)*4;
+                            if(nx >= 0 && ny >= 0 && nx < w && ny < h && pixels.get(index + 3) != 0){
+                                r += pixels.get(index) & 0xff;
+                                g += pixels.get(index + 1) & 0xff;
+                                b += pixels.get(index + 2) & 0xff;
+                                count ++;
+                            }
+                        }
+
+                        if(count > 0){
+                            pixels.put(pi, (byte)(r / count));
+                            pixels.put(pi + 1, (byte)(g / count));
+                            pixels.put(pi + 2, (byte)(b / count));
+                        }
+                    }
+                }
+            }
+            return image;
+        }
+    }
+}
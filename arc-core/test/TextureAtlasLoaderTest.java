@@ -0,0 +1,235 @@
+import arc.*;
+import arc.assets.*;
+import arc.assets.loaders.*;
+import arc.assets.loaders.TextureAtlasLoader.*;
+import arc.files.*;
+import arc.graphics.*;
+import arc.graphics.Texture.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.TextureAtlas.TextureAtlasData.*;
+import arc.graphics.g2d.TextureAtlas.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import arc.util.io.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class TextureAtlasLoaderTest{
+    static CountingGL gl;
+    static Fi directory;
+    AssetManager manager;
+
+    @BeforeClass
+    public static void init(){
+        Core.app = new MockApplication();
+        Core.graphics = new MockGraphics();
+        Core.gl = Core.gl20 = gl = new CountingGL();
+        directory = Fi.tempDirectory("atlas");
+    }
+
+    @AfterClass
+    public static void dispose(){
+        directory.deleteDirectory();
+        Core.gl = Core.gl20 = null;
+    }
+
+    @Before
+    public void createManager(){
+        manager = new AssetManager(Fi::new);
+    }
+
+    @After
+    public void disposeManager(){
+        manager.dispose();
+    }
+
+    @Test
+    public void pageCallback(){
+        Fi file = writeAtlas("callback", 3, -1);
+        Seq<AtlasPage> reported = new Seq<>();
+        TextureAtlasData data = new TextureAtlasData(file, directory, false, reported::add);
+        assertEquals(3, reported.size);
+        for(int i = 0; i < 3; i++){
+            assertSame(data.getPages().get(i), reported.get(i));
+            assertEquals("callback" + i + ".png", reported.get(i).textureFile.name());
+        }
+        assertEquals(6, data.getRegions().size);
+        assertEquals(6, new TextureAtlasData(file, directory, false).getRegions().size);
+
+        //pages are reported before their regions are read, so a pack file that ends in the middle of a page still reports it
+        byte[] bytes = file.readBytes();
+        Fi truncated = directory.child("truncated.aatls");
+        truncated.writeBytes(java.util.Arrays.copyOf(bytes, bytes.length - 8), false);
+        reported.clear();
+        try{
+            new TextureAtlasData(truncated, directory, false, reported::add);
+            fail("Truncated pack file was read");
+        }catch(ArcRuntimeException expected){
+        }
+        assertEquals(3, reported.size);
+    }
+
+    @Test
+    public void stagedUploads(){
+        Fi file = writeAtlas("staged", 4, -1);
+        TextureAtlasLoader loader = new TextureAtlasLoader(Fi::new);
+        TextureAtlasParameter parameter = new TextureAtlasParameter();
+        parameter.pageUploadsPerFrame = 1;
+
+        for(int run = 0; run < 2; run++){
+            loader.loadAsync(manager, file.path(), file, parameter);
+            TextureAtlas atlas = null;
+            int frames = 0;
+            while(atlas == null){
+                int created = gl.created;
+                atlas = loader.loadSync(manager, file.path(), file, parameter);
+                //a frame never uploads more pages than its budget
+                assertTrue(gl.created - created <= 1);
+                frames++;
+                assertTrue("Pages were never uploaded", frames < 10000);
+                if(atlas == null) Threads.sleep(1);
+            }
+            assertTrue(frames >= 4);
+            assertAtlas(atlas, 4);
+            atlas.dispose();
+        }
+
+        //without a budget, every page is uploaded in the first frame
+        parameter.pageUploadsPerFrame = 0;
+        loader.loadAsync(manager, file.path(), file, parameter);
+        TextureAtlas atlas = loader.loadSync(manager, file.path(), file, parameter);
+        assertAtlas(atlas, 4);
+        atlas.dispose();
+    }
+
+    @Test
+    public void failedLoad(){
+        Fi broken = writeAtlas("broken", 3, 1), valid = writeAtlas("valid", 3, -1);
+        int created = gl.created, deleted = gl.deleted;
+        manager.load(broken.path(), TextureAtlas.class);
+        try{
+            manager.finishLoading();
+            fail("Atlas with a broken page was loaded");
+        }catch(ArcRuntimeException expected){
+        }
+        //pages that were uploaded before the failure are disposed
+        assertEquals(gl.created - created, gl.deleted - deleted);
+
+        //the next load of the same loader starts fresh
+        manager.load(valid.path(), TextureAtlas.class);
+        manager.finishLoading();
+        assertAtlas(manager.get(valid.path(), TextureAtlas.class), 3);
+    }
+
+    @Test
+    public void cancelledLoad(){
+        Fi first = writeAtlas("first", 3, -1), second = writeAtlas("second", 2, -1);
+        TextureAtlasParameter parameter = new TextureAtlasParameter();
+        parameter.pageUploadsPerFrame = 1;
+        int created = gl.created, deleted = gl.deleted;
+
+        manager.load(first.path(), TextureAtlas.class, parameter);
+        //load the atlas file and upload at most one page before unloading it
+        while(gl.created == created && !manager.isLoaded(first.path())){
+            manager.update();
+        }
+        //uploaded pages are disposed through posted runnables, since unloading need not happen on the rendering thread
+        Seq<Runnable> posted = new Seq<>();
+        Core.app = new MockApplication(){
+            @Override
+            public void post(Runnable runnable){
+                posted.add(runnable);
+            }
+        };
+        try{
+            manager.unload(first.path());
+            //the cancelled task is released on the next update
+            manager.update();
+        }finally{
+            Core.app = new MockApplication();
+        }
+        assertEquals(deleted, gl.deleted);
+        assertTrue(posted.any());
+        posted.each(Runnable::run);
+
+        manager.load(second.path(), TextureAtlas.class, parameter);
+        manager.finishLoading();
+
+        assertFalse(manager.isLoaded(first.path()));
+        assertAtlas(manager.get(second.path(), TextureAtlas.class), 2);
+        assertEquals(gl.created - created - 2, gl.deleted - deleted);
+    }
+
+    static void assertAtlas(TextureAtlas atlas, int pages){
+        assertEquals(pages, atlas.getTextures().size);
+        for(int i = 0; i < pages; i++){
+            AtlasRegion region = atlas.find("region" + i + "-1");
+            assertNotNull(region);
+            assertEquals(2, region.width);
+            assertFalse(region.texture.isDisposed());
+        }
+    }
+
+    /**
+     * Writes a pack file with 2 regions on each page and the page images next to it.
+     * @param brokenPage a page whose image cannot be decoded, or -1
+     */
+    static Fi writeAtlas(String name, int pages, int brokenPage){
+        Fi file = directory.child(name + ".aatls");
+        try(Writes write = file.writes(false)){
+            write.b(TextureAtlasData.formatHeader);
+            write.b(TextureAtlasData.formatVersion);
+            for(int i = 0; i < pages; i++){
+                Fi image = directory.child(name + i + ".png");
+                if(i == brokenPage){
+                    image.writeString("not an image");
+                }else{
+                    Pixmap pixmap = new Pixmap(8, 8);
+                    pixmap.fill(Color.white);
+                    PixmapIO.writePng(image, pixmap);
+                    pixmap.dispose();
+                }
+
+                write.b(1);
+                write.str(image.name());
+                write.b(0);
+                write.s(8);
+                write.s(8);
+                write.b(TextureFilter.nearest.ordinal());
+                write.b(TextureFilter.nearest.ordinal());
+                write.b(TextureWrap.clampToEdge.ordinal());
+                write.b(TextureWrap.clampToEdge.ordinal());
+                write.i(2);
+                for(int j = 0; j < 2; j++){
+                    write.str("region" + i + "-" + j);
+                    write.s(j * 4);
+                    write.s(0);
+                    write.s(2);
+                    write.s(2);
+                    //no offsets, splits or pads
+                    write.bool(false);
+                    write.bool(false);
+                    write.bool(false);
+                }
+            }
+        }
+        return file;
+    }
+
+    /** Hands out texture handles, so that uploads and disposals can be counted. */
+    static class CountingGL extends MockGL20{
+        volatile int created, deleted;
+
+        @Override
+        public int glGenTexture(){
+            return ++created;
+        }
+
+        @Override
+        public void glDeleteTexture(int texture){
+            deleted++;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.io.*;
+import org.junit.*;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+public class BinaryIOTest{
+
+    @Test
+    public void primitives(){
+        BinaryOutput out = new BinaryOutput(16);
+        out.b(-5);
+        out.bool(true);
+        out.s(-1234);
+        out.i(0xDEADBEEF);
+        out.l(Long.MIN_VALUE + 7);
+        out.f(1.5f);
+        out.d(-2.25);
+        out.vu(300);
+        out.vi(-1);
+        out.vi(Integer.MIN_VALUE);
+        out.vl(Long.MAX_VALUE);
+        out.str("hello");
+        out.str("ünicöde 😀");
+        out.str(null);
+        out.ints(new int[]{1, -2, 3}, 0, 3);
+        out.floats(new float[]{0.5f, -8f}, 0, 2);
+
+        BinaryInput in = new BinaryInput(out.toBytes());
+        assertEquals(-5, in.b());
+        assertTrue(in.bool());
+        assertEquals(-1234, in.s());
+        assertEquals(0xDEADBEEF, in.i());
+        assertEquals(Long.MIN_VALUE + 7, in.l());
+        assertEquals(1.5f, in.f(), 0f);
+        assertEquals(-2.25, in.d(), 0.0);
+        assertEquals(300, in.vu());
+        assertEquals(-1, in.vi());
+        assertEquals(Integer.MIN_VALUE, in.vi());
+        assertEquals(Long.MAX_VALUE, in.vl());
+        assertEquals("hello", in.str());
+        assertEquals("ünicöde 😀", in.str());
+        assertNull(in.str());
+        assertArrayEquals(new int[]{1, -2, 3}, in.ints(new int[3], 0, 3));
+        assertArrayEquals(new float[]{0.5f, -8f}, in.floats(new float[2], 0, 2), 0f);
+        assertEquals(0, in.remaining());
+    }
+
+    @Test
+    public void dataStreamCompatible() throws IOException{
+        BinaryOutput out = new BinaryOutput();
+        Writes write = new Writes(out);
+        write.i(42);
+        write.str("café");
+        write.f(3f);
+
+        DataInputStream stream = new DataInputStream(new ByteArrayInputStream(out.toBytes()));
+        assertEquals(42, stream.readInt());
+        assertEquals("café", stream.readUTF());
+        assertEquals(3f, stream.readFloat(), 0f);
+
+        Reads read = new Reads(new BinaryInput(out.toBytes()));
+        assertEquals(42, read.i());
+        assertEquals("café", read.str());
+    }
+
+    @Test
+    public void internedStrings(){
+        BinaryOutput out = new BinaryOutput();
+        for(int i = 0; i < 100; i++){
+            out.istr("copper-wall");
+        }
+        //one full string, then single-byte references
+        assertEquals(1 + 1 + "copper-wall".length() + 99, out.size());
+
+        BinaryInput in = new BinaryInput(out.toBytes());
+        for(int i = 0; i < 100; i++){
+            assertEquals("copper-wall", in.istr());
+        }
+    }
+
+    @Test
+    public void schemaVersions(){
+        BinaryCodec old = new BinaryCodec();
+        old.register(Point.class, 1, Point::new)
+        .field(1, (p, out) -> out.vi(p.x), (p, in) -> p.x = in.vi())
+        .field(1, (p, out) -> out.vi(p.y), (p, in) -> p.y = in.vi())
+        .field(1, (p, out) -> out.f(p.weight), (p, in) -> p.weight = in.f());
+
+        BinaryCodec current = new BinaryCodec();
+        current.register(Point.class, 2, Point::new)
+        .field(1, (p, out) -> out.vi(p.x), (p, in) -> p.x = in.vi())
+        .field(1, (p, out) -> out.vi(p.y), (p, in) -> p.y = in.vi())
+        .field(1, 2, null, (p, in) -> in.f())
+        .field(2, (p, out) -> out.istr(p.label), (p, in) -> p.label = in.istr());
+
+        BinaryOutput out = new BinaryOutput();
+        old.writeSeq(out, Seq.with(new Point(1, -2, 0.5f, null), new Point(300, 4, 1f, null)));
+        current.write(out, new Point(5, 6, 0f, "five"));
+        current.write(out, null);
+
+        BinaryInput in = new BinaryInput(out.toBytes());
+        Seq<Point> points = current.readSeq(in, Point.class);
+        assertEquals(2, points.size);
+        assertEquals(-2, points.first().y);
+        assertEquals(300, points.get(1).x);
+        assertNull(points.first().label);
+
+        Point point = current.read(in, Point.class);
+        assertEquals(6, point.y);
+        assertEquals("five", point.label);
+        assertNull(current.read(in, Point.class));
+    }
+
+    static class Point{
+        int x, y;
+        float weight;
+        String label;
+
+        Point(){
+        }
+
+        Point(int x, int y, float weight, String label){
+            this.x = x;
+            this.y = y;
+            this.weight = weight;
+            this.label = label;
+        }
+    }
+}
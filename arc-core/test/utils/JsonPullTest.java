@@ -0,0 +1,102 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.serialization.*;
+import arc.util.serialization.JsonPullParser.*;
+import arc.util.serialization.JsonWriter.*;
+import org.junit.*;
+
+import java.io.*;
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+public class JsonPullTest{
+    static final String json = "// comment\n{name: hello world, count: 5, /* c */ vals: [1, 2.5, 3e2], inners: [{d: 1.5, s: \"x\\\"y\\u0041\"}, {d: -2}], " +
+    "map: {a: 1, b: 2}, flag: true, big: 12345678901, nul: null, unknown: {x: [1, 2, {y: 3}]}}";
+
+    @Test
+    public void matchesDom(){
+        String expected = new JsonReader().parse(json).toJson(OutputType.json);
+
+        JsonPullParser parser = new JsonReader().pull(json);
+        parser.nextToken();
+        assertEquals(expected, parser.readValue().toJson(OutputType.json));
+        assertEquals(Token.end, parser.nextToken());
+
+        //tiny buffer, so that tokens and comments straddle refills
+        parser = new JsonTextPullParser(new StringReader(json), 3);
+        parser.nextToken();
+        assertEquals(expected, parser.readValue().toJson(OutputType.json));
+    }
+
+    @Test
+    public void skipChildren(){
+        JsonPullParser parser = new JsonReader().pull(json);
+        assertEquals(Token.objectStart, parser.nextToken());
+
+        Seq<String> names = new Seq<>();
+        while(parser.nextToken() != Token.objectEnd){
+            names.add(parser.name());
+            if(parser.name().equals("count")) assertEquals(5, parser.intValue());
+            if(parser.name().equals("big")) assertEquals(12345678901L, parser.longValue());
+            parser.skipChildren();
+        }
+
+        assertEquals(Seq.with("name", "count", "vals", "inners", "map", "flag", "big", "nul", "unknown"), names);
+        assertEquals(Token.end, parser.nextToken());
+    }
+
+    @Test
+    public void ubjson(){
+        JsonValue dom = new JsonReader().parse(json);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UBJsonWriter writer = new UBJsonWriter(out);
+        try{
+            writer.value(dom);
+            writer.object().set("ints", new int[]{1, 2, 3}).set("floats", new float[]{1f, 2f}).pop();
+            writer.close();
+        }catch(IOException e){
+            throw new RuntimeException(e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        JsonPullParser parser = new UBJsonReader().pull(buffer);
+        parser.nextToken();
+        assertEquals(dom.toJson(OutputType.json), parser.readValue().toJson(OutputType.json));
+        assertEquals(Token.end, parser.nextToken());
+
+        parser = new UBJsonReader().pull(buffer);
+        parser.nextToken();
+        assertEquals("{\"ints\":[1,2,3],\"floats\":[1.0,2.0]}", parser.readValue().toJson(OutputType.json));
+    }
+
+    @Test
+    public void bind(){
+        Json serializer = new Json();
+        Item pulled = serializer.fromJson(Item.class, new JsonReader().pull(json));
+        Item parsed = serializer.fromJson(Item.class, json);
+
+        assertEquals(serializer.toJson(parsed), serializer.toJson(pulled));
+        assertEquals("x\"yA", pulled.inners.first().s);
+        assertEquals(300f, pulled.vals[2], 0.0001f);
+        assertEquals(2, (int)pulled.map.get("b"));
+        assertNull(pulled.nul);
+    }
+
+    public static class Item{
+        public String name;
+        public int count;
+        public float[] vals;
+        public Seq<Inner> inners;
+        public ObjectMap<String, Integer> map;
+        public boolean flag;
+        public long big;
+        public String nul = "default";
+    }
+
+    public static class Inner{
+        public double d;
+        public String s;
+    }
+}
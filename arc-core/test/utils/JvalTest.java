@@ -108,6 +108,41 @@ public class JvalTest{
         Log.info(val.toString(Jformat.formatted));
     }
 
+    @Test
+    public void lazyMatchesEager(){
+        String[] documents = {
+        "{\nkey: [result, result2]\n}",
+        "[\nO, T,\n]",
+        "it: it,",
+        "name: Molten Silver\ndescription: Imagine silver, but not solid at all.\ntemperature: 0.9\n",
+        "# comment\n\"rate\": 1000\nkey: \"va\\\"lue\"\ntext: look ma, no quotes!\ntrailing: {\n  one: 1,\n  two: 2,\n}\n" +
+        "haiku:\n    '''\n    first\n      second\n    '''\nlist: [{a: -1.5}, true, null, 'x', 12 , abc def]\n",
+        "\"single\"",
+        "",
+        new Fi("generated.json", FileType.classpath).readString()
+        };
+
+        for(String text : documents){
+            assertEquals(Jval.read(text).toString(Jformat.hjson), Jval.readLazy(text).toString(Jformat.hjson));
+        }
+    }
+
+    @Test
+    public void lazyLookup(){
+        Jval val = Jval.readLazy("a: 1\n\"quoted key\": {inner: [1, 2, {deep: \"yes\"}]}\ndup: 1\ndup: 2");
+
+        assertTrue(val.has("quoted key"));
+        assertFalse(val.has("missing"));
+        assertEquals(2, val.getInt("dup", 0));
+        assertEquals("yes", val.get("quoted key").get("inner").asArray().get(2).getString("deep"));
+
+        //children handed out before decoding the object are shared with it
+        Jval a = val.get("a");
+        val.asObject().put("b", Jval.valueOf(2));
+        assertSame(a, val.get("a"));
+        assertEquals(2, val.getInt("b", 0));
+    }
+
     @Test
     public void benchmarkJson(){
         //not an actual benchmark, ignore
@@ -0,0 +1,164 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.*;
+import arc.util.pooling.*;
+import arc.util.pooling.Pool.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class PoolsTest{
+
+    @Test
+    public void reuse(){
+        ConcurrentPool<Item> pool = pool(4, 100);
+        Item item = pool.obtain();
+        item.value = 5;
+        pool.free(item);
+        assertEquals(0, item.value);
+        assertSame(item, pool.obtain());
+
+        //overflow the local magazine into the depot and take everything back
+        Set<Item> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(int i = 0; i < 20; i++) items.add(pool.obtain());
+        for(Item i : items) pool.free(i);
+        assertEquals(20, pool.getFree());
+        for(int i = 0; i < 20; i++) assertTrue(items.remove(pool.obtain()));
+        assertEquals(0, pool.getFree());
+    }
+
+    @Test
+    public void bounded(){
+        ConcurrentPool<Item> pool = pool(4, 8);
+        for(int i = 0; i < 100; i++) pool.free(new Item());
+        //two magazines in the depot plus the local one
+        assertEquals(12, pool.getFree());
+    }
+
+    @Test
+    public void doubleFree(){
+        ConcurrentPool<Item> pool = pool(4, 100);
+        pool.debug = true;
+        Item item = pool.obtain();
+        pool.free(item);
+        try{
+            pool.free(item);
+            fail("Double free was not detected");
+        }catch(IllegalStateException expected){
+        }
+
+        //obtaining it again makes freeing it valid
+        assertSame(item, pool.obtain());
+        pool.free(item);
+    }
+
+    @Test
+    public void concurrent() throws Exception{
+        ConcurrentPool<Item> pool = pool(16, 1000);
+        pool.debug = true;
+        int threads = 8;
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        Seq<Future<?>> futures = new Seq<>();
+        for(int t = 0; t < threads; t++){
+            futures.add(exec.submit(() -> {
+                Item[] held = new Item[50];
+                for(int i = 0; i < 2000; i++){
+                    for(int j = 0; j < held.length; j++){
+                        held[j] = pool.obtain();
+                        //an object handed out twice would be claimed by two threads at once
+                        if(!held[j].claimed.compareAndSet(false, true)) errors.incrementAndGet();
+                    }
+                    for(Item item : held){
+                        item.claimed.set(false);
+                        pool.free(item);
+                    }
+                }
+            }));
+        }
+        Threads.awaitAll(futures);
+        exec.shutdown();
+        assertEquals(0, errors.get());
+    }
+
+    @Test
+    public void benchmarkPools() throws Exception{
+        //not an actual benchmark, ignore
+        int operations = 1_000_000;
+        //the pool that Pools used before, a plain Pool that is locked on every call
+        Pools.set(SyncedItem.class, new Pool<SyncedItem>(){
+            @Override
+            protected SyncedItem newObject(){
+                return new SyncedItem();
+            }
+        });
+        Pools.get(PooledItem.class, PooledItem::new);
+
+        for(int pass = 0; pass < 2; pass++){
+            //the first pass only warms up
+            for(int threads = 1; threads <= 16; threads *= 2){
+                long syncTime = run(threads, () -> {
+                    Item[] held = new Item[4];
+                    for(int i = 0; i < operations; i += held.length){
+                        for(int j = 0; j < held.length; j++) held[j] = Pools.obtain(SyncedItem.class, SyncedItem::new);
+                        for(Item item : held) Pools.free(item);
+                    }
+                });
+
+                long concurrentTime = run(threads, () -> {
+                    Item[] held = new Item[4];
+                    for(int i = 0; i < operations; i += held.length){
+                        for(int j = 0; j < held.length; j++) held[j] = Pools.obtain(PooledItem.class, PooledItem::new);
+                        for(Item item : held) Pools.free(item);
+                    }
+                });
+
+                if(pass == 1){
+                    Log.info("@ threads, @ obtain/free pairs each: synchronized @ms, concurrent @ms", threads, operations, syncTime, concurrentTime);
+                }
+            }
+        }
+    }
+
+    static long run(int threads, Runnable task) throws Exception{
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        Seq<Future<?>> futures = new Seq<>();
+        long start = Time.millis();
+        for(int i = 0; i < threads; i++){
+            futures.add(exec.submit(task));
+        }
+        Threads.awaitAll(futures);
+        exec.shutdown();
+        return Time.timeSinceMillis(start);
+    }
+
+    static ConcurrentPool<Item> pool(int magazineSize, int max){
+        return new ConcurrentPool<Item>(magazineSize, max){
+            @Override
+            protected Item newObject(){
+                return new Item();
+            }
+        };
+    }
+
+    static class Item implements Poolable{
+        final AtomicBoolean claimed = new AtomicBoolean();
+        int value;
+
+        @Override
+        public void reset(){
+            value = 0;
+        }
+    }
+
+    static class SyncedItem extends Item{
+    }
+
+    static class PooledItem extends Item{
+    }
+}
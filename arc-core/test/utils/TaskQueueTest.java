@@ -0,0 +1,189 @@
+package utils;
+
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class TaskQueueTest{
+
+    @Test
+    public void order(){
+        TaskQueue queue = new TaskQueue();
+        IntSeq ran = new IntSeq();
+        for(int i = 0; i < 5; i++){
+            int index = i;
+            queue.post(() -> ran.add(index));
+        }
+        //tasks posted while running are left for the next call
+        queue.post(() -> queue.post(() -> ran.add(100)));
+        assertEquals(6, queue.size());
+
+        queue.run();
+        assertEquals(IntSeq.with(0, 1, 2, 3, 4), ran);
+        assertEquals(6, queue.getLastDrained());
+        assertEquals(1, queue.size());
+
+        queue.run();
+        assertEquals(100, ran.peek());
+        assertEquals(0, queue.size());
+
+        queue.post(() -> fail("Cleared task ran"));
+        queue.clear();
+        queue.run();
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void repost(){
+        TaskQueue queue = new TaskQueue();
+        int[] runs = {0};
+        Runnable[] task = {null};
+        task[0] = () -> {
+            runs[0]++;
+            queue.post(task[0]);
+        };
+        queue.post(task[0]);
+
+        //a task that posts itself runs once per call
+        for(int i = 1; i <= 5; i++){
+            queue.run();
+            assertEquals(i, runs[0]);
+            assertEquals(1, queue.size());
+        }
+
+        //clearing from a running task stops the current call
+        IntSeq ran = new IntSeq();
+        queue.clear();
+        queue.post(() -> ran.add(1));
+        queue.post(queue::clear);
+        queue.post(() -> ran.add(2));
+        queue.run();
+        assertEquals(IntSeq.with(1), ran);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void clearConcurrent() throws Exception{
+        TaskQueue queue = new TaskQueue();
+        AtomicInteger ran = new AtomicInteger();
+        ExecutorService exec = Executors.newFixedThreadPool(2);
+        Future<?> poster = exec.submit(() -> {
+            for(int i = 0; i < 50_000; i++) queue.post(ran::incrementAndGet);
+        });
+        Future<?> clearer = exec.submit(() -> {
+            while(!poster.isDone()) queue.clear();
+        });
+
+        while(!poster.isDone()){
+            queue.run();
+        }
+        Threads.awaitAll(Seq.with(poster, clearer));
+        exec.shutdown();
+        int before = ran.get();
+        queue.clear();
+        queue.run();
+        assertEquals(before, ran.get());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void budget(){
+        TaskQueue queue = new TaskQueue();
+        queue.setTimeBudget(Time.millisToNanos(5));
+        for(int i = 0; i < 10; i++){
+            queue.post(() -> Threads.sleep(2));
+        }
+
+        queue.run();
+        assertTrue(queue.getLastDrained() < 10);
+        assertTrue(queue.size() > 0);
+
+        int runs = 1;
+        while(queue.size() > 0){
+            queue.run();
+            runs++;
+        }
+        assertTrue(runs > 1);
+    }
+
+    @Test
+    public void concurrent() throws Exception{
+        TaskQueue queue = new TaskQueue();
+        int threads = 4, posts = 50_000;
+        AtomicInteger ran = new AtomicInteger();
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        Seq<Future<?>> futures = new Seq<>();
+        for(int t = 0; t < threads; t++){
+            futures.add(exec.submit(() -> {
+                for(int i = 0; i < posts; i++) queue.post(ran::incrementAndGet);
+            }));
+        }
+
+        while(futures.contains(f -> !f.isDone())){
+            queue.run();
+        }
+        Threads.awaitAll(futures);
+        exec.shutdown();
+        queue.run();
+
+        assertEquals(threads * posts, ran.get());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void benchmarkPost() throws Exception{
+        //not an actual benchmark, ignore
+        int posts = 200_000;
+        Runnable task = () -> {};
+
+        for(int threads = 1; threads <= 8; threads *= 2){
+            int perThread = posts / threads;
+
+            Seq<Runnable> runnables = new Seq<>(), executed = new Seq<>();
+            long synced = run(threads, () -> {
+                for(int i = 0; i < perThread; i++){
+                    synchronized(runnables){
+                        runnables.add(task);
+                    }
+                }
+            }, () -> {
+                synchronized(runnables){
+                    executed.clear();
+                    executed.addAll(runnables);
+                    runnables.clear();
+                }
+                executed.each(Runnable::run);
+            });
+
+            TaskQueue queue = new TaskQueue();
+            long lockFree = run(threads, () -> {
+                for(int i = 0; i < perThread; i++){
+                    queue.post(task);
+                }
+            }, queue::run);
+
+            Log.info("@ threads: synchronized @ms, lock-free @ms", threads, synced, lockFree);
+        }
+    }
+
+    static long run(int threads, Runnable producer, Runnable consumer) throws Exception{
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        Seq<Future<?>> futures = new Seq<>();
+        long start = Time.millis();
+        for(int i = 0; i < threads; i++){
+            futures.add(exec.submit(producer));
+        }
+        while(futures.contains(f -> !f.isDone())){
+            consumer.run();
+        }
+        Threads.awaitAll(futures);
+        consumer.run();
+        exec.shutdown();
+        return Time.timeSinceMillis(start);
+    }
+}
@@ -0,0 +1,174 @@
+package utils;
+
+import arc.*;
+import arc.func.*;
+import arc.struct.*;
+import arc.util.*;
+import arc.util.Timer.*;
+import org.junit.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class TimerTest{
+    static TaskQueue posted = new TaskQueue();
+
+    @BeforeClass
+    public static void init(){
+        Core.app = new Application(){
+            final Seq<ApplicationListener> listeners = new Seq<>();
+
+            @Override
+            public Seq<ApplicationListener> getListeners(){
+                return listeners;
+            }
+
+            @Override
+            public ApplicationType getType(){
+                return ApplicationType.headless;
+            }
+
+            @Override
+            public String getClipboardText(){
+                return null;
+            }
+
+            @Override
+            public void setClipboardText(String text){
+            }
+
+            @Override
+            public void post(Runnable runnable){
+                posted.post(runnable);
+            }
+
+            @Override
+            public void exit(){
+            }
+        };
+    }
+
+    @Test
+    public void schedule(){
+        Timer timer = new Timer();
+        AtomicInteger ran = new AtomicInteger();
+        Task once = task(ran::incrementAndGet);
+        Task cancelled = task(() -> fail("Cancelled task ran"));
+        Task repeat = task(ran::incrementAndGet);
+
+        timer.scheduleTask(once, 0.01f);
+        timer.scheduleTask(cancelled, 0.02f);
+        timer.scheduleTask(repeat, 0.01f, 0.01f, 2);
+        assertTrue(cancelled.isScheduled());
+        cancelled.cancel();
+        assertFalse(cancelled.isScheduled());
+
+        //posted tasks run on the app thread, here the test thread
+        waitFor(() -> ran.get() == 4);
+        assertFalse(once.isScheduled());
+        assertFalse(repeat.isScheduled());
+        assertTrue(timer.isEmpty());
+        assertEquals(4, timer.getFired());
+        assertTrue(timer.getMaxLateness() >= 0);
+        timer.stop();
+    }
+
+    @Test
+    public void executor() throws Exception{
+        Timer timer = new Timer();
+        ExecutorService exec = Executors.newSingleThreadExecutor();
+        timer.setExecutor(exec);
+        CountDownLatch latch = new CountDownLatch(100);
+        for(int i = 0; i < 100; i++){
+            timer.scheduleTask(task(latch::countDown), i / 1000f);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        exec.shutdown();
+        timer.stop();
+    }
+
+    @Test
+    public void clear(){
+        Timer timer = new Timer();
+        Seq<Task> tasks = new Seq<>();
+        for(int i = 0; i < 1000; i++){
+            tasks.add(timer.scheduleTask(task(() -> fail("Cleared task ran")), 10f + i));
+        }
+        assertFalse(timer.isEmpty());
+        timer.clear();
+        assertTrue(timer.isEmpty());
+        assertFalse(tasks.contains(Task::isScheduled));
+        timer.stop();
+    }
+
+    @Test
+    public void delay(){
+        Timer timer = new Timer();
+        AtomicInteger ran = new AtomicInteger();
+        Task delayed = timer.scheduleTask(task(() -> fail("Delayed task ran")), 10f);
+        long executeTime = delayed.getExecuteTimeMillis();
+
+        timer.delay(5000);
+        assertEquals(executeTime + 5000, delayed.getExecuteTimeMillis());
+
+        //tasks scheduled after the delay are not affected by it
+        long start = Time.millis();
+        Task task = timer.scheduleTask(task(ran::incrementAndGet), 0.3f);
+        Threads.sleep(100);
+        posted.run();
+        assertEquals(0, ran.get());
+        waitFor(() -> ran.get() == 1);
+        assertTrue(Time.timeSinceMillis(start) >= 300);
+        assertFalse(task.isScheduled());
+
+        assertTrue(delayed.isScheduled());
+        delayed.cancel();
+        assertTrue(timer.isEmpty());
+        timer.stop();
+    }
+
+    @Test
+    public void benchmarkSchedule(){
+        //not an actual benchmark, ignore
+        int count = 100_000;
+        Timer timer = new Timer();
+        Seq<Task> tasks = new Seq<>();
+        for(int i = 0; i < count; i++) tasks.add(task(() -> {}));
+
+        long start = Time.nanos();
+        for(int i = 0; i < count; i++){
+            timer.scheduleTask(tasks.get(i), 60f + i % 600);
+        }
+        float schedule = Time.millisSinceNanos(start);
+
+        start = Time.nanos();
+        for(int i = 0; i < count; i++){
+            tasks.get(i).cancel();
+        }
+        float cancel = Time.millisSinceNanos(start);
+
+        Log.info("@ tasks: schedule @ms, cancel @ms", count, schedule, cancel);
+        assertTrue(timer.isEmpty());
+        timer.stop();
+    }
+
+    static void waitFor(Boolp condition){
+        long start = Time.millis();
+        while(!condition.get()){
+            posted.run();
+            if(Time.timeSinceMillis(start) > 5000) fail("Timed out");
+            Threads.sleep(1);
+        }
+    }
+
+    static Task task(Runnable run){
+        return new Task(){
+            @Override
+            public void run(){
+                run.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,201 @@
+package utils;
+
+import arc.math.*;
+import arc.struct.*;
+import arc.util.*;
+import arc.util.Time.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest{
+
+    @Test
+    public void expiry(){
+        Rand rand = new Rand(1);
+        TimingWheel wheel = new TimingWheel(100);
+        Seq<Item> items = new Seq<>();
+        for(int i = 0; i < 5000; i++){
+            //cover every level, and a few entries that are due immediately
+            long deadline = 100 + (i % 4 == 0 ? rand.random(-2, 300) : (long)(rand.nextDouble() * (1 << (8 * (i % 3 + 1)))));
+            Item item = new Item();
+            wheel.schedule(item, deadline);
+            items.add(item);
+        }
+        assertEquals(items.size, wheel.size());
+
+        long tick = 100;
+        int[] count = {0};
+        while(wheel.size() > 0){
+            long to = tick + rand.random(1, 700);
+            long from = tick;
+            wheel.advance(to, e -> {
+                Item item = (Item)e;
+                assertFalse(item.expired);
+                assertFalse(item.isScheduled());
+                assertTrue("expired at " + to + " but deadline is " + item.getDeadline(), item.getDeadline() <= to);
+                assertTrue("expired at " + to + " but deadline was " + item.getDeadline(), item.getDeadline() > from || from == 100);
+                item.expired = true;
+                count[0]++;
+            });
+            tick = to;
+        }
+        assertEquals(items.size, count[0]);
+    }
+
+    @Test
+    public void cancel(){
+        TimingWheel wheel = new TimingWheel();
+        Item a = new Item(), b = new Item(), c = new Item();
+        wheel.schedule(a, 10);
+        wheel.schedule(b, 10);
+        wheel.schedule(c, 100000);
+        assertTrue(b.cancel());
+        assertFalse(b.cancel());
+        assertTrue(c.cancel());
+        assertEquals(1, wheel.size());
+
+        //cancelling an entry from the listener prevents it from expiring in the same pass
+        wheel.schedule(b, 10);
+        wheel.advance(20, e -> {
+            ((Item)e).expired = true;
+            if(e == a) b.cancel();
+        });
+        assertTrue(a.expired);
+        assertFalse(b.expired);
+        assertFalse(c.expired);
+        assertEquals(0, wheel.size());
+
+        wheel.schedule(a, 5);
+        wheel.clear();
+        assertFalse(a.isScheduled());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void nextTick(){
+        TimingWheel wheel = new TimingWheel(10);
+        assertEquals(Long.MAX_VALUE, wheel.nextTick());
+
+        wheel.schedule(new Item(), 5000);
+        assertEquals(256, wheel.nextTick());
+        wheel.schedule(new Item(), 40);
+        assertEquals(40, wheel.nextTick());
+        wheel.schedule(new Item(), 3);
+        assertEquals(10, wheel.nextTick());
+
+        int[] expired = {0};
+        while(wheel.size() > 0){
+            long next = wheel.nextTick();
+            assertTrue(next >= wheel.getTick());
+            wheel.advance(next, e -> expired[0]++);
+        }
+        assertEquals(3, expired[0]);
+        assertEquals(5000, wheel.getTick());
+    }
+
+    @Test
+    public void reschedule(){
+        TimingWheel wheel = new TimingWheel();
+        Item item = new Item();
+        int[] runs = {0};
+        wheel.schedule(item, 0);
+        //an entry that schedules itself for the current tick runs once per call
+        for(int i = 0; i < 3; i++){
+            wheel.advance(i, e -> {
+                runs[0]++;
+                wheel.schedule(e, 0);
+            });
+        }
+        assertEquals(3, runs[0]);
+    }
+
+    @Test
+    public void timeRun(){
+        Time.clear();
+        Time.delta = 0.75f;
+        int[] order = new int[3];
+        int[] updates = {0};
+
+        Time.run(2.25f, () -> order[0] = updates[0]);
+        Time.run(0f, () -> order[1] = updates[0]);
+        DelayRun cancelled = Time.schedule(1f, () -> fail("Cancelled task ran"));
+        Time.run(300f, () -> order[2] = updates[0]);
+        assertTrue(cancelled.isScheduled());
+        assertTrue(cancelled.cancel());
+        assertEquals(3, Time.pendingRuns());
+
+        while(Time.pendingRuns() > 0){
+            updates[0]++;
+            Time.update();
+        }
+
+        //delays are exact, even when they fall between ticks
+        assertEquals(3, order[0]);
+        assertEquals(1, order[1]);
+        assertEquals(400, order[2]);
+
+        //runs without a delay that are scheduled by a run happen in the same update, however deep they are nested
+        updates[0] = 0;
+        int[] nested = new int[3];
+        Time.run(1f, () -> {
+            nested[0] = updates[0];
+            Time.run(0f, () -> {
+                nested[1] = updates[0];
+                Time.run(-5f, () -> nested[2] = updates[0]);
+            });
+            Time.run(0.5f, () -> order[0] = updates[0]);
+        });
+        while(Time.pendingRuns() > 0){
+            updates[0]++;
+            Time.update();
+        }
+        assertArrayEquals(new int[]{2, 2, 2}, nested);
+        assertEquals(3, order[0]);
+        Time.delta = 1f;
+    }
+
+    @Test
+    public void benchmarkRuns(){
+        //not an actual benchmark, ignore
+        int pending = 100_000, updates = 600;
+        Rand rand = new Rand(0);
+        Runnable task = () -> {};
+        Time.clear();
+        Time.delta = 1f;
+
+        //the previous implementation: decrement and scan every pending run each update
+        Seq<float[]> runs = new Seq<>();
+        Seq<float[]> removal = new Seq<>();
+        for(int i = 0; i < pending; i++) runs.add(new float[]{rand.random(1f, 60f * 60f)});
+        long start = Time.nanos();
+        for(int u = 0; u < updates; u++){
+            removal.clear();
+            for(float[] run : runs){
+                run[0] -= Time.delta;
+                if(run[0] <= 0){
+                    task.run();
+                    removal.add(run);
+                }
+            }
+            runs.removeAll(removal);
+        }
+        float scan = Time.millisSinceNanos(start);
+
+        rand.setSeed(0);
+        for(int i = 0; i < pending; i++) Time.run(rand.random(1f, 60f * 60f), task);
+        start = Time.nanos();
+        for(int u = 0; u < updates; u++){
+            Time.update();
+        }
+        float wheel = Time.millisSinceNanos(start);
+
+        Log.info("@ pending runs, @ updates: scan @ms, timing wheel @ms", pending, updates, scan, wheel);
+        assertEquals(runs.size, Time.pendingRuns());
+        Time.clear();
+    }
+
+    static class Item extends TimingWheel.Entry{
+        boolean expired;
+    }
+}
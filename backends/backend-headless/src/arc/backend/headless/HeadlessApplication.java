@@ -6,6 +6,9 @@ import arc.mock.*;
 import arc.struct.*;
 import arc.util.*;
 
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
 /**
  * a headless implementation of an application primarily intended to be used in servers
  * @author Jon Renner
@@ -18,6 +21,29 @@ public class HeadlessApplication implements Application{
     protected long renderInterval;
     protected Thread mainLoopThread;
     protected boolean running = true;
+    protected final TickMetrics metrics = new TickMetrics(600);
+    /**
+     * Copy of {@link #listeners} that the main loop iterates without locking. Replaced whenever a listener is added or removed, and
+     * at the start of a tick if the list returned by {@link #getListeners()} was changed directly.
+     */
+    protected volatile ApplicationListener[] listenerArray = {};
+    protected final ObjectMap<ApplicationListener, String> updateGroups = new ObjectMap<>();
+    protected final ObjectMap<String, Seq<String>> updateDependencies = new ObjectMap<>();
+    protected volatile @Nullable ExecutorService updateExecutor;
+    private volatile @Nullable UpdatePlan updatePlan;
+
+    /**
+     * How many ticks the loop may fall behind before it drops them. Late ticks within this limit are run back to back until the
+     * loop is on schedule again; 0 runs a late tick immediately and restarts the schedule from there.
+     */
+    public volatile int maxCatchUp = 0;
+    /**
+     * The loop parks the thread until this many nanoseconds before the next tick, then spins for the rest. Higher values give
+     * more precise tick timing at the cost of CPU time.
+     */
+    public volatile long spinThreshold = 200_000;
+    /** If true, the delta time reported by {@link #graphics} is always the tick interval, including for ticks that catch up. */
+    public volatile boolean fixedDelta = false;
 
     public HeadlessApplication(ApplicationListener listener){
         this(listener, 1f / 60f, t -> { throw new RuntimeException(t); });
@@ -59,48 +85,152 @@ public class HeadlessApplication implements Application{
     }
 
     void mainLoop(){
-        synchronized(listeners){
-            for(ApplicationListener listener : listeners){
-                listener.init();
-            }
+        for(ApplicationListener listener : listeners()){
+            listener.init();
         }
 
-        long t = Time.nanos() + renderInterval;
+        long next = Time.nanos() + renderInterval;
         if(renderInterval >= 0f){
             while(running){
-                final long n = Time.nanos();
-                if(t > n){
-                    long sleep = t - n;
-                    Threads.sleep(sleep / 1000000, (int)(sleep % 1000000));
-
-                    t += renderInterval;
+                long now = Time.nanos();
+                if(next > now){
+                    sleepUntil(next);
+                    next += renderInterval;
+                }else if(renderInterval > 0 && now - next < renderInterval * maxCatchUp){
+                    metrics.catchUp();
+                    next += renderInterval;
                 }else{
-                    t = n + renderInterval;
+                    if(renderInterval > 0) metrics.skip((now - next) / renderInterval);
+                    next = now + renderInterval;
                 }
 
-                runnables.run();
-                graphics.incrementFrameId();
-                defaultUpdate();
-
-                synchronized(listeners){
-                    for(ApplicationListener listener : listeners){
-                        listener.update();
-                    }
-                }
-                graphics.updateTime();
+                long start = Time.nanos();
+                tick();
+                long duration = Time.timeSinceNanos(start);
+                metrics.tick(duration / (float)Time.nanosPerMilli, renderInterval > 0 && duration > renderInterval);
 
                 // If one of the runnables set running to false, for example after an exit().
                 if(!running) break;
             }
         }
 
-        synchronized(listeners){
+        for(ApplicationListener listener : listeners()){
+            listener.pause();
+            listener.dispose();
+        }
+        dispose();
+        setParallelUpdate(0);
+    }
+
+    /** Runs a single tick: posted tasks, the default update and the update of every listener, timing each of them. */
+    protected void tick(){
+        long time = Time.nanos();
+        runnables.run();
+        metrics.runnables(Time.millisSinceNanos(time));
+
+        graphics.incrementFrameId();
+        time = Time.nanos();
+        defaultUpdate();
+        metrics.defaultUpdate(Time.millisSinceNanos(time));
+
+        ApplicationListener[] listeners = listeners();
+        ExecutorService executor = updateExecutor;
+        metrics.listeners(listeners.length);
+        if(executor == null){
             for(ApplicationListener listener : listeners){
-                listener.pause();
-                listener.dispose();
+                time = Time.nanos();
+                listener.update();
+                metrics.listener(listener, Time.millisSinceNanos(time));
+            }
+        }else{
+            UpdatePlan plan = updatePlan;
+            if(plan == null){
+                synchronized(this.listeners){
+                    updatePlan = plan = new UpdatePlan(listenerArray, updateGroups, updateDependencies);
+                }
+            }
+            plan.update(executor, metrics);
+        }
+
+        if(fixedDelta && renderInterval > 0){
+            graphics.updateTime(renderInterval / 1000000000f);
+        }else{
+            graphics.updateTime();
+        }
+    }
+
+    /**
+     * Enables updating listeners in parallel, see {@link #setUpdateGroup(ApplicationListener, String)}. Ungrouped listeners are
+     * still updated on the main loop thread first, and every tick waits for all groups to finish.
+     * When called from another thread while the main loop is running, the change is posted and applies from the next tick on, so
+     * that a running tick never uses an executor that was shut down.
+     * @param threads the number of worker threads, in addition to the main loop thread; 0 disables parallel updates.
+     */
+    public void setParallelUpdate(int threads){
+        if(Thread.currentThread() != mainLoopThread && mainLoopThread != null && mainLoopThread.isAlive()){
+            post(() -> setParallelUpdate(threads));
+            return;
+        }
+
+        ExecutorService previous = updateExecutor;
+        updateExecutor = threads > 0 ? Threads.executor("HeadlessUpdate", threads) : null;
+        if(previous != null) previous.shutdown();
+    }
+
+    /**
+     * Puts a listener in an update group. When parallel updates are enabled, the listeners of a group are updated one after another
+     * in the order they were added, while different groups may be updated at the same time on different threads.
+     * @param group the name of the group, or null to update the listener on the main loop thread.
+     */
+    public void setUpdateGroup(ApplicationListener listener, @Nullable String group){
+        synchronized(listeners){
+            if(group == null){
+                updateGroups.remove(listener);
+            }else{
+                updateGroups.put(listener, group);
+            }
+            updatePlan = null;
+        }
+    }
+
+    /**
+     * Makes a group wait for another group to finish updating before it starts, in every tick.
+     * @throws IllegalArgumentException if this would create a cycle of dependencies.
+     */
+    public void addUpdateDependency(String group, String dependsOn){
+        synchronized(listeners){
+            if(group.equals(dependsOn) || dependsOn(dependsOn, group)){
+                throw new IllegalArgumentException("Group '" + group + "' cannot depend on '" + dependsOn + "': it would depend on itself.");
             }
-            dispose();
+            updateDependencies.get(group, Seq::new).addUnique(dependsOn);
+            updatePlan = null;
+        }
+    }
+
+    private boolean dependsOn(String group, String other){
+        Seq<String> deps = updateDependencies.get(group);
+        if(deps == null) return false;
+        for(String dep : deps){
+            if(dep.equals(other) || dependsOn(dep, other)) return true;
         }
+        return false;
+    }
+
+    /** Parks the main loop thread until shortly before the deadline, then spins until it is reached. */
+    protected void sleepUntil(long deadline){
+        long remaining;
+        while((remaining = deadline - Time.nanos()) > spinThreshold){
+            LockSupport.parkNanos(remaining - spinThreshold);
+            if(Thread.interrupted()) throw new RuntimeException(new InterruptedException());
+        }
+        while(Time.nanos() < deadline){
+            Thread.yield();
+        }
+    }
+
+    /** @return the tick timings of the main loop. */
+    public TickMetrics getMetrics(){
+        return metrics;
     }
 
     @Override
@@ -118,11 +248,51 @@ public class HeadlessApplication implements Application{
 
     }
 
+    /**
+     * Changes to this list must be made while holding its lock, like {@link #addListener(ApplicationListener)} does. The main loop
+     * picks them up at the start of the next tick.
+     */
     @Override
     public Seq<ApplicationListener> getListeners(){
         return listeners;
     }
 
+    @Override
+    public void addListener(ApplicationListener listener){
+        synchronized(listeners){
+            listeners.add(listener);
+            listenersChanged();
+        }
+    }
+
+    @Override
+    public void removeListener(ApplicationListener listener){
+        synchronized(listeners){
+            listeners.remove(listener);
+            updateGroups.remove(listener);
+            listenersChanged();
+        }
+    }
+
+    /** @return {@link #listenerArray}, after rebuilding it if {@link #listeners} was changed without {@link #listenersChanged()}. */
+    protected ApplicationListener[] listeners(){
+        synchronized(listeners){
+            ApplicationListener[] array = listenerArray;
+            boolean changed = array.length != listeners.size;
+            for(int i = 0; i < array.length && !changed; i++){
+                changed = array[i] != listeners.get(i);
+            }
+            if(changed) listenersChanged();
+            return listenerArray;
+        }
+    }
+
+    /** Must be called while holding the lock of {@link #listeners}. */
+    protected void listenersChanged(){
+        listenerArray = listeners.toArray(ApplicationListener.class);
+        updatePlan = null;
+    }
+
     @Override
     public void post(Runnable runnable){
         runnables.post(runnable);
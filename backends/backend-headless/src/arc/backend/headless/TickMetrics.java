@@ -0,0 +1,136 @@
+package arc.backend.headless;
+
+import arc.*;
+import arc.struct.*;
+
+import java.util.*;
+
+/**
+ * Timing of the ticks of a {@link HeadlessApplication}: how long ticks take, how long each phase of a tick takes, and how often the
+ * loop fell behind its tick interval. All times are in milliseconds.
+ * <p>
+ * Phase times are written by the main loop thread without synchronization; read them and call {@link #reset()} from that thread,
+ * e.g. in a listener or a posted task.
+ */
+public class TickMetrics{
+    private final float[] samples, sorted;
+    private int index, count;
+    private boolean dirty;
+
+    private long ticks, overruns, catchUps, skipped;
+    private float lastTick, runnablesTime, defaultUpdateTime;
+    private final ObjectFloatMap<ApplicationListener> listenerTimes = new ObjectFloatMap<>();
+
+    /** @param window the number of recent ticks that percentiles are computed over. */
+    public TickMetrics(int window){
+        samples = new float[window];
+        sorted = new float[window];
+    }
+
+    synchronized void tick(float duration, boolean overrun){
+        ticks++;
+        if(overrun) overruns++;
+        lastTick = duration;
+        samples[index] = duration;
+        index = (index + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        dirty = true;
+    }
+
+    synchronized void catchUp(){
+        catchUps++;
+    }
+
+    synchronized void skip(long ticks){
+        skipped += ticks;
+    }
+
+    void runnables(float duration){
+        runnablesTime = duration;
+    }
+
+    void defaultUpdate(float duration){
+        defaultUpdateTime = duration;
+    }
+
+    void listener(ApplicationListener listener, float duration){
+        listenerTimes.put(listener, duration);
+    }
+
+    /** Drops the times of removed listeners. */
+    void listeners(int count){
+        if(listenerTimes.size > count) listenerTimes.clear();
+    }
+
+    /**
+     * @param percentile between 0 and 1, e.g. 0.99 for the 99th percentile.
+     * @return the tick duration that the specified fraction of the recent ticks did not exceed, or 0 if no ticks were recorded.
+     */
+    public synchronized float percentile(float percentile){
+        if(count == 0) return 0f;
+        if(dirty){
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            dirty = false;
+        }
+        int i = (int)Math.ceil(percentile * count) - 1;
+        return sorted[Math.min(Math.max(i, 0), count - 1)];
+    }
+
+    /** @return the average duration of the recent ticks. */
+    public synchronized float average(){
+        float total = 0f;
+        for(int i = 0; i < count; i++){
+            total += samples[i];
+        }
+        return count == 0 ? 0f : total / count;
+    }
+
+    /** @return the duration of the last tick, not including the time spent waiting for it. */
+    public synchronized float getLastTick(){
+        return lastTick;
+    }
+
+    /** @return the number of ticks that were run. */
+    public synchronized long getTicks(){
+        return ticks;
+    }
+
+    /** @return the number of ticks that took longer than the tick interval. */
+    public synchronized long getOverruns(){
+        return overruns;
+    }
+
+    /** @return the number of ticks that were run late and without waiting, to catch up with the schedule. */
+    public synchronized long getCatchUps(){
+        return catchUps;
+    }
+
+    /** @return the number of scheduled ticks that were dropped because the loop fell too far behind. */
+    public synchronized long getSkipped(){
+        return skipped;
+    }
+
+    /** @return how long running posted tasks took in the last tick. */
+    public float getRunnablesTime(){
+        return runnablesTime;
+    }
+
+    /** @return how long {@link Application#defaultUpdate()} took in the last tick. */
+    public float getDefaultUpdateTime(){
+        return defaultUpdateTime;
+    }
+
+    /** @return how long the update of this listener took in the last tick, or 0 if it was not updated. */
+    public float getListenerTime(ApplicationListener listener){
+        return listenerTimes.get(listener, 0f);
+    }
+
+    /** Clears all recorded ticks and counters. */
+    public synchronized void reset(){
+        index = count = 0;
+        ticks = overruns = catchUps = skipped = 0;
+        lastTick = runnablesTime = defaultUpdateTime = 0f;
+        listenerTimes.clear();
+    }
+}
@@ -0,0 +1,106 @@
+package arc.backend.headless;
+
+import arc.*;
+import arc.struct.*;
+import arc.util.*;
+
+import java.util.concurrent.*;
+
+/**
+ * The order in which a {@link HeadlessApplication} updates its listeners when parallel updates are enabled. Ungrouped listeners
+ * are updated first, on the main loop thread. Groups are then split into stages by their dependencies; the groups of a stage are
+ * updated in parallel, and each stage waits for the previous one to finish.
+ */
+class UpdatePlan{
+    final ApplicationListener[] ungrouped;
+    final Group[][] stages;
+    private final Seq<Future<?>> futures = new Seq<>();
+
+    UpdatePlan(ApplicationListener[] listeners, ObjectMap<ApplicationListener, String> groupNames, ObjectMap<String, Seq<String>> dependencies){
+        Seq<ApplicationListener> ungrouped = new Seq<>();
+        OrderedMap<String, Seq<ApplicationListener>> grouped = new OrderedMap<>();
+        for(ApplicationListener listener : listeners){
+            String name = groupNames.get(listener);
+            if(name == null){
+                ungrouped.add(listener);
+            }else{
+                grouped.get(name, Seq::new).add(listener);
+            }
+        }
+        this.ungrouped = ungrouped.toArray(ApplicationListener.class);
+
+        ObjectIntMap<String> levels = new ObjectIntMap<>();
+        Seq<Seq<Group>> stages = new Seq<>();
+        for(String name : grouped.orderedKeys()){
+            int level = level(name, dependencies, levels);
+            while(stages.size <= level) stages.add(new Seq<Group>());
+            stages.get(level).add(new Group(grouped.get(name).toArray(ApplicationListener.class)));
+        }
+        //dependencies on groups without listeners leave empty stages
+        stages.removeAll(Seq::isEmpty);
+
+        this.stages = new Group[stages.size][];
+        for(int i = 0; i < stages.size; i++){
+            this.stages[i] = stages.get(i).toArray(Group.class);
+        }
+    }
+
+    void update(ExecutorService executor, TickMetrics metrics){
+        for(ApplicationListener listener : ungrouped){
+            long time = Time.nanos();
+            listener.update();
+            metrics.listener(listener, Time.millisSinceNanos(time));
+        }
+
+        for(Group[] stage : stages){
+            futures.clear();
+            for(int i = 1; i < stage.length; i++){
+                futures.add(executor.submit(stage[i]));
+            }
+            //the main loop thread takes the first group instead of waiting idle
+            stage[0].run();
+            Threads.awaitAll(futures);
+
+            //times are written to the metrics here, since they are not thread-safe
+            for(Group group : stage){
+                for(int i = 0; i < group.listeners.length; i++){
+                    metrics.listener(group.listeners[i], group.times[i]);
+                }
+            }
+        }
+    }
+
+    private static int level(String name, ObjectMap<String, Seq<String>> dependencies, ObjectIntMap<String> levels){
+        int level = levels.get(name, -1);
+        if(level != -1) return level;
+
+        level = 0;
+        Seq<String> deps = dependencies.get(name);
+        if(deps != null){
+            for(String dep : deps){
+                level = Math.max(level, level(dep, dependencies, levels) + 1);
+            }
+        }
+        levels.put(name, level);
+        return level;
+    }
+
+    static class Group implements Runnable{
+        final ApplicationListener[] listeners;
+        final float[] times;
+
+        Group(ApplicationListener[] listeners){
+            this.listeners = listeners;
+            this.times = new float[listeners.length];
+        }
+
+        @Override
+        public void run(){
+            for(int i = 0; i < listeners.length; i++){
+                long time = Time.nanos();
+                listeners[i].update();
+                times[i] = Time.millisSinceNanos(time);
+            }
+        }
+    }
+}
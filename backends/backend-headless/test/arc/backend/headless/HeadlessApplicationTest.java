@@ -0,0 +1,315 @@
+package arc.backend.headless;
+
+import arc.*;
+import arc.backend.headless.UpdatePlan.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+public class HeadlessApplicationTest{
+
+    @Test
+    public void planStages(){
+        Named u = new Named("u"), a1 = new Named("a1"), a2 = new Named("a2"), b = new Named("b"), c = new Named("c"), d = new Named("d"), e = new Named("e");
+        ObjectMap<ApplicationListener, String> groups = ObjectMap.of(a1, "a", a2, "a", b, "b", c, "c", d, "d", e, "e");
+        ObjectMap<String, Seq<String>> dependencies = ObjectMap.of("c", Seq.with("a", "b"), "d", Seq.with("c"), "e", Seq.with("empty"));
+
+        UpdatePlan plan = new UpdatePlan(new ApplicationListener[]{a1, u, b, c, d, a2, e}, groups, dependencies);
+        assertArrayEquals(new ApplicationListener[]{u}, plan.ungrouped);
+        //groups keep the order they first appear in, and their listeners the order they were added in
+        assertEquals(3, plan.stages.length);
+        assertStage(plan.stages[0], new Named[]{a1, a2}, new Named[]{b});
+        //a dependency on a group without listeners still puts the group in a later stage
+        assertStage(plan.stages[1], new Named[]{c}, new Named[]{e});
+        assertStage(plan.stages[2], new Named[]{d});
+
+        //stages of groups without listeners are dropped
+        plan = new UpdatePlan(new ApplicationListener[]{d}, groups, ObjectMap.of("d", Seq.with("x"), "x", Seq.with("y")));
+        assertEquals(0, plan.ungrouped.length);
+        assertEquals(1, plan.stages.length);
+        assertStage(plan.stages[0], new Named[]{d});
+    }
+
+    @Test
+    public void dependencyCycles(){
+        HeadlessApplication app = app(0f);
+        app.addUpdateDependency("a", "b");
+        app.addUpdateDependency("b", "c");
+        app.addUpdateDependency("a", "c");
+        app.addUpdateDependency("a", "b");
+
+        for(String[] cycle : new String[][]{{"a", "a"}, {"b", "a"}, {"c", "a"}, {"c", "b"}}){
+            try{
+                app.addUpdateDependency(cycle[0], cycle[1]);
+                fail("Cycle " + cycle[0] + " -> " + cycle[1] + " was not detected");
+            }catch(IllegalArgumentException expected){
+            }
+        }
+        assertEquals(Seq.with("b", "c"), app.updateDependencies.get("a"));
+        assertNull(app.updateDependencies.get("c"));
+    }
+
+    @Test
+    public void parallelUpdate(){
+        HeadlessApplication app = app(0f);
+        AtomicInteger clock = new AtomicInteger();
+        Recorder u = new Recorder(clock), a1 = new Recorder(clock), a2 = new Recorder(clock), b = new Recorder(clock), c = new Recorder(clock), d = new Recorder(clock);
+        Recorder[] all = {a1, u, b, c, a2, d};
+        for(Recorder listener : all){
+            app.addListener(listener);
+        }
+        app.setUpdateGroup(a1, "a");
+        app.setUpdateGroup(a2, "a");
+        app.setUpdateGroup(b, "b");
+        app.setUpdateGroup(c, "c");
+        app.setUpdateGroup(d, "d");
+        app.addUpdateDependency("c", "a");
+        app.addUpdateDependency("c", "b");
+        app.addUpdateDependency("d", "c");
+        app.setParallelUpdate(2);
+
+        for(int i = 0; i < 50; i++){
+            app.tick();
+            for(Recorder listener : all){
+                assertEquals(i + 1, listener.updates);
+            }
+            //ungrouped listeners run first, on the main loop thread
+            assertSame(Thread.currentThread(), u.thread);
+            assertTrue(u.end < Math.min(a1.start, b.start));
+            //listeners of a group run in order on the same thread
+            assertTrue(a1.end < a2.start);
+            assertSame(a1.thread, a2.thread);
+            //dependent groups wait for their dependencies
+            assertTrue(c.start > a2.end && c.start > b.end);
+            assertTrue(d.start > c.end);
+            assertTrue(app.getMetrics().getListenerTime(d) >= 0f);
+        }
+
+        app.setParallelUpdate(0);
+        assertNull(app.updateExecutor);
+        app.tick();
+        assertSame(Thread.currentThread(), a1.thread);
+        assertSame(Thread.currentThread(), b.thread);
+    }
+
+    @Test
+    public void parallelUpdateFromOtherThread() throws InterruptedException{
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicInteger updates = new AtomicInteger();
+        HeadlessApplication app = new HeadlessApplication(new ApplicationListener(){}, 0.001f, error::set);
+        for(String group : new String[]{"a", "b", "c"}){
+            ApplicationListener listener = new ApplicationListener(){
+                @Override
+                public void update(){
+                    updates.incrementAndGet();
+                }
+            };
+            app.addListener(listener);
+            app.setUpdateGroup(listener, group);
+        }
+
+        //executors are only replaced between ticks, so a tick never submits to one that was shut down
+        for(int i = 0; i < 100; i++){
+            app.setParallelUpdate(1 + i % 3);
+            Thread.sleep(1);
+        }
+        int target = updates.get() + 30;
+        while(updates.get() < target && error.get() == null){
+            Thread.sleep(1);
+        }
+
+        app.exit();
+        app.mainLoopThread.join(10000);
+        assertNull(error.get());
+        assertFalse(app.mainLoopThread.isAlive());
+        assertNull(app.updateExecutor);
+    }
+
+    @Test
+    public void listenersChangedDirectly(){
+        HeadlessApplication app = app(0f);
+        Recorder listener = new Recorder(new AtomicInteger());
+        synchronized(app.getListeners()){
+            app.getListeners().add(listener);
+        }
+        app.tick();
+        assertEquals(1, listener.updates);
+
+        synchronized(app.getListeners()){
+            app.getListeners().remove(listener);
+        }
+        app.tick();
+        assertEquals(1, listener.updates);
+
+        synchronized(app.getListeners()){
+            app.getListeners().add(listener);
+            app.getListeners().add(listener);
+        }
+        app.tick();
+        assertEquals(3, listener.updates);
+    }
+
+    @Test
+    public void metrics(){
+        TickMetrics metrics = new TickMetrics(4);
+        assertEquals(0f, metrics.percentile(0.5f), 0f);
+        assertEquals(0f, metrics.average(), 0f);
+
+        for(int i = 1; i <= 5; i++){
+            metrics.tick(i, i == 5);
+        }
+        //only the last 4 ticks are kept
+        assertEquals(3.5f, metrics.average(), 0.0001f);
+        assertEquals(2f, metrics.percentile(0f), 0f);
+        assertEquals(3f, metrics.percentile(0.5f), 0f);
+        assertEquals(4f, metrics.percentile(0.75f), 0f);
+        assertEquals(5f, metrics.percentile(1f), 0f);
+        assertEquals(5f, metrics.getLastTick(), 0f);
+        assertEquals(5, metrics.getTicks());
+        assertEquals(1, metrics.getOverruns());
+
+        metrics.catchUp();
+        metrics.catchUp();
+        metrics.skip(3);
+        metrics.skip(4);
+        assertEquals(2, metrics.getCatchUps());
+        assertEquals(7, metrics.getSkipped());
+
+        metrics.reset();
+        assertEquals(0, metrics.getTicks());
+        assertEquals(0, metrics.getOverruns());
+        assertEquals(0, metrics.getCatchUps());
+        assertEquals(0, metrics.getSkipped());
+        assertEquals(0f, metrics.percentile(1f), 0f);
+    }
+
+    @Test
+    public void phaseTimes(){
+        HeadlessApplication app = app(0f);
+        ApplicationListener slow = new ApplicationListener(){
+            @Override
+            public void update(){
+                Threads.sleep(5);
+            }
+        };
+        app.addListener(slow);
+        app.post(() -> Threads.sleep(5));
+        app.tick();
+
+        TickMetrics metrics = app.getMetrics();
+        assertTrue(metrics.getRunnablesTime() >= 4f);
+        assertTrue(metrics.getListenerTime(slow) >= 4f);
+
+        app.tick();
+        assertTrue(metrics.getRunnablesTime() < 4f);
+
+        //the times of removed listeners are dropped
+        app.removeListener(slow);
+        app.tick();
+        assertEquals(0f, metrics.getListenerTime(slow), 0f);
+    }
+
+    @Test
+    public void catchUp(){
+        HeadlessApplication app = run(0);
+        assertEquals(0, app.getMetrics().getCatchUps());
+        //the stalled tick was 90ms late, so about 4 ticks were dropped
+        assertTrue(app.getMetrics().getSkipped() >= 3);
+        assertTrue(app.getMetrics().getOverruns() >= 1);
+
+        app = run(10);
+        assertTrue(app.getMetrics().getCatchUps() >= 3);
+        assertEquals(0, app.getMetrics().getSkipped());
+        assertTrue(app.getMetrics().getOverruns() >= 1);
+    }
+
+    @Test
+    public void sleepUntil(){
+        HeadlessApplication app = app(0f);
+        for(long threshold : new long[]{0, 200_000, Long.MAX_VALUE}){
+            app.spinThreshold = threshold;
+            for(int i = 0; i < 5; i++){
+                long deadline = Time.nanos() + 3_000_000;
+                app.sleepUntil(deadline);
+                long late = Time.nanos() - deadline;
+                assertTrue(late >= 0);
+                assertTrue("Woke up " + late + "ns late", late < 50_000_000);
+            }
+        }
+
+        //deadlines in the past return immediately
+        long start = Time.nanos();
+        app.sleepUntil(start - 1_000_000_000);
+        assertTrue(Time.timeSinceNanos(start) < 50_000_000);
+    }
+
+    /** Runs 12 ticks of 20ms on this thread, where the third tick takes 110ms. */
+    static HeadlessApplication run(int maxCatchUp){
+        HeadlessApplication app = app(0.02f);
+        app.maxCatchUp = maxCatchUp;
+        app.addListener(new ApplicationListener(){
+            int ticks;
+
+            @Override
+            public void update(){
+                if(++ticks == 3) Threads.sleep(110);
+                if(ticks == 12) app.running = false;
+            }
+        });
+        app.mainLoop();
+        assertEquals(12, app.getMetrics().getTicks());
+        return app;
+    }
+
+    /** @return an application whose main loop is not started, so that ticks can be run on the test thread. */
+    static HeadlessApplication app(float interval){
+        return new HeadlessApplication(new ApplicationListener(){}, interval, t -> { throw new RuntimeException(t); }){
+            @Override
+            protected void initialize(){
+            }
+        };
+    }
+
+    static void assertStage(Group[] stage, Named[]... groups){
+        assertEquals(groups.length, stage.length);
+        for(int i = 0; i < groups.length; i++){
+            assertArrayEquals(groups[i], stage[i].listeners);
+        }
+    }
+
+    static class Named implements ApplicationListener{
+        final String name;
+
+        Named(String name){
+            this.name = name;
+        }
+
+        @Override
+        public String toString(){
+            return name;
+        }
+    }
+
+    static class Recorder implements ApplicationListener{
+        final AtomicInteger clock;
+        volatile int start, end, updates;
+        volatile Thread thread;
+
+        Recorder(AtomicInteger clock){
+            this.clock = clock;
+        }
+
+        @Override
+        public void update(){
+            start = clock.incrementAndGet();
+            thread = Thread.currentThread();
+            updates++;
+            Threads.sleep(1);
+            end = clock.incrementAndGet();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import arc.struct.*;
 import arc.util.*;
 import arc.util.pooling.*;
 
+import java.nio.*;
 import java.util.*;
 
 /**
@@ -146,8 +147,20 @@ inline b2BodyType getBodyType( int type )
 b2ContactFilter defaultFilter;
 	 */
 
+    /** Whether the loaded natives have the bulk body state functions. */
+    private static final boolean nativeBodyStates;
+
     static{
         new SharedLibraryLoader().load("arc-box2d");
+
+        //natives built before the bulk functions were added lack them; use the per-body calls with those
+        boolean found = true;
+        try{
+            jniGetBodyStates(new long[0], 0, Buffers.newFloatBuffer(0), 0);
+        }catch(UnsatisfiedLinkError e){
+            found = false;
+        }
+        nativeBodyStates = found;
     }
 
     /** pool for bodies **/
@@ -915,6 +928,135 @@ b2ContactFilter defaultFilter;
         }
     }
 
+    /**
+     * Number of floats per body in the buffers of {@link #getBodyStates(Seq, FloatBuffer)} and {@link #setBodyStates(Seq, FloatBuffer)}:
+     * position x/y, angle, world center x/y, linear velocity x/y and angular velocity.
+     */
+    public static final int bodyStateSize = 8;
+
+    private long[] bodyAddrs = new long[100];
+
+    /**
+     * Writes the state of every body to a direct buffer, in the order of {@link #getBodies(Seq)}.
+     * @see #getBodyStates(Seq, FloatBuffer)
+     * @return the number of bodies written.
+     */
+    public int getBodyStates(FloatBuffer states){
+        return getBodyStates(this.bodies.values(), this.bodies.size, states);
+    }
+
+    /**
+     * Writes the state of the specified bodies to a direct buffer. Each body takes {@link #bodyStateSize} floats, written from the
+     * position of the buffer onward; the position itself is not changed.
+     * With natives that have the bulk functions this is a single native call, which is much faster than calling
+     * {@link Body#getPosition()}, {@link Body#getAngle()} and so on for each body. The prebuilt natives do not have them yet, in
+     * which case the per-body methods are used and this is no faster than calling them directly.
+     * @return the number of bodies written.
+     */
+    public int getBodyStates(Seq<Body> bodies, FloatBuffer states){
+        return getBodyStates(bodies.iterator(), bodies.size, states);
+    }
+
+    /**
+     * Sets the position, angle and velocities of the specified bodies from a direct buffer in the format of
+     * {@link #getBodyStates(Seq, FloatBuffer)}, with a single native call if the natives support it. The world center values
+     * are ignored.
+     * Meant for kinematic bodies that are moved by game logic; for dynamic bodies this has the same caveats as
+     * {@link Body#setTransform(float, float, float)}.
+     * Warning: This function is locked during callbacks.
+     */
+    public void setBodyStates(Seq<Body> bodies, FloatBuffer states){
+        checkBodyStates(bodies.size, states);
+
+        if(nativeBodyStates){
+            int count = collectBodyAddrs(bodies.iterator());
+            jniSetBodyStates(bodyAddrs, count, states, states.position());
+        }else{
+            int offset = states.position();
+            for(Body body : bodies){
+                body.setTransform(states.get(offset), states.get(offset + 1), states.get(offset + 2));
+                body.setLinearVelocity(states.get(offset + 5), states.get(offset + 6));
+                body.setAngularVelocity(states.get(offset + 7));
+                offset += bodyStateSize;
+            }
+        }
+    }
+
+    private int getBodyStates(Iterator<Body> bodies, int count, FloatBuffer states){
+        checkBodyStates(count, states);
+
+        if(nativeBodyStates){
+            count = collectBodyAddrs(bodies);
+            jniGetBodyStates(bodyAddrs, count, states, states.position());
+        }else{
+            int offset = states.position();
+            count = 0;
+            while(bodies.hasNext()){
+                Body body = bodies.next();
+                Vec2 position = body.getPosition();
+                states.put(offset, position.x);
+                states.put(offset + 1, position.y);
+                states.put(offset + 2, body.getAngle());
+                Vec2 center = body.getWorldCenter();
+                states.put(offset + 3, center.x);
+                states.put(offset + 4, center.y);
+                Vec2 velocity = body.getLinearVelocity();
+                states.put(offset + 5, velocity.x);
+                states.put(offset + 6, velocity.y);
+                states.put(offset + 7, body.getAngularVelocity());
+                offset += bodyStateSize;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void checkBodyStates(int count, FloatBuffer states){
+        if(!states.isDirect()) throw new IllegalArgumentException("Body states must be stored in a direct buffer.");
+        if(states.remaining() < count * bodyStateSize){
+            throw new IllegalArgumentException("Body state buffer too small: " + states.remaining() + " < " + count * bodyStateSize + " (" + count + " bodies)");
+        }
+        if(bodyAddrs.length < count) bodyAddrs = new long[Math.max(count, bodyAddrs.length * 2)];
+    }
+
+    private int collectBodyAddrs(Iterator<Body> bodies){
+        int i = 0;
+        while(bodies.hasNext()){
+            bodyAddrs[i++] = bodies.next().addr;
+        }
+        return i;
+    }
+
+    private static native void jniGetBodyStates(long[] bodies, int count, FloatBuffer states, int offset); /*
+		float* state = states + offset;
+		for(int i = 0; i < count; i++, state += 8)
+		{
+			b2Body* body = (b2Body*)bodies[i];
+			const b2Vec2& position = body->GetPosition();
+			const b2Vec2& center = body->GetWorldCenter();
+			const b2Vec2& velocity = body->GetLinearVelocity();
+			state[0] = position.x;
+			state[1] = position.y;
+			state[2] = body->GetAngle();
+			state[3] = center.x;
+			state[4] = center.y;
+			state[5] = velocity.x;
+			state[6] = velocity.y;
+			state[7] = body->GetAngularVelocity();
+		}
+	*/
+
+    private static native void jniSetBodyStates(long[] bodies, int count, FloatBuffer states, int offset); /*
+		float* state = states + offset;
+		for(int i = 0; i < count; i++, state += 8)
+		{
+			b2Body* body = (b2Body*)bodies[i];
+			body->SetTransform(b2Vec2(state[0], state[1]), state[2]);
+			body->SetLinearVelocity(b2Vec2(state[5], state[6]));
+			body->SetAngularVelocity(state[7]);
+		}
+	*/
+
     private native void jniGetContactList(long addr, long[] contacts); /*
 		b2World* world = (b2World*)addr;
 	
@@ -0,0 +1,91 @@
+import arc.box2d.*;
+import arc.box2d.BodyDef.*;
+import arc.math.*;
+import arc.math.geom.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+public class PhysicsTest{
+
+    @Test
+    public void bodyStates(){
+        Physics world = createWorld(100);
+        for(int i = 0; i < 30; i++){
+            world.step(1f / 60f, 8, 3);
+        }
+
+        Seq<Body> bodies = new Seq<>();
+        world.getBodies(bodies);
+        //static bodies ignore velocities
+        bodies.removeAll(body -> body.getType() == BodyType.staticBody);
+        FloatBuffer states = Buffers.newFloatBuffer(bodies.size * Physics.bodyStateSize + 1);
+
+        Rand rand = new Rand(2);
+        states.position(1);
+        for(int i = 0; i < bodies.size; i++){
+            for(int j = 0; j < Physics.bodyStateSize; j++){
+                states.put(rand.range(40f));
+            }
+        }
+        states.position(1);
+        world.setBodyStates(bodies, states);
+
+        FloatBuffer read = Buffers.newFloatBuffer(bodies.size * Physics.bodyStateSize);
+        assertEquals(bodies.size, world.getBodyStates(bodies, read));
+        assertEquals(0, read.position());
+
+        for(int i = 0; i < bodies.size; i++){
+            Body body = bodies.get(i);
+            int o = i * Physics.bodyStateSize;
+            for(int j : new int[]{0, 1, 2, 5, 6, 7}){
+                assertEquals(states.get(1 + o + j), read.get(o + j), 0.0001f);
+            }
+            assertEquals(body.getPosition().x, read.get(o), 0f);
+            assertEquals(body.getPosition().y, read.get(o + 1), 0f);
+            assertEquals(body.getAngle(), read.get(o + 2), 0f);
+            assertEquals(body.getWorldCenter().x, read.get(o + 3), 0f);
+            assertEquals(body.getWorldCenter().y, read.get(o + 4), 0f);
+            assertEquals(body.getLinearVelocity().x, read.get(o + 5), 0f);
+            assertEquals(body.getLinearVelocity().y, read.get(o + 6), 0f);
+            assertEquals(body.getAngularVelocity(), read.get(o + 7), 0f);
+        }
+
+        FloatBuffer all = Buffers.newFloatBuffer(world.getBodyCount() * Physics.bodyStateSize);
+        assertEquals(world.getBodyCount(), world.getBodyStates(all));
+
+        world.dispose();
+    }
+
+    /** Creates a box with a pile of dynamic bodies dropped into it. */
+    static Physics createWorld(int bodies){
+        Physics world = new Physics(new Vec2(0f, -10f), true);
+
+        BodyDef def = new BodyDef();
+        Body ground = world.createBody(def);
+        PolygonShape wall = new PolygonShape();
+        wall.setAsBox(50f, 1f, new Vec2(0f, -50f), 0f);
+        ground.createFixture(wall, 0f);
+        wall.setAsBox(1f, 50f, new Vec2(-50f, 0f), 0f);
+        ground.createFixture(wall, 0f);
+        wall.setAsBox(1f, 50f, new Vec2(50f, 0f), 0f);
+        ground.createFixture(wall, 0f);
+        wall.dispose();
+
+        Rand rand = new Rand(0);
+        PolygonShape box = new PolygonShape();
+        box.setAsBox(0.5f, 0.5f);
+        def.type = BodyType.dynamicBody;
+        for(int i = 0; i < bodies; i++){
+            def.position.set(rand.range(45f), rand.random(-45f, 45f));
+            world.createBody(def).createFixture(box, 1f);
+        }
+        box.dispose();
+
+        return world;
+    }
+}
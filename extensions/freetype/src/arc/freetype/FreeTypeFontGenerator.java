@@ -2,6 +2,7 @@ package arc.freetype;
 
 import arc.*;
 import arc.freetype.FreeType.*;
+import arc.struct.IntIntMap;
 import arc.struct.Seq;
 import arc.files.Fi;
 import arc.graphics.Color;
@@ -22,11 +23,13 @@ import arc.util.ArcRuntimeException;
 import arc.util.Buffers;
 import arc.util.Disposable;
 import arc.util.Log;
+import arc.util.Nullable;
 import arc.util.io.Streams;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
 
 /**
  * Generates {@link Font} and {@link FontData} instances from TrueType, OTF, and other FreeType supported fonts.
@@ -63,7 +66,11 @@ public class FreeTypeFontGenerator implements Disposable{
     final Library library;
     final Face face;
     final String name;
+    final int faceIndex;
+    final ByteBuffer fontBuffer;
     boolean bitmapped = false;
+    private int fontHash;
+    private final int[] top = {0};
 
     /** {@link #FreeTypeFontGenerator(Fi, int)} */
     public FreeTypeFontGenerator(Fi fontFile){
@@ -77,6 +84,7 @@ public class FreeTypeFontGenerator implements Disposable{
      */
     public FreeTypeFontGenerator(Fi fontFile, int faceIndex){
         name = fontFile.pathWithoutExtension();
+        this.faceIndex = faceIndex;
         int fileSize = (int)fontFile.length();
 
         library = FreeType.initFreeType();
@@ -109,6 +117,7 @@ public class FreeTypeFontGenerator implements Disposable{
             }
         }
 
+        fontBuffer = buffer;
         face = library.newMemoryFace(buffer, faceIndex);
         if(face == null) throw new ArcRuntimeException("Couldn't create face for font: " + fontFile);
 
@@ -333,9 +342,10 @@ public class FreeTypeFontGenerator implements Disposable{
      */
     public FreeTypeFontData generateData(FreeTypeFontParameter parameter, FreeTypeFontData data){
         parameter = parameter == null ? new FreeTypeFontParameter() : parameter;
-        char[] characters = parameter.characters.toCharArray();
+        // lazy fonts only create the missing glyph up front, everything else is created on first use
+        char[] characters = parameter.lazy ? (parameter.characters.indexOf('\0') >= 0 ? new char[]{'\0'} : new char[0]) : parameter.characters.toCharArray();
         int charactersLength = characters.length;
-        boolean incremental = parameter.incremental;
+        boolean incremental = parameter.incremental || parameter.lazy;
         int flags = getLoadingFlags(parameter);
 
         setPixelSizes(0, parameter.size);
@@ -417,6 +427,10 @@ public class FreeTypeFontGenerator implements Disposable{
         }
 
         if(incremental) data.glyphs = new Seq<>(charactersLength + 32);
+        if(parameter.cacheDirectory != null){
+            data.diskCache = new GlyphDiskCache(parameter.cacheDirectory.child(
+            new Fi(name).name() + "-" + Integer.toHexString(fontHash()) + "-" + parameter.size + "-" + Integer.toHexString(parameter.cacheKey()) + ".glyphs"));
+        }
 
         Stroker stroker = null;
         if(parameter.borderWidth > 0){
@@ -477,6 +491,7 @@ public class FreeTypeFontGenerator implements Disposable{
             data.parameter = parameter;
             data.stroker = stroker;
             data.packer = packer;
+            data.ownsPacker = ownsAtlas;
         }
 
         // Generate kerning.
@@ -524,6 +539,29 @@ public class FreeTypeFontGenerator implements Disposable{
     /** @return null if glyph was not found. */
     Glyph createGlyph(char c, FreeTypeFontData data, FreeTypeFontParameter parameter, Stroker stroker, float baseLine,
                       PixmapPacker packer){
+        Glyph glyph = new Glyph();
+        glyph.id = c;
+        Pixmap pixmap = renderGlyph(c, glyph, data, parameter, stroker, baseLine);
+        if(pixmap == null) return null;
+
+        packGlyph(glyph, pixmap, data, parameter, packer);
+        pixmap.dispose();
+        return glyph;
+    }
+
+    /**
+     * Renders a glyph, or reads it from the disk cache of the font data. Sets all metrics of the glyph except its position in the
+     * atlas.
+     * @return the glyph image, or null if glyph was not found.
+     */
+    @Nullable Pixmap renderGlyph(char c, Glyph glyph, FreeTypeFontData data, FreeTypeFontParameter parameter, Stroker stroker, float baseLine){
+        if(data.diskCache != null){
+            Pixmap cached = data.diskCache.read(c, glyph, top);
+            if(cached != null){
+                setYOffset(glyph, top[0], parameter, baseLine);
+                return cached;
+            }
+        }
 
         boolean missing = face.getCharIndex(c) == 0 && c != 0;
         if(missing) return null;
@@ -615,15 +653,10 @@ public class FreeTypeFontGenerator implements Disposable{
         }
 
         GlyphMetrics metrics = slot.getMetrics();
-        Glyph glyph = new Glyph();
-        glyph.id = c;
         glyph.width = mainPixmap.width;
         glyph.height = mainPixmap.height;
         glyph.xoffset = mainGlyph.getLeft();
-        if(parameter.flip)
-            glyph.yoffset = -mainGlyph.getTop() + (int)baseLine;
-        else
-            glyph.yoffset = -(glyph.height - mainGlyph.getTop()) - (int)baseLine;
+        setYOffset(glyph, mainGlyph.getTop(), parameter, baseLine);
         glyph.xadvance = FreeType.toInt(metrics.getHoriAdvance()) + (int)parameter.borderWidth + parameter.spaceX;
 
         if(bitmapped){
@@ -640,21 +673,45 @@ public class FreeTypeFontGenerator implements Disposable{
             }
         }
 
-        Rect rect = packer.pack(mainPixmap);
+        if(data.diskCache != null) data.diskCache.write(c, glyph, mainGlyph.getTop(), mainPixmap);
+
+        mainGlyph.dispose();
+
+        return mainPixmap;
+    }
+
+    private void setYOffset(Glyph glyph, int top, FreeTypeFontParameter parameter, float baseLine){
+        if(parameter.flip)
+            glyph.yoffset = -top + (int)baseLine;
+        else
+            glyph.yoffset = -(glyph.height - top) - (int)baseLine;
+    }
+
+    /** Packs a rendered glyph, setting its position in the atlas. */
+    void packGlyph(Glyph glyph, Pixmap pixmap, FreeTypeFontData data, FreeTypeFontParameter parameter, PixmapPacker packer){
+        Rect rect = packer.pack(pixmap);
         glyph.page = packer.getPages().size - 1; // Glyph is always packed into the last page for now.
         glyph.srcX = (int)rect.x;
         glyph.srcY = (int)rect.y;
 
         // If a page was added, create a new texture region for the incrementally added glyph.
-        if(parameter.incremental && data.regions != null && data.regions.size <= glyph.page) {
+        if((parameter.incremental || parameter.lazy) && data.regions != null && data.regions.size <= glyph.page) {
             packer.updateTextureRegions(data.regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
             Log.debug("Added a page to the @ font.", this.name);
-        }
 
-        mainPixmap.dispose();
-        mainGlyph.dispose();
+            // Too many pages; glyphs that were not used recently are dropped at the start of the next frame.
+            if(data.ownsPacker && parameter.maxPages > 0 && packer.getPages().size > parameter.maxPages) data.evict = true;
+        }
+    }
 
-        return glyph;
+    /** @return a hash of the font file and face index, used to key disk caches. */
+    int fontHash(){
+        if(fontHash == 0){
+            CRC32 crc = new CRC32();
+            crc.update(fontBuffer.duplicate());
+            fontHash = (int)crc.getValue() * 31 + faceIndex;
+        }
+        return fontHash;
     }
 
     /** Cleans up all resources of the generator. Call this if you no longer use the generator. */
@@ -697,11 +754,16 @@ public class FreeTypeFontGenerator implements Disposable{
         Stroker stroker;
         PixmapPacker packer;
         Seq<Glyph> glyphs;
+        @Nullable GlyphDiskCache diskCache;
+        boolean ownsPacker, evict;
         private boolean dirty, queued;
+        /** Frame in which each glyph was last used, only tracked if {@link FreeTypeFontParameter#maxPages} is set. */
+        private final IntIntMap lastUse = new IntIntMap();
 
         @Override
         public Glyph getGlyph(char ch){
             Glyph glyph = super.getGlyph(ch);
+            if(generator != null && ownsPacker && parameter.maxPages > 0) lastUse.put(ch, (int)Core.graphics.getFrameId());
             if(glyph == null && generator != null){
                 generator.setPixelSizes(0, parameter.size);
                 float baseline = ((flipped ? -ascent : ascent) + capHeight) / scaleY;
@@ -739,15 +801,63 @@ public class FreeTypeFontGenerator implements Disposable{
                 queued = true;
                 Core.app.post(() -> {
                     dirty = queued = false;
+                    if(evict) evict();
                     packer.updateTextureRegions(regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
                 });
             }
         }
 
+        /**
+         * Moves the glyphs used in the current or last frame to a new set of pages and drops all others, which are created again on
+         * their next use. The glyph objects that are kept are updated in place; the {@link #generation} is incremented so that
+         * layouts and font caches replace the dropped ones before they are drawn again.
+         */
+        void evict(){
+            evict = false;
+            int frame = (int)Core.graphics.getFrameId();
+            PixmapPacker old = packer;
+            packer = new PixmapPacker(old.getPageWidth(), old.getPageHeight(), old.getPadding(), false, new GuillotineStrategy());
+            packer.setTransparentColor(old.getTransparentColor());
+            packer.setPackToTexture(old.getPackToTexture());
+
+            regions.clear();
+            generator.setPixelSizes(0, parameter.size);
+            float baseline = ((flipped ? -ascent : ascent) + capHeight) / scaleY;
+            Seq<Glyph> kept = new Seq<>(glyphs.size);
+            for(Glyph glyph : glyphs){
+                Pixmap pixmap = glyph == missingGlyph || lastUse.get(glyph.id, Integer.MIN_VALUE) >= frame - 1 ?
+                generator.renderGlyph((char)glyph.id, glyph, this, parameter, stroker, baseline) : null;
+
+                if(pixmap == null){
+                    setGlyph(glyph.id, null);
+                    lastUse.remove(glyph.id, 0);
+                    continue;
+                }
+
+                generator.packGlyph(glyph, pixmap, this, parameter, packer);
+                pixmap.dispose();
+                kept.add(glyph);
+            }
+
+            packer.updateTextureRegions(regions, parameter.minFilter, parameter.magFilter, parameter.genMipMaps);
+            for(Glyph glyph : kept){
+                setGlyphRegion(glyph, regions.get(glyph.page));
+            }
+            Log.debug("Evicted @ glyphs from the @ font.", glyphs.size - kept.size, generator.name);
+            glyphs = kept;
+            generation++;
+
+            for(PixmapPacker.Page page : old.getPages()){
+                if(page.getTexture() != null) page.getTexture().dispose();
+            }
+            old.forceDispose();
+        }
+
         @Override
         public void dispose(){
             if(stroker != null) stroker.dispose();
             if(packer != null) packer.dispose();
+            if(diskCache != null) diskCache.dispose();
         }
     }
 
@@ -821,6 +931,42 @@ public class FreeTypeFontGenerator implements Disposable{
          * {@link FreeTypeFontGenerator#getMaxTextureSize()}.
          */
         public boolean incremental;
+        /**
+         * Implies {@link #incremental}, but only the missing glyph is created up front; {@link #characters} is otherwise ignored
+         * and every glyph is created on first use. Useful for large character sets such as CJK, where most glyphs are never drawn.
+         */
+        public boolean lazy;
+        /**
+         * Maximum number of glyph pages of an incremental font, 0 for no limit. When more pages are needed, the glyphs that were
+         * not used in the last frame are dropped and created again when they are next used. Only applies if {@link #packer} is null.
+         */
+        public int maxPages;
+        /**
+         * Directory to store rendered glyphs in, keyed by font file, size and the parameters that affect glyph images. Glyphs
+         * found in the cache are not rendered by FreeType again, which mostly helps {@link #lazy} fonts across runs. Null to disable.
+         */
+        public @Nullable Fi cacheDirectory;
+
+        /** @return a hash of all parameters that affect the image and metrics of a glyph, except for the size. */
+        int cacheKey(){
+            int h = (mono ? 1 : 0) + (borderStraight ? 2 : 0);
+            h = 31 * h + hinting.ordinal();
+            h = 31 * h + color.rgba();
+            h = 31 * h + Float.floatToIntBits(gamma);
+            h = 31 * h + renderCount;
+            h = 31 * h + Float.floatToIntBits(borderWidth);
+            h = 31 * h + borderColor.rgba();
+            h = 31 * h + Float.floatToIntBits(borderGamma);
+            h = 31 * h + shadowOffsetX;
+            h = 31 * h + shadowOffsetY;
+            h = 31 * h + shadowColor.rgba();
+            h = 31 * h + spaceX;
+            h = 31 * h + padTop;
+            h = 31 * h + padLeft;
+            h = 31 * h + padBottom;
+            h = 31 * h + padRight;
+            return h;
+        }
     }
 
     public class GlyphAndBitmap{
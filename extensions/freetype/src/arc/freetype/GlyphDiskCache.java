@@ -0,0 +1,168 @@
+package arc.freetype;
+
+import arc.files.*;
+import arc.graphics.*;
+import arc.graphics.g2d.Font.*;
+import arc.struct.*;
+import arc.util.*;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * Persists rasterized glyph bitmaps of one font, size and parameter set in a single append-only file, so that glyphs created by
+ * {@link FreeTypeFontGenerator.FreeTypeFontParameter#lazy lazy} fonts do not have to be rendered by FreeType again on the next run.
+ * <br>
+ * The file consists of a header followed by one record per glyph: the character, the glyph metrics and the deflated RGBA pixels.
+ * A truncated trailing record, e.g. from a crash while writing, is ignored and overwritten.
+ */
+class GlyphDiskCache{
+    private static final int magic = 0x41474331, version = 1, headerSize = 8;
+
+    private final Fi file;
+    /** Character -> offset of its record in {@link #bytes}. */
+    private final IntIntMap offsets = new IntIntMap();
+    private final Inflater inflater = new Inflater();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] bytes = {}, buffer = new byte[1024];
+    private int length;
+    private boolean loaded;
+
+    GlyphDiskCache(Fi file){
+        this.file = file;
+    }
+
+    /**
+     * Reads a cached glyph, setting its size, x offset and advance.
+     * @param top receives the distance from the baseline to the top of the bitmap, which the y offset is computed from.
+     * @return the glyph pixels, or null if the glyph is not cached.
+     */
+    @Nullable Pixmap read(int c, Glyph glyph, int[] top){
+        load();
+        int offset = offsets.get(c, -1);
+        if(offset < 0) return null;
+
+        ByteBuffer in = ByteBuffer.wrap(bytes, offset, length - offset);
+        in.getInt();
+        glyph.width = in.getShort();
+        glyph.height = in.getShort();
+        glyph.xoffset = in.getShort();
+        top[0] = in.getShort();
+        glyph.xadvance = in.getInt();
+        int size = in.getInt();
+
+        Pixmap pixmap = new Pixmap(glyph.width, glyph.height);
+        if(glyph.width * glyph.height == 0) return pixmap;
+
+        ByteBuffer pixels = pixmap.pixels;
+        int expected = pixels.capacity();
+        if(buffer.length < expected) buffer = new byte[expected];
+        try{
+            inflater.reset();
+            inflater.setInput(bytes, in.position(), size);
+            int read = 0;
+            while(read < expected && !inflater.finished()){
+                int n = inflater.inflate(buffer, read, expected - read);
+                if(n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += n;
+            }
+            if(read != expected) throw new DataFormatException("Truncated glyph data");
+        }catch(DataFormatException e){
+            Log.err("Corrupt glyph cache entry in " + file, e);
+            offsets.remove(c, -1);
+            pixmap.dispose();
+            return null;
+        }
+        pixels.position(0);
+        pixels.put(buffer, 0, expected);
+        pixels.position(0);
+        return pixmap;
+    }
+
+    /** Appends a rasterized glyph to the cache file. */
+    void write(int c, Glyph glyph, int top, Pixmap pixmap){
+        load();
+        if(offsets.containsKey(c)) return;
+
+        ByteBuffer pixels = pixmap.pixels;
+        int size = pixels.capacity();
+        byte[] raw = new byte[size];
+        pixels.position(0);
+        pixels.get(raw);
+        pixels.position(0);
+
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(size / 4 + 16);
+        while(!deflater.finished()){
+            int n = deflater.deflate(buffer);
+            compressed.write(buffer, 0, n);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(20 + compressed.size());
+        record.putInt(c);
+        record.putShort((short)glyph.width);
+        record.putShort((short)glyph.height);
+        record.putShort((short)glyph.xoffset);
+        record.putShort((short)top);
+        record.putInt(glyph.xadvance);
+        record.putInt(compressed.size());
+        record.put(compressed.toByteArray());
+
+        try(OutputStream out = file.write(true)){
+            out.write(record.array());
+        }catch(IOException e){
+            Log.err("Unable to write glyph cache " + file, e);
+            return;
+        }
+
+        if(length + record.capacity() > bytes.length){
+            byte[] grown = new byte[Math.max(bytes.length * 2, length + record.capacity())];
+            System.arraycopy(bytes, 0, grown, 0, length);
+            bytes = grown;
+        }
+        System.arraycopy(record.array(), 0, bytes, length, record.capacity());
+        offsets.put(c, length);
+        length += record.capacity();
+    }
+
+    private void load(){
+        if(loaded) return;
+        loaded = true;
+
+        if(file.exists()){
+            bytes = file.readBytes();
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if(bytes.length >= headerSize && in.getInt() == magic && in.getInt() == version){
+                length = headerSize;
+                while(bytes.length - length >= 20){
+                    int c = in.getInt(length), size = in.getInt(length + 16);
+                    if(size < 0 || size > bytes.length - length - 20) break;
+                    offsets.put(c, length);
+                    length += 20 + size;
+                }
+                if(length == bytes.length) return;
+            }else{
+                length = 0;
+            }
+        }
+
+        //write a fresh header, or cut off a truncated record so that new records are appended after the last valid one
+        ByteBuffer header = ByteBuffer.allocate(headerSize).putInt(magic).putInt(version);
+        if(length == 0){
+            bytes = header.array();
+            length = headerSize;
+            offsets.clear();
+        }
+        file.parent().mkdirs();
+        file.writeBytes(bytes.length == length ? bytes : Arrays.copyOf(bytes, length), false);
+    }
+
+    void dispose(){
+        inflater.end();
+        deflater.end();
+    }
+}
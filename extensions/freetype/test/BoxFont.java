@@ -0,0 +1,184 @@
+import arc.files.*;
+
+import java.io.*;
+
+/**
+ * Generates a minimal TrueType font whose glyphs are rectangles of different sizes, so that tests do not depend on font files.
+ * It maps the printable ASCII characters and {@link #cjkStart} to {@link #cjkEnd}.
+ */
+public class BoxFont{
+    public static final char cjkStart = '一', cjkEnd = '仿';
+
+    static final int ascii = 0x7E - 0x20 + 1, cjk = cjkEnd - cjkStart + 1, glyphs = 1 + ascii + cjk;
+
+    public static Fi create(){
+        try{
+            File file = File.createTempFile("boxes", ".ttf");
+            file.deleteOnExit();
+            Fi fi = new Fi(file);
+            fi.writeBytes(bytes(), false);
+            return fi;
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static int width(int glyph){
+        return 100 + glyph * 37 % 500;
+    }
+
+    static byte[] bytes() throws IOException{
+        //glyph 0 is .notdef, glyph 1 the empty space
+        Table glyf = new Table(), loca = new Table(), hmtx = new Table();
+        int maxWidth = 0;
+        for(int g = 0; g < glyphs; g++){
+            loca.out.writeInt(glyf.out.size());
+            int w = width(g);
+            hmtx.out.writeShort(w + 100);
+            hmtx.out.writeShort(g == 1 ? 0 : 50);
+            maxWidth = Math.max(maxWidth, w + 100);
+            if(g == 1) continue;
+
+            int x0 = 50, x1 = 50 + w, y0 = g % 3 == 0 ? -100 : 0, y1 = 200 + g * 53 % 500;
+            DataOutputStream out = glyf.out;
+            out.writeShort(1);
+            out.writeShort(x0);
+            out.writeShort(y0);
+            out.writeShort(x1);
+            out.writeShort(y1);
+            out.writeShort(3);
+            out.writeShort(0);
+            for(int i = 0; i < 4; i++) out.writeByte(0x01);
+            //clockwise, as deltas from the previous point
+            out.writeShort(x0);
+            out.writeShort(0);
+            out.writeShort(w);
+            out.writeShort(0);
+            out.writeShort(y0);
+            out.writeShort(y1 - y0);
+            out.writeShort(0);
+            out.writeShort(y0 - y1);
+        }
+        loca.out.writeInt(glyf.out.size());
+
+        Table cmap = new Table();
+        int[] starts = {0x20, cjkStart, 0xFFFF}, ends = {0x7E, cjkEnd, 0xFFFF}, deltas = {1 - 0x20, 1 + ascii - cjkStart, 1};
+        cmap.out.writeShort(0);
+        cmap.out.writeShort(1);
+        cmap.out.writeShort(3);
+        cmap.out.writeShort(1);
+        cmap.out.writeInt(12);
+        cmap.out.writeShort(4);
+        cmap.out.writeShort(16 + 8 * starts.length);
+        cmap.out.writeShort(0);
+        cmap.out.writeShort(starts.length * 2);
+        cmap.out.writeShort(4);
+        cmap.out.writeShort(1);
+        cmap.out.writeShort(2);
+        for(int end : ends) cmap.out.writeShort(end);
+        cmap.out.writeShort(0);
+        for(int start : starts) cmap.out.writeShort(start);
+        for(int delta : deltas) cmap.out.writeShort(delta);
+        for(int i = 0; i < starts.length; i++) cmap.out.writeShort(0);
+
+        Table head = new Table();
+        head.out.writeInt(0x00010000);
+        head.out.writeInt(0x00010000);
+        head.out.writeInt(0);
+        head.out.writeInt(0x5F0F3CF5);
+        head.out.writeShort(0x000B);
+        head.out.writeShort(1000);
+        head.out.writeLong(0);
+        head.out.writeLong(0);
+        head.out.writeShort(0);
+        head.out.writeShort(-100);
+        head.out.writeShort(maxWidth);
+        head.out.writeShort(700);
+        head.out.writeShort(0);
+        head.out.writeShort(8);
+        head.out.writeShort(2);
+        head.out.writeShort(1);
+        head.out.writeShort(0);
+
+        Table hhea = new Table();
+        hhea.out.writeInt(0x00010000);
+        hhea.out.writeShort(800);
+        hhea.out.writeShort(-200);
+        hhea.out.writeShort(0);
+        hhea.out.writeShort(maxWidth);
+        hhea.out.writeShort(0);
+        hhea.out.writeShort(0);
+        hhea.out.writeShort(maxWidth);
+        hhea.out.writeShort(1);
+        hhea.out.writeShort(0);
+        hhea.out.writeShort(0);
+        for(int i = 0; i < 4; i++) hhea.out.writeShort(0);
+        hhea.out.writeShort(0);
+        hhea.out.writeShort(glyphs);
+
+        Table maxp = new Table();
+        maxp.out.writeInt(0x00010000);
+        maxp.out.writeShort(glyphs);
+        maxp.out.writeShort(4);
+        maxp.out.writeShort(1);
+        maxp.out.writeShort(0);
+        maxp.out.writeShort(0);
+        maxp.out.writeShort(2);
+        for(int i = 0; i < 8; i++) maxp.out.writeShort(0);
+
+        Table name = new Table();
+        name.out.writeShort(0);
+        name.out.writeShort(0);
+        name.out.writeShort(6);
+
+        Table post = new Table();
+        post.out.writeInt(0x00030000);
+        for(int i = 0; i < 7; i++) post.out.writeInt(0);
+
+        String[] tags = {"cmap", "glyf", "head", "hhea", "hmtx", "loca", "maxp", "name", "post"};
+        Table[] tables = {cmap, glyf, head, hhea, hmtx, loca, maxp, name, post};
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x00010000);
+        out.writeShort(tables.length);
+        out.writeShort(128);
+        out.writeShort(3);
+        out.writeShort(tables.length * 16 - 128);
+
+        int offset = 12 + tables.length * 16;
+        for(int i = 0; i < tables.length; i++){
+            byte[] data = tables[i].bytes();
+            out.writeBytes(tags[i]);
+            out.writeInt(checksum(data));
+            out.writeInt(offset);
+            out.writeInt(tables[i].out.size());
+            offset += data.length;
+        }
+        for(Table table : tables){
+            out.write(table.bytes());
+        }
+        return bytes.toByteArray();
+    }
+
+    static int checksum(byte[] data){
+        int sum = 0;
+        for(int i = 0; i < data.length; i += 4){
+            sum += (data[i] & 0xFF) << 24 | (data[i + 1] & 0xFF) << 16 | (data[i + 2] & 0xFF) << 8 | data[i + 3] & 0xFF;
+        }
+        return sum;
+    }
+
+    static class Table{
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        /** @return the table, padded to a multiple of four bytes. */
+        byte[] bytes(){
+            byte[] data = bytes.toByteArray();
+            byte[] padded = new byte[(data.length + 3) & ~3];
+            System.arraycopy(data, 0, padded, 0, data.length);
+            return padded;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import arc.*;
+import arc.files.*;
+import arc.freetype.FreeTypeFontGenerator.*;
+import arc.freetype.*;
+import arc.graphics.*;
+import arc.graphics.g2d.*;
+import arc.graphics.g2d.Font.*;
+import arc.graphics.g2d.GlyphLayout.*;
+import arc.mock.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.io.*;
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+public class FreeTypeTest{
+    static Fi fontFile;
+    static MockGraphics graphics;
+    static FreeTypeFontGenerator generator;
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.app = new MockApplication();
+        Core.graphics = graphics = new MockGraphics();
+        Core.gl = Core.gl20 = new MockGL20();
+        fontFile = BoxFont.create();
+        generator = new FreeTypeFontGenerator(fontFile);
+    }
+
+    @AfterClass
+    public static void dispose(){
+        generator.dispose();
+        Core.gl = Core.gl20 = null;
+    }
+
+    @After
+    public void reset(){
+        FreeTypeFontGenerator.setMaxTextureSize(1024);
+    }
+
+    @Test
+    public void lazy(){
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        parameter.characters = "\0AB" + BoxFont.cjkStart;
+        Font eager = generator.generateFont(parameter);
+
+        parameter.lazy = true;
+        Font lazy = generator.generateFont(parameter);
+        //only the missing glyph and the space are created up front
+        assertEquals(5, count(eager.getData()));
+        assertEquals(2, count(lazy.getData()));
+        assertNotNull(lazy.getData().missingGlyph);
+
+        for(char c : new char[]{'A', 'B', BoxFont.cjkStart, 'z', BoxFont.cjkEnd}){
+            Glyph glyph = lazy.getData().getGlyph(c);
+            assertNotNull(glyph);
+            assertEquals(c, glyph.id);
+            assertSame(glyph, lazy.getData().getGlyph(c));
+
+            Glyph expected = eager.getData().getGlyph(c);
+            if(expected != null){
+                assertGlyph(expected, glyph);
+            }
+        }
+        assertEquals(7, count(lazy.getData()));
+
+        //characters outside the font fall back to the missing glyph without being added
+        assertSame(lazy.getData().missingGlyph, lazy.getData().getGlyph('あ'));
+
+        eager.dispose();
+        lazy.dispose();
+    }
+
+    @Test
+    public void eviction(){
+        FreeTypeFontGenerator.setMaxTextureSize(64);
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        parameter.lazy = true;
+        parameter.maxPages = 2;
+        Font font = generator.generateFont(parameter);
+        FontData data = font.getData();
+
+        GlyphLayoutCache layouts = new GlyphLayoutCache();
+        FontCache cache = new FontCache(font);
+        cache.setLayoutCache(layouts);
+        cache.setText("ABCDEFGHIJ", 0, 0);
+        GlyphLayout layout = layouts.get(font, "ABCDEFGHIJ");
+        assertTrue(layout.runs.first().glyphs.first().page < font.getRegions().size);
+
+        //draw new characters every frame until the font runs out of pages
+        char next = BoxFont.cjkStart;
+        while(data.generation == 0){
+            assertTrue("No eviction", next < BoxFont.cjkEnd - 10);
+            graphics.incrementFrameId();
+            StringBuilder text = new StringBuilder();
+            for(int i = 0; i < 10; i++) text.append(next++);
+            new GlyphLayout(font, text);
+        }
+        assertTrue(font.getRegions().size <= parameter.maxPages);
+
+        //glyphs from earlier frames were dropped; the layouts and the cache must pick up their replacements
+        GlyphLayout updated = layouts.get(font, "ABCDEFGHIJ");
+        assertSame(layout, updated);
+        for(Glyph glyph : updated.runs.first().glyphs){
+            assertSame(data.getGlyph((char)glyph.id), glyph);
+            assertTrue(glyph.page < font.getRegions().size);
+        }
+
+        int vertices = 0;
+        for(int page = 0; page < font.getRegions().size; page++){
+            vertices += cache.getVertexCount(page);
+        }
+        assertEquals(10 * 24, vertices);
+        for(GlyphRun run : cache.getLayouts().first().runs){
+            for(Glyph glyph : run.glyphs){
+                assertTrue(glyph.page < font.getRegions().size);
+            }
+        }
+
+        //recently used glyphs are kept
+        Glyph recent = data.getGlyph((char)(next - 1));
+        assertSame(recent, data.getGlyph((char)(next - 1)));
+        font.dispose();
+    }
+
+    @Test
+    public void diskCache() throws IOException{
+        Fi directory = new Fi(File.createTempFile("glyphs", ""));
+        directory.delete();
+        directory.mkdirs();
+
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        parameter.lazy = true;
+        parameter.cacheDirectory = directory;
+        String text = "ABC" + BoxFont.cjkStart;
+
+        Font first = generator.generateFont(parameter);
+        Glyph expected = first.getData().getGlyph('A');
+        new GlyphLayout(first, text);
+        first.dispose();
+
+        Fi[] files = directory.list();
+        assertEquals(1, files.length);
+        ByteBuffer bytes = ByteBuffer.wrap(files[0].readBytes());
+        assertEquals(0x41474331, bytes.getInt());
+        assertEquals(1, bytes.getInt());
+
+        //change the stored advance of 'A' to tell cached glyphs from rendered ones
+        int records = 0, offsetA = -1;
+        while(bytes.remaining() >= 20){
+            int start = bytes.position();
+            if(bytes.getInt(start) == 'A') offsetA = start;
+            bytes.position(start + 20 + bytes.getInt(start + 16));
+            records++;
+        }
+        assertEquals(0, bytes.remaining());
+        //the missing glyph, the space and the text
+        assertEquals(6, records);
+        bytes.putInt(offsetA + 12, 1234);
+        files[0].writeBytes(bytes.array(), false);
+
+        Font second = generator.generateFont(parameter);
+        Glyph cached = second.getData().getGlyph('A');
+        assertEquals(1234, cached.xadvance);
+        assertEquals(expected.width, cached.width);
+        assertEquals(expected.height, cached.height);
+        assertEquals(expected.yoffset, cached.yoffset);
+        second.dispose();
+
+        //a truncated record is dropped, and the glyph is rendered and appended again
+        long length = files[0].length();
+        byte[] truncated = new byte[(int)length - 5];
+        System.arraycopy(bytes.array(), 0, truncated, 0, truncated.length);
+        files[0].writeBytes(truncated, false);
+
+        Font third = generator.generateFont(parameter);
+        assertEquals(1234, third.getData().getGlyph('A').xadvance);
+        for(int i = 1; i < text.length(); i++){
+            assertGlyph(first.getData().getGlyph(text.charAt(i)), third.getData().getGlyph(text.charAt(i)));
+        }
+        third.dispose();
+        assertEquals(length, files[0].length());
+
+        //every parameter that changes glyph images gets its own file, and so does the size
+        parameter.borderWidth = 1f;
+        generator.generateFont(parameter).getData().getGlyph('A');
+        parameter.borderWidth = 0f;
+        parameter.size = 20;
+        generator.generateFont(parameter).getData().getGlyph('A');
+        parameter.size = 16;
+        generator.generateFont(parameter).getData().getGlyph('A');
+        assertEquals(3, directory.list().length);
+
+        directory.deleteDirectory();
+    }
+
+    static void assertGlyph(Glyph expected, Glyph actual){
+        assertEquals(expected.id, actual.id);
+        assertEquals(expected.width, actual.width);
+        assertEquals(expected.height, actual.height);
+        assertEquals(expected.xoffset, actual.xoffset);
+        assertEquals(expected.yoffset, actual.yoffset);
+        assertEquals(expected.xadvance, actual.xadvance);
+    }
+
+    static int count(FontData data){
+        int count = 0;
+        for(Glyph[] page : data.glyphs){
+            if(page == null) continue;
+            for(Glyph glyph : page){
+                if(glyph != null) count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,14 @@
+varying vec2 v_texCoords;
+
+uniform sampler2D u_texture0;
+uniform vec2 u_halfPixel;
+
+// Dual filter downsample: the center and four diagonal taps, each of which bilinearly averages four texels.
+void main() {
+	vec4 sum = texture2D(u_texture0, v_texCoords) * 4.0;
+	sum += texture2D(u_texture0, v_texCoords - u_halfPixel);
+	sum += texture2D(u_texture0, v_texCoords + u_halfPixel);
+	sum += texture2D(u_texture0, v_texCoords + vec2(u_halfPixel.x, -u_halfPixel.y));
+	sum += texture2D(u_texture0, v_texCoords - vec2(u_halfPixel.x, -u_halfPixel.y));
+	gl_FragColor = sum / 8.0;
+}
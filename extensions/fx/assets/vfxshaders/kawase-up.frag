@@ -0,0 +1,17 @@
+varying vec2 v_texCoords;
+
+uniform sampler2D u_texture0;
+uniform vec2 u_halfPixel;
+
+// Dual filter upsample: a tent of eight taps around the center.
+void main() {
+	vec4 sum = texture2D(u_texture0, v_texCoords + vec2(-u_halfPixel.x * 2.0, 0.0));
+	sum += texture2D(u_texture0, v_texCoords + vec2(-u_halfPixel.x, u_halfPixel.y)) * 2.0;
+	sum += texture2D(u_texture0, v_texCoords + vec2(0.0, u_halfPixel.y * 2.0));
+	sum += texture2D(u_texture0, v_texCoords + vec2(u_halfPixel.x, u_halfPixel.y)) * 2.0;
+	sum += texture2D(u_texture0, v_texCoords + vec2(u_halfPixel.x * 2.0, 0.0));
+	sum += texture2D(u_texture0, v_texCoords + vec2(u_halfPixel.x, -u_halfPixel.y)) * 2.0;
+	sum += texture2D(u_texture0, v_texCoords + vec2(0.0, -u_halfPixel.y * 2.0));
+	sum += texture2D(u_texture0, v_texCoords + vec2(-u_halfPixel.x, -u_halfPixel.y)) * 2.0;
+	gl_FragColor = sum / 12.0;
+}
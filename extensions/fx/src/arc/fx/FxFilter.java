@@ -2,6 +2,7 @@ package arc.fx;
 
 import arc.*;
 import arc.files.*;
+import arc.fx.util.*;
 import arc.graphics.*;
 import arc.graphics.g2d.*;
 import arc.graphics.gl.*;
@@ -21,6 +22,8 @@ public abstract class FxFilter implements Disposable{
     protected Texture inputTexture = null;
     protected FrameBuffer outputBuffer = null;
     protected boolean disabled = false, autobind = false;
+    /** Pool to take intermediate buffers from, or null if the filter should allocate its own. */
+    protected @Nullable FxBufferPool pool;
 
     public float time = 0f;
 
@@ -112,6 +115,14 @@ public abstract class FxFilter implements Disposable{
         }
     }
 
+    /**
+     * Sets the pool that filters needing intermediate buffers take them from for the duration of a render call, instead of
+     * keeping their own. Set by {@link FxProcessor#addEffect(FxFilter, int)}.
+     */
+    public void setPool(@Nullable FxBufferPool pool){
+        this.pool = pool;
+    }
+
     /** This method gets called just before rendering. */
     protected void onBeforeRender(){
         inputTexture.bind(u_texture0);
@@ -15,6 +15,10 @@ import arc.util.*;
  * screen.
  * <p>
  * Effects can be added or removed via {@link #addEffect(FxFilter)} and {@link #removeEffect(FxFilter)}.
+ * <p>
+ * The effect chain ping-pongs between two buffers. Effects that need further intermediate buffers (e.g. {@link arc.fx.filters.BloomFilter})
+ * take them from a shared {@link FxBufferPool} for the duration of their pass, so stacked effects reuse the same buffers
+ * instead of each allocating their own.
  * @author bmanuel
  * @author metaphore
  */
@@ -30,6 +34,10 @@ public final class FxProcessor implements Disposable{
 
     private final Format fboFormat;
     private final PingPongBuffer pingPongBuffer;
+    /** Intermediate buffers shared by all effects. */
+    private final FxBufferPool pool = new FxBufferPool();
+    /** Duration of the last pass of each effect in milliseconds, only measured if profiling. */
+    private final ObjectFloatMap<FxFilter> passTimes = new ObjectFloatMap<>();
 
     private boolean disabled = false;
     private boolean capturing = false;
@@ -37,6 +45,7 @@ public final class FxProcessor implements Disposable{
     private boolean applyingEffects = false;
 
     private boolean blendingEnabled = false;
+    private boolean profiling = false;
 
     private int width, height;
 
@@ -62,6 +71,7 @@ public final class FxProcessor implements Disposable{
     @Override
     public void dispose(){
         pingPongBuffer.dispose();
+        pool.dispose();
     }
 
     public void resize(int width, int height){
@@ -70,6 +80,7 @@ public final class FxProcessor implements Disposable{
             this.height = height;
 
             pingPongBuffer.resize(width, height);
+            pool.clear();
 
             for(FxFilter filter : effectsAll){
                 filter.resize(width, height);
@@ -115,6 +126,33 @@ public final class FxProcessor implements Disposable{
         this.blendingEnabled = blendingEnabled;
     }
 
+    public boolean isProfiling(){
+        return profiling;
+    }
+
+    /**
+     * Enables measuring the duration of each effect pass, see {@link #getPassTime(FxFilter)}. This waits for the GPU to finish
+     * before and after every pass, so it stalls the pipeline and should only be enabled while profiling.
+     */
+    public void setProfiling(boolean profiling){
+        this.profiling = profiling;
+        if(!profiling) passTimes.clear();
+    }
+
+    /**
+     * @return the time the last pass of the effect took in milliseconds, including the GPU work it caused, or 0 if it was not
+     * measured.
+     * @see #setProfiling(boolean)
+     */
+    public float getPassTime(FxFilter effect){
+        return passTimes.get(effect, 0f);
+    }
+
+    /** @return the pool that effects take their intermediate buffers from. */
+    public FxBufferPool getPool(){
+        return pool;
+    }
+
     /**
      * Returns the internal framebuffer format, computed from the parameters specified during construction. NOTE: the returned
      * Format will be valid after construction and NOT early!
@@ -177,6 +215,7 @@ public final class FxProcessor implements Disposable{
         effectsAll.add(effect);
         priorities.put(effect, priority);
         effectsAll.sort(e -> priorities.get(effect, 0));
+        effect.setPool(pool);
         effect.resize(width, height);
         effect.rebind();
     }
@@ -185,14 +224,19 @@ public final class FxProcessor implements Disposable{
      * Removes the specified effect from the effect chain.
      */
     public void removeEffect(FxFilter effect){
-        effectsAll.remove(effect);
+        if(effectsAll.remove(effect)){
+            effect.setPool(null);
+            passTimes.remove(effect, 0f);
+        }
     }
 
     /**
      * Removes all effects from the effect chain.
      */
     public void removeAllEffects(){
+        effectsAll.each(e -> e.setPool(null));
         effectsAll.clear();
+        passTimes.clear();
     }
 
     /**
@@ -290,7 +334,15 @@ public final class FxProcessor implements Disposable{
             pingPongBuffer.begin();
             for(int i = 0; i < count; i++){
                 FxFilter effect = effectChain.get(i);
-                effect.render(pingPongBuffer.getSrcBuffer(), pingPongBuffer.getDstBuffer());
+                if(profiling){
+                    Gl.finish();
+                    long start = Time.nanos();
+                    effect.render(pingPongBuffer.getSrcBuffer(), pingPongBuffer.getDstBuffer());
+                    Gl.finish();
+                    passTimes.put(effect, Time.millisSinceNanos(start));
+                }else{
+                    effect.render(pingPongBuffer.getSrcBuffer(), pingPongBuffer.getDstBuffer());
+                }
                 if(i < count - 1){
                     pingPongBuffer.swap();
                 }
@@ -304,6 +356,7 @@ public final class FxProcessor implements Disposable{
                 Gl.disable(Gl.blend);
             }
         }
+        pool.trim();
         applyingEffects = false;
     }
 
@@ -8,6 +8,7 @@ import arc.graphics.Pixmap.*;
 import arc.graphics.gl.*;
 
 public class BloomFilter extends FxFilter{
+    /** Intermediate buffer. If this filter has a {@link #pool}, it is switched to pooled buffers for each render. */
     public final PingPongBuffer buffer;
 
     public final GaussianBlurFilter blur;
@@ -17,8 +18,12 @@ public class BloomFilter extends FxFilter{
     public Blending blending = Blending.normal;
     public int scaling = 4;
 
+    private int width = 4, height = 4;
+    /** Whether {@link #buffer} currently uses buffers owned by this filter, which are disposed when a pool is set. */
+    private boolean ownBuffers = true;
+
     public BloomFilter(){
-        buffer = new PingPongBuffer(Format.rgba8888);
+        buffer = new PingPongBuffer(Format.rgba8888, width, height);
 
         blur = new GaussianBlurFilter();
         threshold = new ThresholdFilter();
@@ -38,31 +43,49 @@ public class BloomFilter extends FxFilter{
     public void rebind(){
         threshold.rebind();
         combine.rebind();
-        buffer.rebind();
+        if(ownBuffers) buffer.rebind();
     }
 
     @Override
     public void resize(int width, int height){
         width /= scaling;
         height /= scaling;
+        this.width = width;
+        this.height = height;
 
-        buffer.resize(width, height);
+        if(ownBuffers) buffer.resize(width, height);
         blur.resize(width, height);
         threshold.resize(width, height);
         combine.resize(width, height);
     }
 
+    @Override
+    public void setPool(FxBufferPool pool){
+        super.setPool(pool);
+        blur.setPool(pool);
+        if(pool != null && ownBuffers){
+            buffer.dispose();
+            ownBuffers = false;
+        }
+    }
+
     @Override
     public void dispose(){
         combine.dispose();
         threshold.dispose();
         blur.dispose();
-        buffer.dispose();
+        if(ownBuffers) buffer.dispose();
     }
 
     @Override
     public void render(final FrameBuffer src, final FrameBuffer dst){
         Texture texSrc = src.getTexture();
+        if(pool != null){
+            buffer.set(pool.obtain(Format.rgba8888, width, height), pool.obtain(Format.rgba8888, width, height));
+        }else if(!ownBuffers){
+            buffer.set(new FrameBuffer(Format.rgba8888, width, height), new FrameBuffer(Format.rgba8888, width, height));
+            ownBuffers = true;
+        }
 
         Gl.disable(Gl.blend);
 
@@ -86,5 +109,7 @@ public class BloomFilter extends FxFilter{
         combine.setInput(texSrc, buffer.getDstTexture())
         .setOutput(dst)
         .render();
+
+        if(pool != null) pool.free(buffer);
     }
 }
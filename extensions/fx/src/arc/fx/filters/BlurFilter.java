@@ -3,10 +3,12 @@ package arc.fx.filters;
 import arc.fx.*;
 import arc.fx.util.*;
 import arc.graphics.*;
+import arc.graphics.Pixmap.*;
 import arc.graphics.gl.*;
 
 public class BlurFilter extends FxFilter{
     public final GaussianBlurFilter blur;
+    /** Switched to pooled buffers for each render if this filter has a {@link #pool}. */
     private final PingPongBuffer pingPongBuffer;
     private final CopyFilter copy;
 
@@ -14,13 +16,16 @@ public class BlurFilter extends FxFilter{
 
     // To keep track of the first render call.
     private boolean firstRender = true;
+    private int width = 4, height = 4;
+    /** Whether {@link #pingPongBuffer} currently uses buffers owned by this filter, which are disposed when a pool is set. */
+    private boolean ownBuffers = true;
 
     public BlurFilter(){
         this(8, GaussianBlurFilter.BlurType.gaussian5x5);
     }
 
     public BlurFilter(int blurPasses, GaussianBlurFilter.BlurType blurType){
-        pingPongBuffer = new PingPongBuffer(Pixmap.Format.rgba8888);
+        pingPongBuffer = new PingPongBuffer(Format.rgba8888, width, height);
 
         copy = new CopyFilter();
 
@@ -29,23 +34,35 @@ public class BlurFilter extends FxFilter{
         blur.setType(blurType);
     }
 
+    @Override
+    public void setPool(FxBufferPool pool){
+        super.setPool(pool);
+        blur.setPool(pool);
+        if(pool != null && ownBuffers){
+            pingPongBuffer.dispose();
+            ownBuffers = false;
+        }
+    }
+
     @Override
     public void dispose(){
-        pingPongBuffer.dispose();
+        if(ownBuffers) pingPongBuffer.dispose();
         blur.dispose();
         copy.dispose();
     }
 
     @Override
     public void resize(int width, int height){
-        pingPongBuffer.resize(width, height);
+        this.width = width;
+        this.height = height;
+        if(ownBuffers) pingPongBuffer.resize(width, height);
         blur.resize(width, height);
         copy.resize(width, height);
     }
 
     @Override
     public void rebind(){
-        pingPongBuffer.rebind();
+        if(ownBuffers) pingPongBuffer.rebind();
         blur.setParams();
         copy.rebind();
     }
@@ -60,6 +77,13 @@ public class BlurFilter extends FxFilter{
 
         Gl.disable(Gl.blend);
 
+        if(pool != null){
+            pingPongBuffer.set(pool.obtain(Format.rgba8888, width, height), pool.obtain(Format.rgba8888, width, height));
+        }else if(!ownBuffers){
+            pingPongBuffer.set(new FrameBuffer(Format.rgba8888, width, height), new FrameBuffer(Format.rgba8888, width, height));
+            ownBuffers = true;
+        }
+
         pingPongBuffer.begin();
         copy.setInput(src).setOutput(pingPongBuffer.getDstBuffer()).render();
         pingPongBuffer.swap();
@@ -80,6 +104,8 @@ public class BlurFilter extends FxFilter{
         copy.setInput(pingPongBuffer.getDstTexture())
         .setOutput(dst)
         .render();
+
+        if(pool != null) pool.free(pingPongBuffer);
     }
 
 }
@@ -0,0 +1,84 @@
+package arc.fx.filters;
+
+import arc.*;
+import arc.fx.*;
+import arc.fx.util.*;
+import arc.graphics.gl.*;
+
+/**
+ * Dual filter (dual Kawase) blur. The input is halved {@link #levels} times and then doubled back up, blurring at every step.
+ * Since most passes run at a fraction of the input size, a wide blur costs a fraction of the fill rate of a gaussian blur with a
+ * similar radius.
+ * <p>
+ * {@link #resolutionScale} scales the first level in addition to the halving.
+ */
+public class DualKawaseBlurFilter extends MultipassVfxFilter{
+    private final KawasePass down = new KawasePass("kawase-down"), up = new KawasePass("kawase-up");
+    private final FrameBuffer[] chain = new FrameBuffer[8];
+
+    /** Number of times the input is halved, at most 8. Each level roughly doubles the blur radius. */
+    public int levels = 4;
+    /** Sampling distance in texels; values above 1 widen the blur at the cost of quality. */
+    public float offset = 1f;
+
+    @Override
+    public void dispose(){
+        down.dispose();
+        up.dispose();
+        disposeBuffers();
+    }
+
+    @Override
+    public void setParams(){
+        down.rebind();
+        up.rebind();
+    }
+
+    @Override
+    public void render(PingPongBuffer buffer){
+        FrameBuffer src = buffer.getSrcBuffer();
+        int levels = Math.min(Math.max(this.levels, 1), chain.length);
+        int width = scaled(src.getWidth()), height = scaled(src.getHeight());
+
+        FrameBuffer input = src;
+        for(int i = 0; i < levels; i++){
+            width = Math.max(width / 2, 1);
+            height = Math.max(height / 2, 1);
+            chain[i] = obtainBuffer(i, width, height);
+            down.render(input, chain[i], offset);
+            input = chain[i];
+        }
+
+        for(int i = levels - 1; i > 0; i--){
+            up.render(chain[i], chain[i - 1], offset);
+        }
+        up.render(chain[0], buffer.getDstBuffer(), offset);
+
+        for(int i = 0; i < levels; i++){
+            freeBuffer(chain[i]);
+            chain[i] = null;
+        }
+    }
+
+    static class KawasePass extends FxFilter{
+        private float halfPixelX, halfPixelY;
+
+        KawasePass(String fragment){
+            super(compileShader(Core.files.classpath("vfxshaders/screenspace.vert"), Core.files.classpath("vfxshaders/" + fragment + ".frag")));
+            autobind = true;
+            rebind();
+        }
+
+        void render(FrameBuffer src, FrameBuffer dst, float offset){
+            halfPixelX = 0.5f / src.getWidth() * offset;
+            halfPixelY = 0.5f / src.getHeight() * offset;
+            render(src, dst);
+        }
+
+        @Override
+        protected void setParams(){
+            shader.setUniformi("u_texture0", u_texture0);
+            shader.setUniformf("u_halfPixel", halfPixelX, halfPixelY);
+        }
+    }
+}
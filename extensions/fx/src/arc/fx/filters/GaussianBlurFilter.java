@@ -1,6 +1,7 @@
 package arc.fx.filters;
 
 import arc.fx.util.*;
+import arc.graphics.gl.*;
 
 public class GaussianBlurFilter extends MultipassVfxFilter{
     private BlurType type;
@@ -8,7 +9,12 @@ public class GaussianBlurFilter extends MultipassVfxFilter{
     private int passes = 1;
 
     private float invWidth, invHeight;
+    private int width = 1, height = 1;
     private Convolve2dFilter convolve;
+    /** Resamples between the input and the scaled buffers, only created if {@link #resolutionScale} is used. */
+    private CopyFilter copy;
+    /** Switched to the scaled buffers for each render, only created if {@link #resolutionScale} is used. */
+    private PingPongBuffer scaled;
 
     public GaussianBlurFilter(){
         this(BlurType.gaussian5x5);
@@ -21,15 +27,27 @@ public class GaussianBlurFilter extends MultipassVfxFilter{
     @Override
     public void dispose(){
         convolve.dispose();
+        if(copy != null) copy.dispose();
+        disposeBuffers();
     }
 
     @Override
     public void resize(int width, int height){
-        this.invWidth = 1f / (float)width;
-        this.invHeight = 1f / (float)height;
-
+        this.width = width;
+        this.height = height;
+        updateTexelSize();
         convolve.resize(width, height);
-        computeBlurWeightings();
+    }
+
+    private void updateTexelSize(){
+        // offsets are in texture space, so they depend on the size of the buffers the passes run in
+        float invWidth = 1f / (resolutionScale < 1f ? scaled(width) : width);
+        float invHeight = 1f / (resolutionScale < 1f ? scaled(height) : height);
+        if(invWidth != this.invWidth || invHeight != this.invHeight){
+            this.invWidth = invWidth;
+            this.invHeight = invHeight;
+            computeBlurWeightings();
+        }
     }
 
     @Override
@@ -40,6 +58,35 @@ public class GaussianBlurFilter extends MultipassVfxFilter{
 
     @Override
     public void render(PingPongBuffer buffer){
+        updateTexelSize();
+
+        if(resolutionScale >= 1f){
+            renderPasses(buffer);
+            return;
+        }
+
+        // Downsample the input into smaller buffers, blur there and upsample the result into the destination.
+        if(copy == null) copy = new CopyFilter();
+        int w = scaled(buffer.getSrcBuffer().getWidth()), h = scaled(buffer.getSrcBuffer().getHeight());
+        if(scaled == null){
+            scaled = new PingPongBuffer(obtainBuffer(0, w, h), obtainBuffer(1, w, h));
+        }else{
+            scaled.set(obtainBuffer(0, w, h), obtainBuffer(1, w, h));
+        }
+        scaled.begin();
+        copy.setInput(buffer.getSrcTexture()).setOutput(scaled.getDstBuffer()).render();
+        scaled.swap();
+        renderPasses(scaled);
+        scaled.end();
+
+        FrameBuffer dst = buffer.getDstBuffer();
+        copy.setInput(scaled.getDstTexture()).setOutput(dst).render();
+
+        freeBuffer(scaled.getSrcBuffer());
+        freeBuffer(scaled.getDstBuffer());
+    }
+
+    private void renderPasses(PingPongBuffer buffer){
         for(int i = 0; i < this.passes; i++){
             convolve.render(buffer);
 
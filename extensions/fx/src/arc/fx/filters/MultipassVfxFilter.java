@@ -2,14 +2,30 @@ package arc.fx.filters;
 
 import arc.fx.*;
 import arc.fx.util.*;
+import arc.graphics.*;
+import arc.graphics.Pixmap.*;
+import arc.graphics.Texture.*;
+import arc.graphics.gl.*;
+import arc.struct.*;
 import arc.util.*;
 
 /**
  * The base class for any multi-pass filter.
  * Usually a multi-pass filter will make use of one or more single-pass filters,
  * promoting composition over inheritance.
+ * <p>
+ * Filters that do not need full resolution can run their passes in smaller intermediate buffers, see {@link #resolutionScale}.
+ * Those buffers are taken from the {@link FxBufferPool} if one is set, and are otherwise owned by the filter.
  */
 public abstract class MultipassVfxFilter implements Disposable{
+    /**
+     * Fraction of the input size that the passes of this filter run at, e.g. 0.5 for a quarter of the pixels. Only used by
+     * filters that support it, such as {@link GaussianBlurFilter} and {@link DualKawaseBlurFilter}.
+     */
+    public float resolutionScale = 1f;
+
+    protected @Nullable FxBufferPool pool;
+    private final Seq<FrameBuffer> buffers = new Seq<>();
 
     /** @see FxFilter#resize(int, int) */
     public void resize(int width, int height){
@@ -20,4 +36,44 @@ public abstract class MultipassVfxFilter implements Disposable{
     public abstract void setParams();
 
     public abstract void render(PingPongBuffer pingPongBuffer);
+
+    /** @see FxFilter#setPool(FxBufferPool) */
+    public void setPool(@Nullable FxBufferPool pool){
+        this.pool = pool;
+        if(pool != null) disposeBuffers();
+    }
+
+    /**
+     * Obtains an intermediate buffer with linear filtering, which must be released with {@link #freeBuffer(FrameBuffer)} at the
+     * end of the render call.
+     * @param index distinguishes the buffers that are in use at the same time if the filter owns its buffers.
+     */
+    protected FrameBuffer obtainBuffer(int index, int width, int height){
+        if(pool != null) return pool.obtain(Format.rgba8888, width, height);
+
+        while(buffers.size <= index){
+            FrameBuffer buffer = new FrameBuffer(Format.rgba8888, width, height);
+            buffer.getTexture().setWrap(TextureWrap.clampToEdge, TextureWrap.clampToEdge);
+            buffer.getTexture().setFilter(TextureFilter.linear, TextureFilter.linear);
+            buffers.add(buffer);
+        }
+        FrameBuffer buffer = buffers.get(index);
+        buffer.resize(width, height);
+        return buffer;
+    }
+
+    protected void freeBuffer(FrameBuffer buffer){
+        if(pool != null) pool.free(buffer);
+    }
+
+    /** Disposes the intermediate buffers owned by this filter. Should be called by {@link #dispose()}. */
+    protected void disposeBuffers(){
+        buffers.each(FrameBuffer::dispose);
+        buffers.clear();
+    }
+
+    /** @return the size scaled by {@link #resolutionScale}, at least 1. */
+    protected int scaled(int size){
+        return Math.max((int)(size * resolutionScale), 1);
+    }
 }
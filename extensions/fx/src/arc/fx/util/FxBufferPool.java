@@ -0,0 +1,116 @@
+package arc.fx.util;
+
+import arc.graphics.*;
+import arc.graphics.Pixmap.*;
+import arc.graphics.Texture.*;
+import arc.graphics.gl.*;
+import arc.struct.*;
+import arc.util.*;
+
+/**
+ * Pool of intermediate {@link FrameBuffer}s, keyed by size and format. Filters that need temporary buffers obtain them for the
+ * duration of their render call and free them afterwards, so effects in the same chain share the same few buffers instead of
+ * each keeping its own.
+ * <p>
+ * Buffers that were not obtained for {@link #maxIdleFrames} calls to {@link #trim()} are disposed.
+ * @see arc.fx.FxProcessor
+ */
+public class FxBufferPool implements Disposable{
+    private final LongMap<Seq<FrameBuffer>> free = new LongMap<>();
+    private final ObjectIntMap<FrameBuffer> lastUse = new ObjectIntMap<>();
+    private int frame, created, obtained;
+
+    /** How many {@link #trim()} calls a free buffer may stay unused before it is disposed. */
+    public int maxIdleFrames = 60;
+
+    public FrameBuffer obtain(Format format, int width, int height){
+        //frame buffers are never smaller than 2x2
+        width = Math.max(width, 2);
+        height = Math.max(height, 2);
+        Seq<FrameBuffer> buffers = free.get(key(format, width, height));
+        obtained++;
+
+        FrameBuffer buffer;
+        if(buffers != null && buffers.any()){
+            buffer = buffers.pop();
+        }else{
+            buffer = new FrameBuffer(format, width, height);
+            created++;
+        }
+
+        Texture texture = buffer.getTexture();
+        texture.setWrap(TextureWrap.clampToEdge, TextureWrap.clampToEdge);
+        texture.setFilter(TextureFilter.linear, TextureFilter.linear);
+        return buffer;
+    }
+
+    /** @return a ping-pong buffer backed by two pooled buffers, which must be returned with {@link #free(PingPongBuffer)}. */
+    public PingPongBuffer obtainPingPong(Format format, int width, int height){
+        return new PingPongBuffer(obtain(format, width, height), obtain(format, width, height));
+    }
+
+    public void free(FrameBuffer buffer){
+        long key = key(buffer.getFormat(), buffer.getWidth(), buffer.getHeight());
+        Seq<FrameBuffer> buffers = free.get(key);
+        if(buffers == null) free.put(key, buffers = new Seq<>());
+        buffers.add(buffer);
+        lastUse.put(buffer, frame);
+    }
+
+    public void free(PingPongBuffer buffer){
+        free(buffer.getSrcBuffer());
+        free(buffer.getDstBuffer());
+    }
+
+    /** Disposes free buffers that were not used for {@link #maxIdleFrames} calls. Should be called once per frame. */
+    public void trim(){
+        frame++;
+        for(Seq<FrameBuffer> buffers : free.values()){
+            buffers.removeAll(buffer -> {
+                if(frame - lastUse.get(buffer, frame) > maxIdleFrames){
+                    lastUse.remove(buffer, 0);
+                    buffer.dispose();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    /** @return the number of buffers created since this pool was constructed. */
+    public int getCreated(){
+        return created;
+    }
+
+    /** @return the number of buffers obtained since this pool was constructed; the difference to {@link #getCreated()} was reused. */
+    public int getObtained(){
+        return obtained;
+    }
+
+    /** @return the number of buffers that are currently free. */
+    public int getFree(){
+        int total = 0;
+        for(Seq<FrameBuffer> buffers : free.values()){
+            total += buffers.size;
+        }
+        return total;
+    }
+
+    /** Disposes all free buffers. Buffers that are currently obtained are not affected. */
+    public void clear(){
+        for(Seq<FrameBuffer> buffers : free.values()){
+            buffers.each(FrameBuffer::dispose);
+        }
+        free.clear();
+        lastUse.clear();
+    }
+
+    @Override
+    public void dispose(){
+        clear();
+    }
+
+    private static long key(Format format, int width, int height){
+        return ((long)format.ordinal() << 48) | ((long)width << 24) | height;
+    }
+}
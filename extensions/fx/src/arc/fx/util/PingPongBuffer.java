@@ -23,8 +23,8 @@ import arc.graphics.gl.*;
  * @author metaphore
  */
 public final class PingPongBuffer{
-    private final FrameBuffer buffer1;
-    private final FrameBuffer buffer2;
+    private FrameBuffer buffer1;
+    private FrameBuffer buffer2;
 
     private FrameBuffer bufDst;
     private FrameBuffer bufSrc;
@@ -63,14 +63,32 @@ public final class PingPongBuffer{
      * @param fbFormat Pixel format of buffer.
      */
     public PingPongBuffer(Format fbFormat, int width, int height, boolean depth, boolean stencil){
-        this.buffer1 = new FrameBuffer(fbFormat, width, height, depth, stencil);
-        this.buffer2 = new FrameBuffer(fbFormat, width, height, depth, stencil);
+        this(new FrameBuffer(fbFormat, width, height, depth, stencil), new FrameBuffer(fbFormat, width, height, depth, stencil));
+    }
+
+    /** Ping-pongs between two existing buffers of the same size, e.g. ones obtained from a {@link FxBufferPool}. */
+    public PingPongBuffer(FrameBuffer buffer1, FrameBuffer buffer2){
+        set(buffer1, buffer2);
+    }
+
+    /**
+     * Switches to two other buffers of the same size, so that a single instance can be reused with buffers that are obtained from
+     * a {@link FxBufferPool} on every render. The previous buffers are not disposed. Must not be called while capturing.
+     * @return this instance.
+     */
+    public PingPongBuffer set(FrameBuffer buffer1, FrameBuffer buffer2){
+        if(capturing){
+            throw new IllegalStateException("Cannot change the buffers while capturing.");
+        }
+        this.buffer1 = buffer1;
+        this.buffer2 = buffer2;
         rebind();
 
         // Setup src/dst buffers.
         writeState = false;
         this.bufDst = buffer1;
         this.bufSrc = buffer2;
+        return this;
     }
 
     public void dispose(){
@@ -0,0 +1,131 @@
+package arc.graphics.g3d;
+
+import arc.graphics.*;
+import arc.graphics.gl.*;
+import arc.math.geom.*;
+import arc.struct.*;
+import arc.util.*;
+
+import java.nio.*;
+
+/**
+ * A static indexed mesh that is uploaded to the GPU once and then drawn any number of times through
+ * {@link VertexBatch3D#instance(InstancedMesh, Mat3D, Color)}. Vertices have a position and a normal; normals are averaged from
+ * the faces that share each vertex.
+ * <p>
+ * Indices are stored as unsigned shorts when the mesh has few enough vertices, and as unsigned ints otherwise. The latter
+ * requires OpenGL ES 3.0 or the OES_element_index_uint extension.
+ */
+public class InstancedMesh implements Disposable{
+    /** The vertices of this mesh. Do not modify. */
+    public final Mesh mesh;
+    /** Number of indices in the index buffer. */
+    public final int numIndices;
+    /** Type of the indices, either {@link Gl#unsignedShort} or {@link Gl#unsignedInt}. */
+    public final int indexType;
+
+    /** Instances queued by a batch, see {@link VertexBatch3D#instance(InstancedMesh, Mat3D, float)}. */
+    final FloatSeq instances = new FloatSeq();
+    private int indexHandle;
+    private boolean disposed;
+
+    public InstancedMesh(MeshResult result){
+        this(result.vertices.items, result.indices.items, result.indices.size);
+    }
+
+    /**
+     * @param positions vertex positions, three floats per vertex.
+     * @param indices triangle indices, three per face.
+     * @param numIndices number of indices to use.
+     */
+    public InstancedMesh(float[] positions, int[] indices, int numIndices){
+        int numVertices = 0;
+        for(int i = 0; i < numIndices; i++){
+            numVertices = Math.max(numVertices, indices[i] + 1);
+        }
+
+        float[] vertices = new float[numVertices * 6];
+        for(int i = 0; i < numVertices; i++){
+            vertices[i * 6] = positions[i * 3];
+            vertices[i * 6 + 1] = positions[i * 3 + 1];
+            vertices[i * 6 + 2] = positions[i * 3 + 2];
+        }
+
+        //accumulate face normals weighted by area, then normalize
+        for(int i = 0; i + 2 < numIndices; i += 3){
+            int a = indices[i] * 3, b = indices[i + 1] * 3, c = indices[i + 2] * 3;
+            float ux = positions[b] - positions[a], uy = positions[b + 1] - positions[a + 1], uz = positions[b + 2] - positions[a + 2];
+            float vx = positions[c] - positions[a], vy = positions[c + 1] - positions[a + 1], vz = positions[c + 2] - positions[a + 2];
+            float nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+            for(int j = 0; j < 3; j++){
+                int n = indices[i + j] * 6 + 3;
+                vertices[n] += nx;
+                vertices[n + 1] += ny;
+                vertices[n + 2] += nz;
+            }
+        }
+        for(int i = 3; i < vertices.length; i += 6){
+            float len = Vec3.len(vertices[i], vertices[i + 1], vertices[i + 2]);
+            if(len > 0f){
+                vertices[i] /= len;
+                vertices[i + 1] /= len;
+                vertices[i + 2] /= len;
+            }
+        }
+
+        this.mesh = new Mesh(true, numVertices, 0, VertexAttribute.position3, VertexAttribute.normal);
+        this.mesh.setVertices(vertices);
+        this.numIndices = numIndices;
+
+        indexHandle = Gl.genBuffer();
+        Gl.bindBuffer(Gl.elementArrayBuffer, indexHandle);
+        if(numVertices <= 65536){
+            ShortBuffer buffer = Buffers.newShortBuffer(numIndices);
+            for(int i = 0; i < numIndices; i++){
+                buffer.put((short)indices[i]);
+            }
+            buffer.flip();
+            Gl.bufferData(Gl.elementArrayBuffer, numIndices * 2, buffer, Gl.staticDraw);
+            indexType = Gl.unsignedShort;
+        }else{
+            IntBuffer buffer = Buffers.newIntBuffer(numIndices);
+            buffer.put(indices, 0, numIndices);
+            buffer.flip();
+            Gl.bufferData(Gl.elementArrayBuffer, numIndices * 4, buffer, Gl.staticDraw);
+            indexType = Gl.unsignedInt;
+        }
+        Gl.bindBuffer(Gl.elementArrayBuffer, 0);
+    }
+
+    /** Binds the vertex attributes and the index buffer of this mesh. The shader must already be bound. */
+    public void bind(Shader shader){
+        mesh.bind(shader);
+        Gl.bindBuffer(Gl.elementArrayBuffer, indexHandle);
+    }
+
+    public void unbind(Shader shader){
+        Gl.bindBuffer(Gl.elementArrayBuffer, 0);
+        mesh.unbind(shader);
+    }
+
+    /** Draws a single copy of this mesh. The shader must already be bound. */
+    public void render(Shader shader, int primitiveType){
+        bind(shader);
+        Gl.drawElements(primitiveType, numIndices, indexType, 0);
+        unbind(shader);
+    }
+
+    @Override
+    public void dispose(){
+        if(disposed) return;
+        Gl.bindBuffer(Gl.elementArrayBuffer, 0);
+        Gl.deleteBuffer(indexHandle);
+        mesh.dispose();
+        disposed = true;
+    }
+
+    @Override
+    public boolean isDisposed(){
+        return disposed;
+    }
+}
@@ -1,11 +1,33 @@
 package arc.graphics.g3d;
 
+import arc.*;
 import arc.graphics.*;
 import arc.graphics.gl.*;
 import arc.math.geom.*;
 import arc.struct.*;
-
+import arc.util.*;
+
+import java.nio.*;
+
+/**
+ * Batches vertices built one at a time and flushes them in a single draw call.
+ * <p>
+ * Meshes that do not change, such as an {@link Icosphere}, can instead be uploaded once as an {@link InstancedMesh} and queued
+ * with {@link #instance(InstancedMesh, Mat3D, Color)}. {@link #flushInstances(int)} then draws every queued copy of a mesh with
+ * one instanced draw call when OpenGL ES 3.0 is available, streaming the per-instance transforms and colors into a separate
+ * buffer. Without it, each copy is drawn separately, with the instance attributes set as constant vertex attributes.
+ */
 public class VertexBatch3D{
+    /** Default maximum number of instances drawn by one call. */
+    public static final int defaultMaxInstances = 4096;
+    /** Floats per instance: a column-major 4x4 transform followed by a packed color. */
+    public static final int instanceSize = 17;
+    /** Attribute names of the transform columns, suffixed with 0 to 3. */
+    public static final String instanceTransformAttribute = "a_transform";
+    public static final String instanceColorAttribute = "a_instanceColor";
+    private static final String[] instanceAttributes = {instanceTransformAttribute + "0", instanceTransformAttribute + "1",
+        instanceTransformAttribute + "2", instanceTransformAttribute + "3", instanceColorAttribute};
+
     private final int maxVertices;
     private final Mesh mesh;
     private final int numTexCoords;
@@ -23,6 +45,14 @@ public class VertexBatch3D{
     private Shader shader;
     private boolean ownsShader;
 
+    private final int maxInstances;
+    private final Seq<InstancedMesh> queuedInstances = new Seq<>();
+    private final int[] instanceLocations = new int[instanceAttributes.length];
+    private @Nullable FloatBuffer instanceBuffer;
+    private int instanceHandle;
+    private @Nullable Shader instanceShader;
+    private boolean ownsInstanceShader;
+
     public VertexBatch3D(boolean hasNormals, boolean hasColors, int numTexCoords){
         this(5000, hasNormals, hasColors, numTexCoords, createDefaultShader(hasNormals, hasColors, numTexCoords));
         ownsShader = true;
@@ -34,7 +64,13 @@ public class VertexBatch3D{
     }
 
     public VertexBatch3D(int maxVertices, boolean hasNormals, boolean hasColors, int numTexCoords, Shader shader){
+        this(maxVertices, defaultMaxInstances, hasNormals, hasColors, numTexCoords, shader);
+    }
+
+    /** @param maxInstances the maximum number of instances drawn with one call; more are split into several calls. */
+    public VertexBatch3D(int maxVertices, int maxInstances, boolean hasNormals, boolean hasColors, int numTexCoords, Shader shader){
         this.maxVertices = maxVertices;
+        this.maxInstances = maxInstances;
         this.numTexCoords = numTexCoords;
         this.shader = shader;
 
@@ -126,6 +162,29 @@ public class VertexBatch3D{
         return new Shader(vertexShader, fragmentShader);
     }
 
+    /** Returns a new instance of the default shader used for {@link #flushInstances(int)}, which colors each instance uniformly. */
+    public static Shader createInstancedShader(){
+        return new Shader(
+        "attribute vec4 " + Shader.positionAttribute + ";\n" +
+        "attribute vec4 " + instanceAttributes[0] + ";\n" +
+        "attribute vec4 " + instanceAttributes[1] + ";\n" +
+        "attribute vec4 " + instanceAttributes[2] + ";\n" +
+        "attribute vec4 " + instanceAttributes[3] + ";\n" +
+        "attribute vec4 " + instanceColorAttribute + ";\n" +
+        "uniform mat4 u_proj;\n" +
+        "varying vec4 v_col;\n" +
+        "void main(){\n" +
+        "   gl_Position = u_proj * mat4(" + instanceAttributes[0] + ", " + instanceAttributes[1] + ", " + instanceAttributes[2] + ", " + instanceAttributes[3] + ") * " + Shader.positionAttribute + ";\n" +
+        "   v_col = " + instanceColorAttribute + ";\n" +
+        "}\n",
+
+        "varying vec4 v_col;\n" +
+        "void main(){\n" +
+        "   gl_FragColor = v_col;\n" +
+        "}\n"
+        );
+    }
+
     private VertexAttribute[] buildVertexAttributes(boolean hasNormals, boolean hasColor, int numTexCoords){
         Seq<VertexAttribute> attribs = new Seq<>();
         attribs.add(VertexAttribute.position3);
@@ -143,6 +202,13 @@ public class VertexBatch3D{
         ownsShader = false;
     }
 
+    /** Sets the shader used by {@link #flushInstances(int)}. It must declare the instance attributes of this class. */
+    public void setInstanceShader(Shader shader){
+        if(ownsInstanceShader && instanceShader != null) instanceShader.dispose();
+        this.instanceShader = shader;
+        ownsInstanceShader = false;
+    }
+
     public void color(Color color){
         vertices[vertexIdx + colorOffset] = color.toFloatBits();
     }
@@ -244,6 +310,119 @@ public class VertexBatch3D{
         numVertices = 0;
     }
 
+    /** Queues a copy of the mesh, drawn on the next {@link #flushInstances(int)}. */
+    public void instance(InstancedMesh mesh, Mat3D transform, Color color){
+        instance(mesh, transform, color.toFloatBits());
+    }
+
+    /**
+     * Queues a copy of the mesh, drawn on the next {@link #flushInstances(int)}. A mesh should only be queued in one batch at a
+     * time.
+     * @param transform the transform of this copy, applied before the projection of this batch.
+     */
+    public void instance(InstancedMesh mesh, Mat3D transform, float colorBits){
+        if(mesh.instances.isEmpty()) queuedInstances.add(mesh);
+        mesh.instances.addAll(transform.val, 0, 16);
+        mesh.instances.add(colorBits);
+    }
+
+    public void flushInstances(int primitiveType){
+        if(queuedInstances.isEmpty()) return;
+        if(instanceShader == null){
+            instanceShader = createInstancedShader();
+            ownsInstanceShader = true;
+        }
+        flushInstances(primitiveType, instanceShader);
+    }
+
+    /** Draws all queued instances, with one draw call per mesh when instancing is supported. */
+    public void flushInstances(int primitiveType, Shader shader){
+        if(queuedInstances.isEmpty()) return;
+        shader.bind();
+        shader.apply();
+        shader.setUniformMatrix4("u_proj", proj.val);
+        for(int i = 0; i < instanceLocations.length; i++){
+            instanceLocations[i] = shader.getAttributeLocation(instanceAttributes[i]);
+        }
+
+        for(InstancedMesh mesh : queuedInstances){
+            mesh.bind(shader);
+            if(Core.gl30 != null){
+                renderInstanced(mesh, primitiveType);
+            }else{
+                renderEach(mesh, primitiveType);
+            }
+            mesh.unbind(shader);
+            mesh.instances.clear();
+        }
+        queuedInstances.clear();
+    }
+
+    private void renderInstanced(InstancedMesh mesh, int primitiveType){
+        if(instanceBuffer == null){
+            instanceBuffer = Buffers.newFloatBuffer(maxInstances * instanceSize);
+            instanceHandle = Gl.genBuffer();
+        }
+
+        Gl.bindBuffer(Gl.arrayBuffer, instanceHandle);
+        for(int i = 0; i < instanceLocations.length; i++){
+            int location = instanceLocations[i];
+            if(location < 0) continue;
+            boolean color = i == instanceLocations.length - 1;
+            Gl.enableVertexAttribArray(location);
+            Gl.vertexAttribPointer(location, 4, color ? Gl.unsignedByte : Gl.floatV, color, instanceSize * 4, i * 16);
+            Core.gl30.glVertexAttribDivisor(location, 1);
+        }
+
+        float[] data = mesh.instances.items;
+        int count = mesh.instances.size / instanceSize;
+        for(int offset = 0; offset < count; offset += maxInstances){
+            int instances = Math.min(maxInstances, count - offset);
+            instanceBuffer.clear();
+            instanceBuffer.put(data, offset * instanceSize, instances * instanceSize);
+            instanceBuffer.flip();
+            //re-specifying the whole buffer lets the driver orphan the previous data instead of waiting for the last draw
+            Gl.bufferData(Gl.arrayBuffer, instances * instanceSize * 4, instanceBuffer, Gl.streamDraw);
+            Core.gl30.glDrawElementsInstanced(primitiveType, mesh.numIndices, mesh.indexType, 0, instances);
+        }
+
+        for(int location : instanceLocations){
+            if(location < 0) continue;
+            Core.gl30.glVertexAttribDivisor(location, 0);
+            Gl.disableVertexAttribArray(location);
+        }
+        Gl.bindBuffer(Gl.arrayBuffer, 0);
+    }
+
+    private void renderEach(InstancedMesh mesh, int primitiveType){
+        float[] data = mesh.instances.items;
+        Color color = Tmp.c1;
+        for(int i = 0; i < mesh.instances.size; i += instanceSize){
+            for(int c = 0; c < 4; c++){
+                int location = instanceLocations[c];
+                if(location >= 0) Gl.vertexAttrib4f(location, data[i + c * 4], data[i + c * 4 + 1], data[i + c * 4 + 2], data[i + c * 4 + 3]);
+            }
+            if(instanceLocations[4] >= 0){
+                color.abgr8888(data[i + 16]);
+                Gl.vertexAttrib4f(instanceLocations[4], color.r, color.g, color.b, color.a);
+            }
+            Gl.drawElements(primitiveType, mesh.numIndices, mesh.indexType, 0);
+        }
+    }
+
+    /** @return the number of instances queued for the next {@link #flushInstances(int)}. */
+    public int getNumInstances(){
+        int count = 0;
+        for(InstancedMesh mesh : queuedInstances){
+            count += mesh.instances.size / instanceSize;
+        }
+        return count;
+    }
+
+    public int getMaxInstances(){
+        return maxInstances;
+    }
+
     public int getNumVertices(){
         return numVertices;
     }
@@ -254,6 +433,11 @@ public class VertexBatch3D{
 
     public void dispose(){
         if(ownsShader && shader != null) shader.dispose();
+        if(ownsInstanceShader && instanceShader != null) instanceShader.dispose();
+        if(instanceBuffer != null){
+            Gl.deleteBuffer(instanceHandle);
+            instanceBuffer = null;
+        }
         mesh.dispose();
     }
 }
@@ -2,7 +2,19 @@ package arc.math.geom;
 
 import arc.math.*;
 import arc.struct.*;
+import arc.util.*;
 
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generates subdivided icosahedrons. Each level is built from the previous one by splitting every face into four, with the new
+ * vertices on the midpoints of the edges, projected onto the unit sphere. Vertices are shared between faces, and new vertices are
+ * appended, so the vertices of a level are a prefix of the vertices of every higher level: values computed per vertex for a low
+ * level can be reused for the same vertices at a higher one.
+ * <p>
+ * Generated levels are cached. High levels subdivide their faces in parallel.
+ */
 public class Icosphere{
     private static final float t = (Mathf.sqrt(5) - 1f) / 2f;
     private static final Vec3[] baseVert = {v(-1, -t, 0), v(0, 1, t), v(0, 1, -t), v(1, t, 0), v(1, -t, 0), v(0, -1, -t), v(0, -1, t), v(t, 0, 1), v(-t, 0, 1), v(t, 0, -1), v(-t, 0, -1), v(-1, t, 0)};
@@ -10,54 +22,182 @@ public class Icosphere{
     {3, 7, 1}, {4, 7, 3}, {6, 7, 4}, {8, 7, 6}, {7, 8, 1}, {9, 4, 3}, {2, 9, 3}, {2, 3, 1}, {11, 2, 1}, {10, 2, 11},
     {10, 9, 2}, {9, 5, 4}, {6, 4, 5}, {0, 6, 5}, {0, 11, 8}, {11, 1, 8}, {10, 0, 5}, {10, 5, 9}, {0, 8, 6}, {0, 10, 11},
     };
+    /** Minimum number of faces in a level for the next level to be generated in parallel. */
+    private static final int parallelFaces = 20 * 4 * 4 * 4 * 4 * 4;
+    private static final int parallelChunk = 8192;
+
+    private static final Seq<MeshResult> cache = new Seq<>();
+    private static @Nullable ExecutorService executor;
 
+    /** @return a new mesh of the given subdivision level, which may be modified. */
     public static MeshResult create(int level){
-        MeshResult data = new MeshResult();
+        return get(level).copy();
+    }
+
+    /**
+     * @return the cached mesh of the given subdivision level, generating it and any missing lower levels if needed. The result is
+     * shared and must not be modified; use {@link #create(int)} for a copy.
+     */
+    public static MeshResult get(int level){
+        if(level < 0) throw new IllegalArgumentException("Level must not be negative: " + level);
 
+        synchronized(cache){
+            if(cache.isEmpty()) cache.add(base());
+            while(cache.size <= level){
+                cache.add(subdivide(cache.peek()));
+            }
+            return cache.get(level);
+        }
+    }
+
+    /** Releases all cached levels. */
+    public static void clearCache(){
+        synchronized(cache){
+            cache.clear();
+        }
+    }
+
+    private static MeshResult base(){
+        MeshResult data = new MeshResult();
         for(Vec3 v : baseVert){
             data.vertices.add(v.x, v.y, v.z);
         }
-
         for(int[] f : baseFace){
-            subdivide(f[0], f[1], f[2], data.vertices, data.indices, level);
+            data.indices.add(f[0], f[1], f[2]);
         }
-
         return data;
     }
 
-    private static void subdivide(int v1, int v2, int v3, FloatSeq vertices, IntSeq faces, int level){
-        if(level == 0){
-            faces.add(v1, v2, v3);
+    private static MeshResult subdivide(MeshResult parent){
+        float[] parentVertices = parent.vertices.items;
+        int[] parentFaces = parent.indices.items;
+        int vertexCount = parent.vertices.size / 3, faceCount = parent.indices.size / 3;
+        //the mesh is closed, so every edge is shared by exactly two faces
+        int edgeCount = faceCount * 3 / 2;
+
+        //assign a new vertex to every edge; midpoints[i] is the vertex on the edge starting at corner i
+        EdgeMap edgeMap = new EdgeMap(edgeCount);
+        int[] edges = new int[edgeCount * 2];
+        int[] midpoints = new int[faceCount * 3];
+        int next = 0;
+        for(int f = 0; f < faceCount * 3; f += 3){
+            for(int e = 0; e < 3; e++){
+                int a = parentFaces[f + e], b = parentFaces[f + (e == 2 ? 0 : e + 1)];
+                int index = edgeMap.putIfAbsent(a < b ? (long)a << 32 | b : (long)b << 32 | a, next);
+                if(index == next){
+                    edges[next * 2] = a;
+                    edges[next * 2 + 1] = b;
+                    next++;
+                }
+                midpoints[f + e] = vertexCount + index;
+            }
+        }
+
+        float[] vertices = new float[(vertexCount + edgeCount) * 3];
+        int[] faces = new int[faceCount * 12];
+        System.arraycopy(parentVertices, 0, vertices, 0, vertexCount * 3);
+
+        if(faceCount >= parallelFaces && OS.cores > 1){
+            ExecutorService exec = executor();
+            Seq<Future<?>> futures = new Seq<>();
+            for(int i = 0; i < edgeCount; i += parallelChunk){
+                int from = i, to = Math.min(i + parallelChunk, edgeCount);
+                futures.add(exec.submit(() -> midpoints(parentVertices, edges, vertices, vertexCount, from, to)));
+            }
+            for(int i = 0; i < faceCount; i += parallelChunk){
+                int from = i, to = Math.min(i + parallelChunk, faceCount);
+                futures.add(exec.submit(() -> split(parentFaces, midpoints, faces, from, to)));
+            }
+            Threads.awaitAll(futures);
         }else{
-            float a1 = (vertices.get(3 * v1) + vertices.get(3 * v2));
-            float a2 = (vertices.get(3 * v1 + 1) + vertices.get(3 * v2 + 1));
-            float a3 = (vertices.get(3 * v1 + 2) + vertices.get(3 * v2 + 2));
-            float length = Vec3.len(a1, a2, a3);
-            int indexA = vertices.size / 3;
-            vertices.add(a1 / length, a2 / length, a3 / length);
-
-            float b1 = (vertices.get(3 * v3) + vertices.get(3 * v2));
-            float b2 = (vertices.get(3 * v3 + 1) + vertices.get(3 * v2 + 1));
-            float b3 = (vertices.get(3 * v3 + 2) + vertices.get(3 * v2 + 2));
-            length = Vec3.len(b1, b2, b3);
-            int indexB = vertices.size / 3;
-            vertices.add(b1 / length, b2 / length, b3 / length);
-
-            float c1 = (vertices.get(3 * v1) + vertices.get(3 * v3));
-            float c2 = (vertices.get(3 * v1 + 1) + vertices.get(3 * v3 + 1));
-            float c3 = (vertices.get(3 * v1 + 2) + vertices.get(3 * v3 + 2));
-            length = Vec3.len(c1, c2, c3);
-            int indexC = vertices.size / 3;
-            vertices.add(c1 / length, c2 / length, c3 / length);
-
-            subdivide(v1, indexA, indexC, vertices, faces, level - 1);
-            subdivide(indexA, v2, indexB, vertices, faces, level - 1);
-            subdivide(indexC, indexB, v3, vertices, faces, level - 1);
-            subdivide(indexA, indexB, indexC, vertices, faces, level - 1);
+            midpoints(parentVertices, edges, vertices, vertexCount, 0, edgeCount);
+            split(parentFaces, midpoints, faces, 0, faceCount);
+        }
+
+        MeshResult result = new MeshResult();
+        result.vertices.items = vertices;
+        result.vertices.size = vertices.length;
+        result.indices.items = faces;
+        result.indices.size = faces.length;
+        return result;
+    }
+
+    /** Computes the vertices of the edges in [from, to), normalized onto the sphere. */
+    private static void midpoints(float[] parentVertices, int[] edges, float[] vertices, int vertexCount, int from, int to){
+        for(int i = from; i < to; i++){
+            int a = edges[i * 2] * 3, b = edges[i * 2 + 1] * 3;
+            float x = parentVertices[a] + parentVertices[b];
+            float y = parentVertices[a + 1] + parentVertices[b + 1];
+            float z = parentVertices[a + 2] + parentVertices[b + 2];
+            float length = Vec3.len(x, y, z);
+            int v = (vertexCount + i) * 3;
+            vertices[v] = x / length;
+            vertices[v + 1] = y / length;
+            vertices[v + 2] = z / length;
         }
     }
 
+    /** Splits the faces in [from, to) into four faces each, in the same order and winding as their parent. */
+    private static void split(int[] parentFaces, int[] midpoints, int[] faces, int from, int to){
+        for(int i = from; i < to; i++){
+            int v1 = parentFaces[i * 3], v2 = parentFaces[i * 3 + 1], v3 = parentFaces[i * 3 + 2];
+            int a = midpoints[i * 3], b = midpoints[i * 3 + 1], c = midpoints[i * 3 + 2];
+            int o = i * 12;
+            faces[o] = v1;
+            faces[o + 1] = a;
+            faces[o + 2] = c;
+            faces[o + 3] = a;
+            faces[o + 4] = v2;
+            faces[o + 5] = b;
+            faces[o + 6] = c;
+            faces[o + 7] = b;
+            faces[o + 8] = v3;
+            faces[o + 9] = a;
+            faces[o + 10] = b;
+            faces[o + 11] = c;
+        }
+    }
+
+    private static ExecutorService executor(){
+        if(executor == null){
+            executor = Threads.cachedExecutor("Icosphere", OS.cores);
+        }
+        return executor;
+    }
+
     private static Vec3 v(float x, float y, float z){
         return new Vec3(x, y, z).nor();
     }
+
+    /** Open addressing map from edge keys to vertex indices. */
+    static class EdgeMap{
+        final long[] keys;
+        final int[] values;
+        final int mask;
+
+        EdgeMap(int capacity){
+            int size = Mathf.nextPowerOfTwo(Math.max(capacity * 2, 16));
+            keys = new long[size];
+            values = new int[size];
+            mask = size - 1;
+            //keys are never negative, so -1 marks an empty slot
+            Arrays.fill(keys, -1L);
+        }
+
+        /** @return the value of the key, or the given value if the key was absent, after adding it. */
+        int putIfAbsent(long key, int value){
+            long h = key * 0x9E3779B97F4A7C15L;
+            int i = (int)(h ^ (h >>> 32)) & mask;
+            while(true){
+                long k = keys[i];
+                if(k == key) return values[i];
+                if(k == -1L){
+                    keys[i] = key;
+                    values[i] = value;
+                    return value;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+    }
 }
@@ -5,4 +5,17 @@ import arc.struct.*;
 public class MeshResult{
     public FloatSeq vertices = new FloatSeq();
     public IntSeq indices = new IntSeq();
+
+    public MeshResult(){
+    }
+
+    public MeshResult(FloatSeq vertices, IntSeq indices){
+        this.vertices = vertices;
+        this.indices = indices;
+    }
+
+    /** @return a deep copy of this mesh. */
+    public MeshResult copy(){
+        return new MeshResult(new FloatSeq(vertices), new IntSeq(indices));
+    }
 }
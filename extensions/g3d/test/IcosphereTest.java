@@ -0,0 +1,130 @@
+import arc.math.geom.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class IcosphereTest{
+
+    @Test
+    public void sharedVertices(){
+        Icosphere.clearCache();
+        for(int level = 0; level <= 5; level++){
+            MeshResult mesh = Icosphere.get(level);
+            int faces = 20 << (2 * level);
+            assertEquals(faces * 3, mesh.indices.size);
+            //euler characteristic of a sphere: V - E + F = 2
+            assertEquals((10 << (2 * level)) + 2, mesh.vertices.size / 3);
+
+            for(int i = 0; i < mesh.vertices.size; i += 3){
+                assertEquals(1f, Vec3.len(mesh.vertices.items[i], mesh.vertices.items[i + 1], mesh.vertices.items[i + 2]), 0.0001f);
+            }
+
+            //every edge is used once in each direction, so the mesh is closed and consistently wound
+            LongMap<Boolean> edges = new LongMap<>();
+            for(int i = 0; i < mesh.indices.size; i += 3){
+                for(int e = 0; e < 3; e++){
+                    long a = mesh.indices.get(i + e), b = mesh.indices.get(i + (e + 1) % 3);
+                    assertNull(edges.put(a << 32 | b, true));
+                }
+            }
+            for(LongMap.Entry<Boolean> edge : edges){
+                assertTrue(edges.containsKey(edge.key >>> 32 | edge.key << 32));
+            }
+        }
+    }
+
+    @Test
+    public void matchesRecursive(){
+        //faces are in the same order and with the same corners as the previous recursive implementation
+        for(int level = 0; level <= 4; level++){
+            MeshResult expected = recursive(level), mesh = Icosphere.get(level);
+            assertEquals(expected.indices.size, mesh.indices.size);
+            for(int i = 0; i < mesh.indices.size; i++){
+                for(int c = 0; c < 3; c++){
+                    assertEquals(expected.vertices.get(expected.indices.get(i) * 3 + c), mesh.vertices.get(mesh.indices.get(i) * 3 + c), 0f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void levelsArePrefixes(){
+        MeshResult low = Icosphere.get(3), high = Icosphere.get(6);
+        for(int i = 0; i < low.vertices.size; i++){
+            assertEquals(low.vertices.get(i), high.vertices.get(i), 0f);
+        }
+    }
+
+    @Test
+    public void cached(){
+        assertSame(Icosphere.get(4), Icosphere.get(4));
+
+        MeshResult copy = Icosphere.create(4);
+        assertNotSame(Icosphere.get(4).vertices, copy.vertices);
+        copy.vertices.set(0, 5f);
+        assertTrue(Icosphere.get(4).vertices.get(0) != 5f);
+    }
+
+    @Test
+    public void benchmarkLevels(){
+        //not an actual benchmark, ignore
+        for(int level = 1; level <= 8; level++){
+            long start = Time.nanos();
+            MeshResult old = recursive(level);
+            float recursive = Time.millisSinceNanos(start);
+
+            //generate only this level, from the cached previous one
+            Icosphere.get(level - 1);
+            start = Time.nanos();
+            MeshResult mesh = Icosphere.get(level);
+            float subdivide = Time.millisSinceNanos(start);
+
+            Icosphere.clearCache();
+            start = Time.nanos();
+            Icosphere.get(level);
+            float uncached = Time.millisSinceNanos(start);
+
+            start = Time.nanos();
+            Icosphere.get(level);
+            float cached = Time.millisSinceNanos(start);
+
+            Log.info("level @: @ -> @ vertices; recursive @ms, from previous level @ms, from scratch @ms, cached @ms",
+                level, old.vertices.size / 3, mesh.vertices.size / 3, recursive, subdivide, uncached, cached);
+        }
+        Icosphere.clearCache();
+    }
+
+    /** The previous implementation, which did not share vertices between faces. */
+    static MeshResult recursive(int level){
+        MeshResult data = new MeshResult();
+        MeshResult base = Icosphere.get(0);
+        data.vertices.addAll(base.vertices);
+        for(int i = 0; i < base.indices.size; i += 3){
+            subdivide(base.indices.get(i), base.indices.get(i + 1), base.indices.get(i + 2), data.vertices, data.indices, level);
+        }
+        return data;
+    }
+
+    static void subdivide(int v1, int v2, int v3, FloatSeq vertices, IntSeq faces, int level){
+        if(level == 0){
+            faces.add(v1, v2, v3);
+        }else{
+            int a = midpoint(v1, v2, vertices), b = midpoint(v3, v2, vertices), c = midpoint(v1, v3, vertices);
+            subdivide(v1, a, c, vertices, faces, level - 1);
+            subdivide(a, v2, b, vertices, faces, level - 1);
+            subdivide(c, b, v3, vertices, faces, level - 1);
+            subdivide(a, b, c, vertices, faces, level - 1);
+        }
+    }
+
+    static int midpoint(int v1, int v2, FloatSeq vertices){
+        float x = vertices.get(3 * v1) + vertices.get(3 * v2);
+        float y = vertices.get(3 * v1 + 1) + vertices.get(3 * v2 + 1);
+        float z = vertices.get(3 * v1 + 2) + vertices.get(3 * v2 + 2);
+        float length = Vec3.len(x, y, z);
+        vertices.add(x / length, y / length, z / length);
+        return vertices.size / 3 - 1;
+    }
+}
@@ -0,0 +1,186 @@
+import arc.*;
+import arc.graphics.*;
+import arc.graphics.g3d.*;
+import arc.math.geom.*;
+import arc.mock.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+public class VertexBatch3DTest{
+    static CountingGL gl = new CountingGL();
+
+    @BeforeClass
+    public static void init(){
+        ArcNativesLoader.load();
+        Core.app = new MockApplication();
+    }
+
+    @After
+    public void reset(){
+        Core.gl = Core.gl30 = null;
+    }
+
+    @Test
+    public void instanced(){
+        Core.gl = Core.gl30 = gl;
+        VertexBatch3D batch = new VertexBatch3D(100, 1000, false, true, 0, VertexBatch3D.createDefaultShader(false, true, 0));
+        InstancedMesh sphere = new InstancedMesh(Icosphere.create(2)), other = new InstancedMesh(Icosphere.create(0));
+
+        Mat3D transform = new Mat3D();
+        for(int i = 0; i < 2500; i++){
+            batch.instance(sphere, transform.setToTranslation(new Vec3(i, 0f, 0f)), Color.white);
+            if(i % 10 == 0) batch.instance(other, transform, Color.red);
+        }
+        assertEquals(2750, batch.getNumInstances());
+
+        gl.reset();
+        batch.flushInstances(Gl.triangles);
+
+        //2500 copies split into 3 calls of at most 1000, then 250 copies of the other mesh
+        assertEquals(4, gl.instancedDraws);
+        assertEquals(2750, gl.instances);
+        assertEquals(0, gl.draws);
+        //instance data is streamed once per call, the meshes are static
+        assertEquals(4, gl.streamUploads);
+        assertEquals(0, batch.getNumInstances());
+
+        gl.reset();
+        batch.flushInstances(Gl.triangles);
+        assertEquals(0, gl.instancedDraws);
+
+        sphere.dispose();
+        other.dispose();
+        batch.dispose();
+    }
+
+    @Test
+    public void fallback(){
+        Core.gl = gl;
+        VertexBatch3D batch = new VertexBatch3D(100, false, true, 0);
+        InstancedMesh sphere = new InstancedMesh(Icosphere.create(1));
+
+        for(int i = 0; i < 20; i++){
+            batch.instance(sphere, new Mat3D(), Color.white);
+        }
+        gl.reset();
+        batch.flushInstances(Gl.triangles);
+
+        //without instancing, every copy is its own call with constant instance attributes
+        assertEquals(0, gl.instancedDraws);
+        assertEquals(20, gl.draws);
+        assertEquals(20 * 5, gl.constantAttributes);
+
+        sphere.dispose();
+        batch.dispose();
+    }
+
+    @Test
+    public void largeMesh(){
+        Core.gl = Core.gl30 = gl;
+        InstancedMesh sphere = new InstancedMesh(Icosphere.create(7));
+        assertEquals(Gl.unsignedInt, sphere.indexType);
+        assertEquals(20 * 16384 * 3, sphere.numIndices);
+        sphere.dispose();
+
+        sphere = new InstancedMesh(Icosphere.create(3));
+        assertEquals(Gl.unsignedShort, sphere.indexType);
+        sphere.dispose();
+    }
+
+    /** Counts draw calls, and reports every shader as compiled with the attributes it declares. */
+    static class CountingGL extends MockGL30{
+        int draws, instancedDraws, instances, streamUploads, constantAttributes;
+        int handles;
+        String[] attributes = {};
+
+        void reset(){
+            draws = instancedDraws = instances = streamUploads = constantAttributes = 0;
+        }
+
+        @Override
+        public void glDrawElements(int mode, int count, int type, int indices){
+            draws++;
+        }
+
+        @Override
+        public void glDrawElementsInstanced(int mode, int count, int type, int indicesOffset, int instanceCount){
+            instancedDraws++;
+            instances += instanceCount;
+        }
+
+        @Override
+        public void glBufferData(int target, int size, Buffer data, int usage){
+            if(usage == GL_STREAM_DRAW) streamUploads++;
+        }
+
+        @Override
+        public void glVertexAttrib4f(int indx, float x, float y, float z, float w){
+            constantAttributes++;
+        }
+
+        @Override
+        public int glGenBuffer(){
+            return ++handles;
+        }
+
+        @Override
+        public int glCreateShader(int type){
+            return ++handles;
+        }
+
+        @Override
+        public int glCreateProgram(){
+            return ++handles;
+        }
+
+        @Override
+        public void glShaderSource(int shader, String string){
+            if(!string.contains("gl_Position")) return;
+            Seq<String> names = new Seq<>();
+            for(String line : string.split("\n")){
+                if(line.startsWith("in ") || line.startsWith("attribute ")){
+                    names.add(line.substring(line.lastIndexOf(' ') + 1, line.length() - 1));
+                }
+            }
+            attributes = names.toArray(String.class);
+        }
+
+        @Override
+        public void glGetShaderiv(int shader, int pname, IntBuffer params){
+            params.put(0, 1);
+        }
+
+        @Override
+        public void glGetProgramiv(int program, int pname, IntBuffer params){
+            params.put(0, pname == GL_ACTIVE_ATTRIBUTES ? attributes.length : pname == GL_ACTIVE_UNIFORMS ? 0 : 1);
+        }
+
+        @Override
+        public String glGetActiveAttrib(int program, int index, IntBuffer size, IntBuffer type){
+            return attributes[index];
+        }
+
+        @Override
+        public int glGetAttribLocation(int program, String name){
+            for(int i = 0; i < attributes.length; i++){
+                if(attributes[i].equals(name)) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public String glGetShaderInfoLog(int shader){
+            return "";
+        }
+
+        @Override
+        public String glGetProgramInfoLog(int program){
+            return "";
+        }
+    }
+}
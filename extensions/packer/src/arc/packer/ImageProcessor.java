@@ -8,6 +8,7 @@ import arc.util.*;
 
 import java.io.*;
 import java.math.*;
+import java.nio.*;
 import java.security.*;
 import java.util.*;
 
@@ -28,21 +29,7 @@ public class ImageProcessor{
      * @param rootPath Used to strip the root directory prefix from image file names, can be null.
      */
     public void addImage(File file, String rootPath){
-        Pixmap image = new Pixmap(new Fi(file));
-
-        String name = file.getAbsolutePath().replace('\\', '/');
-
-        // Strip root dir off front of image path.
-        if(rootPath != null){
-            if(!name.startsWith(rootPath)) throw new RuntimeException("Path '" + name + "' does not start with root: " + rootPath);
-            name = name.substring(rootPath.length());
-        }
-
-        // Strip extension.
-        int dotIndex = name.lastIndexOf('.');
-        if(dotIndex != -1) name = name.substring(0, dotIndex);
-
-        addImage(image, name);
+        addImage(new Pixmap(new Fi(file)), imageName(file, rootPath));
     }
 
     /**
@@ -50,16 +37,31 @@ public class ImageProcessor{
      * @see #addImage(File, String)
      */
     public Rect addImage(Pixmap image, String name){
+        return addRect(prepareImage(image, name), name);
+    }
+
+    /**
+     * Processes and hashes an image without adding it. Only reads the settings of this processor, so images may be prepared
+     * on several threads at once; the results must then be passed to {@link #addRect(Rect, String)} in input order.
+     * @return the rect to pack, or null if the image should not be packed.
+     */
+    Rect prepareImage(Pixmap image, String name){
         Rect rect = processImage(image, name);
+        if(rect != null && (settings.alias || settings.incremental)){
+            rect.hash = hash(rect.getImage(this));
+        }
+        return rect;
+    }
 
+    /** Adds a rect returned by {@link #prepareImage(Pixmap, String)}, unless it is blank or an alias of an existing one. */
+    Rect addRect(Rect rect, String name){
         if(rect == null){
             if(!settings.silent) System.out.println("Ignoring blank input image: " + name);
             return null;
         }
 
         if(settings.alias){
-            String crc = hash(rect.getImage(this));
-            Rect existing = crcs.get(crc);
+            Rect existing = crcs.get(rect.hash);
             if(existing != null){
                 if(!settings.silent && settings.printAliases){
                     System.out.println(rect.name + " (alias of " + existing.name + ")");
@@ -67,13 +69,29 @@ public class ImageProcessor{
                 existing.aliases.add(new Alias(rect));
                 return null;
             }
-            crcs.put(crc, rect);
+            crcs.put(rect.hash, rect);
         }
 
         rects.add(rect);
         return rect;
     }
 
+    /** @return the name of an image file: its path relative to the root, without the extension. */
+    static String imageName(File file, String rootPath){
+        String name = file.getAbsolutePath().replace('\\', '/');
+
+        // Strip root dir off front of image path.
+        if(rootPath != null){
+            if(!name.startsWith(rootPath)) throw new RuntimeException("Path '" + name + "' does not start with root: " + rootPath);
+            name = name.substring(rootPath.length());
+        }
+
+        // Strip extension.
+        int dotIndex = name.lastIndexOf('.');
+        if(dotIndex != -1) name = name.substring(0, dotIndex);
+        return name;
+    }
+
     public void setScale(float scale){
         this.scale = scale;
     }
@@ -386,29 +404,35 @@ public class ImageProcessor{
         return 0;
     }
 
-    private static String hash(Pixmap image){
-        try{
-            MessageDigest digest = MessageDigest.getInstance("SHA1");
+    static String hash(Pixmap image){
+        MessageDigest digest = digest();
 
-            int width = image.width;
-            int height = image.height;
+        //the buffer may be shared between threads (e.g. blank images), so its position is left alone
+        ByteBuffer pixels = image.pixels.duplicate();
+        pixels.clear();
+        byte[] bytes = new byte[pixels.capacity()];
+        pixels.get(bytes);
+        digest.update(bytes);
 
-            byte[] bytes = new byte[image.pixels.capacity()];
-            image.pixels.position(0);
-            image.pixels.get(bytes);
-            digest.update(bytes);
-            image.pixels.position(0);
+        hash(digest, image.width);
+        hash(digest, image.height);
 
-            hash(digest, width);
-            hash(digest, height);
+        return hex(digest);
+    }
 
-            return new BigInteger(1, digest.digest()).toString(16);
+    static MessageDigest digest(){
+        try{
+            return MessageDigest.getInstance("SHA1");
         }catch(NoSuchAlgorithmException ex){
             throw new RuntimeException(ex);
         }
     }
 
-    private static void hash(MessageDigest digest, int value){
+    static String hex(MessageDigest digest){
+        return new BigInteger(1, digest.digest()).toString(16);
+    }
+
+    static void hash(MessageDigest digest, int value){
         digest.update((byte)(value >> 24));
         digest.update((byte)(value >> 16));
         digest.update((byte)(value >> 8));
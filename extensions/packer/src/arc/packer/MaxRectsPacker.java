@@ -1,10 +1,14 @@
 package arc.packer;
 
+import arc.func.*;
 import arc.math.*;
 import arc.packer.TexturePacker.*;
 import arc.struct.*;
+import arc.util.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * Packs pages of images using the maximal rectangles bin packing algorithm by Jukka Jylänki. A brute force binary search is
@@ -14,7 +18,8 @@ import java.util.*;
 public class MaxRectsPacker implements Packer{
     final Settings settings;
     private final FreeRectChoiceHeuristic[] methods = FreeRectChoiceHeuristic.values();
-    private final MaxRects maxRects = new MaxRects();
+    /** One per heuristic, so that they can be tried in parallel. */
+    private final MaxRects[] maxRects = new MaxRects[methods.length];
     private final Sort sort = new Sort();
 
     private final Comparator<Rect> rectComparator = new Comparator<Rect>(){
@@ -26,6 +31,9 @@ public class MaxRectsPacker implements Packer{
 
     public MaxRectsPacker(Settings settings){
         this.settings = settings;
+        for(int i = 0; i < maxRects.length; i++){
+            maxRects[i] = new MaxRects();
+        }
         if(settings.minWidth > settings.maxWidth) throw new RuntimeException("Page min width cannot be higher than max width.");
         if(settings.minHeight > settings.maxHeight)
             throw new RuntimeException("Page min height cannot be higher than max height.");
@@ -191,29 +199,69 @@ public class MaxRectsPacker implements Packer{
      * all rects may be packed.
      */
     private Page packAtSize(boolean fully, int width, int height, Seq<Rect> inputRects){
+        int n = methods.length;
+        Page[] results = new Page[n];
+
+        if(settings.threads > 1){
+            //pages that fit all rects into the same size have the same occupancy, unless rotation changes the padded area.
+            //getBest() picks the later heuristic on ties, so earlier ones are cancelled as soon as a later one succeeds
+            boolean cancel = fully && (!settings.rotation || settings.paddingX == settings.paddingY);
+            AtomicInteger succeeded = new AtomicInteger(-1);
+            Seq<Future<?>> futures = new Seq<>(n - 1);
+            for(int i = 0; i < n - 1; i++){
+                int index = i;
+                futures.add(Threads.parallelExecutor().submit(() -> {
+                    results[index] = packMethod(index, fully, width, height, inputRects, cancel ? () -> succeeded.get() > index : null, succeeded);
+                }));
+            }
+            results[n - 1] = packMethod(n - 1, fully, width, height, inputRects, null, succeeded);
+            Threads.awaitAll(futures);
+        }else{
+            for(int i = 0; i < n; i++){
+                results[i] = packMethod(i, fully, width, height, inputRects, null, null);
+            }
+        }
+
         Page bestResult = null;
-        for(int i = 0, n = methods.length; i < n; i++){
-            maxRects.init(width, height);
-            Page result;
-            if(!settings.fast){
-                result = maxRects.pack(inputRects, methods[i]);
-            }else{
-                Seq<Rect> remaining = new Seq();
-                for(int ii = 0, nn = inputRects.size; ii < nn; ii++){
-                    Rect rect = inputRects.get(ii);
-                    if(maxRects.insert(rect, methods[i]) == null){
-                        while(ii < nn)
-                            remaining.add(inputRects.get(ii++));
-                    }
+        for(int i = 0; i < n; i++){
+            bestResult = getBest(bestResult, results[i]);
+        }
+        return bestResult;
+    }
+
+    /**
+     * Packs the rects with a single heuristic.
+     * @param cancelled checked while packing; the heuristic gives up if it returns true.
+     * @param succeeded receives the index of the heuristic if it packed all rects.
+     * @return the page, or null if it is not a candidate.
+     */
+    private @Nullable Page packMethod(int index, boolean fully, int width, int height, Seq<Rect> inputRects,
+                                      @Nullable Boolp cancelled, @Nullable AtomicInteger succeeded){
+        MaxRects maxRects = this.maxRects[index];
+        maxRects.init(width, height);
+        Page result;
+        if(!settings.fast){
+            result = maxRects.pack(inputRects, methods[index], fully, cancelled);
+            if(result == null) return null;
+        }else{
+            Seq<Rect> remaining = new Seq();
+            for(int ii = 0, nn = inputRects.size; ii < nn; ii++){
+                if(cancelled != null && cancelled.get()) return null;
+                Rect rect = inputRects.get(ii);
+                if(maxRects.insert(rect, methods[index]) == null){
+                    //free space only shrinks, so this page can never fit everything
+                    if(fully) return null;
+                    while(ii < nn)
+                        remaining.add(inputRects.get(ii++));
                 }
-                result = maxRects.getResult();
-                result.remainingRects = remaining;
             }
-            if(fully && result.remainingRects.size > 0) continue;
-            if(result.outputRects.size == 0) continue;
-            bestResult = getBest(bestResult, result);
+            result = maxRects.getResult();
+            result.remainingRects = remaining;
         }
-        return bestResult;
+        if(fully && result.remainingRects.size > 0) return null;
+        if(result.outputRects.size == 0) return null;
+        if(succeeded != null && result.remainingRects.size == 0) succeeded.accumulateAndGet(index, Math::max);
+        return result;
     }
 
     private Page getBest(Page result1, Page result2){
@@ -305,7 +353,7 @@ public class MaxRectsPacker implements Packer{
                 }
             }
 
-            pruneFreeList();
+            pruneFreeList(numRectanglesToProcess);
 
             Rect bestNode = new Rect();
             bestNode.set(rect);
@@ -323,8 +371,17 @@ public class MaxRectsPacker implements Packer{
 
         /** For each rectangle, packs each one then chooses the best and packs that. Slow! */
         public Page pack(Seq<Rect> rects, FreeRectChoiceHeuristic method){
+            return pack(rects, method, false, null);
+        }
+
+        /**
+         * @param fully if true, gives up and returns null as soon as a rect no longer fits.
+         * @param cancelled checked before each rect is placed; returns null if it returns true.
+         */
+        @Nullable Page pack(Seq<Rect> rects, FreeRectChoiceHeuristic method, boolean fully, @Nullable Boolp cancelled){
             rects = new Seq<>(rects);
             while(rects.size > 0){
+                if(cancelled != null && cancelled.get()) return null;
                 int bestRectIndex = -1;
                 Rect bestNode = new Rect();
                 bestNode.score1 = Integer.MAX_VALUE;
@@ -333,6 +390,8 @@ public class MaxRectsPacker implements Packer{
                 // Find the next rectangle that packs best.
                 for(int i = 0; i < rects.size; i++){
                     Rect newNode = scoreRect(rects.get(i), method);
+                    //free space only shrinks, so a rect that does not fit now never will
+                    if(fully && newNode.height == 0) return null;
                     if(newNode.score1 < bestNode.score1 || (newNode.score1 == bestNode.score1 && newNode.score2 < bestNode.score2)){
                         bestNode.set(rects.get(i));
                         bestNode.score1 = newNode.score1;
@@ -382,7 +441,7 @@ public class MaxRectsPacker implements Packer{
                 }
             }
 
-            pruneFreeList();
+            pruneFreeList(numRectanglesToProcess);
 
             usedRectangles.add(node);
         }
@@ -703,25 +762,27 @@ public class MaxRectsPacker implements Packer{
             return true;
         }
 
-        private void pruneFreeList(){
-            // Go through each pair and remove any rectangle that is redundant.
+        /**
+         * Removes free rects that are contained in another one. The rects before {@code first} were already pruned against each
+         * other and were not split, so none of them can lie inside a rect created by the split, which is part of a rect they were
+         * not contained in. Only the new rects need to be checked, which makes this linear in the number of free rects instead of
+         * quadratic, while removing exactly the same rects as comparing every pair.
+         */
+        private void pruneFreeList(int first){
             Seq<Rect> freeRectangles = this.freeRectangles;
-            for(int i = 0, n = freeRectangles.size; i < n; i++)
-                for(int j = i + 1; j < n; ++j){
-                    Rect rect1 = freeRectangles.get(i);
-                    Rect rect2 = freeRectangles.get(j);
-                    if(isContainedIn(rect1, rect2)){
+            outer:
+            for(int i = first, n = freeRectangles.size; i < n; i++){
+                Rect rect = freeRectangles.get(i);
+                //earlier duplicates of this rect were already removed, so that the last one is kept like before
+                for(int j = 0; j < n; j++){
+                    if(j != i && isContainedIn(rect, freeRectangles.get(j))){
                         freeRectangles.remove(i);
                         --i;
                         --n;
-                        break;
-                    }
-                    if(isContainedIn(rect2, rect1)){
-                        freeRectangles.remove(j);
-                        --j;
-                        --n;
+                        continue outer;
                     }
                 }
+            }
         }
 
         private boolean isContainedIn(Rect a, Rect b){
@@ -0,0 +1,80 @@
+package arc.packer;
+
+import arc.files.*;
+import arc.packer.TexturePacker.*;
+import arc.struct.*;
+
+import java.io.*;
+
+/**
+ * Content hashes of the page images written by a previous run, used by {@link Settings#incremental} packing to skip encoding
+ * pages whose inputs did not change. Stored as one "hash path" line per page, with paths relative to the output directory.
+ * <br>
+ * Page names are claimed through {@link #claim(File)} instead of checking whether the file exists, since the images of the
+ * previous run are kept on disk. Images that were not claimed again are deleted by {@link #deleteStale()}.
+ */
+public class PackManifest{
+    private final Fi file;
+    private final String root;
+    private final ObjectMap<String, String> previous = new ObjectMap<>(), current = new ObjectMap<>();
+    private final ObjectSet<String> claimed = new ObjectSet<>();
+
+    /**
+     * @param file the manifest file, which does not need to exist.
+     * @param outputRoot the directory that page paths are relative to.
+     */
+    public PackManifest(Fi file, File outputRoot){
+        this.file = file;
+        String root = outputRoot.getAbsolutePath().replace('\\', '/');
+        this.root = root.endsWith("/") ? root : root + "/";
+
+        if(file.exists()){
+            for(String line : file.readString().split("\n")){
+                int space = line.indexOf(' ');
+                if(space > 0) previous.put(line.substring(space + 1).trim(), line.substring(0, space));
+            }
+        }
+    }
+
+    /** @return whether a previous manifest was loaded, i.e. whether the existing page images can be kept. */
+    public boolean exists(){
+        return previous.size > 0;
+    }
+
+    /** @return false if the page name was already taken in this run. */
+    public synchronized boolean claim(File page){
+        return claimed.add(path(page));
+    }
+
+    /**
+     * Records the hash of a page written in this run.
+     * @return true if the page exists and was written with the same hash by the previous run, so it does not need to be written again.
+     */
+    public synchronized boolean update(File page, String hash){
+        String path = path(page);
+        current.put(path, hash);
+        return hash.equals(previous.get(path)) && page.exists();
+    }
+
+    /** Deletes the page images of the previous run that were not written again. */
+    public void deleteStale(){
+        for(String path : previous.keys()){
+            if(!claimed.contains(path)) new Fi(new File(path).isAbsolute() ? path : root + path).delete();
+        }
+    }
+
+    /** Writes the hashes of this run, sorted by path so that the file stays diffable. */
+    public void save(){
+        Seq<String> paths = current.keys().toSeq().sort();
+        StringBuilder out = new StringBuilder();
+        for(String path : paths){
+            out.append(current.get(path)).append(' ').append(path).append('\n');
+        }
+        file.writeString(out.toString());
+    }
+
+    private String path(File page){
+        String path = page.getAbsolutePath().replace('\\', '/');
+        return path.startsWith(root) ? path.substring(root.length()) : path;
+    }
+}
@@ -11,15 +11,16 @@ import arc.util.io.*;
 import arc.util.serialization.*;
 
 import java.io.*;
+import java.security.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /** @author Nathan Sweet */
 public class TexturePacker{
     String rootPath;
     private final Settings settings;
-    private final Packer packer;
-    private final ImageProcessor imageProcessor;
     private final Seq<InputImage> inputImages = new Seq<>();
+    private @Nullable PackManifest manifest;
     public byte pageTypeID;
 
     /** @param rootDir See {@link #setRootDir(File)}. */
@@ -40,15 +41,7 @@ public class TexturePacker{
                 throw new RuntimeException("If mod4 is true, maxHeight must be evenly divisible by 4: " + settings.maxHeight);
         }
 
-        if(settings.grid){
-            System.out.println("Using GridPacker");
-            packer = new GridPacker(settings);
-        }else{
-            System.out.println("Using MaxRectsPacker");
-            packer = new MaxRectsPacker(settings);
-        }
-
-        imageProcessor = new ImageProcessor(settings);
+        System.out.println(settings.grid ? "Using GridPacker" : "Using MaxRectsPacker");
         setRootDir(rootDir);
     }
 
@@ -66,6 +59,14 @@ public class TexturePacker{
         if(!rootPath.endsWith("/")) rootPath += "/";
     }
 
+    /**
+     * Sets the manifest used to skip writing pages whose content did not change since the previous run.
+     * @see Settings#incremental
+     */
+    public void setManifest(@Nullable PackManifest manifest){
+        this.manifest = manifest;
+    }
+
     public void addImage(File file){
         InputImage inputImage = new InputImage();
         inputImage.file = file;
@@ -85,38 +86,74 @@ public class TexturePacker{
             packFileName = packFileName.substring(0, packFileName.length() - settings.atlasExtension.length());
         outputDir.mkdirs();
 
-        int n = settings.scale.length;
-        for(int i = 0; i < n; i++){
+        int n = settings.scale.length, images = inputImages.size;
+        ImageProcessor processor = new ImageProcessor(settings);
+        processor.setResampling(settings.scaleResampling);
 
-            imageProcessor.setScale(settings.scale[i]);
-            imageProcessor.setResampling(settings.scaleResampling);
+        ExecutorService exec = Threads.executor("Texture Packer", Math.max(settings.threads, 1));
+        try{
+            //scales are packed in turn, so only the images of one scale are held at a time
+            for(int i = 0; i < n; i++){
+                processor.setScale(settings.scale[i]);
+
+                //decode, process and hash the images in parallel; aliases are resolved afterwards, in input order
+                Rect[] rects = new Rect[images];
+                String[] names = new String[images];
+                Seq<Future<?>> tasks = new Seq<>();
+                for(int ii = 0; ii < images; ii++){
+                    int index = ii;
+                    tasks.add(exec.submit(() -> {
+                        InputImage input = inputImages.get(index);
+                        Pixmap image = input.file != null ? new Pixmap(new Fi(input.file)) : input.image;
+                        names[index] = input.file != null ? ImageProcessor.imageName(input.file, input.rootPath) : input.name;
+                        Rect rect = rects[index] = processor.prepareImage(image, names[index]);
+                        if(input.file != null && (rect == null || rect.pixmap != image)) image.dispose();
+                    }));
+                }
+                Threads.awaitAll(tasks);
 
-            for(int ii = 0, nn = inputImages.size; ii < nn; ii++){
-                InputImage inputImage = inputImages.get(ii);
-                if(inputImage.file != null){
-                    imageProcessor.addImage(inputImage.file, inputImage.rootPath);
-                }else{
-                    imageProcessor.addImage(inputImage.image, inputImage.name);
+                for(int ii = 0; ii < images; ii++){
+                    processor.addRect(rects[ii], names[ii]);
                 }
-            }
-            Seq<Page> pages = packer.pack(imageProcessor.getImages());
+                Seq<Page> pages = newPacker().pack(processor.getImages());
+
+                //page names depend on the order of previous pages, so they are assigned first; the pages are then drawn and encoded in parallel
+                String scaledPackFileName = settings.getScaledPackFileName(packFileName, i);
+                File[] files = layoutPages(outputDir, scaledPackFileName, pages);
+                tasks.clear();
+                for(int p = 0; p < files.length; p++){
+                    Page page = pages.get(p);
+                    File file = files[p];
+                    tasks.add(exec.submit(() -> writeImage(file, page, processor)));
+                }
+                Threads.awaitAll(tasks);
 
-            String scaledPackFileName = settings.getScaledPackFileName(packFileName, i);
-            writeImages(outputDir, scaledPackFileName, pages);
-            try{
-                writePackFile(outputDir, scaledPackFileName, pages);
-            }catch(IOException ex){
-                throw new RuntimeException("Error writing pack file.", ex);
+                try{
+                    writePackFile(outputDir, scaledPackFileName, pages);
+                }catch(IOException ex){
+                    throw new RuntimeException("Error writing pack file.", ex);
+                }
+                processor.clear();
             }
-            imageProcessor.clear();
+        }finally{
+            exec.shutdown();
+            processor.clear();
         }
     }
 
-    private void writeImages(File outputDir, String scaledPackFileName, Seq<Page> pages){
+    private Packer newPacker(){
+        return settings.grid ? new GridPacker(settings) : new MaxRectsPacker(settings);
+    }
+
+    /** Sets the size of each page and picks its file name. */
+    private File[] layoutPages(File outputDir, String scaledPackFileName, Seq<Page> pages){
         File packFileNoExt = new File(outputDir, scaledPackFileName);
         File packDir = packFileNoExt.getParentFile();
         String imageName = packFileNoExt.getName();
+        File[] files = new File[pages.size];
 
+        //with a manifest, the images of the previous run still exist, so names are claimed instead of checking for existing files
+        boolean claim = manifest != null;
         int fileIndex = 0;
         for(int p = 0, pn = pages.size; p < pn; p++){
             Page page = pages.get(p);
@@ -152,84 +189,116 @@ public class TexturePacker{
             File outputFile;
             do {
                 outputFile = new File(packDir, imageName + (fileIndex++ == 0 ? "" : fileIndex) + "." + settings.outputFormat);
-            } while (outputFile.exists());
+            } while (claim ? !manifest.claim(outputFile) : outputFile.exists());
             new Fi(outputFile).parent().mkdirs();
             page.imageName = outputFile.getName();
+            files[p] = outputFile;
+        }
+        return files;
+    }
 
-            Pixmap canvas = new Pixmap(width, height);
-
-            if(!settings.silent) System.out.println("| Writing " + canvas.width + "x" + canvas.height + ": " + outputFile);
+    private void writeImage(File outputFile, Page page, ImageProcessor imageProcessor){
+        if(manifest != null && manifest.update(outputFile, pageHash(page))){
+            if(!settings.silent) System.out.println("| Unchanged " + page.imageWidth + "x" + page.imageHeight + ": " + outputFile);
+            return;
+        }
 
-            for(int r = 0, rn = page.outputRects.size; r < rn; r++){
-                Rect rect = page.outputRects.get(r);
-                Pixmap image = rect.getImage(imageProcessor);
-                int iw = image.width;
-                int ih = image.height;
-                int rectX = page.x + rect.x, rectY = page.y + page.height - rect.y - (rect.height - settings.paddingY);
-                if(settings.duplicatePadding){
-                    int amountX = settings.paddingX / 2;
-                    int amountY = settings.paddingY / 2;
-                    if(rect.rotated){
-                        // Copy corner pixels to fill corners of the padding.
-                        for(int i = 1; i <= amountX; i++){
-                            for(int j = 1; j <= amountY; j++){
-                                canvas.set(rectX - j, rectY + iw - 1 + i, image.getRaw(0, 0));
-                                canvas.set(rectX + ih - 1 + j, rectY + iw - 1 + i, image.getRaw(0, ih - 1));
-                                canvas.set(rectX - j, rectY - i, image.getRaw(iw - 1, 0));
-                                canvas.set(rectX + ih - 1 + j, rectY - i, image.getRaw(iw - 1, ih - 1));
-                            }
-                        }
-                        // Copy edge pixels into padding.
-                        for(int i = 1; i <= amountY; i++){
-                            for(int j = 0; j < iw; j++){
-                                canvas.set(rectX - i, rectY + iw - 1 - j, image.getRaw(j, 0));
-                                canvas.set(rectX + ih - 1 + i, rectY + iw - 1 - j, image.getRaw(j, ih - 1));
-                            }
-                        }
-                        for(int i = 1; i <= amountX; i++){
-                            for(int j = 0; j < ih; j++){
-                                canvas.set(rectX + j, rectY - i, image.getRaw(iw - 1, j));
-                                canvas.set(rectX + j, rectY + iw - 1 + i, image.getRaw(0, j));
-                            }
+        int width = page.imageWidth, height = page.imageHeight;
+        Pixmap canvas = new Pixmap(width, height);
+
+        if(!settings.silent) System.out.println("| Writing " + canvas.width + "x" + canvas.height + ": " + outputFile);
+
+        for(int r = 0, rn = page.outputRects.size; r < rn; r++){
+            Rect rect = page.outputRects.get(r);
+            Pixmap image = rect.getImage(imageProcessor);
+            int iw = image.width;
+            int ih = image.height;
+            int rectX = page.x + rect.x, rectY = page.y + page.height - rect.y - (rect.height - settings.paddingY);
+            if(settings.duplicatePadding){
+                int amountX = settings.paddingX / 2;
+                int amountY = settings.paddingY / 2;
+                if(rect.rotated){
+                    // Copy corner pixels to fill corners of the padding.
+                    for(int i = 1; i <= amountX; i++){
+                        for(int j = 1; j <= amountY; j++){
+                            canvas.set(rectX - j, rectY + iw - 1 + i, image.getRaw(0, 0));
+                            canvas.set(rectX + ih - 1 + j, rectY + iw - 1 + i, image.getRaw(0, ih - 1));
+                            canvas.set(rectX - j, rectY - i, image.getRaw(iw - 1, 0));
+                            canvas.set(rectX + ih - 1 + j, rectY - i, image.getRaw(iw - 1, ih - 1));
                         }
-                    }else{
-                        // Copy corner pixels to fill corners of the padding.
-                        for(int i = 1; i <= amountX; i++){
-                            for(int j = 1; j <= amountY; j++){
-                                canvas.set(rectX - i, rectY - j, image.getRaw(0, 0));
-                                canvas.set(rectX - i, rectY + ih - 1 + j, image.getRaw(0, ih - 1));
-                                canvas.set(rectX + iw - 1 + i, rectY - j, image.getRaw(iw - 1, 0));
-                                canvas.set(rectX + iw - 1 + i, rectY + ih - 1 + j, image.getRaw(iw - 1, ih - 1));
-                            }
+                    }
+                    // Copy edge pixels into padding.
+                    for(int i = 1; i <= amountY; i++){
+                        for(int j = 0; j < iw; j++){
+                            canvas.set(rectX - i, rectY + iw - 1 - j, image.getRaw(j, 0));
+                            canvas.set(rectX + ih - 1 + i, rectY + iw - 1 - j, image.getRaw(j, ih - 1));
                         }
-                        // Copy edge pixels into padding.
-                        for(int i = 1; i <= amountY; i++){
-                            copy(image, 0, 0, iw, 1, canvas, rectX, rectY - i, rect.rotated);
-                            copy(image, 0, ih - 1, iw, 1, canvas, rectX, rectY + ih - 1 + i, rect.rotated);
+                    }
+                    for(int i = 1; i <= amountX; i++){
+                        for(int j = 0; j < ih; j++){
+                            canvas.set(rectX + j, rectY - i, image.getRaw(iw - 1, j));
+                            canvas.set(rectX + j, rectY + iw - 1 + i, image.getRaw(0, j));
                         }
-                        for(int i = 1; i <= amountX; i++){
-                            copy(image, 0, 0, 1, ih, canvas, rectX - i, rectY, rect.rotated);
-                            copy(image, iw - 1, 0, 1, ih, canvas, rectX + iw - 1 + i, rectY, rect.rotated);
+                    }
+                }else{
+                    // Copy corner pixels to fill corners of the padding.
+                    for(int i = 1; i <= amountX; i++){
+                        for(int j = 1; j <= amountY; j++){
+                            canvas.set(rectX - i, rectY - j, image.getRaw(0, 0));
+                            canvas.set(rectX - i, rectY + ih - 1 + j, image.getRaw(0, ih - 1));
+                            canvas.set(rectX + iw - 1 + i, rectY - j, image.getRaw(iw - 1, 0));
+                            canvas.set(rectX + iw - 1 + i, rectY + ih - 1 + j, image.getRaw(iw - 1, ih - 1));
                         }
                     }
+                    // Copy edge pixels into padding.
+                    for(int i = 1; i <= amountY; i++){
+                        copy(image, 0, 0, iw, 1, canvas, rectX, rectY - i, rect.rotated);
+                        copy(image, 0, ih - 1, iw, 1, canvas, rectX, rectY + ih - 1 + i, rect.rotated);
+                    }
+                    for(int i = 1; i <= amountX; i++){
+                        copy(image, 0, 0, 1, ih, canvas, rectX - i, rectY, rect.rotated);
+                        copy(image, iw - 1, 0, 1, ih, canvas, rectX + iw - 1 + i, rectY, rect.rotated);
+                    }
                 }
-                copy(image, 0, 0, iw, ih, canvas, rectX, rectY, rect.rotated);
-                image.dispose();
             }
+            copy(image, 0, 0, iw, ih, canvas, rectX, rectY, rect.rotated);
+            //the images are disposed by ImageProcessor#clear() once every page of this scale is written
+        }
 
-            if(settings.bleed){
-                Pixmaps.bleed(canvas, settings.bleedIterations);
-            }
+        if(settings.bleed){
+            Pixmaps.bleed(canvas, settings.bleedIterations);
+        }
 
-            if(settings.outputFormat.equalsIgnoreCase("apix")){
-                PixmapIO.writeApix(new Fi(outputFile), canvas);
-            }else if(settings.outputFormat.equalsIgnoreCase("png")){
-                PixmapIO.writePng(new Fi(outputFile), canvas);
-            }else{
-                throw new ArcRuntimeException("Unsupported image format: '" + settings.outputFormat + "'. Must be one of: apix, png");
-            }
-            canvas.dispose();
+        if(settings.outputFormat.equalsIgnoreCase("apix")){
+            PixmapIO.writeApix(new Fi(outputFile), canvas);
+        }else if(settings.outputFormat.equalsIgnoreCase("png")){
+            PixmapIO.writePng(new Fi(outputFile), canvas);
+        }else{
+            throw new ArcRuntimeException("Unsupported image format: '" + settings.outputFormat + "'. Must be one of: apix, png");
         }
+        canvas.dispose();
+    }
+
+    /** @return a hash of everything that affects the pixels of a page image. */
+    private String pageHash(Page page){
+        MessageDigest digest = ImageProcessor.digest();
+        digest.update(settings.outputFormat.toLowerCase().getBytes(Strings.utf8));
+        int[] values = {
+        page.x, page.y, page.width, page.height, page.imageWidth, page.imageHeight, settings.paddingX, settings.paddingY,
+        settings.duplicatePadding ? 1 : 0, settings.bleed ? settings.bleedIterations : -1
+        };
+        for(int value : values){
+            ImageProcessor.hash(digest, value);
+        }
+
+        for(Rect rect : page.outputRects){
+            digest.update((rect.hash != null ? rect.hash : ImageProcessor.hash(rect.pixmap)).getBytes(Strings.utf8));
+            ImageProcessor.hash(digest, rect.x);
+            ImageProcessor.hash(digest, rect.y);
+            ImageProcessor.hash(digest, rect.height);
+            ImageProcessor.hash(digest, rect.rotated ? 1 : 0);
+        }
+        return ImageProcessor.hex(digest);
     }
 
     private static void copy(Pixmap src, int x, int y, int w, int h, Pixmap dst, int dx, int dy, boolean rotated){
@@ -393,6 +462,8 @@ public class TexturePacker{
         public boolean canRotate = true;
 
         boolean isPatch;
+        /** Hash of the image content, set if aliases or incremental packing are enabled. */
+        String hash;
         Pixmap pixmap;
         Fi file;
         int score1, score2;
@@ -455,6 +526,7 @@ public class TexturePacker{
             score2 = rect.score2;
             file = rect.file;
             isPatch = rect.isPatch;
+            hash = rect.hash;
         }
 
         @Override
@@ -607,6 +679,13 @@ public class TexturePacker{
         public float[] scale = {1};
         public String[] scaleSuffix = {""};
         public boolean scaleResampling = true;
+        /** Number of threads used to load images and to draw and encode pages. */
+        public int threads = OS.cores;
+        /**
+         * Keeps the page images of the previous run and only writes pages whose content changed, based on a manifest of content
+         * hashes stored next to the pack file. Only used by {@link TexturePackerFileProcessor}.
+         */
+        public boolean incremental;
         public String atlasExtension = ".aatls";
 
         public Settings copy(){
@@ -1,5 +1,6 @@
 package arc.packer;
 
+import arc.files.*;
 import arc.packer.TexturePacker.*;
 import arc.struct.*;
 import arc.util.*;
@@ -19,6 +20,7 @@ public class TexturePackerFileProcessor extends FileProcessor{
     boolean countOnly;
     int packCount;
     private byte nextPageID;
+    private @Nullable PackManifest manifest;
 
     public TexturePackerFileProcessor(){
         this(new Settings(), "pack.aatls");
@@ -73,13 +75,24 @@ public class TexturePackerFileProcessor extends FileProcessor{
             dirToSettings.put(settingsFile.getParentFile(), settings);
         }
 
+        if(defaultSettings.incremental){
+            manifest = new PackManifest(new Fi(outputRoot).child(packFileName + ".manifest"), outputRoot);
+        }
+
         // Count the number of texture packer invocations.
         countOnly = true;
         super.process(inputFile, outputRoot);
         countOnly = false;
 
         // Do actual processing.
-        return super.process(inputFile, outputRoot);
+        Seq<Entry> result = super.process(inputFile, outputRoot);
+
+        if(manifest != null){
+            manifest.deleteStale();
+            manifest.save();
+            manifest = null;
+        }
+        return result;
     }
 
     void merge(Settings settings, File settingsFile){
@@ -123,7 +136,8 @@ public class TexturePackerFileProcessor extends FileProcessor{
             String prefix = packFile.getName();
             int dotIndex = prefix.lastIndexOf('.');
             if(dotIndex != -1) prefix = prefix.substring(0, dotIndex);
-            deleteProcessor.addInputRegex("(?i)" + prefix + "\\d*\\.(png|jpg|jpeg)");
+            //page images are kept for incremental packing; the ones that are not written again are deleted afterwards
+            if(manifest == null || !manifest.exists()) deleteProcessor.addInputRegex("(?i)" + prefix + "\\d*\\.(png|jpg|jpeg)");
             deleteProcessor.addInputRegex("(?i)" + prefix + atlasExtension);
 
             String dir = packFile.getParent();
@@ -228,6 +242,7 @@ public class TexturePackerFileProcessor extends FileProcessor{
             packer.addImage(file.inputFile);
         }
 
+        packer.setManifest(manifest);
         packer.pageTypeID = nextPageID++;
         //this part can be multithreaded
         packer.pack(inputDir.outputDir, packFileName);
@@ -0,0 +1,142 @@
+import arc.files.*;
+import arc.graphics.*;
+import arc.graphics.g2d.TextureAtlas.TextureAtlasData.*;
+import arc.graphics.g2d.TextureAtlas.*;
+import arc.packer.*;
+import arc.packer.TexturePacker.*;
+import arc.struct.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class TexturePackerTest{
+    Fi input, output;
+
+    @Before
+    public void createDirectories(){
+        input = Fi.tempDirectory("packer-input");
+        output = Fi.tempDirectory("packer-output");
+    }
+
+    @After
+    public void deleteDirectories(){
+        input.deleteDirectory();
+        output.deleteDirectory();
+    }
+
+    @Test
+    public void incremental(){
+        Settings settings = settings();
+        //every image fills a page of its own
+        writeImage("a", Color.red);
+        writeImage("b", Color.green);
+        writeImage("c", Color.blue);
+
+        pack(settings);
+        ObjectMap<String, Fi> pages = pages("pack");
+        assertEquals(3, pageCount(pages));
+        assertTrue(output.child("pack.manifest").exists());
+        Seq<String> manifest = Seq.with(output.child("pack.manifest").readString().split("\n"));
+        assertEquals(3, manifest.size);
+
+        //a rerun over unchanged inputs keeps every page image
+        markOld(pages);
+        pack(settings);
+        assertEquals(pages, pages("pack"));
+        for(Fi page : pages.values()) assertEquals(page.name(), 0, page.lastModified());
+        assertEquals(manifest, Seq.with(output.child("pack.manifest").readString().split("\n")));
+
+        //changing an input only rewrites its page
+        writeImage("b", Color.yellow);
+        pack(settings);
+        assertEquals(pages, pages("pack"));
+        for(String region : Seq.with("a", "b", "c")){
+            Fi page = pages.get(region);
+            assertEquals(page.name(), region.equals("b"), page.lastModified() != 0);
+        }
+        Pixmap written = new Pixmap(pages.get("b"));
+        assertEquals(Color.yellow.rgba(), written.get(written.width / 2, written.height / 2));
+        written.dispose();
+
+        //a removed input drops its page, and the image of the page is deleted
+        markOld(pages);
+        input.child("c.png").delete();
+        pack(settings);
+        ObjectMap<String, Fi> remaining = pages("pack");
+        assertEquals(2, pageCount(remaining));
+        int deleted = 0;
+        for(Fi page : pages.values()){
+            if(!page.exists()) deleted++;
+        }
+        assertEquals(1, deleted);
+        assertEquals(2, output.child("pack.manifest").readString().split("\n").length);
+    }
+
+    @Test
+    public void scales(){
+        Settings settings = settings();
+        settings.scale = new float[]{1f, 0.5f};
+        settings.scaleSuffix = new String[]{"_full", "_half"};
+        writeImage("a", Color.red);
+        writeImage("b", Color.green);
+
+        pack(settings);
+        ObjectMap<String, Fi> full = pages("pack_full"), half = pages("pack_half");
+        assertEquals(2, pageCount(full));
+        //the half size images fit on one page
+        assertEquals(1, pageCount(half));
+
+        TextureAtlasData data = new TextureAtlasData(output.child("pack_half.aatls"), output, false);
+        for(Region region : data.getRegions()){
+            assertEquals(20, region.width);
+            assertEquals(20, region.height);
+        }
+
+        //an unchanged rerun keeps the pages of every scale
+        markOld(full);
+        markOld(half);
+        pack(settings);
+        for(Fi page : full.values()) assertEquals(0, page.lastModified());
+        for(Fi page : half.values()) assertEquals(0, page.lastModified());
+    }
+
+    Settings settings(){
+        Settings settings = new Settings();
+        settings.incremental = true;
+        settings.silent = true;
+        settings.maxWidth = settings.maxHeight = 64;
+        return settings;
+    }
+
+    void pack(Settings settings){
+        TexturePacker.process(settings, input.path(), output.path(), "pack");
+    }
+
+    void writeImage(String name, Color color){
+        Pixmap pixmap = new Pixmap(40, 40);
+        pixmap.fill(color);
+        PixmapIO.writePng(input.child(name + ".png"), pixmap);
+        pixmap.dispose();
+    }
+
+    /** @return the page image of every region in a pack file. */
+    ObjectMap<String, Fi> pages(String packFileName){
+        TextureAtlasData data = new TextureAtlasData(output.child(packFileName + ".aatls"), output, false);
+        ObjectMap<String, Fi> pages = new ObjectMap<>();
+        for(Region region : data.getRegions()){
+            assertTrue(region.page.textureFile.exists());
+            pages.put(region.name, region.page.textureFile);
+        }
+        return pages;
+    }
+
+    static int pageCount(ObjectMap<String, Fi> pages){
+        return ObjectSet.with(pages.values().toSeq()).size;
+    }
+
+    static void markOld(ObjectMap<String, Fi> pages){
+        for(Fi page : pages.values()){
+            assertTrue(page.file().setLastModified(0));
+        }
+    }
+}
@@ -1,13 +1,37 @@
 package arc.maps;
 
-/** Layer for a TiledMap */
+import arc.struct.*;
+
+/**
+ * Layer for a TiledMap.
+ * <p>
+ * Cells are stored as packed ints rather than objects: the low bits index into a palette of the tiles used by this layer, and the
+ * high bits hold the flip and rotation of the cell, see {@link #pack(MapTile, boolean, boolean, int)}. The ints are split into
+ * chunks of {@link #chunkSize} squared cells, which are only allocated once a cell in them is set, so sparse layers only pay for
+ * the areas that contain tiles. Infinite layers, created with {@link #TileLayer(int, int)}, have no bounds and keep their chunks
+ * in a map.
+ */
 public class TileLayer extends MapLayer{
-    public final int width;
-    public final int height;
+    /** Side length of a chunk, in cells. */
+    public static final int chunkSize = 32;
+    static final int chunkShift = 5, chunkMask = chunkSize - 1;
+
+    static final int flipHorizontallyBit = 1 << 31, flipVerticallyBit = 1 << 30;
+    static final int rotationShift = 28, rotationMask = 3 << rotationShift;
+    /** Mask of the palette index of a packed cell. 0 is an empty cell. */
+    public static final int indexMask = (1 << rotationShift) - 1;
+
+    /** Size of the layer in tiles, 0 for infinite layers. */
+    public final int width, height;
     public final float tileWidth;
     public final float tileHeight;
+    public final boolean infinite;
 
-    private Cell[][] cells;
+    private final int chunksX;
+    private final int[][] chunks;
+    private final LongMap<int[]> infiniteChunks;
+    private final Seq<MapTile> palette = new Seq<>();
+    private final ObjectIntMap<MapTile> paletteIndices = new ObjectIntMap<>();
 
     /**
      * Creates TiledMap layer
@@ -17,37 +41,225 @@ public class TileLayer extends MapLayer{
      * @param tileHeight tile height in pixels
      */
     public TileLayer(int width, int height, int tileWidth, int tileHeight){
-        super();
         this.width = width;
         this.height = height;
         this.tileWidth = tileWidth;
         this.tileHeight = tileHeight;
-        this.cells = new Cell[width][height];
+        this.infinite = false;
+        this.chunksX = (width + chunkMask) >> chunkShift;
+        this.chunks = new int[chunksX * ((height + chunkMask) >> chunkShift)][];
+        this.infiniteChunks = null;
+        palette.add((MapTile)null);
+    }
+
+    /**
+     * Creates an infinite TiledMap layer, which accepts cells at any coordinate.
+     * @param tileWidth tile width in pixels
+     * @param tileHeight tile height in pixels
+     */
+    public TileLayer(int tileWidth, int tileHeight){
+        this.width = 0;
+        this.height = 0;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.infinite = true;
+        this.chunksX = 0;
+        this.chunks = null;
+        this.infiniteChunks = new LongMap<>();
+        palette.add((MapTile)null);
     }
 
     /**
      * @param x X coordinate
      * @param y Y coordinate
-     * @return {@link Cell} at (x, y)
+     * @return {@link Cell} at (x, y), or null if it is empty or out of bounds. The cell is read from the packed storage; apply
+     * changes to it with {@link #setCell(int, int, Cell)}.
      */
     public Cell getCell(int x, int y){
-        if(x < 0 || x >= width || y < 0 || y >= height) return null;
-        return cells[x][y];
+        return copyCell(x, y);
     }
 
     /**
-     * Sets the {@link Cell} at the given coordinates.
+     * Cells are stored packed, so this returns a copy rather than the cell itself. Changes to the copy are not reflected in the
+     * layer; use {@link #setCell(int, int, Cell)} to apply them.
      * @param x X coordinate
      * @param y Y coordinate
-     * @param cell the {@link Cell} to set at the given coordinates.
+     * @return a new {@link Cell} describing the cell at (x, y), or null if it is empty.
+     */
+    public Cell copyCell(int x, int y){
+        Cell cell = new Cell();
+        return copyCell(x, y, cell) ? cell : null;
+    }
+
+    /**
+     * Copies the cell at (x, y) into the given {@link Cell}, without allocating.
+     * @return whether the cell is non-empty. If false, out is left unchanged.
+     */
+    public boolean copyCell(int x, int y, Cell out){
+        int packed = getPacked(x, y);
+        if(packed == 0) return false;
+
+        out.tile = palette.get(packed & indexMask);
+        out.flipHorizontally = isFlipHorizontally(packed);
+        out.flipVertically = isFlipVertically(packed);
+        out.rotation = rotation(packed);
+        return true;
+    }
+
+    /**
+     * Sets the {@link Cell} at the given coordinates. The cell is copied into the layer, so it can be reused afterwards.
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param cell the {@link Cell} to set at the given coordinates, or null to clear it.
      */
     public void setCell(int x, int y, Cell cell){
-        if(x < 0 || x >= width || y < 0 || y >= height) return;
-        cells[x][y] = cell;
+        setPacked(x, y, cell == null ? 0 : pack(cell.tile, cell.flipHorizontally, cell.flipVertically, cell.rotation));
+    }
+
+    /** Sets the cell at the given coordinates without creating a {@link Cell}. A null tile clears the cell. */
+    public void setTile(int x, int y, MapTile tile, boolean flipHorizontally, boolean flipVertically, int rotation){
+        setPacked(x, y, pack(tile, flipHorizontally, flipVertically, rotation));
     }
 
     public MapTile getTile(int x, int y){
-        return getCell(x, y) == null ? null : getCell(x, y).tile;
+        return palette.get(getPacked(x, y) & indexMask);
+    }
+
+    /** @return the packed cell at (x, y), or 0 if it is empty or out of bounds. */
+    public int getPacked(int x, int y){
+        int[] chunk = chunk(x, y, false);
+        return chunk == null ? 0 : chunk[((y & chunkMask) << chunkShift) | (x & chunkMask)];
+    }
+
+    /** Sets the packed cell at (x, y), as returned by {@link #pack(MapTile, boolean, boolean, int)} of this layer. */
+    public void setPacked(int x, int y, int packed){
+        int[] chunk = chunk(x, y, packed != 0);
+        if(chunk != null){
+            chunk[((y & chunkMask) << chunkShift) | (x & chunkMask)] = packed;
+        }
+    }
+
+    /**
+     * Packs a cell into an int, adding the tile to the palette of this layer if needed. The result is only valid for this layer.
+     * @return the packed cell, or 0 if the tile is null.
+     */
+    public int pack(MapTile tile, boolean flipHorizontally, boolean flipVertically, int rotation){
+        if(tile == null) return 0;
+
+        int index = paletteIndices.get(tile, 0);
+        if(index == 0){
+            index = palette.size;
+            if(index > indexMask) throw new IllegalStateException("Too many different tiles in layer: " + index);
+            palette.add(tile);
+            paletteIndices.put(tile, index);
+        }
+        return index | ((rotation & 3) << rotationShift) | (flipHorizontally ? flipHorizontallyBit : 0) | (flipVertically ? flipVerticallyBit : 0);
+    }
+
+    /** @return the tile of a packed cell of this layer, or null if it is empty. */
+    public MapTile unpackTile(int packed){
+        return palette.get(packed & indexMask);
+    }
+
+    public static boolean isFlipHorizontally(int packed){
+        return (packed & flipHorizontallyBit) != 0;
+    }
+
+    public static boolean isFlipVertically(int packed){
+        return (packed & flipVerticallyBit) != 0;
+    }
+
+    /** @return the rotation of a packed cell, one of the Cell.ROTATE constants. */
+    public static int rotation(int packed){
+        return (packed & rotationMask) >>> rotationShift;
+    }
+
+    /**
+     * Calls the consumer for every non-empty cell in the specified region, chunk by chunk and row by row within each chunk. Chunks
+     * without tiles are skipped entirely. The region is clipped to the bounds of the layer.
+     */
+    public void each(int x, int y, int width, int height, CellCons cons){
+        int x2 = x + width, y2 = y + height;
+        if(!infinite){
+            x = Math.max(x, 0);
+            y = Math.max(y, 0);
+            x2 = Math.min(x2, this.width);
+            y2 = Math.min(y2, this.height);
+        }
+
+        for(int cy = y >> chunkShift, cy2 = (y2 - 1) >> chunkShift; cy <= cy2; cy++){
+            int startY = Math.max(y, cy << chunkShift), endY = Math.min(y2, (cy + 1) << chunkShift);
+            for(int cx = x >> chunkShift, cx2 = (x2 - 1) >> chunkShift; cx <= cx2; cx++){
+                int[] chunk = infinite ? infiniteChunks.get(key(cx, cy)) : chunks[cy * chunksX + cx];
+                if(chunk == null) continue;
+
+                int startX = Math.max(x, cx << chunkShift), endX = Math.min(x2, (cx + 1) << chunkShift);
+                for(int ty = startY; ty < endY; ty++){
+                    int row = (ty & chunkMask) << chunkShift;
+                    for(int tx = startX; tx < endX; tx++){
+                        int packed = chunk[row | (tx & chunkMask)];
+                        if(packed != 0) cons.get(tx, ty, palette.get(packed & indexMask), packed);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Calls the consumer for every non-empty cell. Not available for infinite layers, which have no bounds. */
+    public void each(CellCons cons){
+        if(infinite) throw new IllegalStateException("Infinite layers can only be iterated by region.");
+        each(0, 0, width, height, cons);
+    }
+
+    /** Clears all cells. The palette is kept. */
+    public void clear(){
+        if(infinite){
+            infiniteChunks.clear();
+        }else{
+            for(int i = 0; i < chunks.length; i++){
+                chunks[i] = null;
+            }
+        }
+    }
+
+    /** @return the number of chunks that have been allocated. */
+    public int getChunkCount(){
+        if(infinite) return infiniteChunks.size;
+        int count = 0;
+        for(int[] chunk : chunks){
+            if(chunk != null) count++;
+        }
+        return count;
+    }
+
+    /** @return the number of different tiles used by this layer. */
+    public int getPaletteSize(){
+        return palette.size - 1;
+    }
+
+    private int[] chunk(int x, int y, boolean create){
+        int cx = x >> chunkShift, cy = y >> chunkShift;
+        int[] chunk;
+        if(infinite){
+            long key = key(cx, cy);
+            chunk = infiniteChunks.get(key);
+            if(chunk == null && create) infiniteChunks.put(key, chunk = new int[chunkSize * chunkSize]);
+        }else{
+            if(x < 0 || x >= width || y < 0 || y >= height) return null;
+            int index = cy * chunksX + cx;
+            chunk = chunks[index];
+            if(chunk == null && create) chunks[index] = chunk = new int[chunkSize * chunkSize];
+        }
+        return chunk;
+    }
+
+    private static long key(int cx, int cy){
+        return ((long)cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    public interface CellCons{
+        /** @param packed the packed cell, see {@link #isFlipHorizontally(int)}, {@link #isFlipVertically(int)} and {@link #rotation(int)}. */
+        void get(int x, int y, MapTile tile, int packed);
     }
 
     /** represents a cell in a TiledLayer: TiledMapTile, flip and rotation properties. */
@@ -4,6 +4,8 @@ import arc.assets.AssetLoaderParameters;
 import arc.assets.loaders.AsynchronousAssetLoader;
 import arc.assets.loaders.FileHandleResolver;
 import arc.maps.loaders.XmlReader.*;
+import arc.struct.IntIntMap;
+import arc.struct.ObjectMap;
 import arc.struct.Seq;
 import arc.files.Fi;
 import arc.graphics.Color;
@@ -15,20 +17,20 @@ import arc.maps.TileLayer.Cell;
 import arc.math.geom.Polygon;
 import arc.math.geom.Polyline;
 import arc.util.ArcRuntimeException;
-import arc.util.io.Streams;
-import arc.util.serialization.Base64Coder;
+import arc.util.Nullable;
+import arc.util.OS;
+import arc.util.Threads;
 
-import java.io.*;
 import java.util.StringTokenizer;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public abstract class BaseTmxMapLoader<P extends AssetLoaderParameters<TiledMap>> extends AsynchronousAssetLoader<TiledMap, P>{
     protected static final int FLAG_FLIP_HORIZONTALLY = 0x80000000;
     protected static final int FLAG_FLIP_VERTICALLY = 0x40000000;
     protected static final int FLAG_FLIP_DIAGONALLY = 0x20000000;
     protected static final int MASK_CLEAR = 0xE0000000;
-    protected XmlReader xml = new XmlReader();
+    protected TmxXmlReader xml = new TmxXmlReader();
     protected Xml root;
     protected boolean convertObjectToTileSpace;
     protected boolean flipY = true;
@@ -37,6 +39,8 @@ public abstract class BaseTmxMapLoader<P extends AssetLoaderParameters<TiledMap>
     protected int mapWidthInPixels;
     protected int mapHeightInPixels;
     protected TiledMap map;
+    /** Minimum number of tiles in a layer for it to be decoded on a separate thread. */
+    protected int parallelThreshold = 256 * 256;
 
     public BaseTmxMapLoader(FileHandleResolver resolver){
         super(resolver);
@@ -50,53 +54,56 @@ public abstract class BaseTmxMapLoader<P extends AssetLoaderParameters<TiledMap>
         }
         int[] ids = new int[width * height];
         if(encoding.equals("csv")){
-            String[] array = data.getText().split(",");
-            for(int i = 0; i < array.length; i++)
-                ids[i] = (int)Long.parseLong(array[i].trim());
+            char[] text = data.getText().toCharArray();
+            TileDataDecoder.decodeCsv(text, 0, text.length, ids);
+        }else if(encoding.equals("base64")){
+            char[] text = data.getText().toCharArray();
+            TileDataDecoder.decodeBase64(text, 0, text.length, data.getAttribute("compression", null), ids);
         }else{
-            if(encoding.equals("base64")){
-                InputStream is = null;
-                try{
-                    String compression = data.getAttribute("compression", null);
-                    byte[] bytes = Base64Coder.decode(data.getText());
-                    if(compression == null)
-                        is = new ByteArrayInputStream(bytes);
-                    else if(compression.equals("gzip"))
-                        is = new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes), bytes.length));
-                    else if(compression.equals("zlib"))
-                        is = new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)));
-                    else
-                        throw new ArcRuntimeException("Unrecognised compression (" + compression + ") for TMX Layer Data");
-
-                    byte[] temp = new byte[4];
-                    for(int y = 0; y < height; y++){
-                        for(int x = 0; x < width; x++){
-                            int read = is.read(temp);
-                            while(read < temp.length){
-                                int curr = is.read(temp, read, temp.length - read);
-                                if(curr == -1) break;
-                                read += curr;
-                            }
-                            if(read != temp.length)
-                                throw new ArcRuntimeException("Error Reading TMX Layer Data: Premature end of tile data");
-                            ids[y * width + x] = unsignedByteToInt(temp[0]) | unsignedByteToInt(temp[1]) << 8
-                            | unsignedByteToInt(temp[2]) << 16 | unsignedByteToInt(temp[3]) << 24;
-                        }
-                    }
-                }catch(IOException e){
-                    throw new ArcRuntimeException("Error Reading TMX Layer Data - IOException: " + e.getMessage());
-                }finally{
-                    Streams.close(is);
-                }
-            }else{
-                // any other value of 'encoding' is one we're not aware of, probably a feature of a future version of Tiled
-                // or another editor
-                throw new ArcRuntimeException("Unrecognised encoding (" + encoding + ") for TMX Layer Data");
-            }
+            // any other value of 'encoding' is one we're not aware of, probably a feature of a future version of Tiled
+            // or another editor
+            throw new ArcRuntimeException("Unrecognised encoding (" + encoding + ") for TMX Layer Data");
         }
         return ids;
     }
 
+    /** @return the tile ids of a layer element, decoded from the tile data captured by {@link #xml} if possible. */
+    protected int[] tileIds(Xml element, int width, int height){
+        Xml data = element.getChildByName("data");
+        TileData tiles = data == null ? null : xml.tileData.get(data);
+        if(tiles == null) return getTileIds(element, width, height);
+        return tiles.decode(width * height);
+    }
+
+    /**
+     * Decodes the tile data of all layers captured while parsing, in parallel if there are several large layers. Layers that are
+     * not decoded here are decoded when they are loaded.
+     */
+    protected void decodeTileData(Xml root){
+        Seq<TileData> pending = new Seq<>();
+        for(Xml layer : root.getChildrenByNameRecursively("layer")){
+            Xml data = layer.getChildByName("data");
+            TileData tiles = data == null ? null : xml.tileData.get(data);
+            int size = layer.getIntAttribute("width", 0) * layer.getIntAttribute("height", 0);
+            if(tiles != null && size >= parallelThreshold){
+                tiles.size = size;
+                pending.add(tiles);
+            }
+        }
+        if(pending.size < 2 || OS.cores < 2) return;
+
+        ExecutorService executor = Threads.executor("TmxDecode", Math.min(pending.size, OS.cores));
+        try{
+            Seq<Future<?>> futures = new Seq<>();
+            for(TileData tiles : pending){
+                futures.add(executor.submit(() -> tiles.decode(tiles.size)));
+            }
+            Threads.awaitAll(futures);
+        }finally{
+            executor.shutdown();
+        }
+    }
+
     protected static int unsignedByteToInt(byte b){
         return b & 0xFF;
     }
@@ -161,23 +168,8 @@ public abstract class BaseTmxMapLoader<P extends AssetLoaderParameters<TiledMap>
 
             loadBasicLayerInfo(layer, element);
 
-            int[] ids = getTileIds(element, width, height);
-            TileSets tilesets = map.tilesets;
-            for(int y = 0; y < height; y++){
-                for(int x = 0; x < width; x++){
-                    int id = ids[y * width + x];
-                    boolean flipHorizontally = ((id & FLAG_FLIP_HORIZONTALLY) != 0);
-                    boolean flipVertically = ((id & FLAG_FLIP_VERTICALLY) != 0);
-                    boolean flipDiagonally = ((id & FLAG_FLIP_DIAGONALLY) != 0);
-
-                    MapTile tile = tilesets.getTile(id & ~MASK_CLEAR);
-                    if(tile != null){
-                        Cell cell = createTileLayerCell(flipHorizontally, flipVertically, flipDiagonally);
-                        cell.tile = tile;
-                        layer.setCell(x, flipY ? height - 1 - y : y, cell);
-                    }
-                }
-            }
+            int[] ids = tileIds(element, width, height);
+            fillTileLayer(map, layer, ids);
 
             Xml properties = element.getChildByName("properties");
             if(properties != null){
@@ -187,6 +179,36 @@ public abstract class BaseTmxMapLoader<P extends AssetLoaderParameters<TiledMap>
         }
     }
 
+    /** Writes tile ids in TMX order, with flip flags, into the layer. */
+    protected void fillTileLayer(TiledMap map, TileLayer layer, int[] ids){
+        int width = layer.width, height = layer.height;
+        //flip flags only have 8 combinations, so the cells they map to are created once
+        Cell[] transforms = new Cell[8];
+        for(int i = 0; i < transforms.length; i++){
+            transforms[i] = createTileLayerCell((i & 4) != 0, (i & 2) != 0, (i & 1) != 0);
+        }
+
+        //packed cells by gid with flags, most layers only use a few distinct ones
+        IntIntMap packedIds = new IntIntMap();
+        TileSets tilesets = map.tilesets;
+        for(int y = 0; y < height; y++){
+            int ty = flipY ? height - 1 - y : y;
+            for(int x = 0; x < width; x++){
+                int id = ids[y * width + x];
+                if(id == 0) continue;
+
+                int packed = packedIds.get(id, -1);
+                if(packed == -1){
+                    MapTile tile = tilesets.getTile(id & ~MASK_CLEAR);
+                    Cell transform = transforms[id >>> 29];
+                    packed = layer.pack(tile, transform.flipHorizontally, transform.flipVertically, transform.rotation);
+                    packedIds.put(id, packed);
+                }
+                if(packed != 0) layer.setPacked(x, ty, packed);
+            }
+        }
+    }
+
     protected void loadObjectGroup(TiledMap map, Seq<MapLayer> parentLayers, Xml element){
         if(element.getName().equals("objectgroup")){
             MapLayer layer = new MapLayer();
@@ -420,6 +442,66 @@ public abstract class BaseTmxMapLoader<P extends AssetLoaderParameters<TiledMap>
         return cell;
     }
 
+    /**
+     * Parses TMX documents like {@link XmlReader}, but if {@link #streamTileData} is set, the CSV and base64 tile data of layers is
+     * not turned into text. Its characters are kept in the parsed buffer and decoded by {@link TileDataDecoder} instead.
+     */
+    public static class TmxXmlReader extends XmlReader{
+        /** Captured tile data by data element. Cleared on every parse. */
+        public final ObjectMap<Xml, TileData> tileData = new ObjectMap<>();
+        public boolean streamTileData;
+
+        @Override
+        public Xml parse(char[] data, int offset, int length){
+            tileData.clear();
+            return super.parse(data, offset, length);
+        }
+
+        @Override
+        protected void text(char[] data, int offset, int length){
+            Xml element = current;
+            if(streamTileData && element.getName().equals("data") && element.getParent() != null && element.getParent().getName().equals("layer")){
+                String encoding = element.getAttribute("encoding", null);
+                if("csv".equals(encoding) || "base64".equals(encoding)){
+                    tileData.put(element, new TileData(data, offset, length, encoding, element.getAttribute("compression", null)));
+                    return;
+                }
+            }
+            super.text(data, offset, length);
+        }
+    }
+
+    /** Undecoded tile data of a layer, referencing the characters of the parsed document. */
+    public static class TileData{
+        final char[] data;
+        final int offset, length;
+        final String encoding;
+        final @Nullable String compression;
+        @Nullable int[] ids;
+        int size;
+
+        TileData(char[] data, int offset, int length, String encoding, @Nullable String compression){
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.encoding = encoding;
+            this.compression = compression;
+        }
+
+        synchronized int[] decode(int size){
+            if(ids == null){
+                int[] ids = new int[size];
+                if(encoding.equals("csv")){
+                    TileDataDecoder.decodeCsv(data, offset, length, ids);
+                }else{
+                    TileDataDecoder.decodeBase64(data, offset, length, compression, ids);
+                }
+                this.ids = ids;
+            }
+            return ids;
+        }
+    }
+
     public static class Parameters extends AssetLoaderParameters<TiledMap>{
         /** generate mipmaps? **/
         public boolean generateMipMaps = false;
@@ -434,6 +516,12 @@ public abstract class BaseTmxMapLoader<P extends AssetLoaderParameters<TiledMap>
          * thus flipY set to true. This parameter is included for non-rendering related purposes of TMX files, or custom renderers.
          */
         public boolean flipY = true;
+        /**
+         * Whether to decode tile data straight from the characters of the document instead of storing it as element text first.
+         * Large layers are then also decoded in parallel. Loader subclasses that read the text of layer data elements need this
+         * to be false.
+         */
+        public boolean streamTileData = false;
     }
 
 }
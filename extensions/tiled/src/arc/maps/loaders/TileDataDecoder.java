@@ -0,0 +1,145 @@
+package arc.maps.loaders;
+
+import arc.util.*;
+import arc.util.io.*;
+import arc.util.serialization.*;
+
+import java.io.*;
+import java.util.zip.*;
+
+/**
+ * Decodes the tile ids of TMX layer data directly from the characters of the document, without creating intermediate strings or
+ * decoding base64 data into a separate array first.
+ */
+public class TileDataDecoder{
+    private static final byte[] base64 = Base64Coder.regularMap.getDecodingMap();
+
+    /** Decodes comma separated tile ids, ignoring whitespace. */
+    public static void decodeCsv(char[] data, int offset, int length, int[] ids){
+        int end = offset + length, count = 0;
+        long value = 0;
+        boolean digits = false;
+
+        for(int i = offset; i < end; i++){
+            char c = data[i];
+            if(c >= '0' && c <= '9'){
+                value = value * 10 + (c - '0');
+                digits = true;
+            }else if(c == ','){
+                if(count >= ids.length) throw new ArcRuntimeException("Error Reading TMX Layer Data: Too many tiles");
+                ids[count++] = (int)value;
+                value = 0;
+                digits = false;
+            }else if(!Character.isWhitespace(c)){
+                throw new ArcRuntimeException("Error Reading TMX Layer Data: Unexpected character '" + c + "' in CSV data");
+            }
+        }
+
+        if(digits){
+            if(count >= ids.length) throw new ArcRuntimeException("Error Reading TMX Layer Data: Too many tiles");
+            ids[count++] = (int)value;
+        }
+    }
+
+    /**
+     * Decodes base64 encoded little-endian tile ids, optionally compressed.
+     * @param compression "gzip", "zlib" or null.
+     */
+    public static void decodeBase64(char[] data, int offset, int length, @Nullable String compression, int[] ids){
+        InputStream is = null;
+        try{
+            is = new Base64Stream(data, offset, length);
+            if(compression == null){
+                //not compressed, read directly
+            }else if(compression.equals("gzip")){
+                is = new GZIPInputStream(is, 8192);
+            }else if(compression.equals("zlib")){
+                is = new InflaterInputStream(is, new Inflater(), 8192);
+            }else{
+                throw new ArcRuntimeException("Unrecognised compression (" + compression + ") for TMX Layer Data");
+            }
+
+            byte[] buffer = new byte[8192];
+            int count = 0, filled = 0;
+            while(count < ids.length){
+                int read = is.read(buffer, filled, buffer.length - filled);
+                if(read == -1) throw new ArcRuntimeException("Error Reading TMX Layer Data: Premature end of tile data");
+                filled += read;
+
+                int i = 0;
+                for(; i + 4 <= filled && count < ids.length; i += 4){
+                    ids[count++] = (buffer[i] & 0xFF) | (buffer[i + 1] & 0xFF) << 8 | (buffer[i + 2] & 0xFF) << 16 | (buffer[i + 3] & 0xFF) << 24;
+                }
+                //keep a partial id for the next read
+                System.arraycopy(buffer, i, buffer, 0, filled - i);
+                filled -= i;
+            }
+        }catch(IOException e){
+            throw new ArcRuntimeException("Error Reading TMX Layer Data - IOException: " + e.getMessage());
+        }finally{
+            Streams.close(is);
+        }
+    }
+
+    /** Decodes base64 characters as they are read, skipping whitespace. */
+    static class Base64Stream extends InputStream{
+        private final char[] data;
+        private final int end;
+        private int position;
+        private final byte[] decoded = new byte[3];
+        private int decodedPosition, decodedCount;
+
+        Base64Stream(char[] data, int offset, int length){
+            this.data = data;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read(){
+            if(decodedPosition == decodedCount && !decode()) return -1;
+            return decoded[decodedPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len){
+            if(len == 0) return 0;
+            int read = 0;
+            while(read < len){
+                if(decodedPosition == decodedCount && !decode()) break;
+                int n = Math.min(len - read, decodedCount - decodedPosition);
+                System.arraycopy(decoded, decodedPosition, b, off + read, n);
+                decodedPosition += n;
+                read += n;
+            }
+            return read == 0 ? -1 : read;
+        }
+
+        /** Decodes the next group of four characters. */
+        private boolean decode(){
+            int bits = 0, chars = 0;
+            while(chars < 4 && position < end){
+                char c = data[position++];
+                if(c == '='){
+                    position = end;
+                    break;
+                }
+                if(c <= ' ') continue;
+                int value = c > 127 ? -1 : base64[c];
+                if(value < 0) throw new IllegalArgumentException("Illegal character in Base64 encoded data: " + c);
+                bits = (bits << 6) | value;
+                chars++;
+            }
+            if(chars < 2) return false;
+
+            //pad the missing characters of the last group
+            bits <<= 6 * (4 - chars);
+            decodedCount = chars - 1;
+            decoded[0] = (byte)(bits >> 16);
+            decoded[1] = (byte)(bits >> 8);
+            decoded[2] = (byte)bits;
+            decodedPosition = 0;
+            return true;
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class TmxMapLoader extends BaseTmxMapLoader<TmxMapLoader.Parameters>{
         try{
             this.convertObjectToTileSpace = parameters.convertObjectToTileSpace;
             this.flipY = parameters.flipY;
+            xml.streamTileData = parameters.streamTileData;
             Fi tmxFile = resolve(fileName);
             root = xml.parse(tmxFile);
             ObjectMap<String, Texture> textures = new ObjectMap<>();
@@ -109,6 +110,7 @@ public class TmxMapLoader extends BaseTmxMapLoader<TmxMapLoader.Parameters>{
     public Seq<AssetDescriptor> getDependencies(String fileName, Fi tmxFile, Parameters parameter){
         Seq<AssetDescriptor> dependencies = new Seq<>();
         try{
+            xml.streamTileData = parameter != null && parameter.streamTileData;
             root = xml.parse(tmxFile);
             boolean generateMipMaps = (parameter != null && parameter.generateMipMaps);
             TextureLoader.TextureParameter texParams = new TextureParameter();
@@ -190,10 +192,13 @@ public class TmxMapLoader extends BaseTmxMapLoader<TmxMapLoader.Parameters>{
             loadTileSet(map, element, tmxFile, imageResolver);
             root.removeChild(element);
         }
+        decodeTileData(root);
         for(int i = 0, j = root.getChildCount(); i < j; i++){
             Xml element = root.getChild(i);
             loadLayer(map, map.layers, element, tmxFile, imageResolver);
         }
+        //release the parsed document
+        xml.tileData.clear();
         return map;
     }
 
@@ -35,7 +35,8 @@ public class XmlReader{
     private static final byte[] _xml_trans_actions = init__xml_trans_actions_0();
     private final Seq<Xml> elements = new Seq(8);
     private final StringBuilder textBuffer = new StringBuilder(64);
-    private Xml root, current;
+    private Xml root;
+    Xml current;
 
     // line 324 "XmlReader.java"
     private static byte[] init__xml_actions_0(){
@@ -342,7 +343,7 @@ public class XmlReader{
                                             text(textBuffer.toString());
                                             textBuffer.setLength(0);
                                         }else
-                                            text(new String(data, s, end - s));
+                                            text(data, s, end - s);
                                     }
                                     break;
                                     // line 286 "XmlReader.java"
@@ -408,6 +409,14 @@ public class XmlReader{
         return null;
     }
 
+    /**
+     * Called for text without entities, with the characters still in the parsed buffer. The default implementation creates a
+     * string and calls {@link #text(String)}; override to avoid that for large text content.
+     */
+    protected void text(char[] data, int offset, int length){
+        text(new String(data, offset, length));
+    }
+
     protected void text(String text){
         String existing = current.getText();
         current.setText(existing != null ? existing + text : text);
@@ -0,0 +1,210 @@
+import arc.files.*;
+import arc.maps.loaders.*;
+import arc.maps.loaders.XmlReader.*;
+import arc.struct.*;
+import arc.util.*;
+import org.junit.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import static org.junit.Assert.*;
+
+public class TileDataDecoderTest{
+    static final String[] compressions = {null, "gzip", "zlib"};
+
+    @Test
+    public void csv(){
+        int[] ids = ids(50, 1);
+        assertArrayEquals(ids, decodeCsv(csv(ids, ",\n"), ids.length));
+        //whitespace anywhere between values, and a trailing comma
+        assertArrayEquals(ids, decodeCsv("\n  " + csv(ids, " ,\t\r\n ") + ",\n", ids.length));
+
+        //missing values are left empty
+        assertArrayEquals(new int[]{1, 2, 0, 0}, decodeCsv("1,2", 4));
+        assertArrayEquals(new int[]{0, 0}, decodeCsv("  ", 2));
+
+        //a slice of a larger buffer
+        char[] data = "xx3,4,5yy".toCharArray();
+        int[] slice = new int[3];
+        TileDataDecoder.decodeCsv(data, 2, 5, slice);
+        assertArrayEquals(new int[]{3, 4, 5}, slice);
+
+        assertError("Too many tiles", () -> decodeCsv("1,2,3", 2));
+        assertError("Too many tiles", () -> decodeCsv("1,2,", 1));
+        assertError("Unexpected character 'a'", () -> decodeCsv("1,a", 2));
+        assertError("Unexpected character '-'", () -> decodeCsv("-1", 1));
+    }
+
+    @Test
+    public void base64(){
+        for(String compression : compressions){
+            for(int count : new int[]{1, 2, 3, 4, 100, 5000}){
+                int[] ids = ids(count, count);
+                byte[] bytes = compress(ids, compression);
+                String text = Base64.getEncoder().encodeToString(bytes);
+                String message = compression + ", " + count + " tiles";
+
+                assertArrayEquals(message, ids, decodeBase64(text, compression, count));
+                //line breaks and indentation, as written by editors
+                assertArrayEquals(message, ids, decodeBase64("\n   " + Base64.getMimeEncoder(8, "\n   ".getBytes()).encodeToString(bytes) + "\n  ", compression, count));
+                //padding is optional
+                assertArrayEquals(message, ids, decodeBase64(text.replace("=", ""), compression, count));
+            }
+        }
+
+        //fewer tiles than stored are fine, the rest of the data is ignored
+        int[] ids = ids(10, 3);
+        assertArrayEquals(Arrays.copyOf(ids, 4), decodeBase64(Base64.getEncoder().encodeToString(compress(ids, null)), null, 4));
+
+        //a slice of a larger buffer
+        char[] data = ("<<" + Base64.getEncoder().encodeToString(compress(ids, "zlib")) + ">>").toCharArray();
+        int[] slice = new int[ids.length];
+        TileDataDecoder.decodeBase64(data, 2, data.length - 4, "zlib", slice);
+        assertArrayEquals(ids, slice);
+    }
+
+    @Test
+    public void base64Errors(){
+        int[] ids = ids(10, 5);
+        for(String compression : compressions){
+            String text = Base64.getEncoder().encodeToString(compress(ids, compression));
+            assertError("Premature end", () -> decodeBase64(text, compression, ids.length + 1));
+        }
+        //a partial id at the end of the data
+        String partial = Base64.getEncoder().encodeToString(Arrays.copyOf(compress(ids, null), 4 * ids.length - 1));
+        assertError("Premature end", () -> decodeBase64(partial, null, ids.length));
+        assertError("Premature end", () -> decodeBase64("", null, 1));
+
+        assertError("Unrecognised compression (zstd)", () -> decodeBase64("AAAA", "zstd", 1));
+        try{
+            decodeBase64("AA*A", null, 1);
+            fail("Invalid character was accepted");
+        }catch(IllegalArgumentException expected){
+        }
+    }
+
+    @Test
+    public void streamedLayers(){
+        int width = 40, height = 30;
+        Seq<int[]> layers = new Seq<>();
+        StringBuilder tmx = new StringBuilder("<map width=\"" + width + "\" height=\"" + height + "\">\n");
+        for(int i = 0; i < 8; i++){
+            int[] ids = ids(width * height, i);
+            layers.add(ids);
+            String compression = i < 2 ? null : compressions[i % 3];
+            tmx.append("<layer name=\"layer").append(i).append("\" width=\"").append(width).append("\" height=\"").append(height).append("\">\n");
+            if(i < 2){
+                tmx.append("<data encoding=\"csv\">\n").append(csv(ids, ",\n")).append("\n</data>\n");
+            }else{
+                tmx.append("<data encoding=\"base64\"").append(compression == null ? "" : " compression=\"" + compression + "\"").append(">\n  ");
+                tmx.append(Base64.getEncoder().encodeToString(compress(ids, compression))).append("\n</data>\n");
+            }
+            tmx.append("</layer>\n");
+        }
+        tmx.append("</map>");
+
+        //every layer is above the threshold, so they are decoded in parallel when there are several cores
+        for(boolean stream : new boolean[]{false, true}){
+            for(int threshold : new int[]{1, Integer.MAX_VALUE}){
+                Decoder decoder = new Decoder();
+                Seq<int[]> decoded = decoder.decode(tmx.toString(), stream, threshold);
+                assertEquals(stream ? layers.size : 0, decoder.captured);
+                for(int i = 0; i < layers.size; i++){
+                    assertArrayEquals("layer " + i + ", streamed: " + stream, layers.get(i), decoded.get(i));
+                }
+            }
+        }
+
+        //errors in streamed data are reported when the layer is decoded
+        Decoder decoder = new Decoder();
+        try{
+            decoder.decode("<map><layer width=\"2\" height=\"2\"><data encoding=\"base64\">AQAAAA==</data></layer></map>", true, 1);
+            fail("Truncated layer was decoded");
+        }catch(ArcRuntimeException e){
+            assertTrue(e.getMessage(), e.getMessage().contains("Premature end"));
+        }
+    }
+
+    static int[] decodeCsv(String text, int count){
+        int[] ids = new int[count];
+        TileDataDecoder.decodeCsv(text.toCharArray(), 0, text.length(), ids);
+        return ids;
+    }
+
+    static int[] decodeBase64(String text, String compression, int count){
+        int[] ids = new int[count];
+        TileDataDecoder.decodeBase64(text.toCharArray(), 0, text.length(), compression, ids);
+        return ids;
+    }
+
+    static void assertError(String message, Runnable run){
+        try{
+            run.run();
+            fail("Expected an error containing: " + message);
+        }catch(ArcRuntimeException e){
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    /** @return tile ids with empty cells, large gids and all flip flags. */
+    static int[] ids(int count, int seed){
+        Random random = new Random(seed);
+        int[] ids = new int[count];
+        for(int i = 0; i < count; i++){
+            ids[i] = random.nextInt(4) == 0 ? 0 : (random.nextInt(8) << 29) | (1 + random.nextInt(i % 7 == 0 ? 1 << 28 : 64));
+        }
+        return ids;
+    }
+
+    /** @return ids as TMX writes them, unsigned. */
+    static String csv(int[] ids, String separator){
+        StringBuilder out = new StringBuilder();
+        for(int i = 0; i < ids.length; i++){
+            if(i > 0) out.append(separator);
+            out.append(Integer.toUnsignedString(ids[i]));
+        }
+        return out.toString();
+    }
+
+    static byte[] compress(int[] ids, String compression){
+        try{
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            OutputStream out = compression == null ? bytes : compression.equals("gzip") ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes);
+            for(int id : ids){
+                out.write(id);
+                out.write(id >> 8);
+                out.write(id >> 16);
+                out.write(id >> 24);
+            }
+            out.close();
+            return bytes.toByteArray();
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Runs the tile data decoding of a loader without loading tilesets. */
+    static class Decoder extends TmxMapLoader{
+        int captured;
+
+        Decoder(){
+            super(Fi::new);
+        }
+
+        Seq<int[]> decode(String tmx, boolean stream, int threshold){
+            xml.streamTileData = stream;
+            parallelThreshold = threshold;
+            Xml root = xml.parse(tmx);
+            captured = xml.tileData.size;
+            decodeTileData(root);
+
+            Seq<int[]> layers = new Seq<>();
+            for(Xml layer : root.getChildrenByName("layer")){
+                layers.add(tileIds(layer, layer.getIntAttribute("width", 0), layer.getIntAttribute("height", 0)));
+            }
+            return layers;
+        }
+    }
+}
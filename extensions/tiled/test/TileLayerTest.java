@@ -0,0 +1,166 @@
+import arc.maps.*;
+import arc.maps.TileLayer.*;
+import arc.struct.*;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class TileLayerTest{
+    static final MapTile a = new MapTile(null), b = new MapTile(null);
+
+    @Test
+    public void bounded(){
+        //not a multiple of the chunk size, so the last row and column of chunks are partial
+        TileLayer layer = new TileLayer(70, 40, 16, 16);
+        assertFalse(layer.infinite);
+        assertEquals(0, layer.getChunkCount());
+
+        layer.setTile(0, 0, a, false, false, 0);
+        layer.setTile(69, 39, b, false, false, 0);
+        assertSame(a, layer.getTile(0, 0));
+        assertSame(b, layer.getTile(69, 39));
+        assertNull(layer.getTile(1, 0));
+        assertEquals(2, layer.getChunkCount());
+
+        //out of bounds cells are ignored, without allocating chunks
+        for(int[] p : new int[][]{{-1, 0}, {0, -1}, {70, 0}, {0, 40}, {-33, -33}, {100, 100}}){
+            layer.setTile(p[0], p[1], a, false, false, 0);
+            assertNull(layer.getTile(p[0], p[1]));
+            assertNull(layer.getCell(p[0], p[1]));
+            assertEquals(0, layer.getPacked(p[0], p[1]));
+        }
+        assertEquals(2, layer.getChunkCount());
+
+        //clearing a cell in an empty chunk does not allocate it
+        layer.setCell(40, 5, null);
+        assertEquals(2, layer.getChunkCount());
+        layer.setCell(69, 39, null);
+        assertNull(layer.getTile(69, 39));
+
+        layer.clear();
+        assertEquals(0, layer.getChunkCount());
+        assertEquals(2, layer.getPaletteSize());
+    }
+
+    @Test
+    public void infinite(){
+        TileLayer layer = new TileLayer(16, 16);
+        assertTrue(layer.infinite);
+
+        int[][] points = {{-1, -1}, {0, 0}, {-32, 0}, {-33, 0}, {31, -32}, {1_000_000, -1_000_000}, {Integer.MIN_VALUE, Integer.MAX_VALUE}};
+        for(int i = 0; i < points.length; i++){
+            layer.setTile(points[i][0], points[i][1], i % 2 == 0 ? a : b, false, false, 0);
+        }
+        //every point is in its own chunk, and chunks with negative coordinates do not collide
+        assertEquals(points.length, layer.getChunkCount());
+        for(int i = 0; i < points.length; i++){
+            assertSame(i % 2 == 0 ? a : b, layer.getTile(points[i][0], points[i][1]));
+        }
+        assertNull(layer.getTile(-2, -1));
+        assertNull(layer.getTile(0, -1));
+        assertNull(layer.getTile(-1, 0));
+
+        Seq<String> visited = new Seq<>();
+        layer.each(-40, -40, 80, 80, (x, y, tile, packed) -> visited.add(x + "," + y));
+        //chunks are visited in rows, and the cells of each chunk in rows
+        assertEquals(Seq.with("-1,-1", "31,-32", "-33,0", "-32,0", "0,0"), visited);
+
+        try{
+            layer.each((x, y, tile, packed) -> {});
+            fail("Infinite layer was iterated without a region");
+        }catch(IllegalStateException expected){
+        }
+    }
+
+    @Test
+    public void eachRegion(){
+        TileLayer layer = new TileLayer(100, 100, 16, 16);
+        layer.setTile(0, 0, a, false, false, 0);
+        layer.setTile(5, 3, b, false, false, 0);
+        layer.setTile(31, 31, a, false, false, 0);
+        layer.setTile(32, 31, b, false, false, 0);
+        layer.setTile(99, 99, a, false, false, 0);
+        //only the chunks that contain tiles are allocated
+        assertEquals(3, layer.getChunkCount());
+
+        //the region is clipped to the layer
+        assertEquals(Seq.with("0,0", "5,3", "31,31", "32,31", "99,99"), visit(layer, -50, -50, 300, 300));
+        Seq<String> all = new Seq<>();
+        layer.each((x, y, tile, packed) -> all.add(x + "," + y));
+        assertEquals(Seq.with("0,0", "5,3", "31,31", "32,31", "99,99"), all);
+
+        //the region is exclusive of its end, and may cut through chunks
+        assertEquals(Seq.with("5,3"), visit(layer, 1, 1, 5, 3));
+        assertEquals(Seq.with("31,31", "32,31"), visit(layer, 31, 31, 2, 1));
+        assertEquals(Seq.with("32,31"), visit(layer, 32, 0, 68, 99));
+        assertEquals(Seq.with(), visit(layer, 33, 0, 66, 99));
+        assertEquals(Seq.with(), visit(layer, 0, 0, 0, 10));
+        assertEquals(Seq.with(), visit(layer, 100, 100, 10, 10));
+        assertEquals(Seq.with(), visit(layer, -10, -10, 10, 10));
+
+        //the consumer gets the tile and the packed cell
+        layer.each(5, 3, 1, 1, (x, y, tile, packed) -> {
+            assertSame(b, tile);
+            assertEquals(layer.getPacked(5, 3), packed);
+        });
+    }
+
+    @Test
+    public void packRoundTrip(){
+        TileLayer layer = new TileLayer(4, 4, 16, 16);
+        for(int flags = 0; flags < 16; flags++){
+            boolean flipX = (flags & 1) != 0, flipY = (flags & 2) != 0;
+            int rotation = flags >> 2;
+            MapTile tile = flags % 2 == 0 ? a : b;
+
+            int packed = layer.pack(tile, flipX, flipY, rotation);
+            assertNotEquals(0, packed);
+            assertSame(tile, layer.unpackTile(packed));
+            assertEquals(flipX, TileLayer.isFlipHorizontally(packed));
+            assertEquals(flipY, TileLayer.isFlipVertically(packed));
+            assertEquals(rotation, TileLayer.rotation(packed));
+
+            Cell cell = new Cell();
+            cell.tile = tile;
+            cell.flipHorizontally = flipX;
+            cell.flipVertically = flipY;
+            cell.rotation = rotation;
+            layer.setCell(flags % 4, flags / 4, cell);
+            assertEquals(packed, layer.getPacked(flags % 4, flags / 4));
+
+            Cell copy = layer.getCell(flags % 4, flags / 4);
+            assertNotSame(cell, copy);
+            assertSame(tile, copy.tile);
+            assertEquals(flipX, copy.flipHorizontally);
+            assertEquals(flipY, copy.flipVertically);
+            assertEquals(rotation, copy.rotation);
+        }
+        //tiles are only added to the palette once
+        assertEquals(2, layer.getPaletteSize());
+        assertEquals(0, layer.pack(null, true, true, 3));
+        assertNull(layer.unpackTile(0));
+
+        //copies are detached from the layer
+        Cell copy = layer.copyCell(0, 0);
+        copy.tile = b;
+        copy.rotation = Cell.ROTATE_90;
+        assertSame(a, layer.getTile(0, 0));
+        assertEquals(0, TileLayer.rotation(layer.getPacked(0, 0)));
+
+        Cell out = new Cell();
+        assertTrue(layer.copyCell(1, 0, out));
+        assertSame(b, out.tile);
+        assertTrue(out.flipHorizontally);
+        layer.setCell(1, 0, null);
+        assertFalse(layer.copyCell(1, 0, out));
+        assertSame(b, out.tile);
+        assertNull(layer.copyCell(1, 0));
+        assertNull(layer.getCell(1, 0));
+    }
+
+    static Seq<String> visit(TileLayer layer, int x, int y, int width, int height){
+        Seq<String> visited = new Seq<>();
+        layer.each(x, y, width, height, (cx, cy, tile, packed) -> visited.add(cx + "," + cy));
+        return visited;
+    }
+}